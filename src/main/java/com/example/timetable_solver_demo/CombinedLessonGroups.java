@@ -0,0 +1,108 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.CombinedSubject;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.enums.LessonType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Lessons that must share a slot: the i-th single (or double) of every stream in a combined subject
+// group, and of every constituent stream of a combined stream, aligned the way the solver aligns them.
+// A lesson in several alignments ends up in one group with all of them.
+class CombinedLessonGroups {
+
+    private CombinedLessonGroups() {
+    }
+
+    static List<List<Lesson>> aligned(List<Lesson> lessons, List<CombinedStream> combinedStreams) {
+        List<List<Lesson>> pairings = new ArrayList<>();
+
+        Map<String, List<Lesson>> combinedSubjectGroups = lessons.stream()
+            .filter(lesson -> lesson.getLessonInfo().getCombinedSubject() != null)
+            .collect(Collectors.groupingBy(lesson -> {
+                CombinedSubject subject = lesson.getLessonInfo().getCombinedSubject();
+                return (subject.getSubjectName() != null ? subject.getSubjectName() : "Unknown")
+                    + "_" + subject.getSubjectCode()
+                    + "_" + lesson.getLessonInfo().getStream().getIntake().getId();
+            }, LinkedHashMap::new, Collectors.toList()));
+        for (List<Lesson> group : combinedSubjectGroups.values()) {
+            addAligned(group, false, pairings);
+        }
+
+        for (CombinedStream combinedStream : combinedStreams) {
+            if (combinedStream.getSubject() == null) continue;
+            List<Lesson> relevant = lessons.stream()
+                .filter(lesson -> combinedStream.getConstituentStreams().contains(lesson.getLessonInfo().getStream())
+                    && combinedStream.getSubject().equals(lesson.getLessonInfo().getSubject()))
+                .toList();
+            addAligned(relevant, true, pairings);
+        }
+        return merged(pairings);
+    }
+
+    // The solver skips combined streams with uneven counts per stream, but aligns combined subjects up to the shortest stream
+    private static void addAligned(List<Lesson> lessons, boolean requireEvenCounts, List<List<Lesson>> pairings) {
+        for (LessonType type : LessonType.values()) {
+            Map<Stream, List<Lesson>> byStream = lessons.stream()
+                .filter(lesson -> lesson.getLessonInfo().getLessonType() == type)
+                .collect(Collectors.groupingBy(lesson -> lesson.getLessonInfo().getStream(), LinkedHashMap::new, Collectors.toList()));
+            if (byStream.size() < 2) continue;
+            int shortest = byStream.values().stream().mapToInt(List::size).min().orElse(0);
+            if (requireEvenCounts && byStream.values().stream().anyMatch(streamLessons -> streamLessons.size() != shortest)) continue;
+
+            for (int index = 0; index < shortest; index++) {
+                List<Lesson> pairing = new ArrayList<>();
+                for (List<Lesson> streamLessons : byStream.values()) {
+                    pairing.add(streamLessons.get(index));
+                }
+                pairings.add(pairing);
+            }
+        }
+    }
+
+    // Overlapping pairings (stream A combined with B and with C for the same subject) must all share one slot,
+    // so pairings that share a lesson are merged with a union-find over their lessons. Groups and their lessons
+    // keep the order in which they were first paired.
+    private static List<List<Lesson>> merged(List<List<Lesson>> pairings) {
+        Map<Lesson, Lesson> parent = new LinkedHashMap<>(); // In the order lessons are first paired
+        for (List<Lesson> pairing : pairings) {
+            for (Lesson lesson : pairing) {
+                parent.putIfAbsent(lesson, lesson);
+                union(parent, pairing.get(0), lesson);
+            }
+        }
+
+        Map<Lesson, List<Lesson>> groupsByRoot = new LinkedHashMap<>();
+        for (Lesson lesson : new ArrayList<>(parent.keySet())) {
+            groupsByRoot.computeIfAbsent(find(parent, lesson), root -> new ArrayList<>()).add(lesson);
+        }
+        return new ArrayList<>(groupsByRoot.values());
+    }
+
+    private static Lesson find(Map<Lesson, Lesson> parent, Lesson lesson) {
+        Lesson root = lesson;
+        while (parent.get(root) != root) {
+            root = parent.get(root);
+        }
+        while (parent.get(lesson) != root) {
+            Lesson next = parent.get(lesson);
+            parent.put(lesson, root);
+            lesson = next;
+        }
+        return root;
+    }
+
+    private static void union(Map<Lesson, Lesson> parent, Lesson first, Lesson second) {
+        Lesson firstRoot = find(parent, first);
+        Lesson secondRoot = find(parent, second);
+        if (firstRoot != secondRoot) {
+            parent.put(secondRoot, firstRoot);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.timetable_solver_demo;
+
+import com.google.ortools.sat.ConstraintProto;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntegerVariableProto;
+import com.google.ortools.sat.LinearConstraintProto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Remembers which (constraint key, scope) group each Phase 1 constraint was added for, by proto index
+// range. On infeasibility the Phase 1 model is copied with one fresh literal per group added as an
+// enforcement literal to the group's constraints and as a solver assumption, so a solve returns groups
+// that conflict; a deletion pass then shrinks them to a minimal core. Family-wide ranges are recorded as well as finer per-stream or per-teacher
+// ranges inside them; a constraint belongs to the finest range that contains it.
+class ConstraintGroups {
+    private static final InfeasibilityCore.Entry UNGUARDED = new InfeasibilityCore.Entry("", "");
+    private static final double MINIMIZE_CHECK_SECONDS = 5.0;
+
+    private static class Range {
+        final InfeasibilityCore.Entry entry;
+        final int from;
+        final int to;
+        final boolean fine;
+
+        Range(InfeasibilityCore.Entry entry, int from, int to, boolean fine) {
+            this.entry = entry;
+            this.from = from;
+            this.to = to;
+            this.fine = fine;
+        }
+    }
+
+    private final List<Range> ranges = new ArrayList<>();
+
+    void recordFamily(String constraintKey, int from, int to) {
+        if (to > from) {
+            ranges.add(new Range(new InfeasibilityCore.Entry(constraintKey, "all"), from, to, false));
+        }
+    }
+
+    void record(String constraintKey, String scope, int from, int to) {
+        if (to > from) {
+            ranges.add(new Range(new InfeasibilityCore.Entry(constraintKey, scope), from, to, true));
+        }
+    }
+
+    // Channelling constraints that only define helper literals; switching them off would hide the real conflict
+    void recordChannelling(int from, int to) {
+        if (to > from) {
+            ranges.add(new Range(UNGUARDED, from, to, true));
+        }
+    }
+
+    boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    InfeasibilityCore extractCore(CpModelProto phase1Model, SolverProfile profile) {
+        long start = System.nanoTime();
+        InfeasibilityCore.Entry[] owner = new InfeasibilityCore.Entry[phase1Model.getConstraintsCount()];
+        for (boolean fine : new boolean[] {false, true}) {
+            for (Range range : ranges) {
+                if (range.fine != fine) continue;
+                for (int index = range.from; index < Math.min(range.to, owner.length); index++) {
+                    owner[index] = range.entry;
+                }
+            }
+        }
+
+        CpModel model = new CpModel();
+        CpModelProto.Builder builder = model.getBuilder();
+        builder.mergeFrom(phase1Model);
+        builder.clearSolutionHint();
+        builder.clearObjective();
+
+        Map<InfeasibilityCore.Entry, Integer> literals = new LinkedHashMap<>();
+        int unguarded = 0;
+        for (int index = 0; index < owner.length; index++) {
+            InfeasibilityCore.Entry entry = owner[index];
+            ConstraintProto.Builder constraint = guardable(builder.getConstraints(index));
+            if (entry == null || entry == UNGUARDED || constraint == null) {
+                unguarded++;
+                continue;
+            }
+            int literal = literals.computeIfAbsent(entry, e -> {
+                builder.addVariables(IntegerVariableProto.newBuilder().addDomain(0).addDomain(1).setName("guard_" + e));
+                return builder.getVariablesCount() - 1;
+            });
+            builder.setConstraints(index, constraint.addEnforcementLiteral(literal));
+        }
+        builder.addAllAssumptions(literals.values());
+
+        // A single worker keeps the reported core deterministic
+        CpSolver solver = new CpSolver();
+        profile.applyTo(solver.getParameters());
+        solver.getParameters().setNumSearchWorkers(1).setMaxTimeInSeconds(profile.timeLimitSeconds(1)).setLogSearchProgress(false);
+        CpSolverStatus status = solver.solve(model);
+
+        List<InfeasibilityCore.Entry> core = new ArrayList<>();
+        boolean minimal = false;
+        if (status == CpSolverStatus.INFEASIBLE) {
+            List<Integer> coreLiterals = new ArrayList<>(solver.sufficientAssumptionsForInfeasibility());
+            minimal = minimize(model, solver, coreLiterals, profile);
+            List<InfeasibilityCore.Entry> byLiteral = new ArrayList<>(literals.keySet());
+            int firstLiteral = phase1Model.getVariablesCount();
+            for (int literal : coreLiterals) {
+                core.add(byLiteral.get(literal - firstLiteral));
+            }
+        }
+        return new InfeasibilityCore(status, core, minimal, literals.size(), unguarded, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Deletion pass: re-solves with each group of the core left free in turn and drops the group if the rest is
+    // still infeasible, shrinking to that solve's own core. The core is small and the re-solves only change the
+    // assumptions, so this stays cheap. Returns false if a re-solve timed out and its group was kept unproven.
+    private static boolean minimize(CpModel model, CpSolver solver, List<Integer> coreLiterals, SolverProfile profile) {
+        solver.getParameters().setMaxTimeInSeconds(Math.min(profile.timeLimitSeconds(1), MINIMIZE_CHECK_SECONDS));
+        boolean minimal = true;
+        int index = 0;
+        while (index < coreLiterals.size()) {
+            List<Integer> rest = new ArrayList<>(coreLiterals);
+            rest.remove(index);
+            model.getBuilder().clearAssumptions().addAllAssumptions(rest);
+            CpSolverStatus status = solver.solve(model);
+            if (status == CpSolverStatus.INFEASIBLE) {
+                List<Integer> smaller = solver.sufficientAssumptionsForInfeasibility();
+                coreLiterals.retainAll(smaller.isEmpty() ? rest : smaller);
+            } else {
+                minimal &= status == CpSolverStatus.FEASIBLE || status == CpSolverStatus.OPTIMAL;
+                index++;
+            }
+        }
+        return minimal;
+    }
+
+    // CP-SAT honours enforcement literals on these constraint types; exactly-one and at-most-one are
+    // rewritten as the equivalent linear constraint first. Returns null for anything else.
+    private static ConstraintProto.Builder guardable(ConstraintProto constraint) {
+        switch (constraint.getConstraintCase()) {
+            case LINEAR, BOOL_OR, BOOL_AND -> {
+                return constraint.toBuilder();
+            }
+            case EXACTLY_ONE -> {
+                return asLinear(constraint, constraint.getExactlyOne().getLiteralsList(), 1, 1);
+            }
+            case AT_MOST_ONE -> {
+                return asLinear(constraint, constraint.getAtMostOne().getLiteralsList(), 0, 1);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    // A negated literal -v-1 contributes 1 - v, so its constant moves to the bounds
+    private static ConstraintProto.Builder asLinear(ConstraintProto constraint, List<Integer> literals, long min, long max) {
+        LinearConstraintProto.Builder linear = LinearConstraintProto.newBuilder();
+        int negated = 0;
+        for (int literal : literals) {
+            if (literal >= 0) {
+                linear.addVars(literal).addCoeffs(1);
+            } else {
+                linear.addVars(-literal - 1).addCoeffs(-1);
+                negated++;
+            }
+        }
+        linear.addDomain(min - negated).addDomain(max - negated);
+        return ConstraintProto.newBuilder()
+            .setName(constraint.getName())
+            .addAllEnforcementLiteral(constraint.getEnforcementLiteralList())
+            .setLinear(linear);
+    }
+}
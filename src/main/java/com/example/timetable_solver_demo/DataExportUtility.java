@@ -1,95 +1,100 @@
 package com.example.timetable_solver_demo;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.timetable_solver_demo.entities.CombinedStream;
 import com.example.timetable_solver_demo.entities.Lesson;
 import com.example.timetable_solver_demo.entities.Schedule;
-import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
 import com.example.timetable_solver_demo.entities.SchoolTimetable;
 import com.example.timetable_solver_demo.entities.Stream;
 import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceWriter;
+import com.example.timetable_solver_demo.repositories.CombinedStreamRepository;
 import com.example.timetable_solver_demo.repositories.LessonRepository;
 import com.example.timetable_solver_demo.repositories.ScheduleRepository;
 import com.example.timetable_solver_demo.repositories.SchoolTimetableRepository;
+import com.example.timetable_solver_demo.repositories.TeacherTimeOffRepository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+// Exports the full solver input of a timetable to an instance file, so it can be solved, benchmarked
+// or debugged offline with TimetableInstanceReader instead of the database
 @Component
 public class DataExportUtility {
     private final LessonRepository lessonRepo;
     private final ScheduleRepository scheduleRepo;
     private final SchoolTimetableRepository timetableRepository;
+    private final CombinedStreamRepository combinedStreamRepository;
+    private final TeacherTimeOffRepository teacherTimeOffRepository;
+    private final Path exportDirectory;
 
-    public DataExportUtility(LessonRepository lessonRepo, ScheduleRepository scheduleRepo, SchoolTimetableRepository timetableRepository) {
+    public DataExportUtility(LessonRepository lessonRepo, ScheduleRepository scheduleRepo, SchoolTimetableRepository timetableRepository,
+                             CombinedStreamRepository combinedStreamRepository, TeacherTimeOffRepository teacherTimeOffRepository,
+                             @Value("${timetable.instance.export-dir:instances}") String exportDirectory) {
         this.lessonRepo = lessonRepo;
         this.scheduleRepo = scheduleRepo;
         this.timetableRepository = timetableRepository;
+        this.combinedStreamRepository = combinedStreamRepository;
+        this.teacherTimeOffRepository = teacherTimeOffRepository;
+        this.exportDirectory = Path.of(exportDirectory);
     }
 
     @Transactional
-    public void exportDataForMRE(Long scheduleId, Long timetableId) {
+    public Path exportDataForMRE(Long scheduleId, Long timetableId) {
+        TimetableInstance instance = loadInstance(scheduleId, timetableId);
+        Path file = exportDirectory.resolve(instance.getName() + TimetableInstance.FILE_SUFFIX);
+
+        try {
+            TimetableInstanceWriter.write(instance, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export timetable " + timetableId + " to " + file, e);
+        }
+
+        long streams = instance.getLessons().stream().map(lesson -> lesson.getLessonInfo().getStream()).distinct().count();
+        System.out.println(String.format(
+            "Exported timetable %d (schedule %d): %d lessons, %d streams, %d timeslots, %d combined streams, %d teacher time-offs -> %s",
+            timetableId, scheduleId, instance.getLessons().size(), streams, instance.getSchedule().getTimeslotList().size(),
+            instance.getCombinedStreams().size(), instance.getTeacherTimeOffs().size(), file.toAbsolutePath()));
+        return file;
+    }
+
+    @Transactional
+    public TimetableInstance loadInstance(Long scheduleId, Long timetableId) {
         if (scheduleId == null || timetableId == null) {
             throw new IllegalArgumentException("Schedule ID and Timetable ID cannot be null");
         }
 
         Schedule schedule = scheduleRepo.findById(scheduleId)
             .orElseThrow(() -> new IllegalArgumentException("Schedule not found with ID: " + scheduleId));
-        
+
         SchoolTimetable timetable = timetableRepository.findById(timetableId)
             .orElseThrow(() -> new IllegalArgumentException("Timetable not found with ID: " + timetableId));
 
         List<Lesson> lessons = lessonRepo.fetchAllLessonsByTimetable(timetable);
-
-        System.out.println("\n=== Lessons ===");
-        lessons.forEach(lesson -> {
+        for (Lesson lesson : lessons) {
             if (lesson.getLessonInfo() == null) {
-                System.out.println(String.format("Lesson ID: %d | ERROR: LessonInfo is null", lesson.getId()));
-                return;
+                throw new IllegalStateException("Lesson " + lesson.getId() + " has no lesson info");
             }
+        }
 
-            String subjectInfo = lesson.getLessonInfo().getSubject() != null ? 
-                String.format("Subject ID: %d", lesson.getLessonInfo().getSubject().getId()) : 
-                lesson.getLessonInfo().getCombinedSubject() != null ? 
-                    String.format("Combined Subject ID: %d", lesson.getLessonInfo().getCombinedSubject().getId()) : 
-                    "No subject assigned";
-
-            System.out.println(String.format(
-                "Lesson ID: %d | Stream ID: %d | %s | Type: %s | Teacher IDs: %s",
-                lesson.getId(),
-                lesson.getLessonInfo().getStream().getId(),
-                subjectInfo,
-                lesson.getLessonInfo().getLessonType(),
-                lesson.getLessonInfo().getTeachers().stream()
-                    .map(teacher -> String.valueOf(teacher.getId()))
-                    .collect(Collectors.joining(", "))
-            ));
-        });
-
-        // Get all streams involved
-        List<Stream> streams = lessons.stream()
+        Set<Stream> streams = lessons.stream()
             .map(lesson -> lesson.getLessonInfo().getStream())
-            .distinct()
-            .collect(Collectors.toList());
-        System.out.println("\n=== Streams ===");
-        streams.forEach(stream -> 
-            System.out.println(String.format("Stream ID: %d", stream.getId())));
-
-        // Get all teachers involved
-        List<Teacher> teachers = lessons.stream()
+            .collect(Collectors.toSet());
+        Set<Teacher> teachers = lessons.stream()
             .flatMap(lesson -> lesson.getLessonInfo().getTeachers().stream())
-            .distinct()
-            .collect(Collectors.toList());
-        System.out.println("\n=== Teachers ===");
-        teachers.forEach(teacher -> 
-            System.out.println(String.format("Teacher ID: %d", teacher.getId())));
+            .collect(Collectors.toSet());
+        List<CombinedStream> combinedStreams = combinedStreamRepository.findByStreams(streams);
+        List<TeacherTimeOff> teacherTimeOffs = teacherTimeOffRepository.findByTeachers(teachers);
 
-        // Get all timeslots
-        List<ScheduleTimeslot> timeslots = schedule.getTimeslotList();
-        System.out.println("\n=== Timeslots ===");
-        timeslots.forEach(timeslot -> 
-            System.out.println(String.format("Timeslot ID: %d | Activity: %s", 
-                timeslot.getId(), timeslot.getTimeslotActivity())));
+        return new TimetableInstance("timetable-" + timetableId, schedule, lessons, combinedStreams, teacherTimeOffs);
     }
-} 
+}
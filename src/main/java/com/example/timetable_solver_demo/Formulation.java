@@ -0,0 +1,13 @@
+package com.example.timetable_solver_demo;
+
+// How the core no-overlap structure is presented to CP-SAT. All formulations share the integer slot
+// variable per lesson, so they have exactly the same solutions; the alternatives add a redundant
+// encoding that propagates differently and suits some schools better than others.
+public enum Formulation {
+    // Slot variables with reified "lesson in slot" literals only
+    INTEGER_SLOT,
+    // Plus a lesson x slot boolean matrix with stream and teacher occupancy rows
+    BOOLEAN_MATRIX,
+    // Plus one interval per lesson and a no-overlap constraint per stream and per teacher
+    INTERVAL
+}
@@ -0,0 +1,206 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.CombinedSubject;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.enums.LessonType;
+import com.example.timetable_solver_demo.enums.TimeslotActivity;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Constructive timetable in milliseconds: places the most constrained units first (a unit is one lesson,
+// or the lessons of a combined subject group or combined stream that share a slot) at the free start with
+// the fewest lessons of the same subject and of the stream on that day. Stream and teacher occupancy are
+// bitsets over global slots. Only stream, teacher, time-off and combined constraints are respected, so the
+// result is a starting point for CP-SAT rather than a valid timetable.
+public class GreedyScheduler {
+    private final List<Lesson> lessons;
+    private final List<CombinedStream> combinedStreams;
+    private final int days;
+    private final int timeslotsPerDay;
+    private final List<Integer> singleStarts = new ArrayList<>();
+    private final List<Integer> doubleStarts = new ArrayList<>();
+    private final Map<Long, BitSet> teacherTimeOff = new HashMap<>();
+
+    @Getter
+    public static class Result {
+        private final Map<Lesson, Integer> assignment;
+        private final List<Lesson> unplaced;
+        private final double millis;
+
+        Result(Map<Lesson, Integer> assignment, List<Lesson> unplaced, double millis) {
+            this.assignment = assignment;
+            this.unplaced = unplaced;
+            this.millis = millis;
+        }
+
+        public boolean isComplete() {
+            return unplaced.isEmpty();
+        }
+    }
+
+    private static class Unit {
+        final List<Lesson> lessons;
+        final int length;
+        int freeStarts;
+
+        Unit(List<Lesson> lessons) {
+            this.lessons = lessons;
+            this.length = lessons.get(0).getLessonInfo().getLessonType() == LessonType.DOUBLE ? 2 : 1;
+        }
+    }
+
+    public GreedyScheduler(List<Lesson> lessons, Schedule schedule, List<CombinedStream> combinedStreams, List<TeacherTimeOff> teacherTimeOffs, int days) {
+        this.lessons = lessons;
+        this.combinedStreams = combinedStreams;
+        this.days = days;
+        this.timeslotsPerDay = schedule.getTimeslotList().size();
+
+        Map<Long, Integer> slotIndex = new HashMap<>();
+        for (int slot = 0; slot < timeslotsPerDay; slot++) {
+            slotIndex.put(schedule.getTimeslotList().get(slot).getId(), slot);
+        }
+        for (int day = 0; day < days; day++) {
+            for (int slot = 0; slot < timeslotsPerDay; slot++) {
+                if (!isClass(schedule, slot)) continue;
+                singleStarts.add(day * timeslotsPerDay + slot);
+                if (slot + 1 < timeslotsPerDay && isClass(schedule, slot + 1)) {
+                    doubleStarts.add(day * timeslotsPerDay + slot);
+                }
+            }
+        }
+        for (TeacherTimeOff timeOff : teacherTimeOffs) {
+            Integer slot = slotIndex.get(timeOff.getTimeslot().getId());
+            int day = timeOff.getDayOfWeek().getValue() - 1;
+            if (slot == null || day >= days) continue;
+            teacherTimeOff.computeIfAbsent(timeOff.getTeacher().getId(), id -> new BitSet()).set(day * timeslotsPerDay + slot);
+        }
+    }
+
+    public Result schedule() {
+        long start = System.nanoTime();
+        Map<Stream, BitSet> streamBusy = new HashMap<>();
+        Map<Long, BitSet> teacherBusy = new HashMap<>();
+        Map<String, int[]> subjectDayCount = new HashMap<>();
+        Map<Stream, int[]> streamDayCount = new HashMap<>();
+
+        List<Unit> units = buildUnits();
+        for (Unit unit : units) {
+            unit.freeStarts = (int) starts(unit).stream().filter(slot -> isFree(unit, slot, streamBusy, teacherBusy)).count();
+        }
+        // Fewest possible starts first; among equals, doubles and larger combined units first
+        units.sort(Comparator.comparingInt((Unit unit) -> unit.freeStarts)
+            .thenComparing(Comparator.comparingInt((Unit unit) -> unit.length).reversed())
+            .thenComparing(Comparator.comparingInt((Unit unit) -> unit.lessons.size()).reversed()));
+
+        Map<Lesson, Integer> assignment = new LinkedHashMap<>();
+        List<Lesson> unplaced = new ArrayList<>();
+        for (Unit unit : units) {
+            int best = -1;
+            long bestScore = Long.MAX_VALUE;
+            for (int slot : starts(unit)) {
+                if (!isFree(unit, slot, streamBusy, teacherBusy)) continue;
+                int day = slot / timeslotsPerDay;
+                long sameSubject = 0;
+                long streamLoad = 0;
+                for (Lesson lesson : unit.lessons) {
+                    sameSubject += countOn(subjectDayCount.get(subjectKey(lesson)), day);
+                    streamLoad += countOn(streamDayCount.get(lesson.getLessonInfo().getStream()), day);
+                }
+                long score = (sameSubject * 1000 + streamLoad) * 10_000 + slot;
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = slot;
+                }
+            }
+            if (best < 0) {
+                unplaced.addAll(unit.lessons);
+                continue;
+            }
+
+            int day = best / timeslotsPerDay;
+            for (Lesson lesson : unit.lessons) {
+                assignment.put(lesson, best);
+                streamBusy.computeIfAbsent(lesson.getLessonInfo().getStream(), k -> new BitSet()).set(best, best + unit.length);
+                for (Teacher teacher : lesson.getLessonInfo().getTeachers()) {
+                    teacherBusy.computeIfAbsent(teacher.getId(), k -> new BitSet()).set(best, best + unit.length);
+                }
+                subjectDayCount.computeIfAbsent(subjectKey(lesson), k -> new int[days])[day]++;
+                streamDayCount.computeIfAbsent(lesson.getLessonInfo().getStream(), k -> new int[days])[day] += unit.length;
+            }
+        }
+        return new Result(assignment, unplaced, (System.nanoTime() - start) / 1e6);
+    }
+
+    // Lessons that must share a slot become one unit; every other lesson is a unit of its own
+    private List<Unit> buildUnits() {
+        List<Unit> units = new ArrayList<>();
+        Set<Lesson> grouped = new HashSet<>();
+        for (List<Lesson> group : CombinedLessonGroups.aligned(lessons, combinedStreams)) {
+            units.add(new Unit(group));
+            grouped.addAll(group);
+        }
+        for (Lesson lesson : lessons) {
+            if (!grouped.contains(lesson)) {
+                units.add(new Unit(List.of(lesson)));
+            }
+        }
+        return units;
+    }
+
+    private List<Integer> starts(Unit unit) {
+        return unit.length == 2 ? doubleStarts : singleStarts;
+    }
+
+    private boolean isFree(Unit unit, int slot, Map<Stream, BitSet> streamBusy, Map<Long, BitSet> teacherBusy) {
+        Set<Long> unitTeachers = new HashSet<>();
+        for (Lesson lesson : unit.lessons) {
+            if (overlaps(streamBusy.get(lesson.getLessonInfo().getStream()), slot, unit.length)) return false;
+            for (Teacher teacher : lesson.getLessonInfo().getTeachers()) {
+                // A teacher shared by two lessons of one unit can never teach both at once
+                if (!unitTeachers.add(teacher.getId())) return false;
+                if (overlaps(teacherBusy.get(teacher.getId()), slot, unit.length)) return false;
+                if (overlaps(teacherTimeOff.get(teacher.getId()), slot, unit.length)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean overlaps(BitSet busy, int slot, int length) {
+        if (busy == null) return false;
+        int next = busy.nextSetBit(slot);
+        return next >= 0 && next < slot + length;
+    }
+
+    private static int countOn(int[] countByDay, int day) {
+        return countByDay != null ? countByDay[day] : 0;
+    }
+
+    // Subject of a lesson within its stream, keyed like the solver's lesson distribution constraint
+    private static String subjectKey(Lesson lesson) {
+        String stream = lesson.getLessonInfo().getStream().getId() + "_";
+        if (lesson.getLessonInfo().getSubject() != null) {
+            return stream + lesson.getLessonInfo().getSubject().getId();
+        }
+        CombinedSubject combinedSubject = lesson.getLessonInfo().getCombinedSubject();
+        return stream + (combinedSubject != null ? "combined_" + combinedSubject.getId() : "info_" + lesson.getLessonInfo().getId());
+    }
+
+    private static boolean isClass(Schedule schedule, int slot) {
+        return schedule.getTimeslotList().get(slot).getTimeslotActivity() == TimeslotActivity.CLASS;
+    }
+}
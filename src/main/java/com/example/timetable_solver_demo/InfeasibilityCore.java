@@ -0,0 +1,75 @@
+package com.example.timetable_solver_demo;
+
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Constraint groups that together make Phase 1 infeasible, found by a CP-SAT solve in which every group is
+// switched on by an assumption literal and then shrunk group by group. Any group left out of the core can
+// stay as it is. When the core is minimal, relaxing any one of its groups makes this conflict disappear;
+// if a shrinking re-solve timed out the core is still a valid conflict but may contain groups it does not need.
+@Getter
+public class InfeasibilityCore {
+
+    // One constraint family (a constraintMethods key or a structural family such as lesson_non_overlap)
+    // restricted to a scope: "stream <id>", "teacher <id>", a combined subject group, or "all"
+    @Getter
+    public static class Entry {
+        private final String constraintKey;
+        private final String scope;
+
+        public Entry(String constraintKey, String scope) {
+            this.constraintKey = constraintKey;
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry entry && constraintKey.equals(entry.constraintKey) && scope.equals(entry.scope);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(constraintKey, scope);
+        }
+
+        @Override
+        public String toString() {
+            return constraintKey + " [" + scope + "]";
+        }
+    }
+
+    private final CpSolverStatus status;         // INFEASIBLE if a core was proven, UNKNOWN on timeout
+    private final List<Entry> entries;
+    private final boolean minimal;               // Every group of the core was shown to be needed
+    private final int guardedGroups;
+    private final int unguardedConstraints;      // Variable domains and constraint types CP-SAT cannot switch off
+    private final double seconds;
+
+    InfeasibilityCore(CpSolverStatus status, List<Entry> entries, boolean minimal, int guardedGroups, int unguardedConstraints,
+                      double seconds) {
+        this.status = status;
+        this.entries = entries;
+        this.minimal = minimal;
+        this.guardedGroups = guardedGroups;
+        this.unguardedConstraints = unguardedConstraints;
+        this.seconds = seconds;
+    }
+
+    public String describe() {
+        if (status != CpSolverStatus.INFEASIBLE) {
+            return String.format("No infeasibility core found within %.1fs (status %s)", seconds, status);
+        }
+        if (entries.isEmpty()) {
+            return String.format("Infeasible even with all %d constraint groups switched off: the conflict is in the lesson domains "
+                + "or in one of the %d constraints that cannot be switched off", guardedGroups, unguardedConstraints);
+        }
+        return String.format("Conflicting constraints (%s, %d of %d groups, found in %.1fs): %s",
+            minimal ? "minimal" : "not proven minimal", entries.size(), guardedGroups, seconds,
+            entries.stream().map(Entry::toString).collect(Collectors.joining(", ")));
+    }
+}
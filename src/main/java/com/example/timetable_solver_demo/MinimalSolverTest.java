@@ -1,9 +1,16 @@
 package com.example.timetable_solver_demo;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.timetable_solver_demo.cache.ModelCache;
+import com.example.timetable_solver_demo.cache.SolutionCache;
+import com.example.timetable_solver_demo.cache.SolveCheckpointStore;
+import com.example.timetable_solver_demo.config.SolverProperties;
+import com.example.timetable_solver_demo.dump.SolveDumper;
 import com.example.timetable_solver_demo.entities.CombinedStream;
 import com.example.timetable_solver_demo.entities.Lesson;
 import com.example.timetable_solver_demo.entities.Schedule;
@@ -17,17 +24,28 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@Profile("mre")
 public class MinimalSolverTest implements CommandLineRunner {
     private final LessonRepository lessonRepo;
     private final ScheduleRepository scheduleRepo;
     private final SchoolTimetableRepository timetableRepository;
     private final DataExportUtility dataExportUtility;
+    private final ObjectProvider<ModelCache> modelCache;
+    private final ObjectProvider<SolutionCache> solutionCache;
+    private final SolverProperties solverProperties;
+    private final ObjectProvider<SolveDumper> solveDumper;
+    private final ObjectProvider<SolveCheckpointStore> checkpointStore;
 
-    public MinimalSolverTest(LessonRepository lessonRepo, ScheduleRepository scheduleRepo, SchoolTimetableRepository timetableRepository, DataExportUtility dataExportUtility) {
+    public MinimalSolverTest(LessonRepository lessonRepo, ScheduleRepository scheduleRepo, SchoolTimetableRepository timetableRepository, DataExportUtility dataExportUtility, ObjectProvider<ModelCache> modelCache, ObjectProvider<SolutionCache> solutionCache, SolverProperties solverProperties, ObjectProvider<SolveDumper> solveDumper, ObjectProvider<SolveCheckpointStore> checkpointStore) {
         this.lessonRepo = lessonRepo;
         this.scheduleRepo = scheduleRepo;
         this.timetableRepository = timetableRepository;
         this.dataExportUtility = dataExportUtility;
+        this.modelCache = modelCache;
+        this.solutionCache = solutionCache;
+        this.solverProperties = solverProperties;
+        this.solveDumper = solveDumper;
+        this.checkpointStore = checkpointStore;
     }
 
     @Override
@@ -49,7 +67,11 @@ public class MinimalSolverTest implements CommandLineRunner {
         dataExportUtility.exportDataForMRE(scheduleId, timetableId);
         
         // Create and run the minimal solver
-        MinimalTimetableSolver solver = new MinimalTimetableSolver(lessons, schedule, combinedStreams, teacherTimeOffs,  lessonRepo);
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(lessons, schedule, combinedStreams, teacherTimeOffs, lessonRepo, solverProperties.getDefault());
+        solver.setModelCache(modelCache.getIfAvailable());
+        solver.setSolutionCache(solutionCache.getIfAvailable());
+        solver.setSolveDumper(solveDumper.getIfAvailable());
+        solver.setCheckpointStore(checkpointStore.getIfAvailable());
         solver.solve();
     }
 } 
\ No newline at end of file
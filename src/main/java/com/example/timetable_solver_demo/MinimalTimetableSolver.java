@@ -1,38 +1,58 @@
 package com.example.timetable_solver_demo;
 
+import com.example.timetable_solver_demo.cache.CachedModel;
+import com.example.timetable_solver_demo.cache.CachedSolution;
+import com.example.timetable_solver_demo.cache.ModelCache;
+import com.example.timetable_solver_demo.cache.SolutionCache;
+import com.example.timetable_solver_demo.cache.SolveCheckpoint;
+import com.example.timetable_solver_demo.cache.SolveCheckpointStore;
+import com.example.timetable_solver_demo.cache.TimetableFingerprint;
+import com.example.timetable_solver_demo.dump.SolveDumper;
 import com.example.timetable_solver_demo.entities.CombinedStream;
 import com.example.timetable_solver_demo.entities.CombinedSubject;
 import com.example.timetable_solver_demo.entities.Lesson;
 import com.example.timetable_solver_demo.entities.LessonInfo;
 import com.example.timetable_solver_demo.entities.Schedule;
-import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
 import com.example.timetable_solver_demo.entities.Stream;
 import com.example.timetable_solver_demo.entities.Subject;
 import com.example.timetable_solver_demo.entities.Teacher;
 import com.example.timetable_solver_demo.entities.TeacherTimeOff;
 import com.example.timetable_solver_demo.enums.LessonType;
-import com.example.timetable_solver_demo.enums.TimeOfDay;
 import com.example.timetable_solver_demo.enums.TimeslotActivity;
+import com.example.timetable_solver_demo.jfr.PhaseSolveEvent;
+import com.example.timetable_solver_demo.jfr.SolverCounts;
+import com.example.timetable_solver_demo.jfr.SolverStageEvent;
 import com.example.timetable_solver_demo.repositories.LessonRepository;
-import com.google.ortools.Loader;
+import com.example.timetable_solver_demo.runtime.SolverRuntime;
+import com.example.timetable_solver_demo.screening.FeasibilityReport;
+import com.example.timetable_solver_demo.screening.FeasibilityScreener;
 import com.google.ortools.sat.*;
 import com.google.ortools.util.Domain;
 
 import jakarta.transaction.Transactional;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.DayOfWeek;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.Iterator;
 
 @Slf4j
-public class MinimalTimetableSolver {
+public class MinimalTimetableSolver implements SolveHandle {
     private final List<Lesson> lessons;
     private final Schedule schedule;
     private final List<CombinedStream> combinedStreams;
@@ -40,6 +60,7 @@ public class MinimalTimetableSolver {
     private final LessonRepository lessonRepo;
     private final CpModel model;
     private final CpSolver solver;
+    private final SolverProfile profile;
 
     private final Map<String, Runnable> constraintMethods;
 
@@ -53,48 +74,86 @@ public class MinimalTimetableSolver {
     // Maps to store decision variables
     private Map<Lesson, IntVar> lessonSlots = new HashMap<>();  // For all lessons
     private Map<Lesson, IntVar> doubleLessonSecondSlots = new HashMap<>();  // Only for double lessons' second slots
+    private Map<Lesson, Integer> lessonVarIndex = new HashMap<>();  // Proto index of each lesson's slot variable
+    private int unifiedLessonCount = 0;  // Combined lessons reusing their group's slot variable
+
+    // Instance size carried by the JFR solver events
+    private final int streamCount;
+    private final int teacherCount;
+
+    private ModelCache modelCache;
+    private SolutionCache solutionCache;
+    private SolveDumper solveDumper;
+    private String dumpRun;
+
+    // Stream-local constraint families are built on this many threads and merged in stream id order
+    private ParallelModelBuilder modelBuilder;
 
      //Constants
    //subject codes
-   private static final int MATH_CODE = 121;
-   private static final int ENGLISH_CODE = 101;
-   private static final int KISWAHILI_CODE = 102;
+   static final int MATH_CODE = 121;
+   static final int ENGLISH_CODE = 101;
+   static final int KISWAHILI_CODE = 102;
 
 
    //Penalty variables for soft constraints
-    private List<IntVar> pePenaltyVars = new ArrayList<>();
     private List<IntVar> mathSciencePenaltyVars = new ArrayList<>();
     private List<IntVar> englishKiswahiliPenaltyVars = new ArrayList<>();
     private List<IntVar> teacherConsecutiveLessonsAcrossAllStreamsPenaltyVars = new ArrayList<>();
     private List<IntVar> teacherConsecutiveLessonSameStreamPenaltyVars = new ArrayList<>();
-    private List<IntVar> scienceDoubleFirstMondayLessonPenaltyVars = new ArrayList<>();
-    private List<IntVar> discourageScienceDoubleAfternoonLesson = new ArrayList<>();
+
+    // Fixed per-slot soft costs, added to the Phase 3 objective over the slot indicators below
+    private final SlotPreferenceEngine slotPreferences;
+    private final Map<Lesson, Map<Integer, Literal>> slotIndicators = new HashMap<>();  // Lesson -> start slot -> "starts here"
   
     // Constants for subject categories
+    private static final long CANCEL_RETRY_NANOS = 2_000_000_000L;
     private static final String MATHEMATICS_CATEGORY = "Mathematics";
     private static final String SCIENCES_CATEGORY = "Sciences";
 
     public MinimalTimetableSolver(List<Lesson> lessons, Schedule schedule, List<CombinedStream> combinedStreams, List<TeacherTimeOff> timeOffEntities,LessonRepository lessonRepo) {
-        Loader.loadNativeLibraries();
+        this(lessons, schedule, combinedStreams, timeOffEntities, lessonRepo, new SolverProfile());
+    }
+
+    public MinimalTimetableSolver(List<Lesson> lessons, Schedule schedule, List<CombinedStream> combinedStreams, List<TeacherTimeOff> timeOffEntities, LessonRepository lessonRepo, SolverProfile profile) {
+        SolverRuntime.ensureLoaded();
         this.model = new CpModel();
         this.solver = new CpSolver();
+        this.profile = profile;
         
-        // Configure solver parameters
-        solver.getParameters().setMaxTimeInSeconds(300); // 5 minutes
-        solver.getParameters().setNumSearchWorkers(8);
-        solver.getParameters().setLogSearchProgress(true);
+        // Configure solver parameters from the profile
+        profile.applyTo(solver.getParameters());
+        solver.getParameters().setMaxTimeInSeconds(profile.timeLimitSeconds(1));
+        if (profile.getSearchLog() == SolverProfile.SearchLog.SLF4J || profile.getSearchLog() == SolverProfile.SearchLog.STDERR
+            || profile.isRecordSearchProgress()) {
+            solver.setLogCallback(this::onSearchLogLine);
+        }
+        this.modelBuilder = new ParallelModelBuilder(profile.effectiveModelBuildParallelism());
         
         this.lessons = lessons;
         this.schedule = schedule;
         this.combinedStreams = combinedStreams;
         this.teacherTimeOffs = timeOffEntities;
         this.lessonRepo = lessonRepo;
-        this.D = 5; // Monday to Friday
+        this.D = profile.getDaysPerWeek(); // Monday to Friday by default
         this.T = schedule.getTimeslotList().size();
         this.lessonSlots = new HashMap<>();
         this.validClassSlots = new ArrayList<>();
+        this.slotPreferences = SlotPreferenceEngine.withDefaults(schedule);
+        int[] counts = SolverCounts.of(lessons);
+        this.streamCount = counts[1];
+        this.teacherCount = counts[2];
 
         this.constraintMethods = initializeConstraintMethods();
+        if (!profile.isSymmetryBreaking()) {
+            disableConstraint("symmetry_breaking");
+        }
+        switch (profile.getFormulation()) {
+            case BOOLEAN_MATRIX -> constraintMethods.put("formulation_boolean_matrix", this::addBooleanMatrixFormulation);
+            case INTERVAL -> constraintMethods.put("formulation_interval", this::addIntervalFormulation);
+            case INTEGER_SLOT -> { }
+        }
+        constraintMethods.replaceAll(this::recorded);
 
         // Initialize valid class slots
         for (int day = 0; day < D; day++) {
@@ -114,8 +173,9 @@ public class MinimalTimetableSolver {
         System.out.println("Number of days: " + D);
         System.out.println("Number of timeslots per day: " + T);
         System.out.println("Number of valid class slots: " + validClassSlots.size());
-        System.out.println("Solver parameters:");
-        System.out.println("- Max time: " + solver.getParameters().getMaxTimeInSeconds() + " seconds");
+        System.out.println("Solver parameters (profile " + profile.getName() + "):");
+        System.out.println(String.format("- Max time per phase: %.0f / %.0f / %.0f seconds",
+            profile.getPhase1TimeLimitSeconds(), profile.getPhase2TimeLimitSeconds(), profile.getPhase3TimeLimitSeconds()));
         System.out.println("- Search workers: " + solver.getParameters().getNumSearchWorkers());
         
         // Log lessons by stream
@@ -141,14 +201,13 @@ public class MinimalTimetableSolver {
         methods.put("teacher_unavailability", this::enforceTeacherUnavailability);
         methods.put("lesson_distribution", this::lessThanFiveLessonsPerWeekPerStream);
         methods.put("combined_streams_to_be_taught_at_same_time", this::applyCombinedStreamsConstraint);
+        methods.put("symmetry_breaking", this::breakInterchangeableLessonSymmetry);
         methods.put("hard_subjects_taught_at_most_twice_per_day", this::limitCoreSubjectsPerDay);
-        methods.put("pe_lessons_before_break", this::implementPELessonsNearBreaks);
         methods.put("math_sciences_constraint", this::implementMathScienceNonAdjacency);
         methods.put("kiswahili_english_constraint", this::implementEnglishKiswahiliNonAdjacency);
         methods.put("more_than_two_consecutive_lessons_for_teacher", this::implementTeacherConsecutiveLessonsAcrossStreams);
         methods.put("consecutive_lessons_in_same_stream", this::implementTeacherConsecutiveLessonsSameStream);
-        methods.put("science_lab_lessons_monday_morning", this::discourageScienceDoubleFirstMondayLesson);
-        methods.put("science_double_lessons_afternoon", this::discourageScienceDoubleAfternoonLessons);
+        methods.put("slot_preferences", this::applySlotPreferences);
         return methods;
     }
 
@@ -190,8 +249,13 @@ public class MinimalTimetableSolver {
       System.out.println("Min valid slot: " + validClassSlots.get(0));
       System.out.println("Max valid slot: " + validClassSlots.get(validClassSlots.size() - 1));
 
+      Map<Lesson, Lesson> sharedWith = combinedLessonRepresentatives();
+
       // Create a decision variable for each lesson
       for (Lesson lesson : lessons) {
+        if (sharedWith.containsKey(lesson)) {
+          continue; // Uses the variables of its combined group's first lesson
+        }
         if (lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE) {
           initializeDoubleLesson(lesson);
         } else {
@@ -212,10 +276,24 @@ public class MinimalTimetableSolver {
                   validSlotVars.add(isInSlot);
               }
               model.addExactlyOne(validSlotVars.toArray(new Literal[0]));
+              Map<Integer, Literal> indicators = slotIndicators.computeIfAbsent(lesson, key -> new HashMap<>());
+              for (int i = 0; i < validClassSlots.size(); i++) {
+                  indicators.put(validClassSlots.get(i), validSlotVars.get(i));
+              }
         
           lessonSlots.put(lesson, lessonVar);
         }
       }
+      for (Map.Entry<Lesson, Lesson> entry : sharedWith.entrySet()) {
+        Lesson representative = entry.getValue();
+        lessonSlots.put(entry.getKey(), lessonSlots.get(representative));
+        if (doubleLessonSecondSlots.containsKey(representative)) {
+          doubleLessonSecondSlots.put(entry.getKey(), doubleLessonSecondSlots.get(representative));
+        }
+        if (slotIndicators.containsKey(representative)) {
+          slotIndicators.put(entry.getKey(), slotIndicators.get(representative));
+        }
+      }
 
       // Log the lessons and their types
       System.out.println("\nLessons to Schedule:");
@@ -242,120 +320,137 @@ public class MinimalTimetableSolver {
       System.out.println("Valid class slots: " + validClassSlots.size());
     }
 
+    // Maps every combined lesson except the first of its group to that first lesson, so the whole group gets one
+    // slot variable. Empty unless the profile unifies combined lessons.
+    private Map<Lesson, Lesson> combinedLessonRepresentatives() {
+      Map<Lesson, Lesson> sharedWith = new HashMap<>();
+      if (!profile.isUnifyCombinedLessons()) {
+        return sharedWith;
+      }
+
+      List<CombinedStream> unifiedStreams = constraintMethods.containsKey("combined_streams_to_be_taught_at_same_time")
+          ? combinedStreams : List.of();
+      List<List<Lesson>> groups = CombinedLessonGroups.aligned(lessons, unifiedStreams);
+      for (List<Lesson> group : groups) {
+        for (int i = 1; i < group.size(); i++) {
+          sharedWith.put(group.get(i), group.get(0));
+        }
+      }
+      unifiedLessonCount = sharedWith.size();
+      System.out.println(String.format("Unified %d combined lessons into %d shared slot variables (%d fewer lesson variables)",
+          sharedWith.size() + groups.size(), groups.size(), sharedWith.size()));
+      return sharedWith;
+    }
+
     private void enforceLessonNonOverlapConstraints() {
       System.out.println("\nEnforcing lesson non-overlap constraints");
       System.out.println("--------------------------------------");
 
       // For each stream, ensure no two lessons overlap
-      Map<Stream, List<Lesson>> lessonsByStream = new HashMap<>();
-
-      // Group lessons by stream
-      for (Lesson lesson : lessons) {
-        Stream stream = lesson.getLessonInfo().getStream();
-        lessonsByStream.computeIfAbsent(stream, k -> new ArrayList<>()).add(lesson);
-      }
+      Map<Stream, List<Lesson>> lessonsByStream = lessonsByStreamInIdOrder();
 
       // For each stream
-      for (Map.Entry<Stream, List<Lesson>> entry : lessonsByStream.entrySet()) {
-          Stream stream = entry.getKey();
-          List<Lesson> streamLessons = entry.getValue();
-          System.out.println(String.format("Processing stream %d with %d lessons", stream.getId(), streamLessons.size()));
+      buildPerStream("lesson non-overlap", lessonsByStream, (fragment, stream, penaltyVars) ->
+          enforceLessonNonOverlapForStream(fragment, stream, lessonsByStream.get(stream)));
+    }
 
-          // For each day
-          for (int currentDay = 0; currentDay < D; currentDay++) {
-              final int day = currentDay;  // Create a final copy for lambda
-              // Get valid slots for this day
-              List<Integer> dayValidSlots = validClassSlots.stream()
-                  .filter(slot -> slot / T == day)
-                  .collect(Collectors.toList());
+    private void enforceLessonNonOverlapForStream(CpModel fragment, Stream stream, List<Lesson> streamLessons) {
+      System.out.println(String.format("Processing stream %d with %d lessons", stream.getId(), streamLessons.size()));
 
-              // For each timeslot in this day
-              for (int timeslot : dayValidSlots) {
-                  List<BoolVar> lessonsInSlot = new ArrayList<>();
+      // For each day
+      for (int currentDay = 0; currentDay < D; currentDay++) {
+          final int day = currentDay;  // Create a final copy for lambda
+          // Get valid slots for this day
+          List<Integer> dayValidSlots = validClassSlots.stream()
+              .filter(slot -> slot / T == day)
+              .collect(Collectors.toList());
+
+          // For each timeslot in this day
+          for (int timeslot : dayValidSlots) {
+              List<BoolVar> lessonsInSlot = new ArrayList<>();
+              
+              // Create variables for each lesson that could be in this slot
+              for (Lesson lesson : streamLessons) {
+                  boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
                   
-                  // Create variables for each lesson that could be in this slot
-                  for (Lesson lesson : streamLessons) {
-                      boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                      
-                      // Skip invalid slots for double lessons
-                      if (isDouble) {
-                          if ((timeslot % T) == T - 1) continue; // Skip last slot of day
-                          if (!validClassSlots.contains(timeslot + 1)) continue;
-                      }
+                  // Skip invalid slots for double lessons
+                  if (isDouble) {
+                      if ((timeslot % T) == T - 1) continue; // Skip last slot of day
+                      if (!validClassSlots.contains(timeslot + 1)) continue;
+                  }
 
-                      // Create a boolean variable indicating if this lesson is in this slot
-                      BoolVar isInSlot = model.newBoolVar(
-                          String.format("stream_%d_lesson_%d_in_slot_%d", 
-                              stream.getId(), lesson.getId(), timeslot));
-                      
-                      // Link the boolean variable to the actual lesson slot
-                      model.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
-                      model.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
-                      
-                      lessonsInSlot.add(isInSlot);
+                  // Create a boolean variable indicating if this lesson is in this slot
+                  BoolVar isInSlot = fragment.newBoolVar(
+                      String.format("stream_%d_lesson_%d_in_slot_%d", 
+                          stream.getId(), lesson.getId(), timeslot));
+                  
+                  // Link the boolean variable to the actual lesson slot
+                  fragment.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
+                  fragment.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
+                  
+                  lessonsInSlot.add(isInSlot);
 
-                      // For double lessons, handle second slot
-                      if (isDouble && validClassSlots.contains(timeslot + 1)) {
-                          IntVar secondSlot = doubleLessonSecondSlots.get(lesson);
-                          model.addEquality(secondSlot, timeslot + 1).onlyEnforceIf(isInSlot);
-                      }
+                  // For double lessons, handle second slot
+                  if (isDouble && validClassSlots.contains(timeslot + 1)) {
+                      IntVar secondSlot = doubleLessonSecondSlots.get(lesson);
+                      fragment.addEquality(secondSlot, timeslot + 1).onlyEnforceIf(isInSlot);
                   }
+              }
 
-                  // Ensure at most one lesson in this timeslot for this stream
-                  if (!lessonsInSlot.isEmpty()) {
-                      model.addAtMostOne(lessonsInSlot.toArray(new Literal[0]));
-                      System.out.println(String.format(
-                          "Added constraint: At most one lesson for stream %d in timeslot %d (day %d)", 
-                          stream.getId(), timeslot % T, day + 1));
-                  }
+              // Ensure at most one lesson in this timeslot for this stream
+              if (!lessonsInSlot.isEmpty()) {
+                  fragment.addAtMostOne(lessonsInSlot.toArray(new Literal[0]));
+                  System.out.println(String.format(
+                      "Added constraint: At most one lesson for stream %d in timeslot %d (day %d)", 
+                      stream.getId(), timeslot % T, day + 1));
               }
+          }
 
-              // Add constraint to ensure even distribution across days
-              List<BoolVar> lessonsOnDay = new ArrayList<>();
-              for (Lesson lesson : streamLessons) {
-                  BoolVar isOnDay = model.newBoolVar(
-                      String.format("stream_%d_lesson_%d_on_day_%d", 
-                          stream.getId(), lesson.getId(), day));
+          // Add constraint to ensure even distribution across days
+          List<BoolVar> lessonsOnDay = new ArrayList<>();
+          for (Lesson lesson : streamLessons) {
+              BoolVar isOnDay = fragment.newBoolVar(
+                  String.format("stream_%d_lesson_%d_on_day_%d", 
+                      stream.getId(), lesson.getId(), day));
+              
+              // Create variables for each valid slot in this day
+              List<BoolVar> slotVars = new ArrayList<>();
+              for (int timeslot : dayValidSlots) {
+                  boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
                   
-                  // Create variables for each valid slot in this day
-                  List<BoolVar> slotVars = new ArrayList<>();
-                  for (int timeslot : dayValidSlots) {
-                      boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                      
-                      // Skip invalid slots for double lessons
-                      if (isDouble) {
-                          if ((timeslot % T) == T - 1) continue;
-                          if (!validClassSlots.contains(timeslot + 1)) continue;
-                      }
-
-                      BoolVar isInSlot = model.newBoolVar(
-                          String.format("stream_%d_lesson_%d_in_slot_%d", 
-                              stream.getId(), lesson.getId(), timeslot));
-                      
-                      model.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
-                      model.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
-                      slotVars.add(isInSlot);
+                  // Skip invalid slots for double lessons
+                  if (isDouble) {
+                      if ((timeslot % T) == T - 1) continue;
+                      if (!validClassSlots.contains(timeslot + 1)) continue;
                   }
 
-                  // Lesson is on this day if it's in any of the day's slots
-                  if (!slotVars.isEmpty()) {
-                      model.addBoolOr(slotVars.toArray(new Literal[0])).onlyEnforceIf(isOnDay);
-                      model.addBoolAnd(slotVars.stream().map(v -> v.not()).collect(Collectors.toList())
-                          .toArray(new Literal[0])).onlyEnforceIf(isOnDay.not());
-                      lessonsOnDay.add(isOnDay);
-                  }
+                  BoolVar isInSlot = fragment.newBoolVar(
+                      String.format("stream_%d_lesson_%d_in_slot_%d", 
+                          stream.getId(), lesson.getId(), timeslot));
+                  
+                  fragment.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
+                  fragment.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
+                  slotVars.add(isInSlot);
               }
 
-              // Add soft constraint to encourage even distribution
-              if (!lessonsOnDay.isEmpty()) {
-                  int targetLessonsPerDay = (int) Math.ceil(streamLessons.size() / (double) D);
-                  IntVar sumLessons = model.newIntVar(0, lessonsOnDay.size(), 
-                      String.format("sum_lessons_stream_%d_day_%d", stream.getId(), day));
-                  model.addEquality(sumLessons, LinearExpr.sum(lessonsOnDay.toArray(new IntVar[0])));
-                  model.addLessOrEqual(sumLessons, targetLessonsPerDay + 1);
-                  model.addGreaterOrEqual(sumLessons, targetLessonsPerDay - 1);
+              // Lesson is on this day if it's in any of the day's slots
+              if (!slotVars.isEmpty()) {
+                  fragment.addBoolOr(slotVars.toArray(new Literal[0])).onlyEnforceIf(isOnDay);
+                  fragment.addBoolAnd(slotVars.stream().map(v -> v.not()).collect(Collectors.toList())
+                      .toArray(new Literal[0])).onlyEnforceIf(isOnDay.not());
+                  lessonsOnDay.add(isOnDay);
               }
-        }
+          }
+
+          // Add soft constraint to encourage even distribution
+          if (!lessonsOnDay.isEmpty()) {
+              int targetLessonsPerDay = (int) Math.ceil(streamLessons.size() / (double) D);
+              IntVar sumLessons = fragment.newIntVar(0, lessonsOnDay.size(), 
+                  String.format("sum_lessons_stream_%d_day_%d", stream.getId(), day));
+              fragment.addEquality(sumLessons, LinearExpr.sum(lessonsOnDay.toArray(new IntVar[0])));
+              fragment.addLessOrEqual(sumLessons, targetLessonsPerDay + 1);
+              fragment.addGreaterOrEqual(sumLessons, targetLessonsPerDay - 1);
+          }
       }
     }
 
@@ -365,6 +460,7 @@ public class MinimalTimetableSolver {
         Lesson lesson = entry.getKey();
 
         if (lesson.getLessonInfo().getLessonType().equals(LessonType.DOUBLE)) {
+          int firstConstraint = constraintCount();
           IntVar firstSlot = entry.getValue();
           IntVar secondSlot = doubleLessonSecondSlots.get(lesson);
           
@@ -381,6 +477,7 @@ public class MinimalTimetableSolver {
                   model.addDifferent(lessonSlots.get(otherLesson), secondSlot);
             }
           }
+          recordConstraintScope("stream " + currentStream.getId(), firstConstraint);
         }
       }
     }
@@ -390,107 +487,107 @@ public class MinimalTimetableSolver {
       System.out.println("--------------------------------------");
 
       // Group lessons by stream
-      Map<Stream, List<Lesson>> lessonsByStream = new HashMap<>();
-      for (Lesson lesson : lessons) {
-          Stream stream = lesson.getLessonInfo().getStream();
-          lessonsByStream.computeIfAbsent(stream, k -> new ArrayList<>()).add(lesson);
-      }
+      Map<Stream, List<Lesson>> lessonsByStream = lessonsByStreamInIdOrder();
 
       // For each stream
-      for (Map.Entry<Stream, List<Lesson>> entry : lessonsByStream.entrySet()) {
-          Stream stream = entry.getKey();
-          List<Lesson> streamLessons = entry.getValue();
-
-          // For each day
-          for (int currentDay = 0; currentDay < D; currentDay++) {
-              final int day = currentDay;  // Create a final copy for lambda
-              // Get valid slots for this day
-              List<Integer> dayValidSlots = validClassSlots.stream()
-                  .filter(slot -> slot / T == day)
-                  .collect(Collectors.toList());
+      buildPerStream("one lesson per timeslot", lessonsByStream, (fragment, stream, penaltyVars) ->
+          oneLessonPerTimeslotForStream(fragment, stream, lessonsByStream.get(stream)));
+  }
 
-              // For each timeslot in this day
-              for (int timeslot : dayValidSlots) {
-                  List<BoolVar> lessonsInSlot = new ArrayList<>();
+    private void oneLessonPerTimeslotForStream(CpModel fragment, Stream stream, List<Lesson> streamLessons) {
+      // For each day
+      for (int currentDay = 0; currentDay < D; currentDay++) {
+          final int day = currentDay;  // Create a final copy for lambda
+          // Get valid slots for this day
+          List<Integer> dayValidSlots = validClassSlots.stream()
+              .filter(slot -> slot / T == day)
+              .collect(Collectors.toList());
+
+          // For each timeslot in this day
+          for (int timeslot : dayValidSlots) {
+              List<BoolVar> lessonsInSlot = new ArrayList<>();
+              
+              // Create variables for each lesson that could be in this slot
+              for (Lesson lesson : streamLessons) {
+                  boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
                   
-                  // Create variables for each lesson that could be in this slot
-                  for (Lesson lesson : streamLessons) {
-                      boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                      
-                      // Skip invalid slots for double lessons
-                      if (isDouble) {
-                          if ((timeslot % T) == T - 1) continue; // Skip last slot of day
-                          if (!validClassSlots.contains(timeslot + 1)) continue;
-                      }
-
-                      BoolVar isInSlot = model.newBoolVar("lesson_" + lesson.getId() + "_in_slot_" + timeslot);
-                      model.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
-                      model.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
-                      lessonsInSlot.add(isInSlot);
-
-                      // For double lessons, handle second slot
-                      if (isDouble && validClassSlots.contains(timeslot + 1)) {
-                          IntVar secondSlot = doubleLessonSecondSlots.get(lesson);
-                          model.addEquality(secondSlot, timeslot + 1).onlyEnforceIf(isInSlot);
-                      }
+                  // Skip invalid slots for double lessons
+                  if (isDouble) {
+                      if ((timeslot % T) == T - 1) continue; // Skip last slot of day
+                      if (!validClassSlots.contains(timeslot + 1)) continue;
                   }
 
-                  // Ensure at most one lesson in this timeslot for this stream
-                  if (!lessonsInSlot.isEmpty()) {
-                      model.addAtMostOne(lessonsInSlot.toArray(new Literal[0]));
-                      System.out.println(String.format("Added constraint: At most one lesson for stream %d in timeslot %d", stream.getId(), timeslot));
+                  BoolVar isInSlot = fragment.newBoolVar("lesson_" + lesson.getId() + "_in_slot_" + timeslot);
+                  fragment.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
+                  fragment.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
+                  lessonsInSlot.add(isInSlot);
+
+                  // For double lessons, handle second slot
+                  if (isDouble && validClassSlots.contains(timeslot + 1)) {
+                      IntVar secondSlot = doubleLessonSecondSlots.get(lesson);
+                      fragment.addEquality(secondSlot, timeslot + 1).onlyEnforceIf(isInSlot);
                   }
               }
 
-              // Add constraint to ensure even distribution across days
-              List<BoolVar> lessonsOnDay = new ArrayList<>();
-              for (Lesson lesson : streamLessons) {
-                  BoolVar isOnDay = model.newBoolVar("lesson_" + lesson.getId() + "_on_day_" + day);
-                  
-                  // Create variables for each valid slot in this day
-                  List<BoolVar> slotVars = new ArrayList<>();
-                  for (int timeslot : dayValidSlots) {
-                      boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                      
-                      // Skip invalid slots for double lessons
-                      if (isDouble) {
-                          if ((timeslot % T) == T - 1) continue;
-                          if (!validClassSlots.contains(timeslot + 1)) continue;
-                      }
+              // Ensure at most one lesson in this timeslot for this stream
+              if (!lessonsInSlot.isEmpty()) {
+                  fragment.addAtMostOne(lessonsInSlot.toArray(new Literal[0]));
+                  System.out.println(String.format("Added constraint: At most one lesson for stream %d in timeslot %d", stream.getId(), timeslot));
+              }
+          }
 
-                      BoolVar isInSlot = model.newBoolVar("lesson_" + lesson.getId() + "_in_slot_" + timeslot);
-                      model.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
-                      model.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
-                      slotVars.add(isInSlot);
-                  }
+          // Add constraint to ensure even distribution across days
+          List<BoolVar> lessonsOnDay = new ArrayList<>();
+          for (Lesson lesson : streamLessons) {
+              BoolVar isOnDay = fragment.newBoolVar("lesson_" + lesson.getId() + "_on_day_" + day);
+              
+              // Create variables for each valid slot in this day
+              List<BoolVar> slotVars = new ArrayList<>();
+              for (int timeslot : dayValidSlots) {
+                  boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
                   
-                  // isOnDay is true if lesson is in any slot of this day
-                  if (!slotVars.isEmpty()) {
-                      model.addMaxEquality(isOnDay, slotVars.toArray(new Literal[0]));
-                      lessonsOnDay.add(isOnDay);
+                  // Skip invalid slots for double lessons
+                  if (isDouble) {
+                      if ((timeslot % T) == T - 1) continue;
+                      if (!validClassSlots.contains(timeslot + 1)) continue;
                   }
-              }
 
-              // Add soft constraint to encourage even distribution
-              if (!lessonsOnDay.isEmpty()) {
-                  // Calculate average lessons per day for this stream
-                  double avgLessonsPerDay = (double) streamLessons.size() / D;
-                  int maxLessonsPerDay = (int) Math.ceil(avgLessonsPerDay + 1);
-                  
-                  // Add constraint to limit lessons per day
-                  model.addLinearConstraint(
-                      LinearExpr.sum(lessonsOnDay.toArray(new BoolVar[0])), 
-                      0, maxLessonsPerDay);
-                  
-                  System.out.println(String.format(
-                      "Added constraint: Stream %d can have at most %d lessons on day %d",
-                      stream.getId(), maxLessonsPerDay, day + 1));
+                  BoolVar isInSlot = fragment.newBoolVar("lesson_" + lesson.getId() + "_in_slot_" + timeslot);
+                  fragment.addEquality(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot);
+                  fragment.addDifferent(lessonSlots.get(lesson), timeslot).onlyEnforceIf(isInSlot.not());
+                  slotVars.add(isInSlot);
+              }
+              
+              // isOnDay is true if lesson is in any slot of this day
+              if (!slotVars.isEmpty()) {
+                  fragment.addMaxEquality(isOnDay, slotVars.toArray(new Literal[0]));
+                  lessonsOnDay.add(isOnDay);
               }
           }
+
+          // Add soft constraint to encourage even distribution
+          if (!lessonsOnDay.isEmpty()) {
+              // Calculate average lessons per day for this stream
+              double avgLessonsPerDay = (double) streamLessons.size() / D;
+              int maxLessonsPerDay = (int) Math.ceil(avgLessonsPerDay + 1);
+              
+              // Add constraint to limit lessons per day
+              fragment.addLinearConstraint(
+                  LinearExpr.sum(lessonsOnDay.toArray(new BoolVar[0])), 
+                  0, maxLessonsPerDay);
+              
+              System.out.println(String.format(
+                  "Added constraint: Stream %d can have at most %d lessons on day %d",
+                  stream.getId(), maxLessonsPerDay, day + 1));
+          }
       }
-  }
+    }
 
     private void applyCombinedSubjectsConstraint() {
+      if (profile.isUnifyCombinedLessons()) {
+          System.out.println("Combined subject groups share one slot variable, no alignment constraints needed");
+          return;
+      }
       // Group lessons by combined subject and intake
           Map<String, List<Lesson>> groupedLessons = lessons.stream()
                   .filter(lesson -> lesson.getLessonInfo().getCombinedSubject() != null)
@@ -505,6 +602,7 @@ public class MinimalTimetableSolver {
       // For each group of combined subject lessons
       for (Map.Entry<String, List<Lesson>> entry : groupedLessons.entrySet()) {
           List<Lesson> group = entry.getValue();
+          int firstConstraint = constraintCount();
 
           
               if (group.size() > 1) {
@@ -630,6 +728,7 @@ public class MinimalTimetableSolver {
                   model.addExactlyOne(slotVars.toArray(new Literal[0]));
               }
           } 
+          recordConstraintScope(entry.getKey(), firstConstraint);
       }
   }
 
@@ -661,6 +760,7 @@ public class MinimalTimetableSolver {
             for (Long teacherId : teacherIds) {
                 Map<DayOfWeek, Set<Long>> teacherSchedule = teacherUnavailability.get(teacherId);
                 if (teacherSchedule == null) continue; // Teacher has no unavailability records
+                int firstConstraint = constraintCount();
 
                 // For each day and timeslot
                 for (int day = 0; day < D; day++) {
@@ -693,6 +793,7 @@ public class MinimalTimetableSolver {
                         }
                     }
                 }
+                recordConstraintScope("teacher " + teacherId, firstConstraint);
             }
         }
     }
@@ -734,8 +835,10 @@ public class MinimalTimetableSolver {
 
                       // Create a boolean variable indicating if this lesson starts in the current slot
                       BoolVar isAssigned = model.newBoolVar(String.format("teacher_assigned_%d_day%d_slot%d", lesson.getId(), day, slot));
+                      int channelling = constraintCount();
                       model.addEquality(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isAssigned);
                       model.addDifferent(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isAssigned.not());
+                      constraintGroups.recordChannelling(channelling, constraintCount());
 
                       // Add this assignment to all teachers of this lesson
                       for (Teacher teacher : lessonTeachers) {
@@ -744,6 +847,7 @@ public class MinimalTimetableSolver {
                           // For double lessons, also prevent the teacher from being assigned 
                           // to any lesson in the second slot
                           if (isDouble && slot < T - 1) {
+                              int firstConstraint = constraintCount();
                               for (Lesson otherLesson : lessons) {
                                   if (otherLesson.getLessonInfo().getTeachers().contains(teacher)) {
                                       // Prevent other lesson from starting in the next slot if this lesson is assigned
@@ -751,6 +855,7 @@ public class MinimalTimetableSolver {
                                            .onlyEnforceIf(isAssigned);
                                   }
                               }
+                              recordConstraintScope("teacher " + teacher.getId(), firstConstraint);
                           }
                       }
                   }
@@ -759,7 +864,9 @@ public class MinimalTimetableSolver {
                   for (Map.Entry<Teacher, List<BoolVar>> entry : teacherAssignments.entrySet()) {
                       List<BoolVar> assignedLessons = entry.getValue();
                       if (assignedLessons.size() > 1) {
+                          int firstConstraint = constraintCount();
                           model.addAtMostOne(assignedLessons.toArray(new Literal[0]));
+                          recordConstraintScope("teacher " + entry.getKey().getId(), firstConstraint);
                       }
                   }
               }
@@ -772,7 +879,7 @@ public class MinimalTimetableSolver {
           System.out.println("------------------------------------------------------------------------");
 
           // Group lessons by stream and subject/combinedSubject
-          Map<Stream, Map<Object, List<Lesson>>> lessonsByStreamAndSubject = new HashMap<>();
+          Map<Stream, Map<Object, List<Lesson>>> lessonsByStreamAndSubject = new TreeMap<>(Comparator.comparing(Stream::getId));
           
     for (Lesson lesson : lessons) {
         Stream stream = lesson.getLessonInfo().getStream();
@@ -787,18 +894,24 @@ public class MinimalTimetableSolver {
               }
               
               lessonsByStreamAndSubject
-                  .computeIfAbsent(stream, k -> new HashMap<>())
+                  .computeIfAbsent(stream, k -> new LinkedHashMap<>())
                   .computeIfAbsent(subjectKey, k -> new ArrayList<>())
                   .add(lesson);
           }
 
-          int constraintsAdded = 0;
+          AtomicInteger constraintsAdded = new AtomicInteger();
 
           // For each stream and subject combination
-          for (Map.Entry<Stream, Map<Object, List<Lesson>>> streamEntry : lessonsByStreamAndSubject.entrySet()) {
-              Stream stream = streamEntry.getKey();
+          buildPerStream("one-lesson-per-day", lessonsByStreamAndSubject, (fragment, stream, penaltyVars) ->
+              constraintsAdded.addAndGet(lessonDistributionForStream(fragment, stream, lessonsByStreamAndSubject.get(stream))));
+
+          System.out.println("Added " + constraintsAdded + " one-lesson-per-day constraints");
+      }
+
+    private int lessonDistributionForStream(CpModel fragment, Stream stream, Map<Object, List<Lesson>> subjectLessonsByKey) {
+          int constraintsAdded = 0;
               
-              for (Map.Entry<Object, List<Lesson>> subjectEntry : streamEntry.getValue().entrySet()) {
+              for (Map.Entry<Object, List<Lesson>> subjectEntry : subjectLessonsByKey.entrySet()) {
                   List<Lesson> subjectLessons = subjectEntry.getValue();
                   
                   // Calculate total lessons per week (counting doubles as one lesson)
@@ -832,24 +945,24 @@ public class MinimalTimetableSolver {
                           // For each lesson of this subject
                           for (Lesson lesson : subjectLessons) {
                               // Create a boolean variable for if this lesson is scheduled on this day
-                              BoolVar lessonOnDay = model.newBoolVar(
+                              BoolVar lessonOnDay = fragment.newBoolVar(
                                   String.format("lesson_%d_on_day_%d", lesson.getId(), day)
                               );
                               
                               // If lesson is scheduled in any slot of this day, lessonOnDay should be true
                 List<BoolVar> slotVars = new ArrayList<>();
                               for (int globalSlot : dayValidSlots) {
-                                  BoolVar isInSlot = model.newBoolVar(
+                                  BoolVar isInSlot = fragment.newBoolVar(
                                       String.format("lesson_%d_in_slot_%d", lesson.getId(), globalSlot)
                                   );
-                                  model.addEquality(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot);
-                                  model.addDifferent(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot.not());
+                                  fragment.addEquality(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot);
+                                  fragment.addDifferent(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot.not());
                                   slotVars.add(isInSlot);
                               }
                               
                               // lessonOnDay is true if lesson is in any slot of this day
                               if (!slotVars.isEmpty()) {
-                                  model.addMaxEquality(lessonOnDay, slotVars.toArray(new Literal[0]));
+                                  fragment.addMaxEquality(lessonOnDay, slotVars.toArray(new Literal[0]));
                                   lessonInDayVars.add(lessonOnDay);
                               }
                           }
@@ -874,38 +987,38 @@ public class MinimalTimetableSolver {
 
                               if (!singleVars.isEmpty() && !doubleVars.isEmpty()) {
                                   // Create boolean variables to indicate which type is used
-                                  BoolVar useSingles = model.newBoolVar(
+                                  BoolVar useSingles = fragment.newBoolVar(
                                       String.format("use_singles_stream_%d_subject_%s_day_%d", 
                                           stream.getId(), subjectEntry.getKey().toString(), day));
-                                  BoolVar useDoubles = model.newBoolVar(
+                                  BoolVar useDoubles = fragment.newBoolVar(
                                       String.format("use_doubles_stream_%d_subject_%s_day_%d", 
                                           stream.getId(), subjectEntry.getKey().toString(), day));
 
                                   // Only one type can be used
-                                  model.addAtMostOne(new BoolVar[] {useSingles, useDoubles});
+                                  fragment.addAtMostOne(new BoolVar[] {useSingles, useDoubles});
 
                                   // Add constraints for singles
                                   LinearExpr singleSum = LinearExpr.sum(singleVars.toArray(new BoolVar[0]));
-                                  model.addLinearConstraint(singleSum, 0, 2);
+                                  fragment.addLinearConstraint(singleSum, 0, 2);
                                   
                                   // Add constraints for doubles
                                   LinearExpr doubleSum = LinearExpr.sum(doubleVars.toArray(new BoolVar[0]));
-                                  model.addLinearConstraint(doubleSum, 0, 1);
+                                  fragment.addLinearConstraint(doubleSum, 0, 1);
                                   
                                   // Link the sums to the type indicators
-                                  model.addEquality(singleSum, 0).onlyEnforceIf(useDoubles);
-                                  model.addEquality(doubleSum, 0).onlyEnforceIf(useSingles);
+                                  fragment.addEquality(singleSum, 0).onlyEnforceIf(useDoubles);
+                                  fragment.addEquality(doubleSum, 0).onlyEnforceIf(useSingles);
 
                                   constraintsAdded++;
                               } else if (!singleVars.isEmpty()) {
                                   // Only singles available - limit to at most 2
-                                  model.addLinearConstraint(
+                                  fragment.addLinearConstraint(
                                       LinearExpr.sum(singleVars.toArray(new BoolVar[0])), 
                                       0, 2);
                                   constraintsAdded++;
                               } else if (!doubleVars.isEmpty()) {
                                   // Only doubles available - limit to at most 1
-                                  model.addLinearConstraint(
+                                  fragment.addLinearConstraint(
                                       LinearExpr.sum(doubleVars.toArray(new BoolVar[0])), 
                                       0, 1);
                                   constraintsAdded++;
@@ -914,9 +1027,8 @@ public class MinimalTimetableSolver {
                       }
                   }
               }
-          }
 
-          System.out.println("Added " + constraintsAdded + " one-lesson-per-day constraints");
+          return constraintsAdded;
       }
       
 
@@ -925,6 +1037,10 @@ public class MinimalTimetableSolver {
     private void applyCombinedStreamsConstraint() {
           System.out.println("\nApplying Combined Streams Constraints");
           System.out.println("------------------------------------");
+          if (profile.isUnifyCombinedLessons()) {
+              System.out.println("Combined streams share one slot variable per lesson, no alignment constraints needed");
+              return;
+          }
           
           int constraintsAdded = 0;
 
@@ -937,6 +1053,7 @@ public class MinimalTimetableSolver {
               List<CombinedStream> combinedStreamGroup = entry.getValue();
 
               for (CombinedStream combinedStream : combinedStreamGroup) {
+                  int firstConstraint = constraintCount();
                   Set<Stream> constituentStreams = combinedStream.getConstituentStreams();
                   
                   // Get all lessons for this subject and these streams
@@ -1002,6 +1119,7 @@ public class MinimalTimetableSolver {
                           }
                       }
                   }
+                  recordConstraintScope("combined stream " + combinedStream.getId(), firstConstraint);
               }
           }
 
@@ -1015,7 +1133,7 @@ public class MinimalTimetableSolver {
           System.out.println("\nApplying Core Subjects Per Day Constraint");
           System.out.println("----------------------------------------");
           
-          int constraintsAdded = 0;
+          AtomicInteger constraintsAdded = new AtomicInteger();
           Set<Integer> coreSubjectCodes = Set.of(ENGLISH_CODE, KISWAHILI_CODE, MATH_CODE);
 
           // First group lessons by stream and subject
@@ -1026,13 +1144,20 @@ public class MinimalTimetableSolver {
               )
               .collect(Collectors.groupingBy(
                   lesson -> lesson.getLessonInfo().getStream(),
-                  Collectors.groupingBy(lesson -> lesson.getLessonInfo().getSubject().getId())
+                  () -> new TreeMap<>(Comparator.comparing(Stream::getId)),
+                  Collectors.groupingBy(lesson -> lesson.getLessonInfo().getSubject().getId(), TreeMap::new, Collectors.toList())
               ));
 
           // For each stream
-          for (Map.Entry<Stream, Map<Long, List<Lesson>>> streamEntry : lessonsByStreamAndSubject.entrySet()) {
-              Stream stream = streamEntry.getKey();
-              Map<Long, List<Lesson>> subjectLessons = streamEntry.getValue();
+          buildPerStream("core subjects per day", lessonsByStreamAndSubject, (fragment, stream, penaltyVars) ->
+              constraintsAdded.addAndGet(coreSubjectsPerDayForStream(fragment, stream, lessonsByStreamAndSubject.get(stream))));
+
+          System.out.println("Added " + constraintsAdded + " core subjects per day constraints");
+      }
+
+   private int coreSubjectsPerDayForStream(CpModel fragment, Stream stream, Map<Long, List<Lesson>> subjectLessons) {
+          int constraintsAdded = 0;
+
 
               // For each core subject
               for (Map.Entry<Long, List<Lesson>> subjectEntry : subjectLessons.entrySet()) {
@@ -1059,7 +1184,7 @@ public class MinimalTimetableSolver {
                     boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
                     
                           // Create a boolean variable for if this lesson is scheduled on this day
-                          BoolVar lessonOnDay = model.newBoolVar(
+                          BoolVar lessonOnDay = fragment.newBoolVar(
                               String.format("core_lesson_%d_on_day_%d", lesson.getId(), day)
                           );
                           
@@ -1072,17 +1197,17 @@ public class MinimalTimetableSolver {
                                   if (!validClassSlots.contains(globalSlot + 1)) continue;
                     }
 
-                    BoolVar isInSlot = model.newBoolVar(
+                    BoolVar isInSlot = fragment.newBoolVar(
                                   String.format("core_lesson_%d_in_slot_%d", lesson.getId(), globalSlot)
                               );
-                              model.addEquality(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot);
-                              model.addDifferent(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot.not());
+                              fragment.addEquality(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot);
+                              fragment.addDifferent(lessonSlots.get(lesson), globalSlot).onlyEnforceIf(isInSlot.not());
                     slotVars.add(isInSlot);
                 }
 
                           // lessonOnDay is true if lesson is in any slot of this day
                 if (!slotVars.isEmpty()) {
-                              model.addMaxEquality(lessonOnDay, slotVars.toArray(new Literal[0]));
+                              fragment.addMaxEquality(lessonOnDay, slotVars.toArray(new Literal[0]));
                               lessonInDayVars.add(lessonOnDay);
                           }
                       }
@@ -1107,38 +1232,38 @@ public class MinimalTimetableSolver {
 
                           if (!singleVars.isEmpty() && !doubleVars.isEmpty()) {
                               // Create boolean variables to indicate which type is used
-                              BoolVar useSingles = model.newBoolVar(
+                              BoolVar useSingles = fragment.newBoolVar(
                                   String.format("use_singles_stream_%d_subject_%d_day_%d", 
                                       stream.getId(), subjectId, day));
-                              BoolVar useDoubles = model.newBoolVar(
+                              BoolVar useDoubles = fragment.newBoolVar(
                                   String.format("use_doubles_stream_%d_subject_%d_day_%d", 
                                       stream.getId(), subjectId, day));
 
                               // Only one type can be used
-                              model.addAtMostOne(new BoolVar[] {useSingles, useDoubles});
+                              fragment.addAtMostOne(new BoolVar[] {useSingles, useDoubles});
 
                               // Add constraints for singles
                               LinearExpr singleSum = LinearExpr.sum(singleVars.toArray(new BoolVar[0]));
-                              model.addLinearConstraint(singleSum, 0, 2);
+                              fragment.addLinearConstraint(singleSum, 0, 2);
                               
                               // Add constraints for doubles
                               LinearExpr doubleSum = LinearExpr.sum(doubleVars.toArray(new BoolVar[0]));
-                              model.addLinearConstraint(doubleSum, 0, 1);
+                              fragment.addLinearConstraint(doubleSum, 0, 1);
                               
                               // Link the sums to the type indicators
-                              model.addEquality(singleSum, 0).onlyEnforceIf(useDoubles);
-                              model.addEquality(doubleSum, 0).onlyEnforceIf(useSingles);
+                              fragment.addEquality(singleSum, 0).onlyEnforceIf(useDoubles);
+                              fragment.addEquality(doubleSum, 0).onlyEnforceIf(useSingles);
 
                               constraintsAdded++;
                           } else if (!singleVars.isEmpty()) {
                               // Only singles available - limit to at most 2
-                              model.addLinearConstraint(
+                              fragment.addLinearConstraint(
                                   LinearExpr.sum(singleVars.toArray(new BoolVar[0])), 
                                   0, 2);
                               constraintsAdded++;
                           } else if (!doubleVars.isEmpty()) {
                               // Only doubles available - limit to at most 1
-                              model.addLinearConstraint(
+                              fragment.addLinearConstraint(
                                   LinearExpr.sum(doubleVars.toArray(new BoolVar[0])), 
                                   0, 1);
                               constraintsAdded++;
@@ -1146,233 +1271,314 @@ public class MinimalTimetableSolver {
                       }
                   }
               }
-          }
 
-          System.out.println("Added " + constraintsAdded + " core subjects per day constraints");
+          return constraintsAdded;
       }
 
-  //SOFT CONSTRAINTS
-   private void implementPELessonsNearBreaks() {
-          pePenaltyVars = new ArrayList<>();
-          
-          // For each lesson
-          for (Lesson lesson : lessons) {
-              if (lesson.getLessonInfo().getSubject() != null && 
-                  "P.E".equals(lesson.getLessonInfo().getSubject().getName())) {
-                  
-                  IntVar lessonSlot = lessonSlots.get(lesson);
-                  boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                  IntVar secondSlot = isDouble ? doubleLessonSecondSlots.get(lesson) : null;
-                  
-                  // For each day
-                  for (int day = 0; day < D; day++) {
-                      List<Integer> breakSlots = new ArrayList<>();
-                      
-                      // Find break slots for this day
-                      for (int slot = 0; slot < T; slot++) {
-                          TimeslotActivity activity = schedule.getTimeslotList().get(slot).getTimeslotActivity();
-                          if (activity == TimeslotActivity.SHORTBREAK || 
-                              activity == TimeslotActivity.LONGBREAK || 
-                              activity == TimeslotActivity.LUNCHBREAK) {
-                              breakSlots.add(day * T + slot);
-                          }
-                      }
-                      
-                      if (!breakSlots.isEmpty()) {
-                          // For each break slot, create variables to measure distance
-                          List<IntVar> distanceVars = new ArrayList<>();
-                          
-                          for (int breakSlot : breakSlots) {
-                              // Create variables for the absolute difference between lesson slot and break slot
-                              IntVar distance = model.newIntVar(0, T, "pe_dist_" + lesson.getId() + "_" + breakSlot);
-                              IntVar diff = model.newIntVar(-T, T, "pe_diff_" + lesson.getId() + "_" + breakSlot);
-                              
-                              // Calculate absolute difference
-                              model.addEquality(diff, LinearExpr.newBuilder()
-                                  .add(lessonSlot)
-                                  .add(-breakSlot)
-                                  .build());
-                              model.addAbsEquality(distance, diff);
-                              
-                              distanceVars.add(distance);
+    //Symmetry breaking: lessons of one stream with the same subject, teachers and lesson type are interchangeable,
+    //so only the assignment where their slots increase in lesson order is kept
+    private void breakInterchangeableLessonSymmetry() {
+          System.out.println("\nApplying Symmetry Breaking Constraints");
+          System.out.println("-------------------------------------");
 
-                              // If this is a double lesson, also check distance from second slot
-                              if (isDouble) {
-                                  IntVar distance2 = model.newIntVar(0, T, "pe_dist2_" + lesson.getId() + "_" + breakSlot);
-                                  IntVar diff2 = model.newIntVar(-T, T, "pe_diff2_" + lesson.getId() + "_" + breakSlot);
-                                  
-                                  model.addEquality(diff2, LinearExpr.newBuilder()
-                                      .add(secondSlot)
-                                      .add(-breakSlot)
-                                      .build());
-                                  model.addAbsEquality(distance2, diff2);
-                                  
-                                  distanceVars.add(distance2);
-                              }
-                          }
-                          
-                          // Create a variable for the minimum distance to any break
-                          IntVar minDistance = model.newIntVar(0, T, "pe_min_dist_" + lesson.getId() + "_day_" + day);
-                          model.addMinEquality(minDistance, distanceVars.toArray(new IntVar[0]));
-                          
-                          // Add to penalty variables
-                          pePenaltyVars.add(minDistance);
-                      }
-                  }
+          int constraintsAdded = 0;
+          List<List<Lesson>> classes = findInterchangeableLessons();
+
+          for (List<Lesson> interchangeable : classes) {
+              // Lessons of one stream never share a slot, so the order can be strict
+              for (int i = 0; i + 1 < interchangeable.size(); i++) {
+                  model.addLessThan(lessonSlots.get(interchangeable.get(i)), lessonSlots.get(interchangeable.get(i + 1)));
+                  constraintsAdded++;
               }
           }
-          
-          System.out.println("Added PE lessons near breaks soft constraint with " + pePenaltyVars.size() + " penalty variables");
+
+          System.out.println(String.format("Found %d interchangeable lesson classes, added %d ordering constraints",
+              classes.size(), constraintsAdded));
+      }
+
+    // Equivalence classes of lessons that every constraint treats identically, in lesson list order.
+    // Lessons of combined subjects and combined streams are left out: those constraints pair lessons
+    // across streams by position, and reordering one side would break the pairing.
+    private List<List<Lesson>> findInterchangeableLessons() {
+          Set<String> combinedStreamSubjects = new HashSet<>();
+          for (CombinedStream combinedStream : combinedStreams) {
+              for (Stream stream : combinedStream.getConstituentStreams()) {
+                  combinedStreamSubjects.add(stream.getId() + "_" + combinedStream.getSubject().getId());
+              }
+          }
+
+          Map<String, List<Lesson>> lessonsByClass = new LinkedHashMap<>();
+          for (Lesson lesson : lessons) {
+              LessonInfo info = lesson.getLessonInfo();
+              if (info.getSubject() == null || info.getCombinedSubject() != null) continue;
+              if (combinedStreamSubjects.contains(info.getStream().getId() + "_" + info.getSubject().getId())) continue;
+
+              String teacherIds = info.getTeachers().stream()
+                  .map(Teacher::getId)
+                  .sorted()
+                  .map(String::valueOf)
+                  .collect(Collectors.joining(","));
+              String key = info.getStream().getId() + "_" + info.getSubject().getId() + "_" + teacherIds + "_" + info.getLessonType();
+              lessonsByClass.computeIfAbsent(key, k -> new ArrayList<>()).add(lesson);
+          }
+
+          return lessonsByClass.values().stream()
+              .filter(group -> group.size() > 1)
+              .collect(Collectors.toList());
       }
 
+  //SOFT CONSTRAINTS
+    // Slots a lesson can start in: any class slot, and for a double lesson a class slot followed by another on the same day
+    private List<Integer> validStartSlots(Lesson lesson) {
+        if (lesson.getLessonInfo().getLessonType() != LessonType.DOUBLE) {
+            return validClassSlots;
+        }
+        Set<Integer> classSlots = new HashSet<>(validClassSlots);
+        List<Integer> starts = new ArrayList<>();
+        for (int slot : validClassSlots) {
+            if (slot % T != T - 1 && classSlots.contains(slot + 1)) {
+                starts.add(slot);
+            }
+        }
+        return starts;
+    }
+
+    // Redundant lesson x start-slot matrix channelled to the slot variables, with one occupancy row per
+    // stream and slot and (if teacher conflicts are enforced) per teacher and slot. A double lesson
+    // occupies its start slot and the next one.
+    private void addBooleanMatrixFormulation() {
+        Map<Stream, Map<Integer, List<Literal>>> streamOccupancy = new LinkedHashMap<>();
+        Map<Teacher, Map<Integer, List<Literal>>> teacherOccupancy = new LinkedHashMap<>();
+        boolean teacherRows = constraintMethods.containsKey("teacher_conflict");
+
+        for (Lesson lesson : lessons) {
+            List<Integer> starts = validStartSlots(lesson);
+            boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+            Literal[] row = new Literal[starts.size()];
+            long[] slotValues = new long[starts.size()];
+
+            for (int i = 0; i < starts.size(); i++) {
+                int start = starts.get(i);
+                BoolVar startsHere = model.newBoolVar("matrix_" + lesson.getId() + "_" + start);
+                slotIndicators.computeIfAbsent(lesson, key -> new HashMap<>()).putIfAbsent(start, startsHere);
+                row[i] = startsHere;
+                slotValues[i] = start;
+
+                for (int occupied = start; occupied <= start + (isDouble ? 1 : 0); occupied++) {
+                    streamOccupancy.computeIfAbsent(lesson.getLessonInfo().getStream(), k -> new TreeMap<>())
+                        .computeIfAbsent(occupied, k -> new ArrayList<>()).add(startsHere);
+                    if (teacherRows) {
+                        for (Teacher teacher : lesson.getLessonInfo().getTeachers()) {
+                            teacherOccupancy.computeIfAbsent(teacher, k -> new TreeMap<>())
+                                .computeIfAbsent(occupied, k -> new ArrayList<>()).add(startsHere);
+                        }
+                    }
+                }
+            }
+
+            model.addExactlyOne(row);
+            model.addEquality(lessonSlots.get(lesson), LinearExpr.weightedSum(row, slotValues));
+        }
+
+        int rows = 0;
+        for (Map<Integer, List<Literal>> bySlot : streamOccupancy.values()) {
+            rows += addOccupancyRows(bySlot);
+        }
+        for (Map<Integer, List<Literal>> bySlot : teacherOccupancy.values()) {
+            rows += addOccupancyRows(bySlot);
+        }
+        System.out.println("Added boolean matrix formulation with " + rows + " occupancy rows");
+    }
+
+    private int addOccupancyRows(Map<Integer, List<Literal>> occupancyBySlot) {
+        int rows = 0;
+        for (List<Literal> occupying : occupancyBySlot.values()) {
+            if (occupying.size() > 1) {
+                model.addAtMostOne(occupying.toArray(new Literal[0]));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // Redundant interval per lesson (length 2 for doubles) with a no-overlap per stream and
+    // (if teacher conflicts are enforced) per teacher
+    private void addIntervalFormulation() {
+        Map<Stream, List<IntervalVar>> streamIntervals = new LinkedHashMap<>();
+        Map<Teacher, List<IntervalVar>> teacherIntervals = new LinkedHashMap<>();
+        boolean teacherRows = constraintMethods.containsKey("teacher_conflict");
+
+        for (Lesson lesson : lessons) {
+            int length = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE ? 2 : 1;
+            IntervalVar interval = model.newFixedSizeIntervalVar(lessonSlots.get(lesson), length, "interval_" + lesson.getId());
+            streamIntervals.computeIfAbsent(lesson.getLessonInfo().getStream(), k -> new ArrayList<>()).add(interval);
+            if (teacherRows) {
+                for (Teacher teacher : lesson.getLessonInfo().getTeachers()) {
+                    teacherIntervals.computeIfAbsent(teacher, k -> new ArrayList<>()).add(interval);
+                }
+            }
+        }
+
+        int constraints = 0;
+        for (List<IntervalVar> intervals : streamIntervals.values()) {
+            model.addNoOverlap(intervals);
+            constraints++;
+        }
+        for (List<IntervalVar> intervals : teacherIntervals.values()) {
+            if (intervals.size() > 1) {
+                model.addNoOverlap(intervals);
+                constraints++;
+            }
+        }
+        System.out.println("Added interval formulation with " + constraints + " no-overlap constraints");
+    }
+
    private void implementMathScienceNonAdjacency() {
           mathSciencePenaltyVars = new ArrayList<>();
           
           // Group lessons by stream
-          Map<Stream, List<Lesson>> lessonsByStream = lessons.stream()
-              .collect(Collectors.groupingBy(lesson -> lesson.getLessonInfo().getStream()));
-              
-          for (Map.Entry<Stream, List<Lesson>> entry : lessonsByStream.entrySet()) {
-              final Stream stream = entry.getKey();
-              List<Lesson> streamLessons = entry.getValue();
+          Map<Stream, List<Lesson>> lessonsByStream = lessonsByStreamInIdOrder();
               
-              // For each day
-              for (int day = 0; day < D; day++) {
-                  final int currentDay = day;  // Create a final copy for lambda
-                  // Get valid slots for this day
-                  List<Integer> daySlots = validClassSlots.stream()
-                      .filter(slot -> slot / T == currentDay)
-                      .collect(Collectors.toList());
-                      
-                  // For each slot in the day (except last)
-                  for (int i = 0; i < daySlots.size() - 1; i++) {
-                      int currentSlot = daySlots.get(i);
-                      int nextSlot = daySlots.get(i + 1);
-                      
-                      // For each pair of lessons
-                      for (Lesson lesson1 : streamLessons) {
-                          for (Lesson lesson2 : streamLessons) {
-                              if (lesson1 == lesson2) continue;
+          mathSciencePenaltyVars = buildPerStream("math-science non-adjacency", lessonsByStream, (fragment, stream, penaltyVars) ->
+              mathScienceNonAdjacencyForStream(fragment, stream, lessonsByStream.get(stream), penaltyVars)).penaltyVars;
+          
+          System.out.println("Added Math-Science non-adjacency constraint with " + 
+              mathSciencePenaltyVars.size() + " penalty variables");
+      }
+
+   private void mathScienceNonAdjacencyForStream(CpModel fragment, Stream stream, List<Lesson> streamLessons, List<IntVar> penaltyVars) {
+          // For each day
+          for (int day = 0; day < D; day++) {
+              final int currentDay = day;  // Create a final copy for lambda
+              // Get valid slots for this day
+              List<Integer> daySlots = validClassSlots.stream()
+                  .filter(slot -> slot / T == currentDay)
+                  .collect(Collectors.toList());
+                  
+              // For each slot in the day (except last)
+              for (int i = 0; i < daySlots.size() - 1; i++) {
+                  int currentSlot = daySlots.get(i);
+                  int nextSlot = daySlots.get(i + 1);
+                  
+                  // For each pair of lessons
+                  for (Lesson lesson1 : streamLessons) {
+                      for (Lesson lesson2 : streamLessons) {
+                          if (lesson1 == lesson2) continue;
+                          
+                          // Check if lessons are Math and Science or vice versa
+                          boolean isMathScience = false;
+                          if (lesson1.getLessonInfo().getSubject() != null && 
+                              lesson2.getLessonInfo().getSubject() != null) {
                               
-                              // Check if lessons are Math and Science or vice versa
-                              boolean isMathScience = false;
-                              if (lesson1.getLessonInfo().getSubject() != null && 
-                                  lesson2.getLessonInfo().getSubject() != null) {
-                                  
-                                  String category1Name = lesson1.getLessonInfo().getSubject().getCategory().getName();
-                                  String category2Name = lesson2.getLessonInfo().getSubject().getCategory().getName();
-                                  
-                                  isMathScience = (MATHEMATICS_CATEGORY.equals(category1Name) && SCIENCES_CATEGORY.equals(category2Name)) ||
-                                                 (SCIENCES_CATEGORY.equals(category1Name) && MATHEMATICS_CATEGORY.equals(category2Name));
-                              }
+                              String category1Name = lesson1.getLessonInfo().getSubject().getCategory().getName();
+                              String category2Name = lesson2.getLessonInfo().getSubject().getCategory().getName();
                               
-                              if (isMathScience) {
-                                  boolean isDouble1 = lesson1.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                                  boolean isDouble2 = lesson2.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                                  
-                                  // Create penalty variable for this pair
-                                  BoolVar isAdjacent = model.newBoolVar(
-                                      String.format("mathsci_adjacent_%d_%d_day%d_slot%d", 
-                                          lesson1.getId(), lesson2.getId(), day, i));
-                                  
-                                  // Get lesson slot variables
-                                  IntVar slot1 = lessonSlots.get(lesson1);
-                                  IntVar slot2 = lessonSlots.get(lesson2);
-                                  
-                                  if (isDouble1) {
-                                      // If lesson1 is double, check if lesson2 starts right after lesson1's second slot
-                                      IntVar secondSlot1 = doubleLessonSecondSlots.get(lesson1);
-                                      model.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
-                                      model.addEquality(secondSlot1, nextSlot - 1).onlyEnforceIf(isAdjacent);
-                                      model.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
-                                  } else if (isDouble2) {
-                                      // If lesson2 is double, check if it starts right after lesson1
-                                      model.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
-                                      model.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
-        } else {
-                                      // Both are single lessons
-                                      model.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
-                                      model.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
-                                  }
-                                  
-                                  mathSciencePenaltyVars.add(isAdjacent);
+                              isMathScience = (MATHEMATICS_CATEGORY.equals(category1Name) && SCIENCES_CATEGORY.equals(category2Name)) ||
+                                             (SCIENCES_CATEGORY.equals(category1Name) && MATHEMATICS_CATEGORY.equals(category2Name));
+                          }
+                          
+                          if (isMathScience) {
+                              boolean isDouble1 = lesson1.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+                              boolean isDouble2 = lesson2.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+                              
+                              // Create penalty variable for this pair
+                              BoolVar isAdjacent = fragment.newBoolVar(
+                                  String.format("mathsci_adjacent_%d_%d_day%d_slot%d", 
+                                      lesson1.getId(), lesson2.getId(), day, i));
+                              
+                              // Get lesson slot variables
+                              IntVar slot1 = lessonSlots.get(lesson1);
+                              IntVar slot2 = lessonSlots.get(lesson2);
+                              
+                              if (isDouble1) {
+                                  // If lesson1 is double, check if lesson2 starts right after lesson1's second slot
+                                  IntVar secondSlot1 = doubleLessonSecondSlots.get(lesson1);
+                                  fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
+                                  fragment.addEquality(secondSlot1, nextSlot - 1).onlyEnforceIf(isAdjacent);
+                                  fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
+                              } else if (isDouble2) {
+                                  // If lesson2 is double, check if it starts right after lesson1
+                                  fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
+                                  fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
+    } else {
+                                  // Both are single lessons
+                                  fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
+                                  fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
                               }
+                              
+                              penaltyVars.add(isAdjacent);
                           }
                       }
                   }
               }
           }
-          
-          System.out.println("Added Math-Science non-adjacency constraint with " + 
-              mathSciencePenaltyVars.size() + " penalty variables");
-      }
+   }
 
    private void implementEnglishKiswahiliNonAdjacency() {
           englishKiswahiliPenaltyVars = new ArrayList<>();
           
           // Group lessons by stream
-          Map<Stream, List<Lesson>> lessonsByStream = lessons.stream()
-              .collect(Collectors.groupingBy(lesson -> lesson.getLessonInfo().getStream()));
-              
-          for (Map.Entry<Stream, List<Lesson>> entry : lessonsByStream.entrySet()) {
-              Stream stream = entry.getKey();
-              List<Lesson> streamLessons = entry.getValue();
+          Map<Stream, List<Lesson>> lessonsByStream = lessonsByStreamInIdOrder();
               
-              // For each day
-              for (int day = 0; day < D; day++) {
-                  final int currentDay = day;
-                  // Get valid slots for this day
-                  List<Integer> daySlots = validClassSlots.stream()
-                      .filter(slot -> slot / T == currentDay)
-                      .collect(Collectors.toList());
-                      
-                  // For each slot in the day (except last)
-                  for (int i = 0; i < daySlots.size() - 1; i++) {
-                      int currentSlot = daySlots.get(i);
-                      int nextSlot = daySlots.get(i + 1);
-                      
-                      // For each pair of lessons
-                      for (Lesson lesson1 : streamLessons) {
-                          for (Lesson lesson2 : streamLessons) {
-                              if (lesson1 == lesson2) continue;
+          englishKiswahiliPenaltyVars = buildPerStream("english-kiswahili non-adjacency", lessonsByStream, (fragment, stream, penaltyVars) ->
+              englishKiswahiliNonAdjacencyForStream(fragment, stream, lessonsByStream.get(stream), penaltyVars)).penaltyVars;
+          
+          System.out.println("Added English-Kiswahili non-adjacency constraint with " + 
+              englishKiswahiliPenaltyVars.size() + " penalty variables");
+      }
+
+   private void englishKiswahiliNonAdjacencyForStream(CpModel fragment, Stream stream, List<Lesson> streamLessons, List<IntVar> penaltyVars) {
+          // For each day
+          for (int day = 0; day < D; day++) {
+              final int currentDay = day;
+              // Get valid slots for this day
+              List<Integer> daySlots = validClassSlots.stream()
+                  .filter(slot -> slot / T == currentDay)
+                  .collect(Collectors.toList());
+                  
+              // For each slot in the day (except last)
+              for (int i = 0; i < daySlots.size() - 1; i++) {
+                  int currentSlot = daySlots.get(i);
+                  int nextSlot = daySlots.get(i + 1);
+                  
+                  // For each pair of lessons
+                  for (Lesson lesson1 : streamLessons) {
+                      for (Lesson lesson2 : streamLessons) {
+                          if (lesson1 == lesson2) continue;
+                          
+                          // Check if lessons are English and Kiswahili or vice versa
+                          boolean isEnglishKiswahili = false;
+                          if (lesson1.getLessonInfo().getSubject() != null && 
+                              lesson2.getLessonInfo().getSubject() != null) {
                               
-                              // Check if lessons are English and Kiswahili or vice versa
-                              boolean isEnglishKiswahili = false;
-                              if (lesson1.getLessonInfo().getSubject() != null && 
-                                  lesson2.getLessonInfo().getSubject() != null) {
-                                  
-                                  int subject1Code = lesson1.getLessonInfo().getSubject().getIntCode();
-                                  int subject2Code = lesson2.getLessonInfo().getSubject().getIntCode();
-                                  
-                                  isEnglishKiswahili = (subject1Code == ENGLISH_CODE && subject2Code == KISWAHILI_CODE) ||
-                                                      (subject1Code == KISWAHILI_CODE && subject2Code == ENGLISH_CODE);
-                              }
+                              int subject1Code = lesson1.getLessonInfo().getSubject().getIntCode();
+                              int subject2Code = lesson2.getLessonInfo().getSubject().getIntCode();
                               
-                              if (isEnglishKiswahili) {
-                                  // Create penalty variable for this pair
-                                  BoolVar isAdjacent = model.newBoolVar(
-                                      String.format("engkis_adjacent_%d_%d_day%d_slot%d", 
-                                          lesson1.getId(), lesson2.getId(), day, i));
-                                  
-                                  // Get lesson slot variables
-                                  IntVar slot1 = lessonSlots.get(lesson1);
-                                  IntVar slot2 = lessonSlots.get(lesson2);
-                                  
-                                  // Add constraint: isAdjacent is true if lessons are in consecutive slots
-                                  model.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
-                                  model.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
-                                  
-                                  englishKiswahiliPenaltyVars.add(isAdjacent);
-                              }
+                              isEnglishKiswahili = (subject1Code == ENGLISH_CODE && subject2Code == KISWAHILI_CODE) ||
+                                                  (subject1Code == KISWAHILI_CODE && subject2Code == ENGLISH_CODE);
+                          }
+                          
+                          if (isEnglishKiswahili) {
+                              // Create penalty variable for this pair
+                              BoolVar isAdjacent = fragment.newBoolVar(
+                                  String.format("engkis_adjacent_%d_%d_day%d_slot%d", 
+                                      lesson1.getId(), lesson2.getId(), day, i));
+                              
+                              // Get lesson slot variables
+                              IntVar slot1 = lessonSlots.get(lesson1);
+                              IntVar slot2 = lessonSlots.get(lesson2);
+                              
+                              // Add constraint: isAdjacent is true if lessons are in consecutive slots
+                              fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isAdjacent);
+                              fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isAdjacent);
+                              
+                              penaltyVars.add(isAdjacent);
                           }
                       }
                   }
               }
           }
-          
-          System.out.println("Added English-Kiswahili non-adjacency constraint with " + 
-              englishKiswahiliPenaltyVars.size() + " penalty variables");
-      }
+   }
 
 
    private void implementTeacherConsecutiveLessonsAcrossStreams() {
@@ -1484,177 +1690,252 @@ public class MinimalTimetableSolver {
         teacherConsecutiveLessonSameStreamPenaltyVars = new ArrayList<>();
         
         // Group lessons by stream
-        Map<Stream, List<Lesson>> lessonsByStream = lessons.stream()
-            .collect(Collectors.groupingBy(lesson -> lesson.getLessonInfo().getStream()));
-            
-        for (Map.Entry<Stream, List<Lesson>> entry : lessonsByStream.entrySet()) {
-            Stream stream = entry.getKey();
-            List<Lesson> streamLessons = entry.getValue();
+        Map<Stream, List<Lesson>> lessonsByStream = lessonsByStreamInIdOrder();
             
-            // For each day
-            for (int day = 0; day < D; day++) {
-                final int currentDay = day;
-                // Get valid slots for this day
-                List<Integer> daySlots = validClassSlots.stream()
-                    .filter(slot -> slot / T == currentDay)
-                    .collect(Collectors.toList());
-                    
-                // For each slot in the day (except last)
-                for (int i = 0; i < daySlots.size() - 1; i++) {
-                    int currentSlot = daySlots.get(i);
-                    int nextSlot = daySlots.get(i + 1);
-                    
-                    // For each pair of lessons in this stream
-                    for (Lesson lesson1 : streamLessons) {
-                        for (Lesson lesson2 : streamLessons) {
-                            if (lesson1 == lesson2) continue;
+        teacherConsecutiveLessonSameStreamPenaltyVars = buildPerStream("teacher consecutive lessons in same stream", lessonsByStream, (fragment, stream, penaltyVars) ->
+            teacherConsecutiveLessonsForStream(fragment, stream, lessonsByStream.get(stream), penaltyVars)).penaltyVars;
+        
+        System.out.println("Added teacher consecutive lessons in same stream constraint with " + 
+            teacherConsecutiveLessonSameStreamPenaltyVars.size() + " penalty variables");
+    }
+
+   private void teacherConsecutiveLessonsForStream(CpModel fragment, Stream stream, List<Lesson> streamLessons, List<IntVar> penaltyVars) {
+        // For each day
+        for (int day = 0; day < D; day++) {
+            final int currentDay = day;
+            // Get valid slots for this day
+            List<Integer> daySlots = validClassSlots.stream()
+                .filter(slot -> slot / T == currentDay)
+                .collect(Collectors.toList());
+                
+            // For each slot in the day (except last)
+            for (int i = 0; i < daySlots.size() - 1; i++) {
+                int currentSlot = daySlots.get(i);
+                int nextSlot = daySlots.get(i + 1);
+                
+                // For each pair of lessons in this stream
+                for (Lesson lesson1 : streamLessons) {
+                    for (Lesson lesson2 : streamLessons) {
+                        if (lesson1 == lesson2) continue;
+                        
+                        // Check if lessons share any teachers
+                        Set<Teacher> teachers1 = new HashSet<>(lesson1.getLessonInfo().getTeachers());
+                        Set<Teacher> teachers2 = new HashSet<>(lesson2.getLessonInfo().getTeachers());
+                        
+                        Set<Teacher> commonTeachers = new HashSet<>(teachers1);
+                        commonTeachers.retainAll(teachers2);
+                        
+                        if (!commonTeachers.isEmpty()) {
+                            // Create penalty variable for consecutive lessons by same teacher
+                            BoolVar isConsecutive = fragment.newBoolVar(
+                                String.format("teacher_consecutive_%d_%d_day%d_slot%d", 
+                                    lesson1.getId(), lesson2.getId(), day, i));
                             
-                            // Check if lessons share any teachers
-                            Set<Teacher> teachers1 = new HashSet<>(lesson1.getLessonInfo().getTeachers());
-                            Set<Teacher> teachers2 = new HashSet<>(lesson2.getLessonInfo().getTeachers());
+                            // Get lesson slot variables
+                            IntVar slot1 = lessonSlots.get(lesson1);
+                            IntVar slot2 = lessonSlots.get(lesson2);
                             
-                            Set<Teacher> commonTeachers = new HashSet<>(teachers1);
-                            commonTeachers.retainAll(teachers2);
+                            // Handle double lessons
+                            boolean isDouble1 = lesson1.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+                            boolean isDouble2 = lesson2.getLessonInfo().getLessonType() == LessonType.DOUBLE;
                             
-                            if (!commonTeachers.isEmpty()) {
-                                // Create penalty variable for consecutive lessons by same teacher
-                                BoolVar isConsecutive = model.newBoolVar(
-                                    String.format("teacher_consecutive_%d_%d_day%d_slot%d", 
-                                        lesson1.getId(), lesson2.getId(), day, i));
-                                
-                                // Get lesson slot variables
-                                IntVar slot1 = lessonSlots.get(lesson1);
-                                IntVar slot2 = lessonSlots.get(lesson2);
-                                
-                                // Handle double lessons
-                                boolean isDouble1 = lesson1.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                                boolean isDouble2 = lesson2.getLessonInfo().getLessonType() == LessonType.DOUBLE;
-                                
-                                if (isDouble1) {
-                                    // If lesson1 is double, check if lesson2 starts right after lesson1's second slot
-                                    IntVar secondSlot1 = doubleLessonSecondSlots.get(lesson1);
-                                    model.addEquality(slot1, currentSlot).onlyEnforceIf(isConsecutive);
-                                    model.addEquality(secondSlot1, nextSlot - 1).onlyEnforceIf(isConsecutive);
-                                    model.addEquality(slot2, nextSlot).onlyEnforceIf(isConsecutive);
-                                } else if (isDouble2) {
-                                    // If lesson2 is double, check if it starts right after lesson1
-                                    model.addEquality(slot1, currentSlot).onlyEnforceIf(isConsecutive);
-                                    model.addEquality(slot2, nextSlot).onlyEnforceIf(isConsecutive);
-                                } else {
-                                    // Both are single lessons
-                                    model.addEquality(slot1, currentSlot).onlyEnforceIf(isConsecutive);
-                                    model.addEquality(slot2, nextSlot).onlyEnforceIf(isConsecutive);
-                                }
-                                
-                                teacherConsecutiveLessonSameStreamPenaltyVars.add(isConsecutive);
+                            if (isDouble1) {
+                                // If lesson1 is double, check if lesson2 starts right after lesson1's second slot
+                                IntVar secondSlot1 = doubleLessonSecondSlots.get(lesson1);
+                                fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isConsecutive);
+                                fragment.addEquality(secondSlot1, nextSlot - 1).onlyEnforceIf(isConsecutive);
+                                fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isConsecutive);
+                            } else if (isDouble2) {
+                                // If lesson2 is double, check if it starts right after lesson1
+                                fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isConsecutive);
+                                fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isConsecutive);
+                            } else {
+                                // Both are single lessons
+                                fragment.addEquality(slot1, currentSlot).onlyEnforceIf(isConsecutive);
+                                fragment.addEquality(slot2, nextSlot).onlyEnforceIf(isConsecutive);
                             }
+                            
+                            penaltyVars.add(isConsecutive);
                         }
                     }
                 }
             }
         }
-        
-        System.out.println("Added teacher consecutive lessons in same stream constraint with " + 
-            teacherConsecutiveLessonSameStreamPenaltyVars.size() + " penalty variables");
-    }
+   }
 
   
 
-   private void discourageScienceDoubleFirstMondayLesson() {
-          scienceDoubleFirstMondayLessonPenaltyVars = new ArrayList<>();
-          
-          // For each lesson
+   // Every slot preference is a fixed cost per lesson and start slot, so the whole family is one linear
+   // term per costed (lesson, slot) pair over the shared slot indicators, with no auxiliary variables
+   private void applySlotPreferences() {
+          List<Literal> literals = new ArrayList<>();
+          List<Long> costs = new ArrayList<>();
+          int costedLessons = 0;
+
           for (Lesson lesson : lessons) {
-              // Check if it's a double science lesson
-              if (lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE &&
-                  lesson.getLessonInfo().getSubject() != null &&
-                  SCIENCES_CATEGORY.equals(lesson.getLessonInfo().getSubject().getCategory().getName())) {
-                  
-                  // Get the decision variable for this lesson
-                  IntVar lessonSlot = lessonSlots.get(lesson);
-                  
-                  // Create a Boolean variable that is true if the lesson is in the first Monday slot
-                  BoolVar isScheduledFirstMonday = model.newBoolVar(
-                      String.format("science_double_first_monday_%d", lesson.getId()));
-                  
-                  // First slot of Monday is slot 0
-                  model.addEquality(lessonSlot, 0).onlyEnforceIf(isScheduledFirstMonday);
-                  model.addDifferent(lessonSlot, 0).onlyEnforceIf(isScheduledFirstMonday.not());
-                  
-                  scienceDoubleFirstMondayLessonPenaltyVars.add(isScheduledFirstMonday);
+              Map<Integer, Integer> costTable = slotPreferences.costTable(lesson, validStartSlots(lesson));
+              if (costTable.isEmpty()) continue;
+              costedLessons++;
+              for (Map.Entry<Integer, Integer> entry : costTable.entrySet()) {
+                  literals.add(slotIndicator(lesson, entry.getKey()));
+                  costs.add((long) entry.getValue());
               }
           }
-          
-          System.out.println("Added science double first Monday lesson constraint with " + 
-              scienceDoubleFirstMondayLessonPenaltyVars.size() + " penalty variables");
+
+          if (!literals.isEmpty()) {
+              model.minimize(LinearExpr.weightedSum(literals.toArray(new Literal[0]), costs.stream().mapToLong(Long::longValue).toArray()));
+          }
+          System.out.println("Added slot preferences " + slotPreferences.getPreferences() + " as " + literals.size() +
+              " objective terms over " + costedLessons + " lessons");
       }
 
-   private void discourageScienceDoubleAfternoonLessons() {
-          discourageScienceDoubleAfternoonLesson = new ArrayList<>();
-          
-          // For each lesson
-          for (Lesson lesson : lessons) {
-              // Check if it's a double science lesson
-              if (lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE &&
-                  lesson.getLessonInfo().getSubject() != null &&
-                  SCIENCES_CATEGORY.equals(lesson.getLessonInfo().getSubject().getCategory().getName())) {
-                  
-                  // Get the decision variable for this lesson
-                  IntVar lessonSlot = lessonSlots.get(lesson);
-                  
-                  // For each day
-                  for (int day = 0; day < D; day++) {
-                      // Find afternoon slots for this day
-                      List<Integer> afternoonSlots = new ArrayList<>();
-                      for (int slot = 0; slot < T - 1; slot++) { // -1 because double lessons need two slots
-                          int globalSlot = day * T + slot;
-                          
-                          // Check if this is an afternoon slot and the next slot is valid for a double lesson
-                          if (validClassSlots.contains(globalSlot) && 
-                              validClassSlots.contains(globalSlot + 1)) {
-                              
-                              ScheduleTimeslot currentTimeslot = schedule.getTimeslotList().get(slot);
-                              if (currentTimeslot.getTimeslotActivity() == TimeslotActivity.CLASS &&
-                                  currentTimeslot.getTimeOfDay() == TimeOfDay.AFTERNOON) {
-                                  afternoonSlots.add(globalSlot);
-                              }
-                          }
-                      }
-                      
-                      // For each afternoon slot
-                      for (int afternoonSlot : afternoonSlots) {
-                          // Create a penalty variable if the lesson is scheduled in this afternoon slot
-                          BoolVar isScheduledInAfternoon = model.newBoolVar(
-                              String.format("science_double_afternoon_d%d_l%d_s%d", 
-                                  day, lesson.getId(), afternoonSlot));
-                          
-                          model.addEquality(lessonSlot, afternoonSlot).onlyEnforceIf(isScheduledInAfternoon);
-                          model.addDifferent(lessonSlot, afternoonSlot).onlyEnforceIf(isScheduledInAfternoon.not());
-                          
-                          // Add weighted penalty
-                          IntVar weightedPenalty = model.newIntVar(0, 15, 
-                              String.format("weighted_science_double_afternoon_d%d_l%d_s%d", 
-                                  day, lesson.getId(), afternoonSlot));
-                          model.addEquality(weightedPenalty, LinearExpr.term(isScheduledInAfternoon, 15));
-                          
-                          discourageScienceDoubleAfternoonLesson.add(weightedPenalty);
-                      }
-                  }
-              }
+   // Literal that is true iff the lesson starts in the given global slot, shared by every user of the slot
+   private Literal slotIndicator(Lesson lesson, int slot) {
+          return slotIndicators.computeIfAbsent(lesson, key -> new HashMap<>()).computeIfAbsent(slot, key -> {
+              IntVar lessonSlot = lessonSlots.get(lesson);
+              BoolVar startsHere = model.newBoolVar("lesson_" + lesson.getId() + "_starts_" + slot);
+              model.addEquality(lessonSlot, slot).onlyEnforceIf(startsHere);
+              model.addDifferent(lessonSlot, slot).onlyEnforceIf(startsHere.not());
+              return startsHere;
+          });
+      }
+
+   // Constraint families plus slot preference names, so a custom preference never reuses a cached model
+   private Set<String> modelFeatures() {
+          Set<String> features = new HashSet<>(constraintMethods.keySet());
+          if (profile.isUnifyCombinedLessons()) {
+              features.add("unify_combined_lessons");
           }
-          
-          System.out.println("Added science double afternoon lesson constraint with " + 
-              discourageScienceDoubleAfternoonLesson.size() + " penalty variables");
+          if (constraintMethods.containsKey("slot_preferences")) {
+              slotPreferences.getPreferences().forEach(preference -> features.add("slot_preference:" + preference.getName()));
+          }
+          return features;
+      }
+
+   // Adds a preference to the Phase 3 objective; must be called before solve()
+   public void addSlotPreference(SlotPreference preference) {
+          slotPreferences.add(preference);
+      }
+
+   public SlotPreferenceEngine getSlotPreferences() {
+          return slotPreferences;
       }
   
   private volatile boolean shouldStop = false;
+  // Makes "check shouldStop, then start the search" atomic with cancel(); see search()
+  private final Object searchLock = new Object();
+  private boolean searching = false;
+  private volatile int currentPhase = 0;
   private volatile CpSolverStatus bestStatus = null;
   private volatile Map<Lesson, Integer> bestSolution = null;
+  private volatile Thread optimizationThread = null;
+  private volatile MinimalTimetableSolver wideRepair; // repair()'s all-lessons-free retry while it runs
+  private volatile double phase3WallTime = Double.NaN;
+  private volatile double timeToFirstSolutionSeconds = Double.NaN;
+  private volatile double bestObjective = Double.NaN;
+
+  private volatile long solveStartNanos;
+  private long perStreamBuildNanos;
+
+  private SolveCheckpointStore checkpointStore;
+  private Supplier<Map<Lesson, Integer>> hintSource;
+  private String checkpointFingerprint;
+  private SolveCheckpoint resumeCheckpoint;
+  private SolveCheckpoint phase3Start;
+  private double[] phaseSeconds = new double[4]; // Search time spent per phase, including resumed runs
+  private final List<PhaseStatistics> phaseStatistics = new CopyOnWriteArrayList<>();
+  private volatile SearchProgressLog progressLog; // Of the phase being solved, null between phases
+  private volatile long lastCheckpointNanos;
+  private final ConstraintGroups constraintGroups = new ConstraintGroups();
+  private String guardedConstraintKey;           // Phase 1 family being built, null outside buildGuarded
+  private volatile InfeasibilityCore infeasibilityCore;
+  private volatile GreedyScheduler.Result initialAssignment;
+  private TimetableValidator validator;
 
   public interface SolverCallback {
       void onPhase1Complete(CpSolverStatus status, Map<Lesson, Integer> solution);
       void onBetterSolutionFound(CpSolverStatus status, Map<Lesson, Integer> solution);
       void onError(String errorMessage);
+
+      default void onPhaseStarted(int phase) {
+      }
+
+      default void onPhaseFinished(int phase, CpSolverStatus status, SearchProgress progress) {
+      }
+
+      // Called on a CP-SAT worker thread for every improving solution, so it must return quickly
+      default void onImprovingSolution(SearchProgress progress, Map<Lesson, Integer> solution) {
+      }
+
+      // Greedy timetable built before Phase 1; unverified and possibly missing some lessons
+      default void onInitialAssignment(Map<Lesson, Integer> assignment, int unplacedLessons) {
+      }
+  }
+
+  // Objective values are NaN in phases that have no objective
+  @Getter
+  public static class SearchProgress {
+      private final int phase;
+      private final double objective;
+      private final double bestBound;
+      private final double elapsedSeconds; // Since solve() was called
+
+      public SearchProgress(int phase, double objective, double bestBound, double elapsedSeconds) {
+          this.phase = phase;
+          this.objective = objective;
+          this.bestBound = bestBound;
+          this.elapsedSeconds = elapsedSeconds;
+      }
+
+      // Relative gap between the solution and the proven bound, 0 once optimal
+      public double getGap() {
+          if (Double.isNaN(objective)) return Double.NaN;
+          return Math.abs(objective - bestBound) / Math.max(1.0, Math.abs(objective));
+      }
+  }
+
+  // Reports every improving solution of a phase to the callback
+  private class ImprovingSolutionListener extends CpSolverSolutionCallback {
+      private final int phase;
+      private final boolean hasObjective;
+      private final Lesson[] lessonOrder;
+      private final IntVar[] lessonVars;
+
+      ImprovingSolutionListener(int phase, CpModel phaseModel) {
+          this.phase = phase;
+          this.hasObjective = phaseModel.getBuilder().hasObjective();
+          this.lessonOrder = lessons.toArray(new Lesson[0]);
+          this.lessonVars = new IntVar[lessonOrder.length];
+          for (int i = 0; i < lessonOrder.length; i++) {
+              lessonVars[i] = phaseModel.getIntVarFromProtoIndex(lessonVarIndex.get(lessonOrder[i]));
+          }
+      }
+
+      @Override
+      public void onSolutionCallback() {
+          if (shouldStop) {
+              stopSearch(); // Backs up cancel() in case its stopSearch() came before the search existed
+              return;
+          }
+          SolverCallback listener = callback;
+          try {
+              Map<Lesson, Integer> solution = new HashMap<>(lessonOrder.length * 2);
+              for (int i = 0; i < lessonOrder.length; i++) {
+                  solution.put(lessonOrder[i], (int) value(lessonVars[i]));
+              }
+              if (listener != null) {
+                  SearchProgress progress = new SearchProgress(phase,
+                      hasObjective ? objectiveValue() : Double.NaN,
+                      hasObjective ? bestObjectiveBound() : Double.NaN,
+                      (System.nanoTime() - solveStartNanos) / 1e9);
+                  listener.onImprovingSolution(progress, solution);
+              }
+              checkpointInProgress(phase, solution, wallTime());
+          } catch (RuntimeException e) {
+              // Never let a listener failure propagate into the native search
+              log.warn("Improving solution listener failed in phase {}: {}", phase, e.getMessage());
+          }
+      }
   }
 
   private SolverCallback callback;
@@ -1663,6 +1944,214 @@ public class MinimalTimetableSolver {
       this.callback = callback;
   }
 
+  public void setModelCache(ModelCache modelCache) {
+      this.modelCache = modelCache;
+  }
+
+  public void setSolutionCache(SolutionCache solutionCache) {
+      this.solutionCache = solutionCache;
+  }
+
+  // Removes a constraint family before solve(), e.g. to compare runs with and without it
+  public void disableConstraint(String constraintKey) {
+      constraintMethods.remove(constraintKey);
+  }
+
+  // Blocks until the background Phase 2/3 optimization started by solve() has finished
+  @Override
+  public void awaitCompletion() throws InterruptedException {
+      Thread thread = optimizationThread;
+      if (thread != null) {
+          thread.join();
+      }
+  }
+
+  // Stops the running phase at its best solution so far and skips the remaining phases
+  @Override
+  public void cancel() {
+      boolean running;
+      synchronized (searchLock) {
+          shouldStop = true;
+          solver.stopSearch();
+          running = searching;
+      }
+      MinimalTimetableSolver retry = wideRepair;
+      if (retry != null) {
+          retry.cancel();
+      }
+      if (!running) return;
+      // CpSolver only has a search to stop once solve() has set it up, which may be just after the call
+      // above, so keep stopping until the search returns
+      long deadline = System.nanoTime() + CANCEL_RETRY_NANOS;
+      while (isSearching() && System.nanoTime() < deadline) {
+          try {
+              Thread.sleep(10);
+          } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              return;
+          }
+          solver.stopSearch();
+      }
+  }
+
+  private boolean isSearching() {
+      synchronized (searchLock) {
+          return searching;
+      }
+  }
+
+  public boolean isCancelled() {
+      return shouldStop;
+  }
+
+  // Phase being solved (1-3), 0 before solve() and after the last phase
+  @Override
+  public int getCurrentPhase() {
+      return currentPhase;
+  }
+
+  public double getPhase3WallTime() {
+      return phase3WallTime;
+  }
+
+  // Seconds from solve() to the first feasible timetable, including model construction
+  public double getTimeToFirstSolutionSeconds() {
+      return timeToFirstSolutionSeconds;
+  }
+
+  // CP-SAT statistics of every phase solved so far, in solve order; repair searches are recorded as phase 0
+  @Override
+  public List<PhaseStatistics> getPhaseStatistics() {
+      return List.copyOf(phaseStatistics);
+  }
+
+  // Phase 3 objective of the best solution, NaN until Phase 3 has run
+  public double getBestObjective() {
+      return bestObjective;
+  }
+
+  // Periodically saves the solve's progress so that a solve of the same input can resume after a crash
+  public void setCheckpointStore(SolveCheckpointStore checkpointStore) {
+      this.checkpointStore = checkpointStore;
+  }
+
+  // Checks an assignment of this solver's lessons against every hard rule without CP-SAT
+  public synchronized List<TimetableViolation> validateSolution(Map<Lesson, Integer> solution) {
+      if (validator == null) {
+          validator = new TimetableValidator(lessons, schedule, combinedStreams, teacherTimeOffs, D);
+      }
+      return validator.validate(solution);
+  }
+
+  // Greedy timetable built before Phase 1, null if the profile disables it or a cached solution was used
+  public GreedyScheduler.Result getInitialAssignment() {
+      return initialAssignment;
+  }
+
+  // Conflicting constraint groups when Phase 1 was proven infeasible, null otherwise
+  public InfeasibilityCore getInfeasibilityCore() {
+      return infeasibilityCore;
+  }
+
+  // Counting checks that prove the input infeasible without building a model; solve() runs them first
+  public FeasibilityReport screenInput() {
+      FeasibilityReport report = new FeasibilityScreener(D)
+          .teacherConflicts(constraintMethods.containsKey("teacher_conflict"))
+          .teacherUnavailability(constraintMethods.containsKey("teacher_unavailability"))
+          .combinedStreams(constraintMethods.containsKey("combined_streams_to_be_taught_at_same_time"))
+          .screen(lessons, schedule, combinedStreams, teacherTimeOffs);
+      if (!report.getIssues().isEmpty()) {
+          System.out.println("\n" + report.describe());
+      }
+      return report;
+  }
+
+  // Makes solve() skip Phases 1 and 2 and start Phase 3 from this timetable, as if resuming a checkpoint,
+  // so that Phase 3 settings can be compared from one starting point. Must be called before solve().
+  public void startAtPhase3(Map<Lesson, Integer> solution) {
+      phase3Start = new SolveCheckpoint(2, CpSolverStatus.FEASIBLE, solutionById(solution), new double[4]);
+  }
+
+  // Replaces this solver's own previous-phase solution as the hint between phases, e.g. with the
+  // best solution of a portfolio. Only used when the profile enables hintBetweenPhases.
+  public void setHintSource(Supplier<Map<Lesson, Integer>> hintSource) {
+      this.hintSource = hintSource;
+  }
+
+  public void setSolveDumper(SolveDumper solveDumper) {
+      this.solveDumper = solveDumper;
+  }
+
+  public void setModelBuildParallelism(int parallelism) {
+      this.modelBuilder = new ParallelModelBuilder(parallelism);
+  }
+
+  // Time spent building the per-stream constraint families, the part of model construction that runs in parallel
+  public double getPerStreamBuildSeconds() {
+      return perStreamBuildNanos / 1e9;
+  }
+
+  // Lessons grouped by stream, streams ordered by id and lessons kept in input order,
+  // so that fragments are merged into the model in the same order on every run
+  private Map<Stream, List<Lesson>> lessonsByStreamInIdOrder() {
+      Map<Stream, List<Lesson>> lessonsByStream = new TreeMap<>(Comparator.comparing(Stream::getId));
+      for (Lesson lesson : lessons) {
+          lessonsByStream.computeIfAbsent(lesson.getLessonInfo().getStream(), k -> new ArrayList<>()).add(lesson);
+      }
+      return lessonsByStream;
+  }
+
+  private ParallelModelBuilder.Result buildPerStream(String label, Map<Stream, ?> byStream,
+                                                     ParallelModelBuilder.FragmentTask<Stream> task) {
+      long start = System.nanoTime();
+      List<Stream> streams = new ArrayList<>(byStream.keySet());
+      ParallelModelBuilder.Result result = modelBuilder.build(model, streams, task);
+      perStreamBuildNanos += System.nanoTime() - start;
+      if (guardedConstraintKey != null) {
+          for (int i = 0; i < streams.size(); i++) {
+              int[] range = result.constraintRanges.get(i);
+              constraintGroups.record(guardedConstraintKey, "stream " + streams.get(i).getId(), range[0], range[1]);
+          }
+      }
+      System.out.println(String.format("Built %s for %d streams in %d ms on %d threads (%d constraints)",
+          label, byStream.size(), (System.nanoTime() - start) / 1_000_000, modelBuilder.getParallelism(), result.constraintsAdded));
+      return result;
+  }
+
+  private int constraintCount() {
+      return model.getBuilder().getConstraintsCount();
+  }
+
+  // Wraps a model construction stage in a JFR SolverStage event with the model size after it
+  private Runnable recorded(String stage, Runnable build) {
+      return () -> {
+          SolverStageEvent event = SolverStageEvent.start(stage);
+          int firstConstraint = constraintCount();
+          build.run();
+          event.finish(lessons.size(), streamCount, teacherCount,
+              model.getBuilder().getVariablesCount(), constraintCount(), constraintCount() - firstConstraint);
+      };
+  }
+
+  // Builds a Phase 1 constraint family so that it can be switched off by an assumption when explaining infeasibility
+  private void buildGuarded(String constraintKey, Runnable build) {
+      int firstConstraint = constraintCount();
+      guardedConstraintKey = constraintKey;
+      try {
+          build.run();
+      } finally {
+          guardedConstraintKey = null;
+      }
+      constraintGroups.recordFamily(constraintKey, firstConstraint, constraintCount());
+  }
+
+  // Narrows the constraints added since firstConstraint to one stream, teacher or group of the family being built
+  private void recordConstraintScope(String scope, int firstConstraint) {
+      if (guardedConstraintKey != null) {
+          constraintGroups.record(guardedConstraintKey, scope, firstConstraint, constraintCount());
+      }
+  }
+
   private void displayCurrentSolution() {
       synchronized (this) {
           if (bestSolution == null) {
@@ -1688,6 +2177,8 @@ public class MinimalTimetableSolver {
               // Restore the original solver values
               lessonSlots.clear();
               lessonSlots.putAll(originalSlots);
+
+              printViolations(validateSolution(bestSolution));
           } catch (Exception e) {
               System.err.println("Error displaying solution: " + e.getMessage());
               e.printStackTrace();
@@ -1695,6 +2186,15 @@ public class MinimalTimetableSolver {
         }
     }
 
+    private void printViolations(List<TimetableViolation> violations) {
+        if (violations.isEmpty()) {
+            System.out.println("\nHard rule check: no violations");
+            return;
+        }
+        System.out.println("\nHard rule check: " + violations.size() + " violations");
+        violations.stream().limit(20).forEach(violation -> System.out.println("  " + violation));
+    }
+
     private void printSolution() {
     // Debug information
     System.out.println("\nDebug Information:");
@@ -1787,36 +2287,115 @@ public class MinimalTimetableSolver {
         .forEach(entry -> System.out.println("Slot " + entry.getKey() + ": " + entry.getValue() + " lessons"));
     }
 
+    @Override
     public void solve() {
+      final long solveStart = System.nanoTime();
+      solveStartNanos = solveStart;
+      dumpRun = solveDumper != null ? solveDumper.newRun("solve") : null;
+      FeasibilityReport screening = screenInput();
+      if (!screening.isFeasible()) {
+          System.out.println("\nInput rejected before building the model");
+          if (callback != null) {
+              callback.onError(screening.describe());
+          }
+          return;
+      }
+      // Look up a previously built model and solution for exactly this input
+      final String fingerprint = modelCache != null || solutionCache != null || checkpointStore != null
+          ? TimetableFingerprint.compute(lessons, schedule, combinedStreams, teacherTimeOffs, modelFeatures(), D)
+          : null;
+      final CachedSolution cachedSolution = fingerprint != null && solutionCache != null ? solutionCache.get(fingerprint) : null;
+
+      if (cachedSolution != null && cachedSolution.covers(timeBudgetSeconds())) {
+          System.out.println("\nSolution cache hit (" + fingerprint + "), returning cached " + cachedSolution.getStatus() + " solution");
+          synchronized (this) {
+              bestStatus = cachedSolution.getStatus();
+              bestSolution = toLessonSolution(cachedSolution);
+          }
+          if (callback != null) {
+              callback.onPhase1Complete(bestStatus, bestSolution);
+          }
+          displayCurrentSolution();
+          return;
+      }
+      if (cachedSolution != null) {
+          System.out.println(String.format("\nCached solution was found with a %.0fs budget, re-solving with %.0fs starting from it",
+              cachedSolution.getTimeBudgetSeconds(), timeBudgetSeconds()));
+      }
+
+      final CachedModel cachedModel = fingerprint != null && modelCache != null ? modelCache.get(fingerprint) : null;
+      checkpointFingerprint = checkpointStore != null ? fingerprint : null;
+      resumeCheckpoint = phase3Start != null ? phase3Start : checkpointStore != null ? checkpointStore.load(fingerprint) : null;
+      phaseSeconds = resumeCheckpoint != null ? resumeCheckpoint.getPhaseSeconds().clone() : new double[4];
+      lastCheckpointNanos = System.nanoTime();
+      // Hints come from the cached solution if there is one, otherwise from the checkpoint being resumed
+      final CachedSolution startingPoint = cachedSolution != null ? cachedSolution
+          : resumeCheckpoint != null ? new CachedSolution(resumeCheckpoint.getLessonSlots(), resumeCheckpoint.getStatus(), Double.NaN, 0) : null;
+      if (resumeCheckpoint != null) {
+          System.out.println(String.format("\nResuming from checkpoint after Phase %d (%.0fs of search already spent)",
+              resumeCheckpoint.getCompletedPhase(), resumeCheckpoint.getElapsedSeconds()));
+      }
+      if (startingPoint == null && profile.isGreedyStart()) {
+          buildInitialAssignment();
+      }
+      final List<CpModelProto> phaseSnapshots = new ArrayList<>();
+
       System.out.println("\nStarting Phase 1: Core Constraints");
       System.out.println("---------------------------------");
       
       // Phase 1: Core Constraints
-      createDecisionVariables();
-      enforceLessonNonOverlapConstraints();
-      enforceDoubleLessonConstraints();
-      oneLessonPerTimeslotPerStreamPerDay();
-      applyCombinedSubjectsConstraint();
-      applyPhase1Constraints();
+      CpModel phase1Model;
+      if (cachedModel != null) {
+          System.out.println("Model cache hit (" + fingerprint + "), skipping model construction");
+          useCachedLessonVarIndex(cachedModel);
+          phase1Model = cachedModel.toCpModel(1);
+      } else {
+          recorded("decision_variables", this::createDecisionVariables).run();
+          buildGuarded("lesson_non_overlap", recorded("lesson_non_overlap", this::enforceLessonNonOverlapConstraints));
+          buildGuarded("double_lessons", recorded("double_lessons", this::enforceDoubleLessonConstraints));
+          buildGuarded("one_lesson_per_timeslot", recorded("one_lesson_per_timeslot", this::oneLessonPerTimeslotPerStreamPerDay));
+          buildGuarded("combined_subjects", recorded("combined_subjects", this::applyCombinedSubjectsConstraint));
+          applyPhase1Constraints();
+          recordLessonVarIndex();
+          System.out.println(String.format("Phase 1 model: %d variables, %d constraints (%d combined lessons unified)",
+              model.getBuilder().getVariablesCount(), constraintCount(), unifiedLessonCount));
+          phaseSnapshots.add(model.getBuilder().build());
+          phase1Model = model;
+      }
+      hintFromCachedSolution(phase1Model, startingPoint);
+      if (startingPoint == null && initialAssignment != null) {
+          hintFromAssignment(phase1Model, initialAssignment.getAssignment());
+      }
       
       // Try to solve with Phase 1 constraints
-      CpSolverStatus phase1Status = solver.solve(model);
+      if (shouldStop) {
+          System.out.println("\nSolve cancelled before Phase 1");
+          return;
+      }
+      CpSolverStatus phase1Status = resumedPast(1) ? resumeCheckpoint.getStatus() : solvePhase(1, phase1Model);
       
       if (phase1Status != CpSolverStatus.OPTIMAL && phase1Status != CpSolverStatus.FEASIBLE) {
+          currentPhase = 0;
+          deleteCheckpoint();
           System.out.println("\nPhase 1 failed: No solution found with core constraints");
-          System.out.println("Analyzing conflicts...");
+          String explanation = "";
+          if (phase1Status == CpSolverStatus.INFEASIBLE && profile.isExplainInfeasibility() && !constraintGroups.isEmpty() && !shouldStop) {
+              System.out.println("Analyzing conflicts...");
+              infeasibilityCore = constraintGroups.extractCore(phase1Model.getBuilder().build(), profile);
+              explanation = ". " + infeasibilityCore.describe();
+              System.out.println(infeasibilityCore.describe());
+          }
           if (callback != null) {
-              callback.onError("Phase 1 failed: No solution found with core constraints");
+              callback.onError("Phase 1 failed: No solution found with core constraints" + explanation);
           }
           return;
       }
       
       // Store the first feasible solution
       bestStatus = phase1Status;
-      bestSolution = new HashMap<>();
-      for (Lesson lesson : lessons) {
-          bestSolution.put(lesson, (int) solver.value(lessonSlots.get(lesson)));
-      }
+      bestSolution = resumedPast(1) ? toLessonSolution(startingPoint) : extractSolution();
+      checkpointPhase(1);
+      timeToFirstSolutionSeconds = (System.nanoTime() - solveStart) / 1e9;
       
       
       // Notify callback about Phase 1 completion
@@ -1829,24 +2408,37 @@ public class MinimalTimetableSolver {
       displayCurrentSolution();
       
       // Start background optimization
-      Thread optimizationThread = new Thread(() -> {
+      optimizationThread = new Thread(() -> {
           try {
               System.out.println("\nStarting Phase 2: Additional Hard Constraints");
               System.out.println("--------------------------------------------");
               
               // Phase 2: Additional Hard Constraints
-              applyPhase2Constraints();
+              CpModel phase2Model;
+              if (cachedModel != null) {
+                  phase2Model = cachedModel.toCpModel(2);
+              } else {
+                  applyPhase2Constraints();
+                  model.clearHints();
+                  phaseSnapshots.add(model.getBuilder().build());
+                  phase2Model = model;
+              }
+              hintFromCachedSolution(phase2Model, startingPoint);
+              hintFromPreviousPhase(phase2Model, startingPoint);
               
               // Try to solve with Phase 2 constraints
-              CpSolverStatus phase2Status = solver.solve(model);
+              if (shouldStop) {
+                  System.out.println("\nSolve cancelled after Phase 1");
+                  return;
+              }
+              CpSolverStatus phase2Status = resumedPast(2) ? null : solvePhase(2, phase2Model);
               
-              if (phase2Status == CpSolverStatus.OPTIMAL || phase2Status == CpSolverStatus.FEASIBLE) {
+              if (resumedPast(2)) {
+                  System.out.println("\nPhase 2 already completed before the checkpoint, continuing from its solution");
+              } else if (phase2Status == CpSolverStatus.OPTIMAL || phase2Status == CpSolverStatus.FEASIBLE) {
                   synchronized (this) {
                       bestStatus = phase2Status;
-                      bestSolution.clear();
-                      for (Lesson lesson : lessons) {
-                          bestSolution.put(lesson, (int) solver.value(lessonSlots.get(lesson)));
-                      }
+                      bestSolution = extractSolution();
                   }
                  
                   // Notify callback about better solution
@@ -1858,68 +2450,620 @@ public class MinimalTimetableSolver {
               } else {
                   System.out.println("\nPhase 2 did not find a better solution. Keeping previous solution.");
               }
+              checkpointPhase(2);
               
               System.out.println("\nStarting Phase 3: Soft Constraints");
               System.out.println("---------------------------------");
               
               // Phase 3: Soft Constraints
-              applyPhase3Constraints();
+              CpModel phase3Model;
+              if (cachedModel != null) {
+                  phase3Model = cachedModel.toCpModel(3);
+              } else {
+                  applyPhase3Constraints();
+                  model.clearHints();
+                  phaseSnapshots.add(model.getBuilder().build());
+                  phase3Model = model;
+                  if (fingerprint != null && modelCache != null) {
+                      modelCache.put(fingerprint, new CachedModel(lessonVarIndexById(), phaseSnapshots));
+                  }
+              }
+              hintFromCachedSolution(phase3Model, startingPoint);
+              hintFromPreviousPhase(phase3Model, startingPoint);
+              boolean mustImprove = requireImprovementOver(phase3Model, cachedSolution);
               
               // Try to solve with all constraints
-              CpSolverStatus finalStatus = solver.solve(model);
-              
+              if (shouldStop) {
+                  System.out.println("\nSolve cancelled after Phase 2");
+                  return;
+              }
+              CpSolverStatus finalStatus = solvePhase(3, phase3Model);
+              phase3WallTime = solver.wallTime();
+              // Only a search that found a solution has an objective of its own that may be cached
+              boolean cacheable = false;
+              double finalObjective = Double.NaN;
+
               if (finalStatus == CpSolverStatus.OPTIMAL || finalStatus == CpSolverStatus.FEASIBLE) {
                   synchronized (this) {
                       bestStatus = finalStatus;
-                      bestSolution.clear();
-                      for (Lesson lesson : lessons) {
-                          bestSolution.put(lesson, (int) solver.value(lessonSlots.get(lesson)));
-                      }
+                      bestSolution = extractSolution();
                   }
+                  finalObjective = phase3Model.getBuilder().hasObjective() ? solver.objectiveValue() : Double.NaN;
+                  cacheable = true;
                   // Notify callback about better solution
                   if (callback != null) {
                       callback.onBetterSolutionFound(finalStatus, bestSolution);
                   }
                   System.out.println("\nFound optimal solution. Updating display...");
                   displayCurrentSolution();
+                } else if (mustImprove && finalStatus == CpSolverStatus.INFEASIBLE) {
+                  // Nothing beats the cached objective, which proves the cached solution optimal
+                  System.out.println("\nNo improvement over the cached solution exists. Cached solution is optimal.");
+                  synchronized (this) {
+                      bestStatus = CpSolverStatus.OPTIMAL;
+                      bestSolution = toLessonSolution(cachedSolution);
+                  }
+                  finalObjective = cachedSolution.getObjective();
+                  cacheable = true;
+                } else if (cachedSolution != null) {
+                  // The Phase 2 solution has no Phase 3 objective, so the cached full solution is the better one
+                  System.out.println("\nPhase 3 did not find a better solution. Keeping the cached solution.");
+                  synchronized (this) {
+                      bestStatus = cachedSolution.getStatus();
+                      bestSolution = toLessonSolution(cachedSolution);
+                  }
+                  finalObjective = cachedSolution.getObjective();
                 } else {
                   System.out.println("\nPhase 3 did not find a better solution. Keeping previous solution.");
             }
 
+              bestObjective = finalObjective;
+              // A cancelled search did not use its whole budget, so its result must not be reused as final
+              if (cacheable && !shouldStop && fingerprint != null && solutionCache != null && bestSolution != null) {
+                  solutionCache.put(fingerprint, new CachedSolution(solutionById(bestSolution), bestStatus, finalObjective, timeBudgetSeconds()));
+              }
+              // A cancelled solve keeps its checkpoint so it can be resumed
+              if (!shouldStop) {
+                  deleteCheckpoint();
+              }
+
           } catch (Exception e) {
               System.err.println("Error during optimization: " + e.getMessage());
               e.printStackTrace();
               if (callback != null) {
                   callback.onError("Error during optimization: " + e.getMessage());
               }
+          } finally {
+              currentPhase = 0;
           }
       });
       
       optimizationThread.start();
     }
 
+    // Slot variable index of every lesson in the model, so solutions can be read from a model
+    // that was loaded from the cache instead of built through lessonSlots
+    private void recordLessonVarIndex() {
+      lessonVarIndex = new HashMap<>();
+      for (Lesson lesson : lessons) {
+          lessonVarIndex.put(lesson, lessonSlots.get(lesson).getIndex());
+      }
+    }
+
+    private void useCachedLessonVarIndex(CachedModel cachedModel) {
+      lessonVarIndex = new HashMap<>();
+      for (Lesson lesson : lessons) {
+          lessonVarIndex.put(lesson, cachedModel.getLessonVarIndex().get(lesson.getId()));
+      }
+    }
+
+    private Map<Long, Integer> lessonVarIndexById() {
+      Map<Long, Integer> byId = new HashMap<>();
+      for (Map.Entry<Lesson, Integer> entry : lessonVarIndex.entrySet()) {
+          byId.put(entry.getKey().getId(), entry.getValue());
+      }
+      return byId;
+    }
+
+    // Total time a solve() call may spend; a cached solution found with at least this budget is reused as is
+    private double timeBudgetSeconds() {
+      return profile.totalTimeLimitSeconds();
+    }
+
+    private Map<Lesson, Integer> toLessonSolution(CachedSolution cachedSolution) {
+      Map<Lesson, Integer> solution = new HashMap<>();
+      for (Lesson lesson : lessons) {
+          solution.put(lesson, cachedSolution.getLessonSlots().get(lesson.getId()));
+      }
+      return solution;
+    }
+
+    private static Map<Long, Integer> solutionById(Map<Lesson, Integer> solution) {
+      Map<Long, Integer> byId = new HashMap<>();
+      for (Map.Entry<Lesson, Integer> entry : solution.entrySet()) {
+          byId.put(entry.getKey().getId(), entry.getValue());
+      }
+      return byId;
+    }
+
+    private void hintFromCachedSolution(CpModel phaseModel, CachedSolution cachedSolution) {
+      if (cachedSolution == null) return;
+      addLessonHints(phaseModel, lesson -> cachedSolution.getLessonSlots().get(lesson.getId()));
+    }
+
+    private void hintFromAssignment(CpModel phaseModel, Map<Lesson, Integer> assignment) {
+      addLessonHints(phaseModel, assignment::get);
+    }
+
+    // Hints every slot variable once; the lessons of a unified combined group share theirs. With symmetry breaking
+    // on, a timetable found in another order (greedy, cached, or from a run without it) is reordered to fit it first.
+    private void addLessonHints(CpModel phaseModel, Function<Lesson, Integer> slotOf) {
+      Function<Lesson, Integer> hintOf = constraintMethods.containsKey("symmetry_breaking") ? inSymmetryOrder(slotOf) : slotOf;
+      Set<Integer> hinted = new HashSet<>();
+      for (Lesson lesson : lessons) {
+          Integer slot = hintOf.apply(lesson);
+          Integer varIndex = lessonVarIndex.get(lesson);
+          if (slot != null && varIndex != null && hinted.add(varIndex)) {
+              phaseModel.addHint(phaseModel.getIntVarFromProtoIndex(varIndex), slot);
+          }
+      }
+    }
+
+    // Hands each interchangeable class's slots to its lessons in increasing order, as the symmetry breaking
+    // constraints require; lessons without a slot come last in their class and stay unhinted
+    private Function<Lesson, Integer> inSymmetryOrder(Function<Lesson, Integer> slotOf) {
+      Map<Lesson, Integer> reordered = new HashMap<>();
+      for (List<Lesson> interchangeable : findInterchangeableLessons()) {
+          List<Integer> slots = interchangeable.stream()
+              .map(slotOf)
+              .filter(Objects::nonNull)
+              .sorted()
+              .collect(Collectors.toList());
+          for (int i = 0; i < interchangeable.size(); i++) {
+              reordered.put(interchangeable.get(i), i < slots.size() ? slots.get(i) : null);
+          }
+      }
+      return lesson -> reordered.containsKey(lesson) ? reordered.get(lesson) : slotOf.apply(lesson);
+    }
+
+    private void buildInitialAssignment() {
+      initialAssignment = new GreedyScheduler(lessons, schedule, combinedStreams, teacherTimeOffs, D).schedule();
+      System.out.println(String.format("\nGreedy initial timetable: %d of %d lessons placed in %.1f ms",
+          initialAssignment.getAssignment().size(), lessons.size(), initialAssignment.getMillis()));
+      if (callback != null) {
+          callback.onInitialAssignment(initialAssignment.getAssignment(), initialAssignment.getUnplaced().size());
+      }
+    }
+
+    // Starts a phase from the previous phase's solution (or the hint source's) unless a cached solution already provides hints
+    private void hintFromPreviousPhase(CpModel phaseModel, CachedSolution cachedSolution) {
+      if (cachedSolution != null || !profile.isHintBetweenPhases()) return;
+      Map<Lesson, Integer> previous = hintSource != null ? hintSource.get() : getBestSolution();
+      if (previous == null) return;
+      addLessonHints(phaseModel, previous::get);
+    }
+
+    // Restricts the objective to values strictly better than the cached one. Returns false if there is nothing to beat.
+    private boolean requireImprovementOver(CpModel phaseModel, CachedSolution cachedSolution) {
+      if (cachedSolution == null || !cachedSolution.hasObjective() || !phaseModel.getBuilder().hasObjective()) {
+          return false;
+      }
+
+      CpObjectiveProto objective = phaseModel.getBuilder().getObjective();
+      double scale = objective.getScalingFactor() == 0 ? 1 : objective.getScalingFactor();
+      double unscaled = cachedSolution.getObjective() / scale - objective.getOffset();
+
+      IntVar[] vars = new IntVar[objective.getVarsCount()];
+      long[] coeffs = new long[objective.getVarsCount()];
+      for (int i = 0; i < vars.length; i++) {
+          vars[i] = phaseModel.getIntVarFromProtoIndex(objective.getVars(i));
+          coeffs[i] = objective.getCoeffs(i);
+      }
+
+      LinearExpr objectiveExpr = LinearExpr.weightedSum(vars, coeffs);
+      if (scale > 0) {
+          phaseModel.addLessOrEqual(objectiveExpr, (long) Math.ceil(unscaled - 1e-9) - 1);
+      } else {
+          phaseModel.addGreaterOrEqual(objectiveExpr, (long) Math.floor(unscaled + 1e-9) + 1);
+      }
+      System.out.println("Requiring an objective better than the cached " + cachedSolution.getObjective());
+      return true;
+    }
+
+    // Solves one phase within its time limit, reporting progress to the callback
+    private CpSolverStatus solvePhase(int phase, CpModel phaseModel) {
+      currentPhase = phase;
+      // A resumed phase only gets the part of its time limit that the interrupted run did not use
+      double timeLimit = profile.timeLimitSeconds(phase);
+      solver.getParameters().setMaxTimeInSeconds(Math.max(Math.min(1.0, timeLimit), timeLimit - phaseSeconds[phase]));
+      if (callback != null) {
+          callback.onPhaseStarted(phase);
+      }
+      double spentBefore = phaseSeconds[phase];
+      SearchProgressLog phaseLog = profile.isRecordSearchProgress() ? new SearchProgressLog() : null;
+      progressLog = phaseLog;
+      PhaseSolveEvent solveEvent = PhaseSolveEvent.start(phase);
+      CpSolverStatus status = search(phaseModel,
+          callback != null || checkpointStore != null ? new ImprovingSolutionListener(phase, phaseModel) : null);
+      progressLog = null;
+      phaseSeconds[phase] = spentBefore + solver.wallTime();
+      PhaseStatistics statistics = new PhaseStatistics(phase, lessons.size(), phaseModel.getBuilder(), solver.response(), phaseLog);
+      solveEvent.finish(statistics, streamCount, teacherCount, solver.getParameters().getNumSearchWorkers());
+      phaseStatistics.add(statistics);
+      dumpPhase("phase" + phase, phaseModel);
+      if (callback != null) {
+          boolean hasObjective = phaseModel.getBuilder().hasObjective();
+          boolean solved = status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE;
+          callback.onPhaseFinished(phase, status, new SearchProgress(phase,
+              hasObjective && solved ? solver.objectiveValue() : Double.NaN,
+              hasObjective ? solver.bestObjectiveBound() : Double.NaN,
+              (System.nanoTime() - solveStartNanos) / 1e9));
+      }
+      return status;
+    }
+
+    // Runs one CP-SAT search. A search cancelled just before it starts gets no time, so it returns at once
+    // with an UNKNOWN status and the usual response instead of running to its time limit.
+    private CpSolverStatus search(CpModel searchModel, CpSolverSolutionCallback listener) {
+      synchronized (searchLock) {
+          if (shouldStop) {
+              solver.getParameters().setMaxTimeInSeconds(0);
+          }
+          searching = true;
+      }
+      try {
+          return listener != null ? solver.solve(searchModel, listener) : solver.solve(searchModel);
+      } finally {
+          synchronized (searchLock) {
+              searching = false;
+          }
+      }
+    }
+
+    private void onSearchLogLine(String line) {
+      SearchProgressLog phaseLog = progressLog;
+      if (phaseLog != null) {
+          phaseLog.accept(line);
+      }
+      if (profile.getSearchLog() == SolverProfile.SearchLog.SLF4J) {
+          log.info(line);
+      } else if (profile.getSearchLog() == SolverProfile.SearchLog.STDERR) {
+          System.err.println(line);
+      }
+    }
+
+    private boolean resumedPast(int phase) {
+      return resumeCheckpoint != null && resumeCheckpoint.getCompletedPhase() >= phase;
+    }
+
+    // Records that a phase has been completed, with the best solution so far
+    private void checkpointPhase(int phase) {
+      if (checkpointStore == null || resumedPast(phase) || bestSolution == null) return;
+      checkpointStore.save(checkpointFingerprint, new SolveCheckpoint(phase, bestStatus, solutionById(bestSolution), phaseSeconds.clone()));
+      lastCheckpointNanos = System.nanoTime();
+    }
+
+    // Called for improving solutions inside a phase; writes at most one checkpoint per interval
+    private void checkpointInProgress(int phase, Map<Lesson, Integer> solution, double phaseWallTime) {
+      if (checkpointStore == null || (System.nanoTime() - lastCheckpointNanos) / 1e9 < checkpointStore.getIntervalSeconds()) return;
+      double[] seconds = phaseSeconds.clone();
+      seconds[phase] += phaseWallTime;
+      checkpointStore.save(checkpointFingerprint, new SolveCheckpoint(phase - 1, CpSolverStatus.FEASIBLE, solutionById(solution), seconds));
+      lastCheckpointNanos = System.nanoTime();
+    }
+
+    private void deleteCheckpoint() {
+      if (checkpointStore != null) {
+          checkpointStore.delete(checkpointFingerprint);
+      }
+    }
+
+    // Hands the model, parameters and response of the phase just solved to the dumper, if dumping is enabled
+    private void dumpPhase(String phase, CpModel phaseModel) {
+      if (solveDumper == null) return;
+      solveDumper.dumpPhase(dumpRun, phase, phaseModel.getBuilder().build(), solver.getParameters().build(), solver.response());
+    }
+
+    private Map<Lesson, Integer> extractSolution() {
+      SolverStageEvent event = SolverStageEvent.start("solution_extraction");
+      Map<Lesson, Integer> solution = new HashMap<>();
+      CpSolverResponse response = solver.response();
+      for (Lesson lesson : lessons) {
+          solution.put(lesson, (int) response.getSolution(lessonVarIndex.get(lesson)));
+      }
+      event.finish(lessons.size(), streamCount, teacherCount, 0, 0, 0);
+      return solution;
+    }
+
+    // Incremental re-solve: lessons untouched by the change set keep their persisted slot,
+    // the affected streams/teachers plus a teacher neighbourhood are re-placed with as few moves as possible
+    public CpSolverStatus repair(TimetableChangeSet changes) {
+      System.out.println("\nStarting Incremental Repair");
+      System.out.println("---------------------------");
+
+      Map<Lesson, Integer> previous = persistedAssignment();
+      Set<Lesson> freeLessons = findLessonsToFree(changes, previous);
+      System.out.println(String.format("Persisted assignments: %d, lessons freed for repair: %d of %d",
+          previous.size(), freeLessons.size(), lessons.size()));
+
+      CpSolverStatus status = repairWithFreeLessons(freeLessons, previous);
+
+      if (status != CpSolverStatus.OPTIMAL && status != CpSolverStatus.FEASIBLE && freeLessons.size() < lessons.size()
+          && !shouldStop) {
+          // The neighbourhood was too tight - retry with every lesson free, still minimising moves
+          System.out.println("\nRepair neighbourhood infeasible (" + status + "), retrying with all lessons free");
+          MinimalTimetableSolver retry = new MinimalTimetableSolver(lessons, schedule, combinedStreams, teacherTimeOffs, lessonRepo, profile);
+          retry.setCallback(callback);
+          retry.solveDumper = solveDumper;
+          retry.constraintMethods.keySet().retainAll(constraintMethods.keySet());
+          Set<String> retryPreferences = retry.slotPreferences.getPreferences().stream()
+              .map(SlotPreference::getName)
+              .collect(Collectors.toSet());
+          slotPreferences.getPreferences().stream()
+              .filter(preference -> !retryPreferences.contains(preference.getName()))
+              .forEach(retry::addSlotPreference);
+          // cancel() sets shouldStop before it reads wideRepair, so one of the two sides always sees the other
+          wideRepair = retry;
+          if (shouldStop) {
+              retry.cancel();
+          }
+          try {
+              status = retry.repairWithFreeLessons(new HashSet<>(lessons), previous);
+          } finally {
+              wideRepair = null;
+              phaseStatistics.addAll(retry.getPhaseStatistics());
+          }
+          synchronized (this) {
+              bestStatus = retry.bestStatus;
+              bestSolution = retry.bestSolution;
+          }
+      }
+      return status;
+    }
+
+    private CpSolverStatus repairWithFreeLessons(Set<Lesson> freeLessons, Map<Lesson, Integer> previous) {
+      // Moves are counted per lesson id, so interchangeable lessons must keep their own previous slot
+      disableConstraint("symmetry_breaking");
+      createDecisionVariables();
+      enforceLessonNonOverlapConstraints();
+      enforceDoubleLessonConstraints();
+      oneLessonPerTimeslotPerStreamPerDay();
+      applyCombinedSubjectsConstraint();
+      applyPhase1Constraints();
+      applyPhase2Constraints();
+
+      List<BoolVar> movedVars = new ArrayList<>();
+      Set<Integer> hinted = new HashSet<>();
+      for (Lesson lesson : lessons) {
+          Integer previousSlot = previous.get(lesson);
+          if (previousSlot == null) continue; // New lesson - nothing to stay close to
+
+          IntVar lessonSlot = lessonSlots.get(lesson);
+          if (!freeLessons.contains(lesson)) {
+              model.addEquality(lessonSlot, previousSlot);
+              continue;
+          }
+
+          if (hinted.add(lessonSlot.getIndex())) {
+              model.addHint(lessonSlot, previousSlot);
+          }
+          BoolVar moved = model.newBoolVar("repair_moved_" + lesson.getId());
+          model.addEquality(lessonSlot, previousSlot).onlyEnforceIf(moved.not());
+          movedVars.add(moved);
+      }
+      model.minimize(LinearExpr.sum(movedVars.toArray(new BoolVar[0])));
+
+      solver.getParameters().setMaxTimeInSeconds(profile.getRepairTimeLimitSeconds());
+      CpSolverStatus status = search(model, null);
+      phaseStatistics.add(new PhaseStatistics(0, lessons.size(), model.getBuilder(), solver.response(), null));
+      if (solveDumper != null) {
+          dumpRun = solveDumper.newRun("repair");
+          dumpPhase("repair", model);
+      }
+
+      if (status != CpSolverStatus.OPTIMAL && status != CpSolverStatus.FEASIBLE) {
+          System.out.println("\nRepair failed: " + status);
+          return status;
+      }
+
+      synchronized (this) {
+          bestStatus = status;
+          bestSolution = new HashMap<>();
+          for (Lesson lesson : lessons) {
+              bestSolution.put(lesson, (int) solver.value(lessonSlots.get(lesson)));
+          }
+      }
+      System.out.println(String.format("\nRepair finished with status %s: %d lessons moved in %.2f seconds",
+          status, (long) solver.objectiveValue(), solver.wallTime()));
+
+      if (callback != null) {
+          callback.onBetterSolutionFound(status, bestSolution);
+      }
+      displayCurrentSolution();
+      return status;
+    }
+
+    // Lessons whose persisted day/timeslot still maps to a valid slot of this schedule
+    private Map<Lesson, Integer> persistedAssignment() {
+      Map<Long, Integer> slotIndexByTimeslotId = new HashMap<>();
+      for (int slot = 0; slot < T; slot++) {
+          slotIndexByTimeslotId.put(schedule.getTimeslotList().get(slot).getId(), slot);
+      }
+
+      Map<Lesson, Integer> assignment = new HashMap<>();
+      for (Lesson lesson : lessons) {
+          if (lesson.getDayOfWeek() == null || lesson.getTimeslot() == null) continue;
+
+          Integer slot = slotIndexByTimeslotId.get(lesson.getTimeslot().getId());
+          int day = lesson.getDayOfWeek().getValue() - 1;
+          if (slot == null || day >= D) continue;
+
+          int globalSlot = day * T + slot;
+          boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+          if (!validClassSlots.contains(globalSlot)) continue;
+          if (isDouble && (slot == T - 1 || !validClassSlots.contains(globalSlot + 1))) continue;
+
+          assignment.put(lesson, globalSlot);
+      }
+      return assignment;
+    }
+
+    // Frees the lessons the change set touches, then neighborhoodDepth hops of lessons that share a teacher or
+    // stream with a freed lesson on the day that lesson was on. A lesson without a persisted slot has no day of
+    // its own, so its neighbours on every day are freed.
+    private Set<Lesson> findLessonsToFree(TimetableChangeSet changes, Map<Lesson, Integer> previous) {
+      Set<Integer> allDays = new HashSet<>();
+      for (int day = 0; day < D; day++) {
+          allDays.add(day);
+      }
+      // Lesson -> days on which its teachers' and stream's lessons are freed in the next hop
+      Map<Lesson, Set<Integer>> frontier = new HashMap<>();
+
+      for (Lesson lesson : lessons) {
+          if (!previous.containsKey(lesson)) {
+              frontier.put(lesson, allDays);
+          }
+      }
+      for (Lesson lesson : changes.getAddedLessons()) {
+          Integer slot = previous.get(lesson);
+          frontier.put(lesson, slot != null ? Set.of(slot / T) : allDays);
+      }
+      // Removed lessons are no longer in the timetable, but their day is where the gap they leave is
+      for (Lesson lesson : changes.getRemovedLessons()) {
+          if (lesson.getDayOfWeek() != null && lesson.getDayOfWeek().getValue() <= D) {
+              frontier.put(lesson, Set.of(lesson.getDayOfWeek().getValue() - 1));
+          }
+      }
+
+      Map<Long, Integer> slotIndexByTimeslotId = new HashMap<>();
+      for (int slot = 0; slot < T; slot++) {
+          slotIndexByTimeslotId.put(schedule.getTimeslotList().get(slot).getId(), slot);
+      }
+      for (TeacherTimeOff timeOff : changes.getChangedTeacherTimeOffs()) {
+          Integer slot = slotIndexByTimeslotId.get(timeOff.getTimeslot().getId());
+          int day = timeOff.getDayOfWeek().getValue() - 1;
+          if (slot == null || day >= D) continue;
+          int offSlot = day * T + slot;
+          // Only lessons now clashing with the time off have to move
+          for (Lesson lesson : lessons) {
+              Integer lessonSlot = previous.get(lesson);
+              if (lessonSlot == null || !teacherIds(lesson).contains(timeOff.getTeacher().getId())) continue;
+              boolean isDouble = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+              if (lessonSlot == offSlot || (isDouble && lessonSlot + 1 == offSlot)) {
+                  frontier.put(lesson, Set.of(day));
+              }
+          }
+      }
+      for (CombinedStream combinedStream : changes.getChangedCombinedStreams()) {
+          Set<Integer> streamIds = combinedStream.getConstituentStreams().stream().map(Stream::getId).collect(Collectors.toSet());
+          Long subjectId = combinedStream.getSubject() != null ? combinedStream.getSubject().getId() : null;
+          for (Lesson lesson : lessons) {
+              LessonInfo info = lesson.getLessonInfo();
+              Integer lessonSlot = previous.get(lesson);
+              if (lessonSlot != null && streamIds.contains(info.getStream().getId())
+                  && info.getSubject() != null && Objects.equals(info.getSubject().getId(), subjectId)) {
+                  frontier.put(lesson, Set.of(lessonSlot / T));
+              }
+          }
+      }
+
+      // Removed lessons only lead to their neighbours; they are not part of the repair themselves
+      Set<Lesson> freeLessons = new HashSet<>(frontier.keySet());
+      freeLessons.retainAll(new HashSet<>(lessons));
+      int directlyAffected = freeLessons.size();
+
+      // Keyed by id, since removed lessons may come from an earlier load of the school than this solver's
+      Map<Long, List<Lesson>> lessonsByTeacherId = new HashMap<>();
+      Map<Integer, List<Lesson>> lessonsByStreamId = new HashMap<>();
+      for (Lesson lesson : lessons) {
+          if (!previous.containsKey(lesson)) continue; // Already free
+          for (Long teacherId : teacherIds(lesson)) {
+              lessonsByTeacherId.computeIfAbsent(teacherId, k -> new ArrayList<>()).add(lesson);
+          }
+          lessonsByStreamId.computeIfAbsent(lesson.getLessonInfo().getStream().getId(), k -> new ArrayList<>()).add(lesson);
+      }
+
+      for (int hop = 0; hop < changes.getNeighborhoodDepth() && !frontier.isEmpty(); hop++) {
+          Map<Lesson, Set<Integer>> next = new HashMap<>();
+          for (Map.Entry<Lesson, Set<Integer>> entry : frontier.entrySet()) {
+              List<Lesson> neighbours = new ArrayList<>();
+              for (Long teacherId : teacherIds(entry.getKey())) {
+                  neighbours.addAll(lessonsByTeacherId.getOrDefault(teacherId, List.of()));
+              }
+              neighbours.addAll(lessonsByStreamId.getOrDefault(entry.getKey().getLessonInfo().getStream().getId(), List.of()));
+              for (Lesson neighbour : neighbours) {
+                  int day = previous.get(neighbour) / T;
+                  if (entry.getValue().contains(day) && freeLessons.add(neighbour)) {
+                      next.put(neighbour, Set.of(day));
+                  }
+              }
+          }
+          frontier = next;
+      }
+
+      System.out.println(String.format("Lessons affected by the changes: %d, freed with their neighbourhood: %d",
+          directlyAffected, freeLessons.size()));
+      return freeLessons;
+    }
+
+    private static Set<Long> teacherIds(Lesson lesson) {
+      return lesson.getLessonInfo().getTeachers().stream().map(Teacher::getId).collect(Collectors.toSet());
+    }
+
+    @Override
+    public synchronized Map<Lesson, Integer> getBestSolution() {
+      return bestSolution;
+    }
+
+    @Override
+    public CpSolverStatus getBestStatus() {
+      return bestStatus;
+    }
+
+    // Writes the best solution back onto the lesson entities (dayOfWeek + timeslot of the first slot)
+    public synchronized void applyBestSolutionToLessons() {
+      if (bestSolution == null) return;
+      for (Map.Entry<Lesson, Integer> entry : bestSolution.entrySet()) {
+          int globalSlot = entry.getValue();
+          entry.getKey().setDayOfWeek(DayOfWeek.of(globalSlot / T + 1));
+          entry.getKey().setTimeslot(schedule.getTimeslotList().get(globalSlot % T));
+      }
+    }
+
     private void applyPhase1Constraints() {
         System.out.println("Applying Phase 1 constraints:");
         // Core constraints that must be satisfied
         if (constraintMethods.containsKey("teacher_conflict")) {
             System.out.println("- Teacher conflict constraints");
-            constraintMethods.get("teacher_conflict").run();
+            buildGuarded("teacher_conflict", constraintMethods.get("teacher_conflict"));
         }
         if (constraintMethods.containsKey("teacher_unavailability")) {
             System.out.println("- Teacher unavailability constraints");
-            constraintMethods.get("teacher_unavailability").run();
+            buildGuarded("teacher_unavailability", constraintMethods.get("teacher_unavailability"));
         }
         if (constraintMethods.containsKey("lesson_distribution")) {
             System.out.println("- Lesson distribution constraints");
-            constraintMethods.get("lesson_distribution").run();
+            buildGuarded("lesson_distribution", constraintMethods.get("lesson_distribution"));
         }
         if (constraintMethods.containsKey("better_lesson_distribution")) {
             System.out.println("- Better lesson distribution constraints");
-            constraintMethods.get("better_lesson_distribution").run();
+            buildGuarded("better_lesson_distribution", constraintMethods.get("better_lesson_distribution"));
         }
         if (constraintMethods.containsKey("combined_streams_to_be_taught_at_same_time")) {
             System.out.println("- Combined streams constraints");
-            constraintMethods.get("combined_streams_to_be_taught_at_same_time").run();
+            buildGuarded("combined_streams_to_be_taught_at_same_time", constraintMethods.get("combined_streams_to_be_taught_at_same_time"));
+        }
+        if (constraintMethods.containsKey("symmetry_breaking")) {
+            System.out.println("- Symmetry breaking for interchangeable lessons");
+            buildGuarded("symmetry_breaking", constraintMethods.get("symmetry_breaking"));
+        }
+        if (constraintMethods.containsKey("formulation_boolean_matrix")) {
+            System.out.println("- Boolean matrix formulation");
+            buildGuarded("formulation_boolean_matrix", constraintMethods.get("formulation_boolean_matrix"));
+        }
+        if (constraintMethods.containsKey("formulation_interval")) {
+            System.out.println("- Interval formulation");
+            buildGuarded("formulation_interval", constraintMethods.get("formulation_interval"));
         }
       }
 
@@ -1935,10 +3079,6 @@ public class MinimalTimetableSolver {
     private void applyPhase3Constraints() {
         System.out.println("Applying Phase 3 constraints:");
         // Soft constraints for optimization
-        if (constraintMethods.containsKey("pe_lessons_near_breaks")) {
-            System.out.println("- PE lesson placement constraints");
-            constraintMethods.get("pe_lessons_near_breaks").run();
-        }
         if (constraintMethods.containsKey("math_science_non_adjacency")) {
             System.out.println("- Math-Science non-adjacency constraints");
             constraintMethods.get("math_science_non_adjacency").run();
@@ -1951,13 +3091,9 @@ public class MinimalTimetableSolver {
             System.out.println("- Teacher consecutive lessons constraints");
             constraintMethods.get("teacher_consecutive_lessons_across_streams").run();
         }
-        if (constraintMethods.containsKey("science_double_afternoon_lessons")) {
-            System.out.println("- Science double lesson placement constraints");
-            constraintMethods.get("science_lab_lessons_monday_morning").run();
-        }
-        if (constraintMethods.containsKey("science_double_lessons_afternoon")) {
-            System.out.println("- Science afternoon double lesson constraints");
-            constraintMethods.get("science_double_lessons_afternoon").run();
+        if (constraintMethods.containsKey("slot_preferences")) {
+            System.out.println("- Slot preferences (PE near breaks, science double placement)");
+            constraintMethods.get("slot_preferences").run();
         }
     }
 } 
\ No newline at end of file
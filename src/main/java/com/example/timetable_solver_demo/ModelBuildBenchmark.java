@@ -0,0 +1,104 @@
+package com.example.timetable_solver_demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.timetable_solver_demo.config.SolverProperties;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceReader;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Compares the build time of the per-stream constraint families at model-build parallelism 1 and N on the
+// same timetable. Run with --spring.profiles.active=build-benchmark on the host being sized: the speedup
+// is bounded by its cores, so numbers from a small machine say nothing about a large one.
+// The timetable is timetable.benchmark.instance-file, or timetable.benchmark.schedule-id/timetable-id from the database.
+@Component
+@Profile("build-benchmark")
+public class ModelBuildBenchmark implements CommandLineRunner {
+    private final DataExportUtility dataExportUtility;
+    private final SolverProperties solverProperties;
+    private final String instanceFile;
+    private final Long scheduleId;
+    private final Long timetableId;
+    private final int parallelism;
+    private final int repetitions;
+
+    public ModelBuildBenchmark(DataExportUtility dataExportUtility, SolverProperties solverProperties,
+                               @Value("${timetable.benchmark.instance-file:}") String instanceFile,
+                               @Value("${timetable.benchmark.schedule-id:#{null}}") Long scheduleId,
+                               @Value("${timetable.benchmark.timetable-id:#{null}}") Long timetableId,
+                               @Value("${timetable.benchmark.build-parallelism:0}") int parallelism,
+                               @Value("${timetable.benchmark.repetitions:5}") int repetitions) {
+        this.dataExportUtility = dataExportUtility;
+        this.solverProperties = solverProperties;
+        this.instanceFile = instanceFile;
+        this.scheduleId = scheduleId;
+        this.timetableId = timetableId;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.repetitions = repetitions;
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) throws Exception {
+        TimetableInstance instance = loadInstance();
+
+        // One discarded run so that class loading and JIT warm-up are not charged to parallelism 1
+        buildSeconds(instance, parallelism);
+        List<Double> sequential = new ArrayList<>();
+        List<Double> parallel = new ArrayList<>();
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            sequential.add(buildSeconds(instance, 1));
+            parallel.add(buildSeconds(instance, parallelism));
+        }
+
+        double sequentialMedian = median(sequential);
+        double parallelMedian = median(parallel);
+        System.out.println("\nModel Build Benchmark (" + instance.getName() + ", " + instance.getLessons().size() + " lessons, "
+            + Runtime.getRuntime().availableProcessors() + " processors)");
+        System.out.println("---------------------");
+        System.out.println(String.format("Parallelism 1:  median %.3f s over %d runs %s", sequentialMedian, repetitions, sequential));
+        System.out.println(String.format("Parallelism %d: median %.3f s over %d runs %s", parallelism, parallelMedian, repetitions, parallel));
+        System.out.println(String.format("Speedup: %.2fx", sequentialMedian / parallelMedian));
+    }
+
+    private TimetableInstance loadInstance() throws Exception {
+        if (!instanceFile.isEmpty()) {
+            return TimetableInstanceReader.read(Path.of(instanceFile));
+        }
+        if (scheduleId == null || timetableId == null) {
+            throw new IllegalStateException(
+                "Set timetable.benchmark.instance-file or timetable.benchmark.schedule-id and timetable.benchmark.timetable-id");
+        }
+        return dataExportUtility.loadInstance(scheduleId, timetableId);
+    }
+
+    // Solves with 1 s phases so the run is mostly model construction, and returns the per-stream build time
+    private double buildSeconds(TimetableInstance instance, int buildParallelism) throws InterruptedException {
+        SolverProfile profile = solverProperties.getDefault().copy();
+        profile.setPhase1TimeLimitSeconds(1);
+        profile.setPhase2TimeLimitSeconds(1);
+        profile.setPhase3TimeLimitSeconds(1);
+        profile.setSearchLog(SolverProfile.SearchLog.NONE);
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(),
+            instance.getCombinedStreams(), instance.getTeacherTimeOffs(), null, profile);
+        solver.setModelBuildParallelism(buildParallelism);
+        solver.solve();
+        solver.awaitCompletion();
+        return Math.round(solver.getPerStreamBuildSeconds() * 1000) / 1000.0;
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+}
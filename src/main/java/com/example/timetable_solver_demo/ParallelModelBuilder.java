@@ -0,0 +1,242 @@
+package com.example.timetable_solver_demo;
+
+import com.google.ortools.sat.BoolArgumentProto;
+import com.google.ortools.sat.ConstraintProto;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.IntegerVariableProto;
+import com.google.ortools.sat.LinearArgumentProto;
+import com.google.ortools.sat.LinearExpressionProto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Builds independent pieces of a CpModel (one per key, e.g. per stream) on worker threads and
+// appends them to the main model in key order. CpModel is not thread-safe, so every worker writes
+// into its own fragment model whose first variables are placeholders for the main model's existing
+// variables; on merge the fragment's new variables are appended and all references are shifted.
+// The merged model is identical whatever the parallelism. Fragments may use linear, boolean, min/max,
+// arithmetic, all-different, interval, no-overlap and cumulative constraints; intervals must be created in
+// the same fragment as the constraints that use them.
+class ParallelModelBuilder {
+    // Shared by every builder in the process, so building a model never starts threads of its own. The
+    // calling thread builds fragments too, so a build makes progress even while other solves occupy the pool.
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "model-builder-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    interface FragmentTask<K> {
+        // Adds the constraints for one key to the fragment; penalty variables go into penaltyVars
+        void build(CpModel fragment, K key, List<IntVar> penaltyVars);
+    }
+
+    static class Result {
+        int constraintsAdded;
+        List<IntVar> penaltyVars = new ArrayList<>();
+        List<int[]> constraintRanges = new ArrayList<>(); // [from, to) in the main model, one per key in key order
+    }
+
+    private static class Fragment {
+        CpModelProto.Builder builder;
+        List<IntVar> penaltyVars = new ArrayList<>();
+    }
+
+    private final int parallelism;
+
+    ParallelModelBuilder(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    <K> Result build(CpModel model, List<K> keys, FragmentTask<K> task) {
+        int baseVariables = model.getBuilder().getVariablesCount();
+        Fragment[] fragments = new Fragment[keys.size()];
+
+        if (parallelism == 1 || keys.size() < 2) {
+            for (int i = 0; i < keys.size(); i++) {
+                fragments[i] = buildFragment(baseVariables, keys.get(i), task);
+            }
+        } else {
+            // Up to parallelism threads, this one included, take the next unbuilt key until none are left
+            AtomicInteger nextKey = new AtomicInteger();
+            Runnable worker = () -> {
+                for (int i = nextKey.getAndIncrement(); i < keys.size(); i = nextKey.getAndIncrement()) {
+                    try {
+                        fragments[i] = buildFragment(baseVariables, keys.get(i), task);
+                    } catch (RuntimeException e) {
+                        nextKey.set(keys.size()); // Stop the other threads
+                        throw e;
+                    }
+                }
+            };
+            List<Future<?>> helpers = new ArrayList<>();
+            for (int i = 1; i < Math.min(parallelism, keys.size()); i++) {
+                helpers.add(EXECUTOR.submit(worker));
+            }
+            try {
+                worker.run();
+                for (Future<?> helper : helpers) {
+                    helper.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while building model fragments", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to build model fragment", e.getCause());
+            } finally {
+                nextKey.set(keys.size());
+            }
+        }
+
+        Result result = new Result();
+        for (Fragment fragment : fragments) {
+            merge(model, baseVariables, fragment, result);
+        }
+        return result;
+    }
+
+    private <K> Fragment buildFragment(int baseVariables, K key, FragmentTask<K> task) {
+        CpModel fragmentModel = new CpModel();
+        fragmentModel.getBuilder().addAllVariables(Collections.nCopies(baseVariables, IntegerVariableProto.getDefaultInstance()));
+
+        Fragment fragment = new Fragment();
+        task.build(fragmentModel, key, fragment.penaltyVars);
+        fragment.builder = fragmentModel.getBuilder();
+        return fragment;
+    }
+
+    private void merge(CpModel model, int baseVariables, Fragment fragment, Result result) {
+        CpModelProto.Builder main = model.getBuilder();
+        int offset = main.getVariablesCount() - baseVariables;
+        int firstConstraint = main.getConstraintsCount();
+
+        for (int i = baseVariables; i < fragment.builder.getVariablesCount(); i++) {
+            main.addVariables(fragment.builder.getVariables(i));
+        }
+        for (ConstraintProto constraint : fragment.builder.getConstraintsList()) {
+            main.addConstraints(remap(constraint, baseVariables, offset, firstConstraint));
+        }
+        for (IntVar penaltyVar : fragment.penaltyVars) {
+            result.penaltyVars.add(model.getIntVarFromProtoIndex(remapVar(penaltyVar.getIndex(), baseVariables, offset)));
+        }
+        result.constraintsAdded += fragment.builder.getConstraintsCount();
+        result.constraintRanges.add(new int[] {firstConstraint, main.getConstraintsCount()});
+    }
+
+    // Variables created in the fragment move up by offset; its constraints, which interval references
+    // point to, start at firstConstraint in the main model
+    private static ConstraintProto remap(ConstraintProto constraint, int base, int offset, int firstConstraint) {
+        if (offset == 0 && firstConstraint == 0) {
+            return constraint;
+        }
+
+        ConstraintProto.Builder builder = constraint.toBuilder();
+        for (int i = 0; i < builder.getEnforcementLiteralCount(); i++) {
+            builder.setEnforcementLiteral(i, remapLiteral(builder.getEnforcementLiteral(i), base, offset));
+        }
+
+        switch (builder.getConstraintCase()) {
+            case LINEAR -> {
+                var linear = builder.getLinearBuilder();
+                for (int i = 0; i < linear.getVarsCount(); i++) {
+                    linear.setVars(i, remapVar(linear.getVars(i), base, offset));
+                }
+            }
+            case BOOL_OR -> remapLiterals(builder.getBoolOrBuilder(), base, offset);
+            case BOOL_AND -> remapLiterals(builder.getBoolAndBuilder(), base, offset);
+            case BOOL_XOR -> remapLiterals(builder.getBoolXorBuilder(), base, offset);
+            case AT_MOST_ONE -> remapLiterals(builder.getAtMostOneBuilder(), base, offset);
+            case EXACTLY_ONE -> remapLiterals(builder.getExactlyOneBuilder(), base, offset);
+            case LIN_MAX -> remapLinearArgument(builder.getLinMaxBuilder(), base, offset);
+            case INT_PROD -> remapLinearArgument(builder.getIntProdBuilder(), base, offset);
+            case INT_DIV -> remapLinearArgument(builder.getIntDivBuilder(), base, offset);
+            case INT_MOD -> remapLinearArgument(builder.getIntModBuilder(), base, offset);
+            case ALL_DIFF -> {
+                for (LinearExpressionProto.Builder expr : builder.getAllDiffBuilder().getExprsBuilderList()) {
+                    remapExpression(expr, base, offset);
+                }
+            }
+            case INTERVAL -> {
+                var interval = builder.getIntervalBuilder();
+                remapExpression(interval.getStartBuilder(), base, offset);
+                remapExpression(interval.getEndBuilder(), base, offset);
+                remapExpression(interval.getSizeBuilder(), base, offset);
+            }
+            case NO_OVERLAP -> {
+                var noOverlap = builder.getNoOverlapBuilder();
+                for (int i = 0; i < noOverlap.getIntervalsCount(); i++) {
+                    noOverlap.setIntervals(i, noOverlap.getIntervals(i) + firstConstraint);
+                }
+            }
+            case NO_OVERLAP_2D -> {
+                var noOverlap = builder.getNoOverlap2DBuilder();
+                for (int i = 0; i < noOverlap.getXIntervalsCount(); i++) {
+                    noOverlap.setXIntervals(i, noOverlap.getXIntervals(i) + firstConstraint);
+                }
+                for (int i = 0; i < noOverlap.getYIntervalsCount(); i++) {
+                    noOverlap.setYIntervals(i, noOverlap.getYIntervals(i) + firstConstraint);
+                }
+            }
+            case CUMULATIVE -> {
+                var cumulative = builder.getCumulativeBuilder();
+                remapExpression(cumulative.getCapacityBuilder(), base, offset);
+                for (int i = 0; i < cumulative.getIntervalsCount(); i++) {
+                    cumulative.setIntervals(i, cumulative.getIntervals(i) + firstConstraint);
+                }
+                for (LinearExpressionProto.Builder demand : cumulative.getDemandsBuilderList()) {
+                    remapExpression(demand, base, offset);
+                }
+            }
+            default -> throw new IllegalStateException("Unsupported constraint in model fragment: " + builder.getConstraintCase()
+                + "; ParallelModelBuilder only remaps the constraint types listed in its class comment");
+        }
+        return builder.build();
+    }
+
+    private static void remapLiterals(BoolArgumentProto.Builder literals, int base, int offset) {
+        for (int i = 0; i < literals.getLiteralsCount(); i++) {
+            literals.setLiterals(i, remapLiteral(literals.getLiterals(i), base, offset));
+        }
+    }
+
+    private static void remapLinearArgument(LinearArgumentProto.Builder argument, int base, int offset) {
+        remapExpression(argument.getTargetBuilder(), base, offset);
+        for (LinearExpressionProto.Builder expr : argument.getExprsBuilderList()) {
+            remapExpression(expr, base, offset);
+        }
+    }
+
+    private static void remapExpression(LinearExpressionProto.Builder expr, int base, int offset) {
+        for (int i = 0; i < expr.getVarsCount(); i++) {
+            expr.setVars(i, remapVar(expr.getVars(i), base, offset));
+        }
+    }
+
+    private static int remapVar(int index, int base, int offset) {
+        return index >= base ? index + offset : index;
+    }
+
+    // Negative references are negated literals: -ref - 1
+    private static int remapLiteral(int ref, int base, int offset) {
+        return ref >= 0 ? remapVar(ref, base, offset) : -remapVar(-ref - 1, base, offset) - 1;
+    }
+}
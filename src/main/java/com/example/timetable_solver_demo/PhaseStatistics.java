@@ -0,0 +1,167 @@
+package com.example.timetable_solver_demo;
+
+import com.google.ortools.sat.CpModelProtoOrBuilder;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.Getter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Search statistics of one solved phase, taken from the CP-SAT response, and the phase's objective vs.
+// bound series when the profile records search progress. write() and read() carry it from a solver worker
+// process to the application.
+@Getter
+public class PhaseStatistics {
+    private final int phase;
+    private final CpSolverStatus status;
+    private final int lessons;
+    private final double wallTime;
+    private final double userTime;
+    private final double deterministicTime;
+    private final long conflicts;
+    private final long branches;
+    private final long binaryPropagations;
+    private final long integerPropagations;
+    private final long restarts;
+    private final long lpIterations;
+    private final double objective;           // NaN without an objective or solution
+    private final double bestBound;           // NaN without an objective
+    private final double gapIntegral;
+    private final int modelVariables;         // Before presolve
+    private final int modelConstraints;
+    private final long presolvedBooleans;     // After presolve
+    private final long presolvedIntegers;
+    private final List<SearchProgressLog.Point> progress;
+
+    PhaseStatistics(int phase, int lessons, CpModelProtoOrBuilder model, CpSolverResponse response, SearchProgressLog progressLog) {
+        boolean hasObjective = model.hasObjective();
+        boolean solved = response.getStatus() == CpSolverStatus.OPTIMAL || response.getStatus() == CpSolverStatus.FEASIBLE;
+
+        this.phase = phase;
+        this.status = response.getStatus();
+        this.lessons = lessons;
+        this.wallTime = response.getWallTime();
+        this.userTime = response.getUserTime();
+        this.deterministicTime = response.getDeterministicTime();
+        this.conflicts = response.getNumConflicts();
+        this.branches = response.getNumBranches();
+        this.binaryPropagations = response.getNumBinaryPropagations();
+        this.integerPropagations = response.getNumIntegerPropagations();
+        this.restarts = response.getNumRestarts();
+        this.lpIterations = response.getNumLpIterations();
+        this.objective = hasObjective && solved ? response.getObjectiveValue() : Double.NaN;
+        this.bestBound = hasObjective ? response.getBestObjectiveBound() : Double.NaN;
+        this.gapIntegral = response.getGapIntegral();
+        this.modelVariables = model.getVariablesCount();
+        this.modelConstraints = model.getConstraintsCount();
+        this.presolvedBooleans = response.getNumBooleans();
+        this.presolvedIntegers = response.getNumIntegers();
+        this.progress = progressLog != null ? progressLog.getPoints() : List.of();
+    }
+
+    private PhaseStatistics(DataInput in) throws IOException {
+        this.phase = in.readInt();
+        this.status = CpSolverStatus.forNumber(in.readInt());
+        this.lessons = in.readInt();
+        this.wallTime = in.readDouble();
+        this.userTime = in.readDouble();
+        this.deterministicTime = in.readDouble();
+        this.conflicts = in.readLong();
+        this.branches = in.readLong();
+        this.binaryPropagations = in.readLong();
+        this.integerPropagations = in.readLong();
+        this.restarts = in.readLong();
+        this.lpIterations = in.readLong();
+        this.objective = in.readDouble();
+        this.bestBound = in.readDouble();
+        this.gapIntegral = in.readDouble();
+        this.modelVariables = in.readInt();
+        this.modelConstraints = in.readInt();
+        this.presolvedBooleans = in.readLong();
+        this.presolvedIntegers = in.readLong();
+        List<SearchProgressLog.Point> points = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            points.add(new SearchProgressLog.Point(in.readDouble(), in.readBoolean(), in.readDouble(), in.readDouble()));
+        }
+        this.progress = List.copyOf(points);
+    }
+
+    public static PhaseStatistics read(DataInput in) throws IOException {
+        return new PhaseStatistics(in);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(phase);
+        out.writeInt(status.getNumber());
+        out.writeInt(lessons);
+        out.writeDouble(wallTime);
+        out.writeDouble(userTime);
+        out.writeDouble(deterministicTime);
+        out.writeLong(conflicts);
+        out.writeLong(branches);
+        out.writeLong(binaryPropagations);
+        out.writeLong(integerPropagations);
+        out.writeLong(restarts);
+        out.writeLong(lpIterations);
+        out.writeDouble(objective);
+        out.writeDouble(bestBound);
+        out.writeDouble(gapIntegral);
+        out.writeInt(modelVariables);
+        out.writeInt(modelConstraints);
+        out.writeLong(presolvedBooleans);
+        out.writeLong(presolvedIntegers);
+        out.writeInt(progress.size());
+        for (SearchProgressLog.Point point : progress) {
+            out.writeDouble(point.getSeconds());
+            out.writeBoolean(point.isSolution());
+            out.writeDouble(point.getObjective());
+            out.writeDouble(point.getBound());
+        }
+    }
+
+    public double getGap() {
+        if (Double.isNaN(objective) || Double.isNaN(bestBound)) return Double.NaN;
+        return Math.abs(objective - bestBound) / Math.max(1.0, Math.abs(objective));
+    }
+
+    // First time the phase's relative gap reached maxGap according to the progress series, NaN if never
+    public double secondsToGap(double maxGap) {
+        for (SearchProgressLog.Point point : progress) {
+            if (point.getGap() <= maxGap) {
+                return point.getSeconds();
+            }
+        }
+        return Double.NaN;
+    }
+
+    public double getSecondsToFirstSolution() {
+        for (SearchProgressLog.Point point : progress) {
+            if (point.isSolution()) {
+                return point.getSeconds();
+            }
+        }
+        return Double.NaN;
+    }
+
+    // Time of the last improving solution; the rest of the phase's wall time was spent without improvement
+    public double getSecondsToLastSolution() {
+        for (int i = progress.size() - 1; i >= 0; i--) {
+            if (progress.get(i).isSolution()) {
+                return progress.get(i).getSeconds();
+            }
+        }
+        return Double.NaN;
+    }
+
+    // Share of the model's variables that presolve removed, NaN if the response has no presolved size
+    public double getPresolveReduction() {
+        long presolved = presolvedBooleans + presolvedIntegers;
+        if (modelVariables == 0 || presolved == 0) return Double.NaN;
+        return 1.0 - (double) presolved / modelVariables;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.timetable_solver_demo;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Objective vs. bound over time for one phase, parsed from CP-SAT's search progress log. Solution lines
+// ("#3  1.52s best:40 next:[12,39] ...") and bound lines ("#Bound  2.10s best:40 next:[15,39] ...")
+// each add a point; other log lines are ignored. Fed from the solver's log callback thread.
+public class SearchProgressLog {
+    private static final Pattern PROGRESS_LINE = Pattern.compile(
+        "^#(\\d+|Bound)\\s+(\\d+(?:\\.\\d+)?)s(?:\\s+best:(\\S+)\\s+next:\\[([^,\\]]*),([^\\]]*)\\])?");
+
+    @Getter
+    public static class Point {
+        private final double seconds;     // Since the start of the phase
+        private final boolean solution;   // False for a bound improvement
+        private final double objective;   // NaN for phases without an objective
+        private final double bound;
+
+        Point(double seconds, boolean solution, double objective, double bound) {
+            this.seconds = seconds;
+            this.solution = solution;
+            this.objective = objective;
+            this.bound = bound;
+        }
+
+        public double getGap() {
+            if (Double.isNaN(objective) || Double.isNaN(bound)) return Double.NaN;
+            return Math.abs(objective - bound) / Math.max(1.0, Math.abs(objective));
+        }
+    }
+
+    private final List<Point> points = new ArrayList<>();
+
+    public synchronized void accept(String line) {
+        Matcher matcher = PROGRESS_LINE.matcher(line);
+        if (!matcher.find()) return;
+
+        boolean solution = !"Bound".equals(matcher.group(1));
+        double seconds = Double.parseDouble(matcher.group(2));
+        double objective = matcher.group(3) != null ? parse(matcher.group(3)) : Double.NaN;
+        double bound = matcher.group(4) != null ? parse(matcher.group(4)) : Double.NaN;
+        points.add(new Point(seconds, solution, objective, bound));
+    }
+
+    public synchronized List<Point> getPoints() {
+        return List.copyOf(points);
+    }
+
+    // CP-SAT prints "inf" or "-inf" before the first solution or bound, and groups digits with '
+    private static double parse(String value) {
+        try {
+            return Double.parseDouble(value.replace("'", ""));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+// A soft rule that charges a fixed cost for starting a lesson in a given timeslot. The cost only depends
+// on the lesson and the slot, never on other lessons, so SlotPreferenceEngine can tabulate it up front.
+@Getter
+public class SlotPreference {
+
+    @FunctionalInterface
+    public interface SlotCost {
+        // Cost of starting a lesson of the given length (1 or 2) in slot of day; timeslots is one day of the schedule
+        int cost(List<ScheduleTimeslot> timeslots, int day, int slot, int length);
+    }
+
+    private final String name;
+    private final Predicate<Lesson> appliesTo;
+    private final SlotCost cost;
+
+    public SlotPreference(String name, Predicate<Lesson> appliesTo, SlotCost cost) {
+        this.name = name;
+        this.appliesTo = appliesTo;
+        this.cost = cost;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
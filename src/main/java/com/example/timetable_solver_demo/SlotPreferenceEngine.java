@@ -0,0 +1,138 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
+import com.example.timetable_solver_demo.enums.LessonType;
+import com.example.timetable_solver_demo.enums.TimeOfDay;
+import com.example.timetable_solver_demo.enums.TimeslotActivity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Turns slot preferences into one sparse cost table per lesson: start slot -> summed cost of every
+// preference that applies to the lesson, with zero-cost slots left out. The solver adds the tables to
+// the objective as a weighted sum of slot indicator literals, so a new preference is just a new rule.
+public class SlotPreferenceEngine {
+    static final String SCIENCES_CATEGORY = "Sciences";
+    static final int SCIENCE_DOUBLE_FIRST_MONDAY_COST = 1;
+    static final int SCIENCE_DOUBLE_AFTERNOON_COST = 15;
+
+    private final List<ScheduleTimeslot> timeslots;
+    private final int timeslotsPerDay;
+    private final List<SlotPreference> preferences = new ArrayList<>();
+    private final Map<Lesson, Map<Integer, Integer>> costTables = new HashMap<>();
+
+    public SlotPreferenceEngine(Schedule schedule) {
+        this.timeslots = schedule.getTimeslotList();
+        this.timeslotsPerDay = timeslots.size();
+    }
+
+    public static SlotPreferenceEngine withDefaults(Schedule schedule) {
+        return new SlotPreferenceEngine(schedule)
+            .add(peNearBreaks())
+            .add(scienceDoubleFirstMonday())
+            .add(scienceDoubleAfternoon());
+    }
+
+    public SlotPreferenceEngine add(SlotPreference preference) {
+        preferences.add(preference);
+        costTables.clear();
+        return this;
+    }
+
+    public List<SlotPreference> getPreferences() {
+        return Collections.unmodifiableList(preferences);
+    }
+
+    // Sparse cost table of a lesson over the given start slots, computed once per lesson
+    public Map<Integer, Integer> costTable(Lesson lesson, List<Integer> starts) {
+        return costTables.computeIfAbsent(lesson, key -> {
+            Map<Integer, Integer> table = new LinkedHashMap<>();
+            for (int start : starts) {
+                int cost = cost(lesson, start);
+                if (cost != 0) {
+                    table.put(start, cost);
+                }
+            }
+            return table;
+        });
+    }
+
+    public int cost(Lesson lesson, int start) {
+        int day = start / timeslotsPerDay;
+        int slot = start % timeslotsPerDay;
+        int length = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE ? 2 : 1;
+        int cost = 0;
+        for (SlotPreference preference : preferences) {
+            if (preference.getAppliesTo().test(lesson)) {
+                cost += preference.getCost().cost(timeslots, day, slot, length);
+            }
+        }
+        return cost;
+    }
+
+    // Preference cost of a full assignment, as the Phase 3 objective would score it
+    public long totalCost(Map<Lesson, Integer> assignment) {
+        long total = 0;
+        for (Map.Entry<Lesson, Integer> entry : assignment.entrySet()) {
+            if (entry.getValue() != null) {
+                total += cost(entry.getKey(), entry.getValue());
+            }
+        }
+        return total;
+    }
+
+    // PE next to a break: one point per timeslot between the lesson and the nearest break of its day
+    public static SlotPreference peNearBreaks() {
+        return new SlotPreference("pe_lessons_near_breaks",
+            lesson -> lesson.getLessonInfo().getSubject() != null && "P.E".equals(lesson.getLessonInfo().getSubject().getName()),
+            (timeslots, day, slot, length) -> {
+                int nearest = Integer.MAX_VALUE;
+                for (int other = 0; other < timeslots.size(); other++) {
+                    if (isBreak(timeslots.get(other).getTimeslotActivity())) {
+                        int distance = other < slot ? slot - other : Math.max(0, other - (slot + length - 1));
+                        nearest = Math.min(nearest, distance);
+                    }
+                }
+                return nearest == Integer.MAX_VALUE ? 0 : Math.max(0, nearest - 1);
+            });
+    }
+
+    // Science doubles should not take the first class timeslot of the week
+    public static SlotPreference scienceDoubleFirstMonday() {
+        return new SlotPreference("science_double_first_monday", SlotPreferenceEngine::isScienceDouble,
+            (timeslots, day, slot, length) -> day == 0 && slot == firstClassSlot(timeslots) ? SCIENCE_DOUBLE_FIRST_MONDAY_COST : 0);
+    }
+
+    public static SlotPreference scienceDoubleAfternoon() {
+        return new SlotPreference("science_double_afternoon", SlotPreferenceEngine::isScienceDouble,
+            (timeslots, day, slot, length) -> timeslots.get(slot).getTimeOfDay() == TimeOfDay.AFTERNOON ? SCIENCE_DOUBLE_AFTERNOON_COST : 0);
+    }
+
+    private static boolean isScienceDouble(Lesson lesson) {
+        return lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE
+            && lesson.getLessonInfo().getSubject() != null
+            && lesson.getLessonInfo().getSubject().getCategory() != null
+            && SCIENCES_CATEGORY.equals(lesson.getLessonInfo().getSubject().getCategory().getName());
+    }
+
+    private static boolean isBreak(TimeslotActivity activity) {
+        return activity == TimeslotActivity.SHORTBREAK
+            || activity == TimeslotActivity.LONGBREAK
+            || activity == TimeslotActivity.LUNCHBREAK;
+    }
+
+    private static int firstClassSlot(List<ScheduleTimeslot> timeslots) {
+        for (int slot = 0; slot < timeslots.size(); slot++) {
+            if (timeslots.get(slot).getTimeslotActivity() == TimeslotActivity.CLASS) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+}
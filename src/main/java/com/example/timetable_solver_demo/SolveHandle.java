@@ -0,0 +1,29 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.util.List;
+import java.util.Map;
+
+// A timetable solve, either a MinimalTimetableSolver in this JVM or one running in a solver worker process
+public interface SolveHandle {
+    // Starts the solve; the search may continue in the background after this returns
+    void solve();
+
+    // Blocks until the last phase has finished
+    void awaitCompletion() throws InterruptedException;
+
+    // Stops the running phase at its best solution so far and skips the remaining phases
+    void cancel();
+
+    // Phase being solved (1-3), 0 before the solve and after the last phase
+    int getCurrentPhase();
+
+    // CP-SAT statistics of every phase solved so far, in solve order
+    List<PhaseStatistics> getPhaseStatistics();
+
+    Map<Lesson, Integer> getBestSolution();
+
+    CpSolverStatus getBestStatus();
+}
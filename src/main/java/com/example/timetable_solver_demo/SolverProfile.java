@@ -0,0 +1,110 @@
+package com.example.timetable_solver_demo;
+
+import com.google.ortools.sat.SatParameters;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// Named set of solver settings, bound from timetable.solver.profiles.<name>.* in application.properties.
+// The defaults are the settings the solver used before profiles existed.
+@Getter
+@Setter
+public class SolverProfile {
+
+    // STDERR keeps CP-SAT's native logger off file descriptor 1, e.g. in a solver worker whose stdout carries replies
+    public enum SearchLog { NONE, STDOUT, STDERR, SLF4J }
+
+    private String name = "default";
+    private int daysPerWeek = 5;
+    private int workers = 8;
+
+    // Time limit of each solve phase, in seconds
+    private double phase1TimeLimitSeconds = 300;
+    private double phase2TimeLimitSeconds = 300;
+    private double phase3TimeLimitSeconds = 300;
+    private double repairTimeLimitSeconds = 10;
+
+    // 0 = presolve off, 1 = CP-SAT default, 2 = more presolve iterations and probing
+    private int presolveLevel = 1;
+    private int linearizationLevel = 1;
+    private int symmetryLevel = 2;
+    private SearchLog searchLog = SearchLog.STDOUT;
+
+    // Model-side options: order interchangeable lessons, and start Phase 2/3 from the previous phase's solution
+    private boolean symmetryBreaking = true;
+    private boolean hintBetweenPhases = false;
+    private Formulation formulation = Formulation.INTEGER_SLOT;
+
+    // When Phase 1 is infeasible, run one more solve to find which constraint groups conflict
+    private boolean explainInfeasibility = true;
+
+    // Build a greedy timetable before Phase 1, report it at once and use it as the Phase 1 hint
+    private boolean greedyStart = true;
+
+    // Parse CP-SAT's search progress log into an objective vs. bound series per phase, also when searchLog is NONE
+    private boolean recordSearchProgress = true;
+
+    // Give every combined subject group and combined stream group one shared slot variable instead of
+    // equality constraints between the members' variables. Combined groups then no longer show up in an
+    // infeasibility core, because there is no constraint left to switch off.
+    private boolean unifyCombinedLessons = true;
+
+    // Threads used to build stream-local constraints, 0 = one per available processor
+    private int modelBuildParallelism = 0;
+
+    public SolverProfile copy() {
+        SolverProfile copy = new SolverProfile();
+        copy.name = name;
+        copy.daysPerWeek = daysPerWeek;
+        copy.workers = workers;
+        copy.phase1TimeLimitSeconds = phase1TimeLimitSeconds;
+        copy.phase2TimeLimitSeconds = phase2TimeLimitSeconds;
+        copy.phase3TimeLimitSeconds = phase3TimeLimitSeconds;
+        copy.repairTimeLimitSeconds = repairTimeLimitSeconds;
+        copy.presolveLevel = presolveLevel;
+        copy.linearizationLevel = linearizationLevel;
+        copy.symmetryLevel = symmetryLevel;
+        copy.searchLog = searchLog;
+        copy.symmetryBreaking = symmetryBreaking;
+        copy.hintBetweenPhases = hintBetweenPhases;
+        copy.formulation = formulation;
+        copy.explainInfeasibility = explainInfeasibility;
+        copy.greedyStart = greedyStart;
+        copy.unifyCombinedLessons = unifyCombinedLessons;
+        copy.recordSearchProgress = recordSearchProgress;
+        copy.modelBuildParallelism = modelBuildParallelism;
+        return copy;
+    }
+
+    public double timeLimitSeconds(int phase) {
+        return switch (phase) {
+            case 1 -> phase1TimeLimitSeconds;
+            case 2 -> phase2TimeLimitSeconds;
+            case 3 -> phase3TimeLimitSeconds;
+            default -> throw new IllegalArgumentException("Unknown solve phase: " + phase);
+        };
+    }
+
+    public double totalTimeLimitSeconds() {
+        return phase1TimeLimitSeconds + phase2TimeLimitSeconds + phase3TimeLimitSeconds;
+    }
+
+    public int effectiveModelBuildParallelism() {
+        return modelBuildParallelism > 0 ? modelBuildParallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Everything except the time limit, which is set per phase
+    public void applyTo(SatParameters.Builder parameters) {
+        parameters.setNumSearchWorkers(workers);
+        parameters.setLinearizationLevel(linearizationLevel);
+        parameters.setSymmetryLevel(symmetryLevel);
+        if (presolveLevel <= 0) {
+            parameters.setCpModelPresolve(false);
+        } else if (presolveLevel >= 2) {
+            parameters.setMaxPresolveIterations(10);
+            parameters.setCpModelProbingLevel(3);
+        }
+        parameters.setLogSearchProgress(searchLog != SearchLog.NONE || recordSearchProgress);
+        parameters.setLogToStdout(searchLog == SearchLog.STDOUT);
+    }
+}
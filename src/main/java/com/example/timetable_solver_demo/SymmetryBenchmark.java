@@ -0,0 +1,138 @@
+package com.example.timetable_solver_demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.timetable_solver_demo.config.SolverProperties;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceReader;
+
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Compares how long Phase 3 takes to prove optimality with and without symmetry breaking on the same timetable.
+// Run with --spring.profiles.active=benchmark; caches are not used so both runs solve from scratch.
+// Phases 1 and 2 are solved once and both runs start Phase 3 from that timetable, so only the Phase 3 search differs.
+// The timetable is timetable.benchmark.instance-file, or timetable.benchmark.schedule-id/timetable-id from the database.
+// timetable.benchmark.profile should give Phase 3 enough time to finish the proof.
+@Component
+@Profile("benchmark")
+public class SymmetryBenchmark implements CommandLineRunner {
+    private final DataExportUtility dataExportUtility;
+    private final SolverProperties solverProperties;
+    private final String instanceFile;
+    private final Long scheduleId;
+    private final Long timetableId;
+    private final String profileName;
+
+    public SymmetryBenchmark(DataExportUtility dataExportUtility, SolverProperties solverProperties,
+                             @Value("${timetable.benchmark.instance-file:}") String instanceFile,
+                             @Value("${timetable.benchmark.schedule-id:#{null}}") Long scheduleId,
+                             @Value("${timetable.benchmark.timetable-id:#{null}}") Long timetableId,
+                             @Value("${timetable.benchmark.profile:overnight}") String profileName) {
+        this.dataExportUtility = dataExportUtility;
+        this.solverProperties = solverProperties;
+        this.instanceFile = instanceFile;
+        this.scheduleId = scheduleId;
+        this.timetableId = timetableId;
+        this.profileName = profileName;
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) throws Exception {
+        TimetableInstance instance = loadInstance();
+        SolverProfile profile = solverProperties.getProfile(profileName);
+
+        Map<Lesson, Integer> start = solvePhases1And2(instance, profile);
+        MinimalTimetableSolver withoutSymmetry = solvePhase3(instance, profile, start, false);
+        MinimalTimetableSolver withSymmetry = solvePhase3(instance, profile, start, true);
+
+        System.out.println("\nSymmetry Breaking Benchmark (" + instance.getName() + ", profile " + profile.getName()
+            + ", Phase 3 limit " + profile.getPhase3TimeLimitSeconds() + " s)");
+        System.out.println("---------------------------");
+        System.out.println("Without symmetry breaking: " + describe(withoutSymmetry));
+        System.out.println("With symmetry breaking:    " + describe(withSymmetry));
+    }
+
+    private TimetableInstance loadInstance() throws Exception {
+        if (!instanceFile.isEmpty()) {
+            return TimetableInstanceReader.read(Path.of(instanceFile));
+        }
+        if (scheduleId == null || timetableId == null) {
+            throw new IllegalStateException(
+                "Set timetable.benchmark.instance-file or timetable.benchmark.schedule-id and timetable.benchmark.timetable-id");
+        }
+        return dataExportUtility.loadInstance(scheduleId, timetableId);
+    }
+
+    // Common Phase 3 starting point: the best timetable after Phase 2, taken just before Phase 3 would start
+    private Map<Lesson, Integer> solvePhases1And2(TimetableInstance instance, SolverProfile profile) throws InterruptedException {
+        MinimalTimetableSolver solver = newSolver(instance, profile, false);
+        AtomicReference<Map<Lesson, Integer>> start = new AtomicReference<>();
+        solver.setCallback(new MinimalTimetableSolver.SolverCallback() {
+            @Override
+            public void onPhase1Complete(CpSolverStatus status, Map<Lesson, Integer> solution) {
+            }
+
+            @Override
+            public void onBetterSolutionFound(CpSolverStatus status, Map<Lesson, Integer> solution) {
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+            }
+
+            @Override
+            public void onPhaseStarted(int phase) {
+                if (phase == 3) {
+                    start.set(solver.getBestSolution());
+                    solver.cancel();
+                }
+            }
+        });
+        solver.solve();
+        solver.awaitCompletion();
+        if (start.get() == null) {
+            throw new IllegalStateException("Phases 1 and 2 found no timetable to start Phase 3 from");
+        }
+        return start.get();
+    }
+
+    private MinimalTimetableSolver solvePhase3(TimetableInstance instance, SolverProfile profile, Map<Lesson, Integer> start,
+                                               boolean symmetryBreaking) throws InterruptedException {
+        MinimalTimetableSolver solver = newSolver(instance, profile, symmetryBreaking);
+        solver.startAtPhase3(start);
+        solver.solve();
+        solver.awaitCompletion();
+        return solver;
+    }
+
+    private static String describe(MinimalTimetableSolver solver) {
+        PhaseStatistics phase3 = solver.getPhaseStatistics().stream()
+            .filter(statistics -> statistics.getPhase() == 3)
+            .findFirst()
+            .orElse(null);
+        if (phase3 == null) {
+            return "Phase 3 did not run";
+        }
+        String outcome = phase3.getStatus() == CpSolverStatus.OPTIMAL
+            ? String.format("optimality proven in %.2f s", phase3.getWallTime())
+            : String.format("%s, optimality not proven after %.2f s", phase3.getStatus(), phase3.getWallTime());
+        return String.format("%s (objective %.0f, bound %.0f)", outcome, phase3.getObjective(), phase3.getBestBound());
+    }
+
+    private MinimalTimetableSolver newSolver(TimetableInstance instance, SolverProfile profile, boolean symmetryBreaking) {
+        SolverProfile runProfile = profile.copy();
+        runProfile.setSymmetryBreaking(symmetryBreaking);
+        return new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(), instance.getCombinedStreams(),
+            instance.getTeacherTimeOffs(), null, runProfile);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Edits made to a timetable since its assignment was last persisted, used by MinimalTimetableSolver.repair()
+@Getter
+@Setter
+public class TimetableChangeSet {
+    private List<Lesson> addedLessons = new ArrayList<>();
+    private List<Lesson> removedLessons = new ArrayList<>();
+    private List<TeacherTimeOff> changedTeacherTimeOffs = new ArrayList<>();
+    private List<CombinedStream> changedCombinedStreams = new ArrayList<>();
+
+    // Hops of same-teacher and same-stream lessons on the affected days that are freed as well; 0 frees only
+    // the lessons the changes touch
+    private int neighborhoodDepth = 1;
+
+    public boolean isEmpty() {
+        return addedLessons.isEmpty() && removedLessons.isEmpty()
+            && changedTeacherTimeOffs.isEmpty() && changedCombinedStreams.isEmpty();
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.timetable_solver_demo;
+
+import com.example.timetable_solver_demo.TimetableViolation.Rule;
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.enums.LessonType;
+import com.example.timetable_solver_demo.enums.TimeslotActivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Checks a timetable against the solver's hard rules, independently of CP-SAT. Occupancy is kept as
+// per-stream and per-teacher counters over global slots plus per-day counters, so load() is linear in
+// the number of lessons and move() only touches the moved lesson's slots, day and combined group.
+// getViolationCount() always equals violations().size(), so a search loop can compare counts after
+// each move and only build the records when it needs them.
+public class TimetableValidator {
+    public static final int UNASSIGNED = -1;
+
+    private final Lesson[] lessons;
+    private final Map<Lesson, Integer> lessonIndex = new HashMap<>();
+    private final int days;
+    private final int timeslotsPerDay;
+    private final boolean[] classSlot;       // Per global slot
+
+    private final int[] length;              // 1 or 2 per lesson
+    private final int[] streamOf;
+    private final int[][] teachersOf;
+    private final int[] subjectDayGroupOf;   // -1 if the subject has no per-day limit
+    private final int[] combinedGroupOf;     // -1 if the lesson is not combined
+
+    private final Stream[] streams;
+    private final int[] minPerDay;
+    private final int[] maxPerDay;
+    private final long[] teacherIds;
+    private final BitSet[] teacherTimeOff;
+    private final int[][] combinedGroups;    // Lesson indexes per combined group
+
+    private final int[] slotOf;
+    private final int[][] streamOccupancy;   // [stream][global slot]
+    private final int[][] teacherOccupancy;  // [teacher][global slot]
+    private final int[][] streamDayLessons;  // [stream][day]
+    private final int[][][] subjectDayLessons; // [group][day][0 = singles, 1 = doubles]
+    private int violationCount;
+
+    public TimetableValidator(List<Lesson> lessons, Schedule schedule, List<CombinedStream> combinedStreams, List<TeacherTimeOff> teacherTimeOffs, int days) {
+        int n = lessons.size();
+        this.lessons = lessons.toArray(new Lesson[0]);
+        this.days = days;
+        this.timeslotsPerDay = schedule.getTimeslotList().size();
+        int slots = days * timeslotsPerDay;
+
+        classSlot = new boolean[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            classSlot[slot] = schedule.getTimeslotList().get(slot % timeslotsPerDay).getTimeslotActivity() == TimeslotActivity.CLASS;
+        }
+
+        length = new int[n];
+        streamOf = new int[n];
+        teachersOf = new int[n][];
+        subjectDayGroupOf = new int[n];
+        combinedGroupOf = new int[n];
+        Arrays.fill(combinedGroupOf, -1);
+
+        Map<Stream, Integer> streamIndex = new LinkedHashMap<>();
+        Map<Long, Integer> teacherIndex = new LinkedHashMap<>();
+        Map<String, List<Integer>> subjectLessons = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            Lesson lesson = this.lessons[i];
+            lessonIndex.put(lesson, i);
+            length[i] = lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE ? 2 : 1;
+            streamOf[i] = streamIndex.computeIfAbsent(lesson.getLessonInfo().getStream(), stream -> streamIndex.size());
+            teachersOf[i] = lesson.getLessonInfo().getTeachers().stream()
+                .mapToInt(teacher -> teacherIndex.computeIfAbsent(teacher.getId(), id -> teacherIndex.size()))
+                .distinct().toArray();
+            String subject = subjectKey(lesson);
+            if (subject != null) {
+                subjectLessons.computeIfAbsent(streamOf[i] + "_" + subject, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        streams = streamIndex.keySet().toArray(new Stream[0]);
+        int[] streamLessonCount = new int[streams.length];
+        for (int i = 0; i < n; i++) {
+            streamLessonCount[streamOf[i]]++;
+        }
+        minPerDay = new int[streams.length];
+        maxPerDay = new int[streams.length];
+        for (int stream = 0; stream < streams.length; stream++) {
+            int target = (int) Math.ceil(streamLessonCount[stream] / (double) days);
+            minPerDay[stream] = target - 1;
+            maxPerDay[stream] = target + 1;
+        }
+
+        teacherIds = teacherIndex.keySet().stream().mapToLong(Long::longValue).toArray();
+        teacherTimeOff = new BitSet[teacherIds.length];
+        Map<Long, Integer> slotIndex = new HashMap<>();
+        for (int slot = 0; slot < timeslotsPerDay; slot++) {
+            slotIndex.put(schedule.getTimeslotList().get(slot).getId(), slot);
+        }
+        for (TeacherTimeOff timeOff : teacherTimeOffs) {
+            Integer teacher = teacherIndex.get(timeOff.getTeacher().getId());
+            Integer slot = slotIndex.get(timeOff.getTimeslot().getId());
+            int day = timeOff.getDayOfWeek().getValue() - 1;
+            if (teacher == null || slot == null || day >= days) continue;
+            if (teacherTimeOff[teacher] == null) teacherTimeOff[teacher] = new BitSet(slots);
+            teacherTimeOff[teacher].set(day * timeslotsPerDay + slot);
+        }
+
+        // Per-day subject limits apply to subjects with at most 5 lessons a week and to the core subjects
+        Arrays.fill(subjectDayGroupOf, -1);
+        int groupCount = 0;
+        for (List<Integer> group : subjectLessons.values()) {
+            Lesson first = this.lessons[group.get(0)];
+            boolean core = first.getLessonInfo().getSubject() != null && first.getLessonInfo().getSubject().getIntCode() != null
+                && Set.of(MinimalTimetableSolver.ENGLISH_CODE, MinimalTimetableSolver.KISWAHILI_CODE, MinimalTimetableSolver.MATH_CODE)
+                    .contains(first.getLessonInfo().getSubject().getIntCode());
+            if (group.size() <= 5 || core) {
+                for (int i : group) {
+                    subjectDayGroupOf[i] = groupCount;
+                }
+                groupCount++;
+            }
+        }
+
+        List<List<Lesson>> combined = CombinedLessonGroups.aligned(lessons, combinedStreams);
+        combinedGroups = new int[combined.size()][];
+        for (int group = 0; group < combined.size(); group++) {
+            combinedGroups[group] = combined.get(group).stream().mapToInt(lessonIndex::get).toArray();
+            for (int i : combinedGroups[group]) {
+                combinedGroupOf[i] = group;
+            }
+        }
+
+        slotOf = new int[n];
+        streamOccupancy = new int[streams.length][slots];
+        teacherOccupancy = new int[teacherIds.length][slots];
+        streamDayLessons = new int[streams.length][days];
+        subjectDayLessons = new int[groupCount][days][2];
+        load(Map.of());
+    }
+
+    // Validates a persisted timetable: the slot of each lesson comes from its day of week and timeslot
+    public static Map<Lesson, Integer> persistedAssignment(List<Lesson> lessons, Schedule schedule) {
+        Map<Long, Integer> slotIndex = new HashMap<>();
+        for (int slot = 0; slot < schedule.getTimeslotList().size(); slot++) {
+            slotIndex.put(schedule.getTimeslotList().get(slot).getId(), slot);
+        }
+        Map<Lesson, Integer> assignment = new HashMap<>();
+        for (Lesson lesson : lessons) {
+            if (lesson.getDayOfWeek() == null || lesson.getTimeslot() == null) continue;
+            Integer slot = slotIndex.get(lesson.getTimeslot().getId());
+            if (slot != null) {
+                assignment.put(lesson, (lesson.getDayOfWeek().getValue() - 1) * schedule.getTimeslotList().size() + slot);
+            }
+        }
+        return assignment;
+    }
+
+    // Replaces the whole assignment; lessons missing from it are unassigned
+    public void load(Map<Lesson, Integer> assignment) {
+        Arrays.fill(slotOf, UNASSIGNED);
+        for (int[] row : streamOccupancy) Arrays.fill(row, 0);
+        for (int[] row : teacherOccupancy) Arrays.fill(row, 0);
+        for (int[] row : streamDayLessons) Arrays.fill(row, 0);
+        for (int[][] group : subjectDayLessons) {
+            for (int[] day : group) Arrays.fill(day, 0);
+        }
+
+        // Everything starts unassigned and out of its day bounds; placing lessons updates the count
+        violationCount = lessons.length;
+        for (int stream = 0; stream < streams.length; stream++) {
+            for (int day = 0; day < days; day++) {
+                violationCount += dayLoadViolation(stream, day);
+            }
+        }
+        for (int i = 0; i < lessons.length; i++) {
+            Integer slot = assignment.get(lessons[i]);
+            if (slot != null) {
+                place(i, slot);
+            }
+        }
+        for (int group = 0; group < combinedGroups.length; group++) {
+            violationCount += combinedViolation(group);
+        }
+    }
+
+    public List<TimetableViolation> validate(Map<Lesson, Integer> assignment) {
+        load(assignment);
+        return violations();
+    }
+
+    // Moves one lesson (or unassigns it with UNASSIGNED) and returns the new violation count
+    public int move(Lesson lesson, int slot) {
+        Integer i = lessonIndex.get(lesson);
+        if (i == null) {
+            throw new IllegalArgumentException("Lesson " + lesson.getId() + " is not part of this timetable");
+        }
+        int group = combinedGroupOf[i];
+        int before = group >= 0 ? combinedViolation(group) : 0;
+        remove(i);
+        place(i, slot);
+        if (group >= 0) {
+            violationCount += combinedViolation(group) - before;
+        }
+        return violationCount;
+    }
+
+    public int getSlot(Lesson lesson) {
+        Integer i = lessonIndex.get(lesson);
+        return i != null ? slotOf[i] : UNASSIGNED;
+    }
+
+    public int getViolationCount() {
+        return violationCount;
+    }
+
+    public boolean isValid() {
+        return violationCount == 0;
+    }
+
+    public List<TimetableViolation> violations() {
+        List<TimetableViolation> violations = new ArrayList<>();
+        int slots = days * timeslotsPerDay;
+        List<List<Integer>> lessonsByStream = new ArrayList<>();
+        for (int stream = 0; stream < streams.length; stream++) lessonsByStream.add(new ArrayList<>());
+        List<List<Integer>> lessonsByTeacher = new ArrayList<>();
+        for (int teacher = 0; teacher < teacherIds.length; teacher++) lessonsByTeacher.add(new ArrayList<>());
+
+        for (int i = 0; i < lessons.length; i++) {
+            lessonsByStream.get(streamOf[i]).add(i);
+            for (int teacher : teachersOf[i]) lessonsByTeacher.get(teacher).add(i);
+            int slot = slotOf[i];
+            Lesson lesson = lessons[i];
+            Integer streamId = streams[streamOf[i]].getId();
+            if (slot == UNASSIGNED) {
+                violations.add(new TimetableViolation(Rule.UNASSIGNED, List.of(lesson.getId()), streamId, null, -1, -1,
+                    "Lesson " + lesson.getId() + " has no slot"));
+                continue;
+            }
+            if (!isValidStart(i, slot)) {
+                violations.add(new TimetableViolation(Rule.INVALID_SLOT, List.of(lesson.getId()), streamId, null, dayOf(slot), slot,
+                    String.format("%s lesson %d cannot start at slot %d", length[i] == 2 ? "Double" : "Single", lesson.getId(), slot)));
+            }
+            for (int teacher : teachersOf[i]) {
+                if (isOff(teacher, i, slot)) {
+                    violations.add(new TimetableViolation(Rule.TEACHER_UNAVAILABLE, List.of(lesson.getId()), streamId, teacherIds[teacher],
+                        dayOf(slot), slot, String.format("Lesson %d at slot %d falls in time-off of teacher %d", lesson.getId(), slot, teacherIds[teacher])));
+                }
+            }
+        }
+
+        for (int stream = 0; stream < streams.length; stream++) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (streamOccupancy[stream][slot] > 1) {
+                    List<Long> ids = lessonsAt(lessonsByStream.get(stream), slot);
+                    violations.add(new TimetableViolation(Rule.STREAM_OVERLAP, ids, streams[stream].getId(), null, dayOf(slot), slot,
+                        String.format("Stream %d has lessons %s in slot %d", streams[stream].getId(), ids, slot)));
+                }
+            }
+            for (int day = 0; day < days; day++) {
+                if (dayLoadViolation(stream, day) > 0) {
+                    violations.add(new TimetableViolation(Rule.STREAM_DAY_LOAD, List.of(), streams[stream].getId(), null, day, -1,
+                        String.format("Stream %d has %d lessons on day %d, expected %d to %d", streams[stream].getId(),
+                            streamDayLessons[stream][day], day + 1, minPerDay[stream], maxPerDay[stream])));
+                }
+            }
+        }
+        for (int teacher = 0; teacher < teacherIds.length; teacher++) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (teacherOccupancy[teacher][slot] > 1) {
+                    List<Long> ids = lessonsAt(lessonsByTeacher.get(teacher), slot);
+                    violations.add(new TimetableViolation(Rule.TEACHER_OVERLAP, ids, null, teacherIds[teacher], dayOf(slot), slot,
+                        String.format("Teacher %d has lessons %s in slot %d", teacherIds[teacher], ids, slot)));
+                }
+            }
+        }
+        for (int group = 0; group < combinedGroups.length; group++) {
+            if (combinedViolation(group) > 0) {
+                List<Long> ids = Arrays.stream(combinedGroups[group]).mapToObj(i -> lessons[i].getId()).toList();
+                violations.add(new TimetableViolation(Rule.COMBINED_NOT_ALIGNED, ids, null, null, -1, -1,
+                    String.format("Combined lessons %s are at slots %s", ids,
+                        Arrays.stream(combinedGroups[group]).mapToObj(i -> slotOf[i]).toList())));
+            }
+        }
+        int[] firstOfGroup = new int[subjectDayLessons.length];
+        for (int i = lessons.length - 1; i >= 0; i--) {
+            if (subjectDayGroupOf[i] >= 0) firstOfGroup[subjectDayGroupOf[i]] = i;
+        }
+        for (int group = 0; group < subjectDayLessons.length; group++) {
+            for (int day = 0; day < days; day++) {
+                if (subjectDayViolation(group, day) > 0) {
+                    Lesson first = lessons[firstOfGroup[group]];
+                    violations.add(new TimetableViolation(Rule.SUBJECT_DAY_LIMIT, List.of(), first.getLessonInfo().getStream().getId(), null, day, -1,
+                        String.format("Stream %d has %d singles and %d doubles of %s on day %d", first.getLessonInfo().getStream().getId(),
+                            subjectDayLessons[group][day][0], subjectDayLessons[group][day][1], subjectKey(first), day + 1)));
+                }
+            }
+        }
+        return violations;
+    }
+
+    private void place(int i, int slot) {
+        if (slot == UNASSIGNED) return;
+        slotOf[i] = slot;
+        violationCount--; // No longer unassigned
+        if (!isValidStart(i, slot)) violationCount++;
+        if (slot < 0 || slot >= classSlot.length) return;
+
+        int stream = streamOf[i];
+        int day = dayOf(slot);
+        for (int occupied = slot; occupied < slot + length[i] && dayOf(occupied) == day && occupied < classSlot.length; occupied++) {
+            if (streamOccupancy[stream][occupied]++ == 1) violationCount++;
+            for (int teacher : teachersOf[i]) {
+                if (teacherOccupancy[teacher][occupied]++ == 1) violationCount++;
+            }
+        }
+        for (int teacher : teachersOf[i]) {
+            if (isOff(teacher, i, slot)) violationCount++;
+        }
+        int before = dayLoadViolation(stream, day);
+        streamDayLessons[stream][day]++;
+        violationCount += dayLoadViolation(stream, day) - before;
+        int group = subjectDayGroupOf[i];
+        if (group >= 0) {
+            before = subjectDayViolation(group, day);
+            subjectDayLessons[group][day][length[i] - 1]++;
+            violationCount += subjectDayViolation(group, day) - before;
+        }
+    }
+
+    private void remove(int i) {
+        int slot = slotOf[i];
+        if (slot == UNASSIGNED) return;
+        slotOf[i] = UNASSIGNED;
+        violationCount++;
+        if (!isValidStart(i, slot)) violationCount--;
+        if (slot < 0 || slot >= classSlot.length) return;
+
+        int stream = streamOf[i];
+        int day = dayOf(slot);
+        for (int occupied = slot; occupied < slot + length[i] && dayOf(occupied) == day && occupied < classSlot.length; occupied++) {
+            if (streamOccupancy[stream][occupied]-- == 2) violationCount--;
+            for (int teacher : teachersOf[i]) {
+                if (teacherOccupancy[teacher][occupied]-- == 2) violationCount--;
+            }
+        }
+        for (int teacher : teachersOf[i]) {
+            if (isOff(teacher, i, slot)) violationCount--;
+        }
+        int before = dayLoadViolation(stream, day);
+        streamDayLessons[stream][day]--;
+        violationCount += dayLoadViolation(stream, day) - before;
+        int group = subjectDayGroupOf[i];
+        if (group >= 0) {
+            before = subjectDayViolation(group, day);
+            subjectDayLessons[group][day][length[i] - 1]--;
+            violationCount += subjectDayViolation(group, day) - before;
+        }
+    }
+
+    private boolean isValidStart(int i, int slot) {
+        if (slot < 0 || slot >= classSlot.length || !classSlot[slot]) return false;
+        return length[i] == 1 || (slot % timeslotsPerDay != timeslotsPerDay - 1 && classSlot[slot + 1]);
+    }
+
+    private boolean isOff(int teacher, int i, int slot) {
+        BitSet off = teacherTimeOff[teacher];
+        if (off == null) return false;
+        int next = off.nextSetBit(slot);
+        return next >= 0 && next < slot + length[i] && dayOf(next) == dayOf(slot);
+    }
+
+    private int dayLoadViolation(int stream, int day) {
+        int count = streamDayLessons[stream][day];
+        return count < minPerDay[stream] || count > maxPerDay[stream] ? 1 : 0;
+    }
+
+    // At most 2 singles and at most 1 double of the subject on a day. The model's "not both kinds"
+    // indicators are never forced on, so mixing the two is not checked here
+    private int subjectDayViolation(int group, int day) {
+        int singles = subjectDayLessons[group][day][0];
+        int doubles = subjectDayLessons[group][day][1];
+        return singles > 2 || doubles > 1 ? 1 : 0;
+    }
+
+    private int combinedViolation(int group) {
+        int slot = UNASSIGNED;
+        for (int i : combinedGroups[group]) {
+            if (slotOf[i] == UNASSIGNED) continue;
+            if (slot != UNASSIGNED && slotOf[i] != slot) return 1;
+            slot = slotOf[i];
+        }
+        return 0;
+    }
+
+    private List<Long> lessonsAt(List<Integer> candidates, int slot) {
+        List<Long> ids = new ArrayList<>();
+        for (int i : candidates) {
+            int start = slotOf[i];
+            if (start != UNASSIGNED && start <= slot && slot < start + length[i] && dayOf(start) == dayOf(slot)) {
+                ids.add(lessons[i].getId());
+            }
+        }
+        return ids;
+    }
+
+    private int dayOf(int slot) {
+        return slot / timeslotsPerDay;
+    }
+
+    // Same grouping as the solver's lesson distribution constraint; lessons without a subject are not limited
+    private static String subjectKey(Lesson lesson) {
+        if (lesson.getLessonInfo().getSubject() != null) {
+            return String.valueOf(lesson.getLessonInfo().getSubject().getId());
+        }
+        if (lesson.getLessonInfo().getCombinedSubject() != null) {
+            return "combined_" + lesson.getLessonInfo().getCombinedSubject().getId();
+        }
+        return null;
+    }
+}
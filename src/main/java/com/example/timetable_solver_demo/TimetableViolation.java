@@ -0,0 +1,44 @@
+package com.example.timetable_solver_demo;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// One broken hard rule in a timetable, as reported by TimetableValidator
+@Getter
+public class TimetableViolation {
+
+    public enum Rule {
+        UNASSIGNED,             // Lesson has no slot
+        INVALID_SLOT,           // Not a class timeslot, or a double that does not fit two class timeslots of one day
+        STREAM_OVERLAP,         // A stream has two lessons in one slot
+        TEACHER_OVERLAP,        // A teacher has two lessons in one slot
+        TEACHER_UNAVAILABLE,    // Lesson falls in a teacher's time-off
+        COMBINED_NOT_ALIGNED,   // Lessons of a combined subject group or combined stream are not at the same slot
+        SUBJECT_DAY_LIMIT,      // More than 2 singles or 1 double of a subject on a day
+        STREAM_DAY_LOAD         // A stream's lessons on a day are outside ceil(lessons / days) +- 1
+    }
+
+    private final Rule rule;
+    private final List<Long> lessonIds;
+    private final Integer streamId;   // Null unless the rule is about one stream
+    private final Long teacherId;     // Null unless the rule is about one teacher
+    private final int day;            // 0-based, -1 if not tied to a day
+    private final int slot;           // Global slot, -1 if not tied to a slot
+    private final String message;
+
+    TimetableViolation(Rule rule, List<Long> lessonIds, Integer streamId, Long teacherId, int day, int slot, String message) {
+        this.rule = rule;
+        this.lessonIds = lessonIds;
+        this.streamId = streamId;
+        this.teacherId = teacherId;
+        this.day = day;
+        this.slot = slot;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return rule + ": " + message;
+    }
+}
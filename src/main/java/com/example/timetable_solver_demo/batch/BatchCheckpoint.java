@@ -0,0 +1,72 @@
+package com.example.timetable_solver_demo.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+// Append-only record of finished timetables: timetableId,scheduleId,outcome,solverStatus,workers,seconds,finishedAt.
+// Each line is written with DSYNC, so after a crash at most the line being written is lost;
+// a torn last line is ignored on reload and that timetable is simply solved again.
+@Slf4j
+class BatchCheckpoint {
+    static final String COMPLETED = "COMPLETED";
+    static final String FAILED = "FAILED";
+
+    private final Path file;
+    private final Map<Long, String> outcomes = new HashMap<>();
+
+    BatchCheckpoint(Path file) {
+        this.file = file;
+        load();
+    }
+
+    synchronized boolean isDone(Long timetableId, boolean retryFailed) {
+        String outcome = outcomes.get(timetableId);
+        return outcome != null && (outcome.equals(COMPLETED) || !retryFailed);
+    }
+
+    synchronized void record(BatchEntry entry, String outcome, String solverStatus, int workers, double seconds) {
+        String line = String.format("%d,%d,%s,%s,%d,%.1f,%s%n", entry.getTimetableId(), entry.getScheduleId(),
+            outcome, solverStatus, workers, seconds, Instant.now());
+        try {
+            Files.writeString(file, line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write batch checkpoint " + file, e);
+        }
+        outcomes.put(entry.getTimetableId(), outcome);
+    }
+
+    private void load() {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split(",");
+                if (fields.length < 7 || !(fields[2].equals(COMPLETED) || fields[2].equals(FAILED))) {
+                    log.warn("Ignoring malformed checkpoint line: {}", line);
+                    continue;
+                }
+                try {
+                    outcomes.put(Long.valueOf(fields[0]), fields[2]);
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring malformed checkpoint line: {}", line);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read batch checkpoint " + file, e);
+        }
+        if (!outcomes.isEmpty()) {
+            System.out.println("Resuming batch: " + outcomes.size() + " timetables already in " + file.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.timetable_solver_demo.batch;
+
+import lombok.Getter;
+
+// One timetable of a batch
+@Getter
+public class BatchEntry {
+    private final Long scheduleId;
+    private final Long timetableId;
+    private final long estimatedSize;
+
+    BatchEntry(Long scheduleId, Long timetableId, long estimatedSize) {
+        this.scheduleId = scheduleId;
+        this.timetableId = timetableId;
+        this.estimatedSize = estimatedSize;
+    }
+
+    static BatchEntry parse(String pair) {
+        String[] ids = pair.trim().split(":");
+        if (ids.length != 2) {
+            throw new IllegalArgumentException("Batch job must be scheduleId:timetableId, got " + pair);
+        }
+        return new BatchEntry(Long.valueOf(ids[0].trim()), Long.valueOf(ids[1].trim()), 0);
+    }
+
+    BatchEntry withEstimatedSize(long size) {
+        return new BatchEntry(scheduleId, timetableId, size);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.timetable_solver_demo.batch;
+
+import com.example.timetable_solver_demo.cache.SolveCheckpointStore;
+import com.example.timetable_solver_demo.config.SolverProperties;
+import com.example.timetable_solver_demo.jobs.TimetableJobStore;
+import com.example.timetable_solver_demo.metrics.SolverMetrics;
+import com.example.timetable_solver_demo.worker.SolverWorkerPool;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Run with --spring.profiles.active=batch --spring.main.web-application-type=none
+// and timetable.batch.jobs=33:1502,... and/or timetable.batch.jobs-file=<file>
+@Component
+@Profile("batch")
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchGenerationRunner implements CommandLineRunner {
+    private final TimetableJobStore store;
+    private final SolverProperties solverProperties;
+    private final BatchProperties batchProperties;
+    private final ObjectProvider<SolveCheckpointStore> solveCheckpointStore;
+    private final ObjectProvider<SolverMetrics> solverMetrics;
+    private final ObjectProvider<SolverWorkerPool> workerPool;
+
+    public BatchGenerationRunner(TimetableJobStore store, SolverProperties solverProperties, BatchProperties batchProperties,
+                                 ObjectProvider<SolveCheckpointStore> solveCheckpointStore, ObjectProvider<SolverMetrics> solverMetrics,
+                                 ObjectProvider<SolverWorkerPool> workerPool) {
+        this.store = store;
+        this.solverProperties = solverProperties;
+        this.batchProperties = batchProperties;
+        this.solveCheckpointStore = solveCheckpointStore;
+        this.solverMetrics = solverMetrics;
+        this.workerPool = workerPool;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<String> pairs = new ArrayList<>(batchProperties.getJobs());
+        if (batchProperties.getJobsFile() != null) {
+            for (String line : Files.readAllLines(Path.of(batchProperties.getJobsFile()))) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    pairs.add(line);
+                }
+            }
+        }
+        if (pairs.isEmpty()) {
+            throw new IllegalArgumentException("No batch timetables configured (timetable.batch.jobs or timetable.batch.jobs-file)");
+        }
+
+        List<BatchEntry> entries = pairs.stream().map(BatchEntry::parse).toList();
+        BatchGenerator generator = new BatchGenerator(store, batchProperties, solverProperties.getProfile(batchProperties.getProfile()));
+        generator.setSolveCheckpointStore(solveCheckpointStore.getIfAvailable());
+        generator.setSolverMetrics(solverMetrics.getIfAvailable());
+        generator.setWorkerPool(workerPool.getIfAvailable());
+        generator.run(entries);
+    }
+}
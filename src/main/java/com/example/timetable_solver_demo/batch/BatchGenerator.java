@@ -0,0 +1,206 @@
+package com.example.timetable_solver_demo.batch;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.SolveHandle;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.cache.SolveCheckpointStore;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.enums.TimetableStatus;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.jobs.TimetableJobStore;
+import com.example.timetable_solver_demo.metrics.SolverMetrics;
+import com.example.timetable_solver_demo.worker.SolverWorkerPool;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Generates timetables for many schools in one run. Largest timetables are started first so that a big
+// school does not end up running alone at the end of the night. All concurrent solves share a budget
+// of search workers: each solve takes workers in proportion to its size, from 1 up to the profile's
+// worker count, and returns them when done.
+@Slf4j
+public class BatchGenerator {
+    private final TimetableJobStore store;
+    private final BatchProperties properties;
+    private final SolverProfile profile;
+    private final BatchCheckpoint checkpoint;
+    private SolveCheckpointStore solveCheckpointStore;
+    private SolverMetrics solverMetrics;
+    private SolverWorkerPool workerPool;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private long startNanos;
+
+    public BatchGenerator(TimetableJobStore store, BatchProperties properties, SolverProfile profile) {
+        this.store = store;
+        this.properties = properties;
+        this.profile = profile;
+        this.checkpoint = new BatchCheckpoint(Path.of(properties.getCheckpointFile()));
+    }
+
+    // Lets a timetable that was mid-solve when the batch died resume from its last phase
+    public void setSolveCheckpointStore(SolveCheckpointStore solveCheckpointStore) {
+        this.solveCheckpointStore = solveCheckpointStore;
+    }
+
+    public void setSolverMetrics(SolverMetrics solverMetrics) {
+        this.solverMetrics = solverMetrics;
+    }
+
+    // Runs each solve in a solver worker process, so one school's native crash does not end the batch
+    public void setWorkerPool(SolverWorkerPool workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    public void run(List<BatchEntry> requested) throws InterruptedException {
+        List<BatchEntry> entries = new ArrayList<>();
+        int skipped = 0;
+        for (BatchEntry entry : requested) {
+            if (checkpoint.isDone(entry.getTimetableId(), properties.isRetryFailed())) {
+                skipped++;
+                continue;
+            }
+            try {
+                entries.add(entry.withEstimatedSize(store.estimateSize(entry.getTimetableId())));
+            } catch (RuntimeException e) {
+                // An unknown timetable or a database error fails this entry only, not the rest of the batch
+                log.error("Could not size timetable {}, skipping it", entry.getTimetableId(), e);
+                checkpoint.record(entry, BatchCheckpoint.FAILED, "-", 0, 0);
+                failed.incrementAndGet();
+            }
+        }
+        entries.sort(Comparator.comparingLong(BatchEntry::getEstimatedSize).reversed());
+
+        int totalWorkers = properties.effectiveTotalWorkers();
+        int maxConcurrent = Math.max(1, properties.getMaxConcurrent());
+        System.out.println(String.format("Batch of %d timetables (%d skipped from checkpoint, %d failed to load), %d concurrent solves sharing %d search workers",
+            entries.size(), skipped, failed.get(), maxConcurrent, totalWorkers));
+        if (entries.isEmpty()) return;
+
+        long largest = Math.max(1, entries.get(0).getEstimatedSize());
+        Semaphore workerBudget = new Semaphore(totalWorkers, true);
+        Semaphore slots = new Semaphore(maxConcurrent);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "batch-solve-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        startNanos = System.nanoTime();
+        try {
+            for (BatchEntry entry : entries) {
+                int workers = workersFor(entry, largest, totalWorkers);
+                slots.acquire();
+                workerBudget.acquire(workers);
+                executor.execute(() -> {
+                    try {
+                        solve(entry, workers);
+                    } finally {
+                        workerBudget.release(workers);
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+        }
+
+        System.out.println(String.format("\nBatch finished: %d completed, %d failed in %.2f h (%.1f schools/hour)",
+            completed.get(), failed.get(), elapsedHours(), schoolsPerHour()));
+    }
+
+    // Proportional share of the profile's workers, at least 1 and never more than the whole budget
+    int workersFor(BatchEntry entry, long largestSize, int totalWorkers) {
+        int maxWorkers = Math.min(profile.getWorkers(), totalWorkers);
+        int share = (int) Math.ceil(maxWorkers * (double) entry.getEstimatedSize() / largestSize);
+        return Math.max(1, Math.min(maxWorkers, share));
+    }
+
+    private void solve(BatchEntry entry, int workers) {
+        long start = System.nanoTime();
+        TimetableStatus previousStatus = null;
+        String outcome = BatchCheckpoint.FAILED;
+        String solverStatus = "-";
+        try {
+            previousStatus = store.updateStatus(entry.getTimetableId(), TimetableStatus.GENERATING);
+            TimetableInstance instance = store.load(entry.getScheduleId(), entry.getTimetableId());
+
+            SolverProfile jobProfile = profile.copy();
+            jobProfile.setWorkers(workers);
+            jobProfile.setModelBuildParallelism(workers);
+            jobProfile.setSearchLog(SolverProfile.SearchLog.NONE);
+
+            SolveHandle solver = createSolver(instance, jobProfile);
+            solver.solve();
+            solver.awaitCompletion();
+            if (solverMetrics != null) {
+                solverMetrics.record(solver.getPhaseStatistics(), "batch");
+            }
+
+            Map<Lesson, Integer> solution = solver.getBestSolution();
+            if (solution != null && !solution.isEmpty()) {
+                List<Long> timeslotIds = instance.getSchedule().getTimeslotList().stream().map(timeslot -> timeslot.getId()).toList();
+                store.saveSolution(entry.getTimetableId(), solution, timeslotIds);
+                outcome = BatchCheckpoint.COMPLETED;
+                solverStatus = solver.getBestStatus().name();
+            } else {
+                restoreStatus(entry, previousStatus);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; // Not checkpointed, solved again on the next run
+        } catch (RuntimeException e) {
+            log.error("Batch solve of timetable {} failed", entry.getTimetableId(), e);
+            restoreStatus(entry, previousStatus);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        checkpoint.record(entry, outcome, solverStatus, workers, seconds);
+        (outcome.equals(BatchCheckpoint.COMPLETED) ? completed : failed).incrementAndGet();
+        System.out.println(String.format("Timetable %d (size %d, %d workers): %s %s in %.1fs - %d completed, %d failed, %.1f schools/hour",
+            entry.getTimetableId(), entry.getEstimatedSize(), workers, outcome, solverStatus, seconds,
+            completed.get(), failed.get(), schoolsPerHour()));
+    }
+
+    private SolveHandle createSolver(TimetableInstance instance, SolverProfile jobProfile) {
+        if (workerPool != null) {
+            return workerPool.newSolve(instance, jobProfile);
+        }
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(),
+            instance.getCombinedStreams(), instance.getTeacherTimeOffs(), null, jobProfile);
+        solver.setCheckpointStore(solveCheckpointStore);
+        return solver;
+    }
+
+    private void restoreStatus(BatchEntry entry, TimetableStatus previousStatus) {
+        if (previousStatus == null) return;
+        try {
+            store.updateStatus(entry.getTimetableId(), previousStatus);
+        } catch (RuntimeException e) {
+            log.warn("Failed to restore status of timetable {}: {}", entry.getTimetableId(), e.getMessage());
+        }
+    }
+
+    private double elapsedHours() {
+        return (System.nanoTime() - startNanos) / 3.6e12;
+    }
+
+    // Completed timetables of this run only; those skipped from the checkpoint do not count
+    public double schoolsPerHour() {
+        double hours = elapsedHours();
+        return hours > 0 ? completed.get() / hours : 0;
+    }
+}
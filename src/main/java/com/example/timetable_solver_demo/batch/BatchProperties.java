@@ -0,0 +1,34 @@
+package com.example.timetable_solver_demo.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the multi-school batch driver, bound from timetable.batch.*
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "timetable.batch")
+public class BatchProperties {
+
+    // "scheduleId:timetableId" pairs, plus the same one per line in jobsFile (blank lines and # comments ignored)
+    private List<String> jobs = new ArrayList<>();
+    private String jobsFile;
+
+    private String profile = "overnight";
+
+    // Search workers shared by all concurrent solves, 0 = available processors
+    private int totalWorkers = 0;
+    private int maxConcurrent = 4;
+
+    // One line per finished timetable; timetables already listed are skipped on restart
+    private String checkpointFile = "batch-checkpoint.csv";
+    private boolean retryFailed = false;
+
+    public int effectiveTotalWorkers() {
+        return totalWorkers > 0 ? totalWorkers : Runtime.getRuntime().availableProcessors();
+    }
+}
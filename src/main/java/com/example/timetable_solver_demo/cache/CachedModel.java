@@ -0,0 +1,28 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// A built solver model: one cumulative CpModelProto per phase plus lesson id -> slot variable index
+@Getter
+public class CachedModel {
+    private final Map<Long, Integer> lessonVarIndex;
+    private final List<CpModelProto> phaseModels;
+
+    public CachedModel(Map<Long, Integer> lessonVarIndex, List<CpModelProto> phaseModels) {
+        this.lessonVarIndex = lessonVarIndex;
+        this.phaseModels = phaseModels;
+    }
+
+    // phase is 1-based, matching the phases of MinimalTimetableSolver.solve()
+    public CpModel toCpModel(int phase) {
+        CpModel model = new CpModel();
+        model.getBuilder().mergeFrom(phaseModels.get(phase - 1));
+        return model;
+    }
+}
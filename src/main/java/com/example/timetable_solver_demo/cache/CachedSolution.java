@@ -0,0 +1,37 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+// Best assignment found for a fingerprint, together with the time budget that produced it
+@Getter
+public class CachedSolution {
+    private final Map<Long, Integer> lessonSlots; // lesson id -> global slot
+    private final CpSolverStatus status;
+    private final double objective;               // NaN when the model had no objective
+    private final double timeBudgetSeconds;
+
+    public CachedSolution(Map<Long, Integer> lessonSlots, CpSolverStatus status, double objective, double timeBudgetSeconds) {
+        this.lessonSlots = lessonSlots;
+        this.status = status;
+        this.objective = objective;
+        this.timeBudgetSeconds = timeBudgetSeconds;
+    }
+
+    // True when re-solving with the given budget cannot be expected to do better
+    public boolean covers(double requestedBudgetSeconds) {
+        return status == CpSolverStatus.OPTIMAL || timeBudgetSeconds >= requestedBudgetSeconds;
+    }
+
+    public boolean hasObjective() {
+        return !Double.isNaN(objective);
+    }
+
+    long estimatedBytes() {
+        // HashMap node + boxed Long key + boxed Integer value per lesson, plus the object itself
+        return 128L + 64L * lessonSlots.size();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.google.ortools.sat.CpModelProto;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// On-disk cache of built solver models keyed by TimetableFingerprint.
+// Every file of an entry is named "<fingerprint>.<kind>"; entries are evicted least-recently-used
+// (file modification time is bumped on every hit) once the directory exceeds maxBytes.
+@Slf4j
+public class ModelCache {
+    private static final int MAGIC = 0x54544d43; // "TTMC"
+    private static final int VERSION = 1;
+    static final String MODEL_SUFFIX = ".model";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    public ModelCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create model cache directory " + directory, e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized CachedModel get(String fingerprint) {
+        Path file = directory.resolve(fingerprint + MODEL_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring model cache entry {} with unknown format", file);
+                return null;
+            }
+
+            int mappingSize = in.readInt();
+            Map<Long, Integer> lessonVarIndex = new HashMap<>(mappingSize * 2);
+            for (int i = 0; i < mappingSize; i++) {
+                lessonVarIndex.put(in.readLong(), in.readInt());
+            }
+
+            int phaseCount = in.readInt();
+            List<CpModelProto> phaseModels = new ArrayList<>(phaseCount);
+            for (int i = 0; i < phaseCount; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                phaseModels.add(CpModelProto.parseFrom(bytes));
+            }
+
+            touch(fingerprint);
+            log.info("Model cache hit for {}", fingerprint);
+            return new CachedModel(lessonVarIndex, phaseModels);
+        } catch (NoSuchFileException e) {
+            log.info("Model cache miss for {}", fingerprint);
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read model cache entry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void put(String fingerprint, CachedModel cachedModel) {
+        Path file = directory.resolve(fingerprint + MODEL_SUFFIX);
+        Path tmp = directory.resolve(fingerprint + MODEL_SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(cachedModel.getLessonVarIndex().size());
+            for (Map.Entry<Long, Integer> entry : cachedModel.getLessonVarIndex().entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+
+            out.writeInt(cachedModel.getPhaseModels().size());
+            for (CpModelProto phaseModel : cachedModel.getPhaseModels()) {
+                byte[] bytes = phaseModel.toByteArray();
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write model cache entry {}: {}", file, e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Stored model for {} ({} bytes)", fingerprint, Files.size(file));
+            evictIfNeeded();
+        } catch (IOException e) {
+            log.warn("Failed to store model cache entry {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Marks an entry as recently used
+    synchronized void touch(String fingerprint) {
+        try {
+            Files.setLastModifiedTime(directory.resolve(fingerprint + MODEL_SUFFIX), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Could not touch model cache entry {}", fingerprint);
+        }
+    }
+
+    // Returns the number of evicted entries
+    synchronized int evictIfNeeded() throws IOException {
+        Map<String, List<Path>> filesByEntry;
+        try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+            filesByEntry = files
+                .filter(path -> !path.getFileName().toString().endsWith(".tmp"))
+                .collect(Collectors.groupingBy(ModelCache::fingerprintOf));
+        }
+
+        long totalBytes = 0;
+        Map<String, Long> entryBytes = new HashMap<>();
+        Map<String, Long> entryLastUsed = new HashMap<>();
+        for (Map.Entry<String, List<Path>> entry : filesByEntry.entrySet()) {
+            long bytes = 0;
+            long lastUsed = 0;
+            for (Path path : entry.getValue()) {
+                bytes += Files.size(path);
+                lastUsed = Math.max(lastUsed, Files.getLastModifiedTime(path).toMillis());
+            }
+            entryBytes.put(entry.getKey(), bytes);
+            entryLastUsed.put(entry.getKey(), lastUsed);
+            totalBytes += bytes;
+        }
+
+        List<String> oldestFirst = new ArrayList<>(filesByEntry.keySet());
+        oldestFirst.sort(Comparator.comparing(entryLastUsed::get));
+
+        int evicted = 0;
+        for (String fingerprint : oldestFirst) {
+            if (totalBytes <= maxBytes) break;
+            for (Path path : filesByEntry.get(fingerprint)) {
+                Files.deleteIfExists(path);
+            }
+            totalBytes -= entryBytes.get(fingerprint);
+            evicted++;
+            log.info("Evicted model cache entry {}", fingerprint);
+        }
+        return evicted;
+    }
+
+    private static String fingerprintOf(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+}
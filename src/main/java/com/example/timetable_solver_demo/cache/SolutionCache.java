@@ -0,0 +1,151 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Last good solution per fingerprint. Entries live in a memory-bounded LRU map and are also written
+// as "<fingerprint>.solution" next to the cached model, so they share the ModelCache disk eviction.
+@Slf4j
+public class SolutionCache {
+    private static final int MAGIC = 0x54545343; // "TTSC"
+    private static final int VERSION = 1;
+    static final String SOLUTION_SUFFIX = ".solution";
+
+    private final Path directory;
+    private final long maxMemoryBytes;
+    private final LinkedHashMap<String, CachedSolution> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SolutionCache(Path directory, long maxMemoryBytes) {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public synchronized CachedSolution get(String fingerprint) {
+        CachedSolution solution = memory.get(fingerprint);
+        if (solution == null) {
+            solution = readFromDisk(fingerprint);
+            if (solution != null) {
+                remember(fingerprint, solution);
+            }
+        }
+
+        if (solution == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        log.info("Solution cache {} for {} ({})", solution != null ? "hit" : "miss", fingerprint, stats());
+        return solution;
+    }
+
+    public synchronized void put(String fingerprint, CachedSolution solution) {
+        remember(fingerprint, solution);
+        writeToDisk(fingerprint, solution);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public String stats() {
+        return String.format("hits=%d misses=%d evictions=%d memoryBytes=%d", getHits(), getMisses(), getEvictions(), getMemoryBytes());
+    }
+
+    private void remember(String fingerprint, CachedSolution solution) {
+        CachedSolution previous = memory.put(fingerprint, solution);
+        if (previous != null) {
+            memoryBytes -= previous.estimatedBytes();
+        }
+        memoryBytes += solution.estimatedBytes();
+
+        Iterator<Map.Entry<String, CachedSolution>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+            Map.Entry<String, CachedSolution> entry = eldest.next();
+            if (entry.getKey().equals(fingerprint)) continue; // Never drop the entry just stored
+            memoryBytes -= entry.getValue().estimatedBytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private CachedSolution readFromDisk(String fingerprint) {
+        Path file = directory.resolve(fingerprint + SOLUTION_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            CpSolverStatus status = CpSolverStatus.valueOf(in.readUTF());
+            double objective = in.readDouble();
+            double timeBudgetSeconds = in.readDouble();
+            int size = in.readInt();
+            Map<Long, Integer> lessonSlots = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                lessonSlots.put(in.readLong(), in.readInt());
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new CachedSolution(lessonSlots, status, objective, timeBudgetSeconds);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to read cached solution {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(String fingerprint, CachedSolution solution) {
+        Path file = directory.resolve(fingerprint + SOLUTION_SUFFIX);
+        Path tmp = directory.resolve(fingerprint + SOLUTION_SUFFIX + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(solution.getStatus().name());
+                out.writeDouble(solution.getObjective());
+                out.writeDouble(solution.getTimeBudgetSeconds());
+                out.writeInt(solution.getLessonSlots().size());
+                for (Map.Entry<Long, Integer> entry : solution.getLessonSlots().entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write cached solution {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+// Progress of an interrupted solve: the last fully solved phase, the best assignment so far
+// and the search time already spent in each phase
+@Getter
+public class SolveCheckpoint {
+    private final int completedPhase;              // 0 while Phase 1 is still running
+    private final CpSolverStatus status;
+    private final Map<Long, Integer> lessonSlots;  // lesson id -> global slot
+    private final double[] phaseSeconds;           // Index 1-3, time spent in each phase so far
+
+    public SolveCheckpoint(int completedPhase, CpSolverStatus status, Map<Long, Integer> lessonSlots, double[] phaseSeconds) {
+        this.completedPhase = completedPhase;
+        this.status = status;
+        this.lessonSlots = lessonSlots;
+        this.phaseSeconds = phaseSeconds;
+    }
+
+    public double getPhaseSeconds(int phase) {
+        return phaseSeconds[phase];
+    }
+
+    public double getElapsedSeconds() {
+        return phaseSeconds[1] + phaseSeconds[2] + phaseSeconds[3];
+    }
+}
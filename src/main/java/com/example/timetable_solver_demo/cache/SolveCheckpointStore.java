@@ -0,0 +1,115 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Checkpoints of running solves, one "<fingerprint>.checkpoint" file per input. A file is replaced
+// atomically and synced before the rename, so a crash leaves either the old or the new checkpoint.
+// Every save writes its own temporary file, so concurrent solves of the same input never mix their writes.
+// Checkpoints are deleted once the solve has finished all phases.
+@Slf4j
+public class SolveCheckpointStore {
+    private static final int MAGIC = 0x5454434B; // "TTCK"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".checkpoint";
+
+    private final Path directory;
+    private final double intervalSeconds;
+
+    public SolveCheckpointStore(Path directory, double intervalSeconds) {
+        this.directory = directory;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    // Minimum time between checkpoints written from inside a phase
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public SolveCheckpoint load(String fingerprint) {
+        Path file = directory.resolve(fingerprint + SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int completedPhase = in.readInt();
+            CpSolverStatus status = CpSolverStatus.valueOf(in.readUTF());
+            double[] phaseSeconds = new double[4];
+            for (int phase = 1; phase <= 3; phase++) {
+                phaseSeconds[phase] = in.readDouble();
+            }
+            int size = in.readInt();
+            Map<Long, Integer> lessonSlots = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                lessonSlots.put(in.readLong(), in.readInt());
+            }
+            return new SolveCheckpoint(completedPhase, status, lessonSlots, phaseSeconds);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to read solve checkpoint {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void save(String fingerprint, SolveCheckpoint checkpoint) {
+        Path file = directory.resolve(fingerprint + SUFFIX);
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, fingerprint, ".tmp");
+            try (FileOutputStream stream = new FileOutputStream(tmp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(checkpoint.getCompletedPhase());
+                out.writeUTF(checkpoint.getStatus().name());
+                for (int phase = 1; phase <= 3; phase++) {
+                    out.writeDouble(checkpoint.getPhaseSeconds(phase));
+                }
+                out.writeInt(checkpoint.getLessonSlots().size());
+                for (Map.Entry<Long, Integer> entry : checkpoint.getLessonSlots().entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+                out.flush();
+                stream.getFD().sync();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write solve checkpoint {}: {}", file, e.getMessage());
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static void deleteQuietly(Path tmp) {
+        if (tmp == null) return;
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            // Only a leftover temporary file
+        }
+    }
+
+    public void delete(String fingerprint) {
+        try {
+            Files.deleteIfExists(directory.resolve(fingerprint + SUFFIX));
+        } catch (IOException e) {
+            log.warn("Failed to delete solve checkpoint {}: {}", fingerprint, e.getMessage());
+        }
+    }
+}
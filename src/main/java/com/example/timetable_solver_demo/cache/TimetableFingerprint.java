@@ -0,0 +1,89 @@
+package com.example.timetable_solver_demo.cache;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.LessonInfo;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+// SHA-256 over a canonical (id-sorted) rendering of everything the solver model is built from
+public final class TimetableFingerprint {
+
+    private TimetableFingerprint() {
+    }
+
+    public static String compute(List<Lesson> lessons, Schedule schedule, List<CombinedStream> combinedStreams,
+                                 List<TeacherTimeOff> teacherTimeOffs, Collection<String> modelFeatures, int days) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append("days=").append(days).append('\n');
+        canonical.append("features=").append(new TreeSet<>(modelFeatures)).append('\n');
+
+        for (ScheduleTimeslot timeslot : schedule.getTimeslotList()) {
+            canonical.append("slot|").append(timeslot.getId())
+                .append('|').append(timeslot.getTimeslotActivity())
+                .append('|').append(timeslot.getTimeOfDay()).append('\n');
+        }
+
+        lessons.stream()
+            .sorted(Comparator.comparing(Lesson::getId))
+            .forEach(lesson -> appendLesson(canonical, lesson));
+
+        combinedStreams.stream()
+            .sorted(Comparator.comparing(CombinedStream::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .forEach(combinedStream -> canonical.append("combined|").append(combinedStream.getId())
+                .append('|').append(combinedStream.getSubject() != null ? combinedStream.getSubject().getId() : null)
+                .append('|').append(combinedStream.getConstituentStreams().stream()
+                    .map(Stream::getId).sorted().collect(Collectors.toList()))
+                .append('\n'));
+
+        teacherTimeOffs.stream()
+            .map(timeOff -> timeOff.getTeacher().getId() + "|" + timeOff.getDayOfWeek() + "|" + timeOff.getTimeslot().getId())
+            .sorted()
+            .forEach(timeOff -> canonical.append("timeoff|").append(timeOff).append('\n'));
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void appendLesson(StringBuilder canonical, Lesson lesson) {
+        LessonInfo info = lesson.getLessonInfo();
+        canonical.append("lesson|").append(lesson.getId())
+            .append('|').append(info.getLessonType())
+            .append('|').append(info.getStream().getId())
+            .append('|').append(info.getStream().getIntake() != null ? info.getStream().getIntake().getId() : null);
+
+        if (info.getSubject() != null) {
+            canonical.append("|subject|").append(info.getSubject().getId())
+                .append('|').append(info.getSubject().getName())
+                .append('|').append(info.getSubject().getIntCode())
+                .append('|').append(info.getSubject().getCategory() != null ? info.getSubject().getCategory().getName() : null);
+        }
+        if (info.getCombinedSubject() != null) {
+            canonical.append("|combined_subject|").append(info.getCombinedSubject().getId())
+                .append('|').append(info.getCombinedSubject().getSubjectName())
+                .append('|').append(info.getCombinedSubject().getSubjectCode());
+        }
+
+        canonical.append("|teachers|").append(info.getTeachers().stream()
+            .map(Teacher::getId).filter(Objects::nonNull).sorted().collect(Collectors.toList()));
+        canonical.append('\n');
+    }
+}
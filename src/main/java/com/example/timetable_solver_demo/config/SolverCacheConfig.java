@@ -0,0 +1,38 @@
+package com.example.timetable_solver_demo.config;
+
+import com.example.timetable_solver_demo.cache.ModelCache;
+import com.example.timetable_solver_demo.cache.SolutionCache;
+import com.example.timetable_solver_demo.cache.SolveCheckpointStore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class SolverCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "timetable.solver.model-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public ModelCache modelCache(@Value("${timetable.solver.model-cache.dir}") String directory,
+                                 @Value("${timetable.solver.model-cache.max-size-mb:512}") long maxSizeMb) {
+        return new ModelCache(Path.of(directory), maxSizeMb * 1024 * 1024);
+    }
+
+    // Solutions are stored next to the cached models so both are evicted together
+    @Bean
+    @ConditionalOnProperty(name = "timetable.solver.model-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public SolutionCache solutionCache(@Value("${timetable.solver.model-cache.dir}") String directory,
+                                       @Value("${timetable.solver.solution-cache.max-memory-mb:64}") long maxMemoryMb) {
+        return new SolutionCache(Path.of(directory), maxMemoryMb * 1024 * 1024);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "timetable.solver.checkpoint.enabled", havingValue = "true", matchIfMissing = true)
+    public SolveCheckpointStore solveCheckpointStore(@Value("${timetable.solver.checkpoint.dir}") String directory,
+                                                     @Value("${timetable.solver.checkpoint.interval-seconds:30}") double intervalSeconds) {
+        return new SolveCheckpointStore(Path.of(directory), intervalSeconds);
+    }
+}
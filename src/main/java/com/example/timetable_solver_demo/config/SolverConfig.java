@@ -0,0 +1,23 @@
+package com.example.timetable_solver_demo.config;
+
+import com.example.timetable_solver_demo.dump.SolveDumper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(SolverProperties.class)
+public class SolverConfig {
+
+    // Off by default: dumps contain the full model of every solve
+    @Bean
+    @ConditionalOnProperty(name = "timetable.solver.dump.enabled", havingValue = "true")
+    public SolveDumper solveDumper(@Value("${timetable.solver.dump.dir}") String directory) {
+        return new SolveDumper(Path.of(directory));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.timetable_solver_demo.config;
+
+import com.example.timetable_solver_demo.SolverProfile;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Solver parameter profiles, e.g. timetable.solver.profiles.interactive.workers=2
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "timetable.solver")
+public class SolverProperties {
+    private String defaultProfile = "interactive";
+    private Map<String, SolverProfile> profiles = new LinkedHashMap<>();
+
+    public SolverProfile getProfile(String name) {
+        String profileName = name != null ? name : defaultProfile;
+        SolverProfile profile = profiles.get(profileName);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown solver profile: " + profileName + " (known: " + profiles.keySet() + ")");
+        }
+        profile.setName(profileName);
+        return profile;
+    }
+
+    public SolverProfile getDefault() {
+        return getProfile(defaultProfile);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.timetable_solver_demo.dump;
+
+import com.example.timetable_solver_demo.runtime.SolverRuntime;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.SatParameters;
+import com.google.ortools.sat.SolveWrapper;
+import com.google.protobuf.Parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+// Re-solves phases dumped by SolveDumper, without Spring or the database, and compares the result
+// with the recorded response. Exits with 1 if a phase that was solved before is no longer solved.
+//
+//   java -cp <classpath> com.example.timetable_solver_demo.dump.ModelReplayer <run dir> [phase] [--time-limit s] [--workers n]
+public class ModelReplayer {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: ModelReplayer <run dir> [phase1|phase2|phase3|repair] [--time-limit seconds] [--workers n]");
+            System.exit(2);
+        }
+
+        Path runDirectory = Path.of(args[0]);
+        List<String> phases = new ArrayList<>();
+        Double timeLimit = null;
+        Integer workers = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--time-limit" -> timeLimit = Double.parseDouble(args[++i]);
+                case "--workers" -> workers = Integer.parseInt(args[++i]);
+                default -> phases.add(args[i]);
+            }
+        }
+        if (phases.isEmpty()) {
+            phases.addAll(List.of("phase1", "phase2", "phase3", "repair"));
+        }
+
+        SolverRuntime.ensureLoaded();
+        boolean regressed = false;
+        for (String phase : phases) {
+            Path modelFile = SolveDumper.file(runDirectory, phase, SolveDumper.MODEL_KIND);
+            if (!Files.exists(modelFile)) continue;
+
+            CpModelProto model = read(modelFile, CpModelProto.parser());
+            SatParameters.Builder parameters = read(SolveDumper.file(runDirectory, phase, SolveDumper.PARAMETERS_KIND), SatParameters.parser()).toBuilder();
+            CpSolverResponse recorded = readOptional(SolveDumper.file(runDirectory, phase, SolveDumper.RESPONSE_KIND), CpSolverResponse.parser());
+            if (timeLimit != null) parameters.setMaxTimeInSeconds(timeLimit);
+            if (workers != null) parameters.setNumSearchWorkers(workers);
+            parameters.setLogSearchProgress(false);
+
+            System.out.println(String.format("%s: %d variables, %d constraints, objective=%s, hints=%d",
+                phase, model.getVariablesCount(), model.getConstraintsCount(), model.hasObjective(), model.getSolutionHint().getVarsCount()));
+            SolveWrapper solver = new SolveWrapper();
+            solver.setParameters(parameters.build());
+            CpSolverResponse replayed = solver.solve(model);
+            solver.delete();
+
+            print("  recorded", recorded);
+            print("  replayed", replayed);
+            if (recorded != null && isSolved(recorded.getStatus()) && !isSolved(replayed.getStatus())) {
+                System.out.println("  REGRESSION: recorded " + recorded.getStatus() + ", replayed " + replayed.getStatus());
+                regressed = true;
+            }
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    private static boolean isSolved(CpSolverStatus status) {
+        return status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE;
+    }
+
+    private static void print(String label, CpSolverResponse response) {
+        if (response == null) {
+            System.out.println(label + ": no response recorded");
+            return;
+        }
+        System.out.println(String.format("%s: %s objective=%s bound=%s wall=%.2fs conflicts=%d branches=%d",
+            label, response.getStatus(), response.getObjectiveValue(), response.getBestObjectiveBound(),
+            response.getWallTime(), response.getNumConflicts(), response.getNumBranches()));
+    }
+
+    private static <T> T read(Path file, Parser<T> parser) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return parser.parseFrom(in);
+        }
+    }
+
+    private static <T> T readOptional(Path file, Parser<T> parser) throws IOException {
+        try {
+            return read(file, parser);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.timetable_solver_demo.dump;
+
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.SatParameters;
+import com.google.protobuf.Message;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+// Opt-in dump of exactly what was solved: for every phase the CpModelProto (including hints), the
+// SatParameters and the CpSolverResponse, gzip-compressed under <directory>/<run>/phase<N>.<kind>.pb.gz.
+// Protos are immutable, so they are handed to a single background writer and the solve never waits on disk.
+// ModelReplayer re-solves a dumped phase.
+@Slf4j
+public class SolveDumper {
+    static final String MODEL_KIND = "model";
+    static final String PARAMETERS_KIND = "params";
+    static final String RESPONSE_KIND = "response";
+    private static final DateTimeFormatter RUN_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final AtomicInteger runCounter = new AtomicInteger();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solve-dumper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SolveDumper(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Directory name for one solve, unique within this process
+    public String newRun(String label) {
+        return LocalDateTime.now().format(RUN_FORMAT) + "-" + runCounter.incrementAndGet() + "-" + label;
+    }
+
+    public void dumpPhase(String run, String phase, CpModelProto model, SatParameters parameters, CpSolverResponse response) {
+        Path runDirectory = directory.resolve(run);
+        writer.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                Files.createDirectories(runDirectory);
+                write(runDirectory, phase, MODEL_KIND, model);
+                write(runDirectory, phase, PARAMETERS_KIND, parameters);
+                write(runDirectory, phase, RESPONSE_KIND, response);
+                log.info("Dumped {} of {} to {} in {} ms", phase, run, runDirectory, (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                log.warn("Failed to dump {} of {}: {}", phase, run, e.getMessage());
+            }
+        });
+    }
+
+    // Waits for pending dumps, e.g. before the JVM exits. Returns false if they did not finish in time.
+    public boolean flush(long timeoutSeconds) throws InterruptedException {
+        try {
+            writer.submit(() -> { }).get(timeoutSeconds, TimeUnit.SECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    static Path file(Path runDirectory, String phase, String kind) {
+        return runDirectory.resolve(phase + "." + kind + ".pb.gz");
+    }
+
+    private static void write(Path runDirectory, String phase, String kind, Message message) throws IOException {
+        Path file = file(runDirectory, phase, kind);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), 64 * 1024)) {
+            message.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.timetable_solver_demo.instance;
+
+// Layout of a timetable instance file (.ttin), big-endian:
+//
+//   int magic "TTIN", int version, string name
+//   timetables, intakes, subject categories, subjects, combined subjects, streams, teachers,
+//   schedule with timeslots, lesson infos, lessons, combined streams, teacher time-offs
+//
+// Every section is an int count followed by its records. References to other entities are their
+// ids, with NULL_INT / NULL_LONG for none. Strings (including enum names) are interned: an int index,
+// and the first time an index appears it is followed by a short length and the UTF-8 bytes; -1 is null.
+// Any change to the layout must bump VERSION.
+final class InstanceFormat {
+    static final int MAGIC = 0x5454494E; // "TTIN"
+    static final int VERSION = 1;
+    static final String FILE_SUFFIX = ".ttin";
+
+    static final int NULL_INT = Integer.MIN_VALUE;
+    static final long NULL_LONG = Long.MIN_VALUE;
+    static final int NULL_STRING = -1;
+
+    private InstanceFormat() {
+    }
+}
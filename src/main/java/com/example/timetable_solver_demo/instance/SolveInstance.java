@@ -0,0 +1,43 @@
+package com.example.timetable_solver_demo.instance;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.dump.SolveDumper;
+
+import java.nio.file.Path;
+
+// Solves an exported instance file without Spring or the database, e.g. to reproduce a bug report:
+//   java -cp <classpath> com.example.timetable_solver_demo.instance.SolveInstance timetable-1502.ttin [phaseTimeLimitSeconds] [dumpDir]
+public class SolveInstance {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SolveInstance <instance.ttin> [phaseTimeLimitSeconds] [dumpDir]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        TimetableInstance instance = TimetableInstanceReader.read(Path.of(args[0]));
+        System.out.println(String.format("Loaded %s: %d lessons in %.1f ms",
+            instance.getName(), instance.size(), (System.nanoTime() - start) / 1e6));
+
+        SolverProfile profile = new SolverProfile();
+        if (args.length > 1) {
+            double limit = Double.parseDouble(args[1]);
+            profile.setPhase1TimeLimitSeconds(limit);
+            profile.setPhase2TimeLimitSeconds(limit);
+            profile.setPhase3TimeLimitSeconds(limit);
+        }
+
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(),
+            instance.getCombinedStreams(), instance.getTeacherTimeOffs(), null, profile);
+        SolveDumper dumper = args.length > 2 ? new SolveDumper(Path.of(args[2])) : null;
+        solver.setSolveDumper(dumper);
+        solver.solve();
+        solver.awaitCompletion();
+        if (dumper != null && !dumper.flush(60)) {
+            System.err.println("Timed out writing solve dumps to " + dumper.getDirectory());
+        }
+        System.out.println("Finished with status " + solver.getBestStatus());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.timetable_solver_demo.instance;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// Complete solver input for one timetable, detached from where it was loaded from
+@Getter
+public class TimetableInstance {
+    public static final String FILE_SUFFIX = InstanceFormat.FILE_SUFFIX;
+
+    private final String name;
+    private final Schedule schedule;
+    private final List<Lesson> lessons;
+    private final List<CombinedStream> combinedStreams;
+    private final List<TeacherTimeOff> teacherTimeOffs;
+
+    public TimetableInstance(String name, Schedule schedule, List<Lesson> lessons, List<CombinedStream> combinedStreams, List<TeacherTimeOff> teacherTimeOffs) {
+        this.name = name;
+        this.schedule = schedule;
+        this.lessons = lessons;
+        this.combinedStreams = combinedStreams;
+        this.teacherTimeOffs = teacherTimeOffs;
+    }
+
+    public int size() {
+        return lessons.size();
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.timetable_solver_demo.instance;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.CombinedSubject;
+import com.example.timetable_solver_demo.entities.Intake;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.LessonInfo;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
+import com.example.timetable_solver_demo.entities.SchoolTimetable;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.Subject;
+import com.example.timetable_solver_demo.entities.SubjectCategory;
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.enums.LessonType;
+import com.example.timetable_solver_demo.enums.TimeOfDay;
+import com.example.timetable_solver_demo.enums.TimeslotActivity;
+import com.example.timetable_solver_demo.enums.TimetableStatus;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.timetable_solver_demo.instance.InstanceFormat.NULL_INT;
+import static com.example.timetable_solver_demo.instance.InstanceFormat.NULL_LONG;
+import static com.example.timetable_solver_demo.instance.InstanceFormat.NULL_STRING;
+
+// Loads an instance file into detached entity objects, without Spring or JPA. Every id maps to exactly
+// one object, so the identity-based equality the solver relies on (e.g. Stream map keys) holds.
+public class TimetableInstanceReader {
+    private final ByteBuffer buffer;
+    private final List<String> strings = new ArrayList<>();
+
+    private TimetableInstanceReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public static TimetableInstance read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TimetableInstanceReader(buffer).readInstance(file.toString());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated instance file: " + file, e);
+        }
+    }
+
+    // Instance in the file layout held in memory; source only names it in error messages
+    public static TimetableInstance read(byte[] bytes, String source) throws IOException {
+        try {
+            return new TimetableInstanceReader(ByteBuffer.wrap(bytes)).readInstance(source);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated instance: " + source, e);
+        }
+    }
+
+    // All instance files directly inside a directory, in file name order
+    public static List<Path> listInstanceFiles(Path directory) throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(InstanceFormat.FILE_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private TimetableInstance readInstance(String source) throws IOException {
+        if (buffer.getInt() != InstanceFormat.MAGIC) {
+            throw new IOException("Not a timetable instance file: " + source);
+        }
+        int version = buffer.getInt();
+        if (version != InstanceFormat.VERSION) {
+            throw new IOException("Unsupported instance file version " + version + " in " + source + ", expected " + InstanceFormat.VERSION);
+        }
+        String name = getString();
+
+        Map<Long, SchoolTimetable> timetables = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            SchoolTimetable timetable = new SchoolTimetable();
+            timetable.setId(buffer.getLong());
+            timetable.setTimetableStatus(getEnum(TimetableStatus.class));
+            timetables.put(timetable.getId(), timetable);
+        }
+
+        Map<Integer, Intake> intakes = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            Intake intake = new Intake();
+            intake.setId(buffer.getInt());
+            intakes.put(intake.getId(), intake);
+        }
+
+        Map<Integer, SubjectCategory> categories = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            SubjectCategory category = new SubjectCategory();
+            category.setId(buffer.getInt());
+            category.setName(getString());
+            categories.put(category.getId(), category);
+        }
+
+        Map<Long, Subject> subjects = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            Subject subject = new Subject();
+            subject.setId(buffer.getLong());
+            subject.setName(getString());
+            subject.setIntCode(getNullableInt());
+            subject.setCategory(lookup(categories, getNullableInt(), "subject category"));
+            subjects.put(subject.getId(), subject);
+        }
+
+        Map<Long, CombinedSubject> combinedSubjects = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            CombinedSubject combinedSubject = new CombinedSubject();
+            combinedSubject.setId(buffer.getLong());
+            combinedSubject.setSubjectName(getString());
+            combinedSubject.setSubjectCode(getNullableInt());
+            combinedSubjects.put(combinedSubject.getId(), combinedSubject);
+        }
+
+        Map<Integer, Stream> streams = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            Stream stream = new Stream();
+            stream.setId(buffer.getInt());
+            stream.setStreamName(getString());
+            stream.setIntake(lookup(intakes, getNullableInt(), "intake"));
+            streams.put(stream.getId(), stream);
+        }
+
+        Map<Long, Teacher> teachers = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            Teacher teacher = new Teacher();
+            teacher.setId(buffer.getLong());
+            teachers.put(teacher.getId(), teacher);
+        }
+
+        Schedule schedule = new Schedule();
+        schedule.setId(getNullableLong());
+        Map<Long, ScheduleTimeslot> timeslots = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            ScheduleTimeslot timeslot = new ScheduleTimeslot();
+            timeslot.setId(buffer.getLong());
+            timeslot.setTimeslotActivity(getEnum(TimeslotActivity.class));
+            timeslot.setTimeOfDay(getEnum(TimeOfDay.class));
+            timeslot.setSchedule(schedule);
+            schedule.getTimeslotList().add(timeslot);
+            timeslots.put(timeslot.getId(), timeslot);
+        }
+
+        Map<Long, LessonInfo> lessonInfos = new HashMap<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            LessonInfo info = new LessonInfo();
+            info.setId(buffer.getLong());
+            info.setLessonType(getEnum(LessonType.class));
+            info.setStream(lookup(streams, buffer.getInt(), "stream"));
+            info.setSubject(lookup(subjects, getNullableLong(), "subject"));
+            info.setCombinedSubject(lookup(combinedSubjects, getNullableLong(), "combined subject"));
+            info.setTimetable(lookup(timetables, getNullableLong(), "timetable"));
+            for (int t = buffer.getInt(); t > 0; t--) {
+                info.getTeachers().add(lookup(teachers, buffer.getLong(), "teacher"));
+            }
+            lessonInfos.put(info.getId(), info);
+        }
+
+        int lessonCount = buffer.getInt();
+        List<Lesson> lessons = new ArrayList<>(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setId(buffer.getLong());
+            lesson.setLessonInfo(lookup(lessonInfos, buffer.getLong(), "lesson info"));
+            lesson.setTimeslot(lookup(timeslots, getNullableLong(), "timeslot"));
+            lesson.setDayOfWeek(getEnum(DayOfWeek.class));
+            lessons.add(lesson);
+        }
+
+        List<CombinedStream> combinedStreams = new ArrayList<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            CombinedStream combinedStream = new CombinedStream();
+            combinedStream.setId(getNullableLong());
+            combinedStream.setSubject(lookup(subjects, getNullableLong(), "subject"));
+            for (int s = buffer.getInt(); s > 0; s--) {
+                combinedStream.getConstituentStreams().add(lookup(streams, buffer.getInt(), "stream"));
+            }
+            combinedStreams.add(combinedStream);
+        }
+
+        List<TeacherTimeOff> teacherTimeOffs = new ArrayList<>();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            TeacherTimeOff timeOff = new TeacherTimeOff();
+            timeOff.setId(getNullableLong());
+            timeOff.setTeacher(lookup(teachers, buffer.getLong(), "teacher"));
+            timeOff.setTimeslot(lookup(timeslots, buffer.getLong(), "timeslot"));
+            timeOff.setDayOfWeek(getEnum(DayOfWeek.class));
+            teacherTimeOffs.add(timeOff);
+        }
+
+        return new TimetableInstance(name, schedule, lessons, combinedStreams, teacherTimeOffs);
+    }
+
+    private static <K, V> V lookup(Map<K, V> entities, K id, String kind) throws IOException {
+        if (id == null) return null;
+        V entity = entities.get(id);
+        if (entity == null) {
+            throw new IOException("Instance file references unknown " + kind + " " + id);
+        }
+        return entity;
+    }
+
+    private Integer getNullableInt() {
+        int value = buffer.getInt();
+        return value == NULL_INT ? null : value;
+    }
+
+    private Long getNullableLong() {
+        long value = buffer.getLong();
+        return value == NULL_LONG ? null : value;
+    }
+
+    private <E extends Enum<E>> E getEnum(Class<E> type) {
+        String name = getString();
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    private String getString() {
+        int index = buffer.getInt();
+        if (index == NULL_STRING) return null;
+        if (index < strings.size()) return strings.get(index);
+
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.timetable_solver_demo.instance;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.CombinedSubject;
+import com.example.timetable_solver_demo.entities.Intake;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.LessonInfo;
+import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
+import com.example.timetable_solver_demo.entities.SchoolTimetable;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.Subject;
+import com.example.timetable_solver_demo.entities.SubjectCategory;
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.timetable_solver_demo.instance.InstanceFormat.NULL_INT;
+import static com.example.timetable_solver_demo.instance.InstanceFormat.NULL_LONG;
+import static com.example.timetable_solver_demo.instance.InstanceFormat.NULL_STRING;
+
+// Streams a TimetableInstance to an instance file through a FileChannel and a fixed buffer.
+// The file is written next to its target and moved into place once complete. toBytes() produces the
+// same layout in memory, e.g. to hand an instance to a solver worker process.
+public class TimetableInstanceWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private TimetableInstanceWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public static void write(TimetableInstance instance, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (TimetableInstanceWriter writer = new TimetableInstanceWriter(FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            writer.writeInstance(instance);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static byte[] toBytes(TimetableInstance instance) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (TimetableInstanceWriter writer = new TimetableInstanceWriter(Channels.newChannel(bytes))) {
+            writer.writeInstance(instance);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeInstance(TimetableInstance instance) throws IOException {
+        // Collect every referenced entity once, keyed by id, in first-seen order
+        Map<Long, SchoolTimetable> timetables = new LinkedHashMap<>();
+        Map<Integer, Intake> intakes = new LinkedHashMap<>();
+        Map<Integer, SubjectCategory> categories = new LinkedHashMap<>();
+        Map<Long, Subject> subjects = new LinkedHashMap<>();
+        Map<Long, CombinedSubject> combinedSubjects = new LinkedHashMap<>();
+        Map<Integer, Stream> streams = new LinkedHashMap<>();
+        Map<Long, Teacher> teachers = new LinkedHashMap<>();
+        Map<Long, LessonInfo> lessonInfos = new LinkedHashMap<>();
+
+        for (Lesson lesson : instance.getLessons()) {
+            LessonInfo info = lesson.getLessonInfo();
+            lessonInfos.putIfAbsent(info.getId(), info);
+            if (info.getTimetable() != null) timetables.putIfAbsent(info.getTimetable().getId(), info.getTimetable());
+            addStream(info.getStream(), streams, intakes);
+            addSubject(info.getSubject(), subjects, categories);
+            if (info.getCombinedSubject() != null) combinedSubjects.putIfAbsent(info.getCombinedSubject().getId(), info.getCombinedSubject());
+            for (Teacher teacher : info.getTeachers()) {
+                teachers.putIfAbsent(teacher.getId(), teacher);
+            }
+        }
+        for (CombinedStream combinedStream : instance.getCombinedStreams()) {
+            addSubject(combinedStream.getSubject(), subjects, categories);
+            for (Stream stream : combinedStream.getConstituentStreams()) {
+                addStream(stream, streams, intakes);
+            }
+        }
+        for (TeacherTimeOff timeOff : instance.getTeacherTimeOffs()) {
+            teachers.putIfAbsent(timeOff.getTeacher().getId(), timeOff.getTeacher());
+        }
+
+        putInt(InstanceFormat.MAGIC);
+        putInt(InstanceFormat.VERSION);
+        putString(instance.getName());
+
+        putInt(timetables.size());
+        for (SchoolTimetable timetable : timetables.values()) {
+            putLong(timetable.getId());
+            putEnum(timetable.getTimetableStatus());
+        }
+
+        putInt(intakes.size());
+        for (Intake intake : intakes.values()) {
+            putInt(intake.getId());
+        }
+
+        putInt(categories.size());
+        for (SubjectCategory category : categories.values()) {
+            putInt(category.getId());
+            putString(category.getName());
+        }
+
+        putInt(subjects.size());
+        for (Subject subject : subjects.values()) {
+            putLong(subject.getId());
+            putString(subject.getName());
+            putNullableInt(subject.getIntCode());
+            putNullableInt(subject.getCategory() != null ? subject.getCategory().getId() : null);
+        }
+
+        putInt(combinedSubjects.size());
+        for (CombinedSubject combinedSubject : combinedSubjects.values()) {
+            putLong(combinedSubject.getId());
+            putString(combinedSubject.getSubjectName());
+            putNullableInt(combinedSubject.getSubjectCode());
+        }
+
+        putInt(streams.size());
+        for (Stream stream : streams.values()) {
+            putInt(stream.getId());
+            putString(stream.getStreamName());
+            putNullableInt(stream.getIntake() != null ? stream.getIntake().getId() : null);
+        }
+
+        putInt(teachers.size());
+        for (Teacher teacher : teachers.values()) {
+            putLong(teacher.getId());
+        }
+
+        putNullableLong(instance.getSchedule().getId());
+        putInt(instance.getSchedule().getTimeslotList().size());
+        for (ScheduleTimeslot timeslot : instance.getSchedule().getTimeslotList()) {
+            putLong(timeslot.getId());
+            putEnum(timeslot.getTimeslotActivity());
+            putEnum(timeslot.getTimeOfDay());
+        }
+
+        putInt(lessonInfos.size());
+        for (LessonInfo info : lessonInfos.values()) {
+            putLong(info.getId());
+            putEnum(info.getLessonType());
+            putInt(info.getStream().getId());
+            putNullableLong(info.getSubject() != null ? info.getSubject().getId() : null);
+            putNullableLong(info.getCombinedSubject() != null ? info.getCombinedSubject().getId() : null);
+            putNullableLong(info.getTimetable() != null ? info.getTimetable().getId() : null);
+            putInt(info.getTeachers().size());
+            for (Teacher teacher : info.getTeachers()) {
+                putLong(teacher.getId());
+            }
+        }
+
+        putInt(instance.getLessons().size());
+        for (Lesson lesson : instance.getLessons()) {
+            putLong(lesson.getId());
+            putLong(lesson.getLessonInfo().getId());
+            putNullableLong(lesson.getTimeslot() != null ? lesson.getTimeslot().getId() : null);
+            putEnum(lesson.getDayOfWeek());
+        }
+
+        putInt(instance.getCombinedStreams().size());
+        for (CombinedStream combinedStream : instance.getCombinedStreams()) {
+            putNullableLong(combinedStream.getId());
+            putNullableLong(combinedStream.getSubject() != null ? combinedStream.getSubject().getId() : null);
+            putInt(combinedStream.getConstituentStreams().size());
+            for (Stream stream : combinedStream.getConstituentStreams()) {
+                putInt(stream.getId());
+            }
+        }
+
+        putInt(instance.getTeacherTimeOffs().size());
+        for (TeacherTimeOff timeOff : instance.getTeacherTimeOffs()) {
+            putNullableLong(timeOff.getId());
+            putLong(timeOff.getTeacher().getId());
+            putLong(timeOff.getTimeslot().getId());
+            putEnum(timeOff.getDayOfWeek());
+        }
+    }
+
+    private static void addStream(Stream stream, Map<Integer, Stream> streams, Map<Integer, Intake> intakes) {
+        streams.putIfAbsent(stream.getId(), stream);
+        if (stream.getIntake() != null) intakes.putIfAbsent(stream.getIntake().getId(), stream.getIntake());
+    }
+
+    private static void addSubject(Subject subject, Map<Long, Subject> subjects, Map<Integer, SubjectCategory> categories) {
+        if (subject == null) return;
+        subjects.putIfAbsent(subject.getId(), subject);
+        if (subject.getCategory() != null) categories.putIfAbsent(subject.getCategory().getId(), subject.getCategory());
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private void putNullableInt(Integer value) throws IOException {
+        putInt(value != null ? value : NULL_INT);
+    }
+
+    private void putNullableLong(Long value) throws IOException {
+        putLong(value != null ? value : NULL_LONG);
+    }
+
+    private void putEnum(Enum<?> value) throws IOException {
+        putString(value != null ? value.name() : null);
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            putInt(NULL_STRING);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            putInt(index);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("String too long for instance file: " + bytes.length + " bytes");
+        }
+        strings.put(value, strings.size());
+        putInt(strings.size() - 1);
+        ensure(Short.BYTES + bytes.length);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.timetable_solver_demo.jfr;
+
+import com.example.timetable_solver_demo.PhaseStatistics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One CP-SAT search of a solver phase, from solver.solve() to its return
+@Name("com.example.timetable.PhaseSolve")
+@Label("Phase Solve")
+@Category({"Timetable", "Solver"})
+@Description("CP-SAT search of one phase of a timetable solve")
+@StackTrace(false)
+public class PhaseSolveEvent extends Event {
+    @Label("Phase")
+    int phase;
+
+    @Label("Status")
+    String status;
+
+    @Label("Lessons")
+    int lessons;
+
+    @Label("Streams")
+    int streams;
+
+    @Label("Teachers")
+    int teachers;
+
+    @Label("Model Variables")
+    int modelVariables;
+
+    @Label("Model Constraints")
+    int modelConstraints;
+
+    @Label("Search Workers")
+    int workers;
+
+    @Label("Objective")
+    double objective;
+
+    @Label("Best Bound")
+    double bestBound;
+
+    @Label("Conflicts")
+    long conflicts;
+
+    @Label("Branches")
+    long branches;
+
+    @Label("Deterministic Time")
+    double deterministicTime;
+
+    public static PhaseSolveEvent start(int phase) {
+        PhaseSolveEvent event = new PhaseSolveEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+
+    public void finish(PhaseStatistics statistics, int streams, int teachers, int workers) {
+        end();
+        if (shouldCommit()) {
+            status = statistics.getStatus().name();
+            lessons = statistics.getLessons();
+            this.streams = streams;
+            this.teachers = teachers;
+            this.workers = workers;
+            modelVariables = statistics.getModelVariables();
+            modelConstraints = statistics.getModelConstraints();
+            objective = statistics.getObjective();
+            bestBound = statistics.getBestBound();
+            conflicts = statistics.getConflicts();
+            branches = statistics.getBranches();
+            deterministicTime = statistics.getDeterministicTime();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.timetable_solver_demo.jfr;
+
+import com.example.timetable_solver_demo.entities.Lesson;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+// Lesson, stream and teacher counts carried by every solver event
+public final class SolverCounts {
+
+    private SolverCounts() {
+    }
+
+    public static int[] of(Collection<Lesson> lessons) {
+        Set<Object> streams = new HashSet<>();
+        Set<Object> teachers = new HashSet<>();
+        for (Lesson lesson : lessons) {
+            if (lesson.getLessonInfo() == null) continue;
+            streams.add(lesson.getLessonInfo().getStream().getId());
+            lesson.getLessonInfo().getTeachers().forEach(teacher -> teachers.add(teacher.getId()));
+        }
+        return new int[] {lessons.size(), streams.size(), teachers.size()};
+    }
+}
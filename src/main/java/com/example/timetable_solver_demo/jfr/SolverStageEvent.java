@@ -0,0 +1,75 @@
+package com.example.timetable_solver_demo.jfr;
+
+import com.example.timetable_solver_demo.entities.Lesson;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+// One stage of a timetable solve outside the CP-SAT search: data load, decision variables, a constraint
+// family, solution extraction or persistence. Recorded by any JFR recording, e.g.
+// jcmd <pid> JFR.start name=solver settings=profile, so CPU and allocation samples line up with stages.
+@Name("com.example.timetable.SolverStage")
+@Label("Solver Stage")
+@Category({"Timetable", "Solver"})
+@Description("Data load, model construction, solution extraction or persistence step of a timetable solve")
+@StackTrace(false)
+public class SolverStageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Lessons")
+    int lessons;
+
+    @Label("Streams")
+    int streams;
+
+    @Label("Teachers")
+    int teachers;
+
+    @Label("Model Variables")
+    int modelVariables;
+
+    @Label("Model Constraints")
+    int modelConstraints;
+
+    @Label("Constraints Added")
+    int constraintsAdded;
+
+    public static SolverStageEvent start(String stage) {
+        SolverStageEvent event = new SolverStageEvent();
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    // Counts are only taken when the event is actually recorded
+    public void finish(Collection<Lesson> lessonList) {
+        end();
+        if (shouldCommit()) {
+            int[] counts = SolverCounts.of(lessonList);
+            lessons = counts[0];
+            streams = counts[1];
+            teachers = counts[2];
+            commit();
+        }
+    }
+
+    public void finish(int lessons, int streams, int teachers, int modelVariables, int modelConstraints, int constraintsAdded) {
+        end();
+        if (shouldCommit()) {
+            this.lessons = lessons;
+            this.streams = streams;
+            this.teachers = teachers;
+            this.modelVariables = modelVariables;
+            this.modelConstraints = modelConstraints;
+            this.constraintsAdded = constraintsAdded;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.example.timetable_solver_demo.PhaseStatistics;
+import com.example.timetable_solver_demo.SolveHandle;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// One timetable generation request and its progress. Written by the job thread, read by API requests.
+@Getter
+public class GenerationJob {
+    private final String id;
+    private final Long scheduleId;
+    private final Long timetableId;
+    private final String profile;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile JobState state = JobState.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile CpSolverStatus bestStatus;
+    private volatile Map<Lesson, Integer> bestSolution;
+    private volatile List<Long> timeslotIds; // Schedule timeslot ids in slot order
+    private volatile boolean cancelRequested;
+    private volatile SolveHandle solver;  // In this JVM or in a solver worker process
+    private volatile List<PhaseStatistics> phaseStatistics = List.of();
+    @Getter(AccessLevel.NONE)
+    private final JobEventPublisher events;
+
+    GenerationJob(String id, Long scheduleId, Long timetableId, String profile, Executor eventSender, int eventQueueCapacity) {
+        this.id = id;
+        this.scheduleId = scheduleId;
+        this.timetableId = timetableId;
+        this.profile = profile;
+        this.events = new JobEventPublisher(this, eventSender, eventQueueCapacity);
+    }
+
+    JobEventPublisher events() {
+        return events;
+    }
+
+    public int getPhase() {
+        SolveHandle current = solver;
+        return current != null ? current.getCurrentPhase() : 0;
+    }
+
+    // CP-SAT statistics of the phases solved so far
+    public List<PhaseStatistics> getPhaseStatistics() {
+        SolveHandle current = solver;
+        return current != null ? current.getPhaseStatistics() : phaseStatistics;
+    }
+
+    void solved(List<PhaseStatistics> phaseStatistics) {
+        this.phaseStatistics = phaseStatistics;
+    }
+
+    void started(SolveHandle solver, List<Long> timeslotIds) {
+        this.timeslotIds = timeslotIds;
+        this.solver = solver;
+        if (cancelRequested) {
+            solver.cancel();
+        }
+    }
+
+    void running() {
+        startedAt = Instant.now();
+        state = JobState.RUNNING;
+    }
+
+    void improved(CpSolverStatus status, Map<Lesson, Integer> solution) {
+        bestStatus = status;
+        bestSolution = solution;
+    }
+
+    void finished(JobState finalState, String error) {
+        this.error = error;
+        this.finishedAt = Instant.now();
+        this.state = finalState;
+        this.solver = null; // Release the model
+        events.finished();
+    }
+
+    void cancel() {
+        cancelRequested = true;
+        SolveHandle current = solver;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.example.timetable_solver_demo.PhaseStatistics;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/timetable-jobs")
+public class GenerationJobController {
+    private final GenerationJobService jobService;
+
+    public GenerationJobController(GenerationJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<GenerationJobView> submit(@RequestBody GenerationJobRequest request) {
+        try {
+            GenerationJob job = jobService.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new GenerationJobView(job));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many timetable jobs queued, try again later");
+        }
+    }
+
+    // New job re-placing only the lessons the changes touch in the timetable of a finished job
+    @PostMapping("/{jobId}/repair")
+    public ResponseEntity<GenerationJobView> repair(@PathVariable String jobId, @RequestBody RepairJobRequest request) {
+        try {
+            GenerationJob job = jobService.repair(findJob(jobId), request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new GenerationJobView(job));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many timetable jobs queued, try again later");
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    public GenerationJobView status(@PathVariable String jobId) {
+        return new GenerationJobView(findJob(jobId));
+    }
+
+    // Best solution so far; 404 until the first feasible timetable has been found
+    @GetMapping("/{jobId}/solution")
+    public List<LessonAssignmentView> solution(@PathVariable String jobId) {
+        List<LessonAssignmentView> solution = jobService.getSolution(findJob(jobId));
+        if (solution == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No solution found yet for job " + jobId);
+        }
+        return solution;
+    }
+
+    // CP-SAT statistics and objective vs. bound series per phase solved so far
+    @GetMapping("/{jobId}/statistics")
+    public List<PhaseStatistics> statistics(@PathVariable String jobId) {
+        return findJob(jobId).getPhaseStatistics();
+    }
+
+    // Server-sent events: "state", "phase-started", "phase-finished", "solution" (changed lessons only) and "finished"
+    @GetMapping(path = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String jobId) {
+        return jobService.subscribe(findJob(jobId));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public GenerationJobView cancel(@PathVariable String jobId) {
+        GenerationJob job = findJob(jobId);
+        if (!jobService.cancel(jobId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + jobId + " has already finished");
+        }
+        return new GenerationJobView(job);
+    }
+
+    private GenerationJob findJob(String jobId) {
+        GenerationJob job = jobService.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job " + jobId);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.timetable_solver_demo.jobs;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class GenerationJobRequest {
+    private Long scheduleId;
+    private Long timetableId;
+    private String profile; // Solver profile name, null for timetable.solver.default-profile
+}
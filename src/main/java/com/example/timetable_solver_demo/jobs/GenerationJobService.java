@@ -0,0 +1,466 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.PhaseStatistics;
+import com.example.timetable_solver_demo.SolveHandle;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.TimetableChangeSet;
+import com.example.timetable_solver_demo.TimetableValidator;
+import com.example.timetable_solver_demo.TimetableViolation;
+import com.example.timetable_solver_demo.cache.ModelCache;
+import com.example.timetable_solver_demo.cache.SolutionCache;
+import com.example.timetable_solver_demo.cache.SolveCheckpointStore;
+import com.example.timetable_solver_demo.config.SolverProperties;
+import com.example.timetable_solver_demo.dump.SolveDumper;
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.enums.TimetableStatus;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceWriter;
+import com.example.timetable_solver_demo.metrics.SolverMetrics;
+import com.example.timetable_solver_demo.repositories.LessonRepository;
+import com.example.timetable_solver_demo.screening.FeasibilityReport;
+import com.example.timetable_solver_demo.screening.FeasibilityScreener;
+import com.example.timetable_solver_demo.worker.RemoteSolve;
+import com.example.timetable_solver_demo.worker.SolverWorkerPool;
+import com.google.ortools.sat.CpSolverStatus;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs timetable generation in the background. The I/O around a solve (status updates, loading the
+// instance, optional export, saving the result) runs on virtual threads, so any number of queued jobs
+// can load concurrently. CP-SAT search runs on max-concurrent platform threads, or in solver worker
+// processes when the worker pool is enabled. At most max-concurrent + queue-capacity jobs are in flight;
+// further submissions are rejected.
+@Slf4j
+@Service
+public class GenerationJobService {
+    private final TimetableJobStore store;
+    private final LessonRepository lessonRepo;
+    private final SolverProperties solverProperties;
+    private final ObjectProvider<ModelCache> modelCache;
+    private final ObjectProvider<SolutionCache> solutionCache;
+    private final ObjectProvider<SolveDumper> solveDumper;
+    private final ObjectProvider<SolveCheckpointStore> checkpointStore;
+    private final ObjectProvider<SolverMetrics> solverMetrics;
+    private final ObjectProvider<SolverWorkerPool> workerPool;
+    private final int retainFinishedJobs;
+    private final int eventQueueCapacity;
+
+    private final Path exportDirectory;
+
+    private final ExecutorService ioExecutor;
+    private final ThreadPoolExecutor solveExecutor;
+    private final ExecutorService eventSender;
+    private final Semaphore admissions;
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+
+    public GenerationJobService(TimetableJobStore store, LessonRepository lessonRepo, SolverProperties solverProperties,
+                                ObjectProvider<ModelCache> modelCache, ObjectProvider<SolutionCache> solutionCache,
+                                ObjectProvider<SolveDumper> solveDumper, ObjectProvider<SolveCheckpointStore> checkpointStore,
+                                ObjectProvider<SolverMetrics> solverMetrics, ObjectProvider<SolverWorkerPool> workerPool,
+                                @Value("${timetable.jobs.max-concurrent:2}") int maxConcurrent,
+                                @Value("${timetable.jobs.queue-capacity:256}") int queueCapacity,
+                                @Value("${timetable.jobs.retain-finished:100}") int retainFinishedJobs,
+                                @Value("${timetable.jobs.events.queue-capacity:32}") int eventQueueCapacity,
+                                @Value("${timetable.jobs.export-dir:}") String exportDirectory) {
+        this.store = store;
+        this.lessonRepo = lessonRepo;
+        this.solverProperties = solverProperties;
+        this.modelCache = modelCache;
+        this.solutionCache = solutionCache;
+        this.solveDumper = solveDumper;
+        this.checkpointStore = checkpointStore;
+        this.solverMetrics = solverMetrics;
+        this.workerPool = workerPool;
+        this.retainFinishedJobs = retainFinishedJobs;
+        this.eventQueueCapacity = eventQueueCapacity;
+
+        this.exportDirectory = exportDirectory.isBlank() ? null : Path.of(exportDirectory);
+        this.admissions = new Semaphore(maxConcurrent + queueCapacity);
+
+        this.ioExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("timetable-job-io-", 0).factory());
+
+        // Admission is limited by the semaphore, so the solve queue itself does not need a bound
+        AtomicInteger threadCount = new AtomicInteger();
+        this.solveExecutor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "timetable-job-solve-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+        // Writes progress events to SSE clients; a slow client only ever blocks its own virtual thread
+        this.eventSender = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("timetable-job-events-", 0).factory());
+    }
+
+    // Throws IllegalArgumentException for an unknown profile and RejectedExecutionException when too many jobs are in flight
+    public GenerationJob submit(GenerationJobRequest request) {
+        if (request.getScheduleId() == null || request.getTimetableId() == null) {
+            throw new IllegalArgumentException("Schedule ID and Timetable ID cannot be null");
+        }
+        SolverProfile profile = solverProperties.getProfile(request.getProfile());
+
+        GenerationJob job = admit(request.getScheduleId(), request.getTimetableId(), profile, null);
+        log.info("Submitted job {} for timetable {} with profile {}", job.getId(), job.getTimetableId(), profile.getName());
+        return job;
+    }
+
+    // Repairs the saved timetable of a finished job: lessons the changes touch are re-placed with as few moves as
+    // possible and the rest keep their slots. Repairs always run in this JVM, since they are short.
+    // Throws IllegalStateException while the original job is still running.
+    public GenerationJob repair(GenerationJob original, RepairJobRequest request) {
+        if (!original.getState().isFinished()) {
+            throw new IllegalStateException("Job " + original.getId() + " is still running");
+        }
+        if (request.getNeighborhoodDepth() != null && request.getNeighborhoodDepth() < 0) {
+            throw new IllegalArgumentException("Neighborhood depth cannot be negative");
+        }
+        SolverProfile profile = solverProperties.getProfile(request.getProfile());
+
+        GenerationJob job = admit(original.getScheduleId(), original.getTimetableId(), profile, request);
+        log.info("Submitted repair job {} for timetable {} with profile {}", job.getId(), job.getTimetableId(), profile.getName());
+        return job;
+    }
+
+    private GenerationJob admit(Long scheduleId, Long timetableId, SolverProfile profile, RepairJobRequest repair) {
+        GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), scheduleId, timetableId, profile.getName(),
+            eventSender, eventQueueCapacity);
+        if (!admissions.tryAcquire()) {
+            throw new RejectedExecutionException("Too many timetable jobs in flight");
+        }
+        jobs.put(job.getId(), job);
+        start(job, profile, repair);
+        evictFinishedJobs();
+        return job;
+    }
+
+    public GenerationJob get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    // Progress stream of a job: phase starts and ends, improving solutions as diffs, and the final status
+    public SseEmitter subscribe(GenerationJob job) {
+        return job.events().subscribe();
+    }
+
+    // Returns false if the job is unknown or already finished
+    public boolean cancel(String jobId) {
+        GenerationJob job = jobs.get(jobId);
+        if (job == null || job.getState().isFinished()) {
+            return false;
+        }
+        job.cancel();
+        log.info("Cancellation requested for job {}", jobId);
+        return true;
+    }
+
+    // Best solution found so far, null if there is none yet
+    public List<LessonAssignmentView> getSolution(GenerationJob job) {
+        Map<Lesson, Integer> solution = job.getBestSolution();
+        List<Long> timeslotIds = job.getTimeslotIds();
+        if (solution == null || timeslotIds == null) {
+            return null;
+        }
+
+        int timeslotsPerDay = timeslotIds.size();
+        List<LessonAssignmentView> assignments = new ArrayList<>(solution.size());
+        for (Map.Entry<Lesson, Integer> entry : solution.entrySet()) {
+            int globalSlot = entry.getValue();
+            assignments.add(new LessonAssignmentView(entry.getKey().getId(), DayOfWeek.of(globalSlot / timeslotsPerDay + 1),
+                timeslotIds.get(globalSlot % timeslotsPerDay), globalSlot));
+        }
+        assignments.sort(Comparator.comparing(LessonAssignmentView::getLessonId));
+        return assignments;
+    }
+
+    // State handed from one stage of a job to the next
+    private static class JobRun {
+        TimetableStatus previousStatus;
+        RepairJobRequest repair; // null for a full generation
+        TimetableInstance instance;
+        List<Long> timeslotIds;
+        int daysPerWeek;
+        final StringBuilder solverError = new StringBuilder();
+    }
+
+    private void start(GenerationJob job, SolverProfile profile, RepairJobRequest repair) {
+        JobRun run = new JobRun();
+        run.repair = repair;
+        CompletableFuture.runAsync(() -> load(job, profile, run), ioExecutor)
+            .thenRunAsync(() -> solve(job, profile, run), solveExecutor)
+            .thenRunAsync(() -> save(job, run), ioExecutor)
+            .whenCompleteAsync((ignored, error) -> {
+                if (error != null) {
+                    fail(job, run, error instanceof CompletionException ? error.getCause() : error);
+                }
+                admissions.release();
+                log.info("Job {} finished as {}", job.getId(), job.getState());
+            }, ioExecutor);
+    }
+
+    // Virtual thread: marks the timetable as generating, loads the solver input and screens it
+    private void load(GenerationJob job, SolverProfile profile, JobRun run) {
+        if (job.isCancelRequested()) return;
+
+        run.previousStatus = store.updateStatus(job.getTimetableId(), TimetableStatus.GENERATING);
+        run.instance = store.load(job.getScheduleId(), job.getTimetableId());
+        run.timeslotIds = run.instance.getSchedule().getTimeslotList().stream().map(timeslot -> timeslot.getId()).toList();
+        run.daysPerWeek = profile.getDaysPerWeek();
+
+        if (exportDirectory != null) {
+            Path file = exportDirectory.resolve(run.instance.getName() + TimetableInstance.FILE_SUFFIX);
+            try {
+                TimetableInstanceWriter.write(run.instance, file);
+            } catch (IOException e) {
+                log.warn("Failed to export instance of job {} to {}: {}", job.getId(), file, e.getMessage());
+            }
+        }
+
+        // Reject inconsistent school data here rather than after a full Phase 1 time limit
+        FeasibilityReport screening = new FeasibilityScreener(profile.getDaysPerWeek())
+            .screen(run.instance.getLessons(), run.instance.getSchedule(), run.instance.getCombinedStreams(), run.instance.getTeacherTimeOffs());
+        if (!screening.isFeasible()) {
+            throw new IllegalArgumentException(screening.describe());
+        }
+    }
+
+    // Solve pool thread: model construction and CP-SAT search, or waiting for the solver worker doing them
+    private void solve(GenerationJob job, SolverProfile profile, JobRun run) {
+        if (job.isCancelRequested()) return;
+        job.running();
+
+        if (run.repair != null) {
+            MinimalTimetableSolver solver = newLocalSolver(job, profile, run);
+            job.started(solver, run.timeslotIds);
+            solver.repair(changeSet(run.instance, run.repair));
+            finishSolve(job, solver, "repair");
+            return;
+        }
+
+        SolveHandle solver = createSolver(job, profile, run);
+        job.started(solver, run.timeslotIds);
+        solver.solve();
+        try {
+            solver.awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            solver.cancel();
+            throw new IllegalStateException("Interrupted while solving", e);
+        }
+        finishSolve(job, solver, "job");
+    }
+
+    private void finishSolve(GenerationJob job, SolveHandle solver, String source) {
+        List<PhaseStatistics> statistics = solver.getPhaseStatistics();
+        job.solved(statistics);
+        solverMetrics.ifAvailable(metrics -> metrics.record(statistics, source));
+
+        Map<Lesson, Integer> solution = solver.getBestSolution();
+        if (solution != null && !solution.isEmpty()) {
+            job.improved(solver.getBestStatus(), solution);
+        }
+    }
+
+    // A worker process isolates the application from native crashes of the solve, but runs without the caches
+    private SolveHandle createSolver(GenerationJob job, SolverProfile profile, JobRun run) {
+        SolverWorkerPool pool = workerPool.getIfAvailable();
+        if (pool != null) {
+            RemoteSolve solver = pool.newSolve(run.instance, profile);
+            solver.setCallback(new JobSolverCallback(job, run, solver));
+            return solver;
+        }
+        return newLocalSolver(job, profile, run);
+    }
+
+    private MinimalTimetableSolver newLocalSolver(GenerationJob job, SolverProfile profile, JobRun run) {
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(run.instance.getLessons(), run.instance.getSchedule(),
+            run.instance.getCombinedStreams(), run.instance.getTeacherTimeOffs(), lessonRepo, profile);
+        solver.setModelCache(modelCache.getIfAvailable());
+        solver.setSolutionCache(solutionCache.getIfAvailable());
+        solver.setSolveDumper(solveDumper.getIfAvailable());
+        solver.setCheckpointStore(checkpointStore.getIfAvailable());
+        solver.setCallback(new JobSolverCallback(job, run, solver));
+        return solver;
+    }
+
+    // Resolves the ids of a repair request against the freshly loaded school; unknown ids fail the job
+    private static TimetableChangeSet changeSet(TimetableInstance instance, RepairJobRequest request) {
+        TimetableChangeSet changes = new TimetableChangeSet();
+        if (request.getNeighborhoodDepth() != null) {
+            changes.setNeighborhoodDepth(request.getNeighborhoodDepth());
+        }
+
+        Set<Long> lessonIds = new HashSet<>(request.getLessonIds());
+        for (Lesson lesson : instance.getLessons()) {
+            if (lessonIds.remove(lesson.getId())) {
+                changes.getAddedLessons().add(lesson);
+            }
+        }
+        if (!lessonIds.isEmpty()) {
+            throw new IllegalArgumentException("Unknown lessons in repair request: " + lessonIds);
+        }
+
+        Set<Long> teacherIds = new HashSet<>(request.getTeacherIds());
+        for (TeacherTimeOff timeOff : instance.getTeacherTimeOffs()) {
+            if (teacherIds.contains(timeOff.getTeacher().getId())) {
+                changes.getChangedTeacherTimeOffs().add(timeOff);
+            }
+        }
+
+        Set<Long> combinedStreamIds = new HashSet<>(request.getCombinedStreamIds());
+        for (CombinedStream combinedStream : instance.getCombinedStreams()) {
+            if (combinedStreamIds.remove(combinedStream.getId())) {
+                changes.getChangedCombinedStreams().add(combinedStream);
+            }
+        }
+        if (!combinedStreamIds.isEmpty()) {
+            throw new IllegalArgumentException("Unknown combined streams in repair request: " + combinedStreamIds);
+        }
+        return changes;
+    }
+
+    // Forwards solver progress to the job and its event stream
+    private static class JobSolverCallback implements MinimalTimetableSolver.SolverCallback {
+        private final GenerationJob job;
+        private final JobRun run;
+        private final SolveHandle solver;
+
+        JobSolverCallback(GenerationJob job, JobRun run, SolveHandle solver) {
+            this.job = job;
+            this.run = run;
+            this.solver = solver;
+        }
+
+        @Override
+        public void onPhase1Complete(CpSolverStatus status, Map<Lesson, Integer> solution) {
+            job.improved(status, solution);
+            if (solver.getCurrentPhase() == 0) {
+                job.events().improvingSolution(null, solution); // Served from the solution cache
+            }
+        }
+
+        @Override
+        public void onBetterSolutionFound(CpSolverStatus status, Map<Lesson, Integer> solution) {
+            job.improved(status, solution);
+        }
+
+        @Override
+        public void onPhaseStarted(int phase) {
+            job.events().phaseStarted(phase);
+        }
+
+        @Override
+        public void onPhaseFinished(int phase, CpSolverStatus status, MinimalTimetableSolver.SearchProgress progress) {
+            job.events().phaseFinished(phase, status, progress);
+        }
+
+        @Override
+        public void onImprovingSolution(MinimalTimetableSolver.SearchProgress progress, Map<Lesson, Integer> solution) {
+            job.events().improvingSolution(progress, solution);
+        }
+
+        // Shown to clients straight away but never saved, since it may break constraints
+        @Override
+        public void onInitialAssignment(Map<Lesson, Integer> assignment, int unplacedLessons) {
+            job.events().improvingSolution(null, assignment);
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            synchronized (run.solverError) {
+                run.solverError.append(errorMessage);
+            }
+        }
+    }
+
+    // Virtual thread: persists the outcome
+    private void save(GenerationJob job, JobRun run) {
+        if (job.isCancelRequested()) {
+            restoreStatus(job, run.previousStatus);
+            job.finished(JobState.CANCELLED, null);
+        } else if (job.getBestSolution() != null) {
+            List<TimetableViolation> violations = new TimetableValidator(run.instance.getLessons(), run.instance.getSchedule(),
+                run.instance.getCombinedStreams(), run.instance.getTeacherTimeOffs(), run.daysPerWeek).validate(job.getBestSolution());
+            if (!violations.isEmpty()) {
+                log.warn("Job {} saves a timetable with {} hard rule violations, first: {}", job.getId(), violations.size(), violations.get(0));
+            }
+            store.saveSolution(job.getTimetableId(), job.getBestSolution(), run.timeslotIds);
+            job.finished(JobState.COMPLETED, null);
+        } else {
+            restoreStatus(job, run.previousStatus);
+            String error;
+            synchronized (run.solverError) {
+                error = run.solverError.length() > 0 ? run.solverError.toString() : "No feasible timetable found";
+            }
+            job.finished(JobState.FAILED, error);
+        }
+    }
+
+    private void fail(GenerationJob job, JobRun run, Throwable error) {
+        log.error("Job {} failed", job.getId(), error);
+        restoreStatus(job, run.previousStatus);
+        job.finished(JobState.FAILED, error.getMessage());
+    }
+
+    private void restoreStatus(GenerationJob job, TimetableStatus previousStatus) {
+        if (previousStatus == null) {
+            return;
+        }
+        try {
+            store.updateStatus(job.getTimetableId(), previousStatus);
+        } catch (RuntimeException e) {
+            log.warn("Failed to restore status of timetable {}: {}", job.getTimetableId(), e.getMessage());
+        }
+    }
+
+    // Keeps the most recently finished jobs pollable; older ones are forgotten
+    private void evictFinishedJobs() {
+        List<GenerationJob> finished = jobs.values().stream()
+            .filter(job -> job.getState().isFinished())
+            .sorted(Comparator.comparing(GenerationJob::getFinishedAt))
+            .toList();
+        Iterator<GenerationJob> oldest = finished.iterator();
+        for (int excess = finished.size() - retainFinishedJobs; excess > 0 && oldest.hasNext(); excess--) {
+            jobs.remove(oldest.next().getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(GenerationJob::cancel);
+        solveExecutor.shutdownNow();
+        ioExecutor.shutdownNow();
+        eventSender.shutdownNow();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.timetable_solver_demo.jobs;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Status of a job as returned by the API
+@Getter
+public class GenerationJobView {
+    private final String id;
+    private final Long scheduleId;
+    private final Long timetableId;
+    private final String profile;
+    private final JobState state;
+    private final int phase;
+    private final String bestStatus;
+    private final boolean solutionAvailable;
+    private final Instant submittedAt;
+    private final Instant startedAt;
+    private final Instant finishedAt;
+    private final String error;
+
+    GenerationJobView(GenerationJob job) {
+        this.id = job.getId();
+        this.scheduleId = job.getScheduleId();
+        this.timetableId = job.getTimetableId();
+        this.profile = job.getProfile();
+        this.state = job.getState();
+        this.phase = job.getPhase();
+        this.bestStatus = job.getBestStatus() != null ? job.getBestStatus().name() : null;
+        this.solutionAvailable = job.getBestSolution() != null;
+        this.submittedAt = job.getSubmittedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+        this.error = job.getError();
+    }
+}
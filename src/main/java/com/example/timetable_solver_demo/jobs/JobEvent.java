@@ -0,0 +1,33 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+// Payload of one server-sent event of a job's progress stream. Only the fields relevant to the event are set.
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobEvent {
+    private Integer phase;
+    private JobState jobState;
+    private String status;
+    private Double objective;
+    private Double bestBound;
+    private Double gap;
+    private Double elapsedSeconds;
+    private String error;
+
+    // Solution events: lessons whose placement changed since the last solution sent on this stream.
+    // The first solution on a stream is sent in full.
+    private Boolean full;
+    private Integer solutionSize;
+    private List<LessonAssignmentView> changes;
+
+    static Double finiteOrNull(double value) {
+        return Double.isFinite(value) ? value : null;
+    }
+}
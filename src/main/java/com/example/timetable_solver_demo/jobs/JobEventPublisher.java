@@ -0,0 +1,108 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver.SearchProgress;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.google.ortools.sat.CpSolverStatus;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Fans out the progress of one job to its SSE subscribers. Called from solver threads, so nothing here
+// blocks: events are handed to each subscriber's bounded queue and written by the sender executor.
+class JobEventPublisher {
+    private final GenerationJob job;
+    private final Executor sender;
+    private final int queueCapacity;
+    private final List<JobEventSubscriber> subscribers = new ArrayList<>();
+
+    // Latest state, replayed to clients that subscribe mid-solve
+    private int phase;
+    private SearchProgress latestProgress;
+    private Map<Lesson, Integer> latestSolution;
+    private boolean finished;
+
+    JobEventPublisher(GenerationJob job, Executor sender, int queueCapacity) {
+        this.job = job;
+        this.sender = sender;
+        this.queueCapacity = queueCapacity;
+    }
+
+    synchronized SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L); // Completed when the job finishes
+        JobEventSubscriber subscriber = new JobEventSubscriber(this, job, emitter, sender, queueCapacity);
+
+        JobEvent state = new JobEvent();
+        state.setJobState(job.getState());
+        state.setPhase(phase);
+        subscriber.offer(JobEventSubscriber.Pending.of("state", state));
+        if (latestSolution != null) {
+            subscriber.offer(JobEventSubscriber.Pending.solution(latestProgress, latestSolution));
+        }
+        if (finished) {
+            subscriber.offer(JobEventSubscriber.Pending.finished(finishedEvent()));
+        } else {
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    synchronized void remove(JobEventSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    synchronized void phaseStarted(int phase) {
+        this.phase = phase;
+        JobEvent event = new JobEvent();
+        event.setPhase(phase);
+        publish(JobEventSubscriber.Pending.of("phase-started", event));
+    }
+
+    synchronized void phaseFinished(int phase, CpSolverStatus status, SearchProgress progress) {
+        JobEvent event = progressEvent(progress);
+        event.setStatus(status.name());
+        publish(JobEventSubscriber.Pending.of("phase-finished", event));
+    }
+
+    // progress is null for solutions that were not found by a search, e.g. a cached solution
+    synchronized void improvingSolution(SearchProgress progress, Map<Lesson, Integer> solution) {
+        latestProgress = progress;
+        latestSolution = solution;
+        publish(JobEventSubscriber.Pending.solution(progress, solution));
+    }
+
+    synchronized void finished() {
+        finished = true;
+        publish(JobEventSubscriber.Pending.finished(finishedEvent()));
+        subscribers.clear();
+    }
+
+    private void publish(JobEventSubscriber.Pending event) {
+        for (JobEventSubscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.offer(event);
+        }
+    }
+
+    private JobEvent finishedEvent() {
+        JobEvent event = new JobEvent();
+        event.setJobState(job.getState());
+        event.setStatus(job.getBestStatus() != null ? job.getBestStatus().name() : null);
+        event.setError(job.getError());
+        return event;
+    }
+
+    static JobEvent progressEvent(SearchProgress progress) {
+        JobEvent event = new JobEvent();
+        if (progress != null) {
+            event.setPhase(progress.getPhase());
+            event.setObjective(JobEvent.finiteOrNull(progress.getObjective()));
+            event.setBestBound(JobEvent.finiteOrNull(progress.getBestBound()));
+            event.setGap(JobEvent.finiteOrNull(progress.getGap()));
+            event.setElapsedSeconds(progress.getElapsedSeconds());
+        }
+        return event;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver.SearchProgress;
+import com.example.timetable_solver_demo.entities.Lesson;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// One SSE client of a job. offer() never blocks: a solution still waiting to be sent is replaced by
+// a newer one, and a client that falls further behind than the queue capacity is disconnected.
+// Diffs are computed when sending, against what this client has actually received.
+@Slf4j
+class JobEventSubscriber {
+
+    static class Pending {
+        final String name;
+        final JobEvent event;
+        final SearchProgress progress;
+        final Map<Lesson, Integer> solution;
+
+        private Pending(String name, JobEvent event, SearchProgress progress, Map<Lesson, Integer> solution) {
+            this.name = name;
+            this.event = event;
+            this.progress = progress;
+            this.solution = solution;
+        }
+
+        static Pending of(String name, JobEvent event) {
+            return new Pending(name, event, null, null);
+        }
+
+        static Pending solution(SearchProgress progress, Map<Lesson, Integer> solution) {
+            return new Pending("solution", null, progress, solution);
+        }
+
+        static Pending finished(JobEvent event) {
+            return new Pending("finished", event, null, null);
+        }
+
+        boolean isSolution() {
+            return solution != null;
+        }
+    }
+
+    private final JobEventPublisher publisher;
+    private final GenerationJob job;
+    private final SseEmitter emitter;
+    private final Executor sender;
+    private final int capacity;
+
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>(); // Guarded by this
+    private boolean draining; // Guarded by this
+    private boolean closed; // Guarded by this
+    private Map<Long, Integer> lastSent = Map.of(); // Only touched by the draining thread
+
+    JobEventSubscriber(JobEventPublisher publisher, GenerationJob job, SseEmitter emitter, Executor sender, int capacity) {
+        this.publisher = publisher;
+        this.job = job;
+        this.emitter = emitter;
+        this.sender = sender;
+        this.capacity = Math.max(2, capacity);
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+    }
+
+    synchronized void offer(Pending event) {
+        if (closed) return;
+
+        if (event.isSolution() && !queue.isEmpty() && queue.peekLast().isSolution()) {
+            queue.pollLast(); // Superseded before it was sent
+        }
+        if (queue.size() >= capacity) {
+            log.info("Disconnecting slow progress stream of job {}", job.getId());
+            closed = true;
+            queue.clear();
+            emitter.completeWithError(new IllegalStateException("Progress stream fell too far behind"));
+            publisher.remove(this);
+            return;
+        }
+        queue.addLast(event);
+
+        if (!draining) {
+            draining = true;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining = false;
+                closed = true;
+                emitter.complete();
+                publisher.remove(this);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Pending next;
+            synchronized (this) {
+                next = queue.pollFirst();
+                if (next == null || closed) {
+                    draining = false;
+                    return;
+                }
+            }
+
+            try {
+                JobEvent data = next.isSolution() ? solutionEvent(next) : next.event;
+                emitter.send(SseEmitter.event().name(next.name).data(data, MediaType.APPLICATION_JSON));
+                if ("finished".equals(next.name)) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                close();
+            }
+        }
+    }
+
+    private JobEvent solutionEvent(Pending pending) {
+        JobEvent event = JobEventPublisher.progressEvent(pending.progress);
+        List<Long> timeslotIds = job.getTimeslotIds();
+        int timeslotsPerDay = timeslotIds.size();
+
+        Map<Long, Integer> sent = new HashMap<>(pending.solution.size() * 2);
+        List<LessonAssignmentView> changes = new ArrayList<>();
+        for (Map.Entry<Lesson, Integer> entry : pending.solution.entrySet()) {
+            Long lessonId = entry.getKey().getId();
+            int globalSlot = entry.getValue();
+            sent.put(lessonId, globalSlot);
+            Integer previous = lastSent.get(lessonId);
+            if (previous == null || previous != globalSlot) {
+                changes.add(new LessonAssignmentView(lessonId, DayOfWeek.of(globalSlot / timeslotsPerDay + 1),
+                    timeslotIds.get(globalSlot % timeslotsPerDay), globalSlot));
+            }
+        }
+        changes.sort(Comparator.comparing(LessonAssignmentView::getLessonId));
+
+        event.setFull(lastSent.isEmpty());
+        event.setSolutionSize(sent.size());
+        event.setChanges(changes);
+        lastSent = sent;
+        return event;
+    }
+
+    private void close() {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+        }
+        publisher.remove(this);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.timetable_solver_demo.jobs;
+
+public enum JobState {
+  QUEUED,
+  RUNNING,
+  COMPLETED,
+  FAILED,
+  CANCELLED;
+
+  public boolean isFinished() {
+      return this == COMPLETED || this == FAILED || this == CANCELLED;
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.timetable_solver_demo.jobs;
+
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+
+// Where one lesson is placed in a job's best solution
+@Getter
+public class LessonAssignmentView {
+    private final Long lessonId;
+    private final DayOfWeek dayOfWeek;
+    private final Long timeslotId;
+    private final int slot; // Global slot index used by the solver: day * timeslotsPerDay + timeslot
+
+    LessonAssignmentView(Long lessonId, DayOfWeek dayOfWeek, Long timeslotId, int slot) {
+        this.lessonId = lessonId;
+        this.dayOfWeek = dayOfWeek;
+        this.timeslotId = timeslotId;
+        this.slot = slot;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.timetable_solver_demo.jobs;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Changes made to a saved timetable since it was generated. Lessons without a saved slot are always re-placed,
+// so newly added lessons need not be listed.
+@Getter
+@Setter
+public class RepairJobRequest {
+    private String profile; // Solver profile name, null for timetable.solver.default-profile
+    private List<Long> lessonIds = new ArrayList<>(); // Lessons added or edited
+    private List<Long> teacherIds = new ArrayList<>(); // Teachers whose time off changed
+    private List<Long> combinedStreamIds = new ArrayList<>();
+    private Integer neighborhoodDepth; // null for the TimetableChangeSet default
+}
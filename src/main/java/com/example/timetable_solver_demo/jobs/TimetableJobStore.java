@@ -0,0 +1,158 @@
+package com.example.timetable_solver_demo.jobs;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.LessonInfo;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.ScheduleTimeslot;
+import com.example.timetable_solver_demo.entities.SchoolTimetable;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.enums.TimetableStatus;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.jfr.SolverStageEvent;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Database access for generation jobs. The application-wide EntityManager bean is not thread-safe,
+// so every call here uses its own short-lived EntityManager. Loaded instances are fully initialized
+// before it closes, so the solver can run on them detached.
+@Component
+public class TimetableJobStore {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public TimetableJobStore(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public TimetableInstance load(Long scheduleId, Long timetableId) {
+        SolverStageEvent event = SolverStageEvent.start("data_load");
+        TimetableInstance instance = inTransaction(entityManager -> {
+            Schedule schedule = entityManager.find(Schedule.class, scheduleId);
+            if (schedule == null) {
+                throw new IllegalArgumentException("Schedule not found with ID: " + scheduleId);
+            }
+            Hibernate.initialize(schedule.getTimeslotList());
+
+            SchoolTimetable timetable = findTimetable(entityManager, timetableId);
+            List<Lesson> lessons = entityManager.createQuery(
+                    "SELECT l FROM Lesson l WHERE l.lessonInfo.timetable = :timetable", Lesson.class)
+                .setParameter("timetable", timetable)
+                .getResultList();
+
+            for (Lesson lesson : lessons) {
+                LessonInfo info = lesson.getLessonInfo();
+                Hibernate.initialize(info);
+                Hibernate.initialize(info.getStream());
+                Hibernate.initialize(info.getSubject());
+                Hibernate.initialize(info.getCombinedSubject());
+                Hibernate.initialize(info.getTeachers());
+                Hibernate.initialize(lesson.getTimeslot());
+            }
+
+            Set<Stream> streams = lessons.stream().map(lesson -> lesson.getLessonInfo().getStream()).collect(Collectors.toSet());
+            Set<Teacher> teachers = lessons.stream().flatMap(lesson -> lesson.getLessonInfo().getTeachers().stream()).collect(Collectors.toSet());
+
+            List<CombinedStream> combinedStreams = streams.isEmpty() ? List.of() : entityManager.createQuery(
+                    "SELECT DISTINCT c FROM CombinedStream c JOIN c.constituentStreams s WHERE s IN :streams", CombinedStream.class)
+                .setParameter("streams", streams)
+                .getResultList();
+            for (CombinedStream combinedStream : combinedStreams) {
+                Hibernate.initialize(combinedStream.getConstituentStreams());
+                Hibernate.initialize(combinedStream.getSubject());
+            }
+
+            List<TeacherTimeOff> teacherTimeOffs = teachers.isEmpty() ? List.of() : entityManager.createQuery(
+                    "SELECT t FROM TeacherTimeOff t WHERE t.teacher IN :teachers", TeacherTimeOff.class)
+                .setParameter("teachers", teachers)
+                .getResultList();
+            for (TeacherTimeOff timeOff : teacherTimeOffs) {
+                Hibernate.initialize(timeOff.getTeacher());
+                Hibernate.initialize(timeOff.getTimeslot());
+            }
+
+            return new TimetableInstance("timetable-" + timetableId, schedule, lessons, combinedStreams, teacherTimeOffs);
+        });
+        event.finish(instance.getLessons());
+        return instance;
+    }
+
+    // Size estimate used to order batch runs: lesson count x stream count
+    public long estimateSize(Long timetableId) {
+        return inTransaction(entityManager -> {
+            Object[] counts = entityManager.createQuery(
+                    "SELECT COUNT(l), COUNT(DISTINCT l.lessonInfo.stream) FROM Lesson l WHERE l.lessonInfo.timetable = :timetable", Object[].class)
+                .setParameter("timetable", findTimetable(entityManager, timetableId))
+                .getSingleResult();
+            return ((Number) counts[0]).longValue() * ((Number) counts[1]).longValue();
+        });
+    }
+
+    // Returns the previous status so it can be restored if the job does not produce a timetable
+    public TimetableStatus updateStatus(Long timetableId, TimetableStatus status) {
+        return inTransaction(entityManager -> {
+            SchoolTimetable timetable = findTimetable(entityManager, timetableId);
+            TimetableStatus previous = timetable.getTimetableStatus();
+            timetable.setTimetableStatus(status);
+            return previous;
+        });
+    }
+
+    // Writes the day and timeslot of every lesson and moves the timetable to NEEDS_REVIEW in one transaction
+    public void saveSolution(Long timetableId, Map<Lesson, Integer> solution, List<Long> timeslotIds) {
+        SolverStageEvent event = SolverStageEvent.start("persistence");
+        inTransaction(entityManager -> {
+            int timeslotsPerDay = timeslotIds.size();
+            for (Map.Entry<Lesson, Integer> entry : solution.entrySet()) {
+                Lesson lesson = entityManager.find(Lesson.class, entry.getKey().getId());
+                if (lesson == null) continue; // Deleted while the job was running
+
+                int globalSlot = entry.getValue();
+                lesson.setDayOfWeek(DayOfWeek.of(globalSlot / timeslotsPerDay + 1));
+                lesson.setTimeslot(entityManager.getReference(ScheduleTimeslot.class, timeslotIds.get(globalSlot % timeslotsPerDay)));
+            }
+            findTimetable(entityManager, timetableId).setTimetableStatus(TimetableStatus.NEEDS_REVIEW);
+            return null;
+        });
+        event.finish(solution.keySet());
+    }
+
+    private static SchoolTimetable findTimetable(EntityManager entityManager, Long timetableId) {
+        SchoolTimetable timetable = entityManager.find(SchoolTimetable.class, timetableId);
+        if (timetable == null) {
+            throw new IllegalArgumentException("Timetable not found with ID: " + timetableId);
+        }
+        return timetable;
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        EntityTransaction transaction = entityManager.getTransaction();
+        try {
+            transaction.begin();
+            T result = work.apply(entityManager);
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw e;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
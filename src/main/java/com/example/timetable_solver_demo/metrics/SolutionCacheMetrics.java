@@ -0,0 +1,39 @@
+package com.example.timetable_solver_demo.metrics;
+
+import com.example.timetable_solver_demo.cache.SolutionCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Hit, miss and eviction counts and the memory use of the solution cache, when it is enabled
+@Component
+public class SolutionCacheMetrics implements MeterBinder {
+    private final ObjectProvider<SolutionCache> solutionCache;
+
+    public SolutionCacheMetrics(ObjectProvider<SolutionCache> solutionCache) {
+        this.solutionCache = solutionCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SolutionCache cache = solutionCache.getIfAvailable();
+        if (cache == null) return;
+
+        FunctionCounter.builder("timetable.solver.solution.cache.requests", cache, SolutionCache::getHits)
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("timetable.solver.solution.cache.requests", cache, SolutionCache::getMisses)
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("timetable.solver.solution.cache.evictions", cache, SolutionCache::getEvictions)
+            .register(registry);
+        Gauge.builder("timetable.solver.solution.cache.memory", cache, SolutionCache::getMemoryBytes)
+            .baseUnit("bytes")
+            .register(registry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.timetable_solver_demo.metrics;
+
+import com.example.timetable_solver_demo.PhaseStatistics;
+import com.example.timetable_solver_demo.tuning.SizeBucket;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Publishes the CP-SAT statistics of finished solves to Micrometer (scraped from /actuator/prometheus),
+// tagged by phase, school size bucket and source (job or batch). Timers and summaries are histograms
+// across all solves; gauges hold the values of the latest solve per tag combination. The time-to-gap
+// timers come from the parsed search log and show where a phase's time limit actually goes.
+@Component
+public class SolverMetrics {
+    private static final double[] GAP_THRESHOLDS = {0.10, 0.01, 0.0};
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicReference<Double>> latest = new ConcurrentHashMap<>();
+
+    public SolverMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void record(List<PhaseStatistics> phases, String source) {
+        for (PhaseStatistics phase : phases) {
+            record(phase, source);
+        }
+    }
+
+    private void record(PhaseStatistics phase, String source) {
+        Tags tags = Tags.of(
+            "phase", String.valueOf(phase.getPhase()),
+            "size", SizeBucket.of(phase.getLessons()).name().toLowerCase(Locale.ROOT),
+            "source", source);
+
+        timer("timetable.solver.phase.duration", tags.and("status", phase.getStatus().name()), phase.getWallTime());
+        summary("timetable.solver.phase.deterministic.time", tags, phase.getDeterministicTime());
+        summary("timetable.solver.phase.conflicts", tags, phase.getConflicts());
+        summary("timetable.solver.phase.branches", tags, phase.getBranches());
+        summary("timetable.solver.phase.lp.iterations", tags, phase.getLpIterations());
+        summary("timetable.solver.phase.presolve.reduction", tags, phase.getPresolveReduction());
+
+        gauge("timetable.solver.phase.objective", tags, phase.getObjective());
+        gauge("timetable.solver.phase.bound", tags, phase.getBestBound());
+        gauge("timetable.solver.phase.gap", tags, phase.getGap());
+        gauge("timetable.solver.phase.gap.integral", tags, phase.getGapIntegral());
+        gauge("timetable.solver.phase.model.variables", tags, phase.getModelVariables());
+        gauge("timetable.solver.phase.model.constraints", tags, phase.getModelConstraints());
+
+        timer("timetable.solver.phase.first.solution", tags, phase.getSecondsToFirstSolution());
+        double lastSolution = phase.getSecondsToLastSolution();
+        if (!Double.isNaN(lastSolution)) {
+            timer("timetable.solver.phase.after.last.solution", tags, Math.max(0, phase.getWallTime() - lastSolution));
+        }
+        for (double threshold : GAP_THRESHOLDS) {
+            timer("timetable.solver.phase.time.to.gap", tags.and("gap", String.valueOf(threshold)), phase.secondsToGap(threshold));
+        }
+    }
+
+    private void timer(String name, Tags tags, double seconds) {
+        if (Double.isNaN(seconds)) return;
+        Timer.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(Duration.ofNanos((long) (seconds * 1e9)));
+    }
+
+    private void summary(String name, Tags tags, double value) {
+        if (Double.isNaN(value)) return;
+        DistributionSummary.builder(name)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(value);
+    }
+
+    private void gauge(String name, Tags tags, double value) {
+        AtomicReference<Double> holder = latest.computeIfAbsent(name + tags, key -> {
+            AtomicReference<Double> created = new AtomicReference<>(Double.NaN);
+            Gauge.builder(name, created, AtomicReference::get).tags(tags).register(registry);
+            return created;
+        });
+        holder.set(value);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.timetable_solver_demo.portfolio;
+
+import com.example.timetable_solver_demo.Formulation;
+import com.example.timetable_solver_demo.tuning.SizeBucket;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// Records which formulation won each portfolio solve, one CSV line per solve:
+//   timestamp,instance,lessons,bucket,winner,formulation:status:phase:seconds;...
+// so that later solves of a similar size can be routed to the usual winner via SolverProfile.formulation
+public class PortfolioHistory {
+    private final Path file;
+
+    public PortfolioHistory(Path file) {
+        this.file = file;
+    }
+
+    public synchronized void record(String instanceName, int lessons, PortfolioResult result) {
+        StringJoiner members = new StringJoiner(";");
+        for (PortfolioResult.MemberResult member : result.getMembers()) {
+            members.add(String.format("%s:%s:%d:%.1f", member.getFormulation(), member.getStatus(), member.getReachedPhase(), member.getSeconds()));
+        }
+        Formulation winner = result.getWinner();
+        String line = String.join(",", Instant.now().toString(), instanceName.replace(',', '_'), String.valueOf(lessons),
+            SizeBucket.of(lessons).name(), winner != null ? winner.name() : "NONE", members.toString()) + System.lineSeparator();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to portfolio history " + file, e);
+        }
+    }
+
+    // Formulation with the most wins among past solves in the same size bucket, null without history
+    public synchronized Formulation recommend(int lessons) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read portfolio history " + file, e);
+        }
+
+        String bucket = SizeBucket.of(lessons).name();
+        Map<Formulation, Integer> wins = new EnumMap<>(Formulation.class);
+        for (String line : lines) {
+            String[] fields = line.split(",", 6);
+            if (fields.length < 5 || !fields[3].equals(bucket) || fields[4].equals("NONE")) continue;
+            try {
+                wins.merge(Formulation.valueOf(fields[4]), 1, Integer::sum);
+            } catch (IllegalArgumentException e) {
+                // Formulation no longer exists
+            }
+        }
+        return wins.entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse(null);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.timetable_solver_demo.portfolio;
+
+import com.example.timetable_solver_demo.Formulation;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a portfolio solve. Members are listed best first; the first one is the winner.
+@Getter
+public class PortfolioResult {
+
+    @Getter
+    public static class MemberResult {
+        private final Formulation formulation;
+        private final CpSolverStatus status;
+        private final int reachedPhase;      // Last phase that ended with a solution, 0 if none
+        private final double objective;      // NaN when Phase 3 had no objective or was not reached
+        private final double seconds;
+        private final boolean stoppedEarly;  // Cancelled because another member won or the deadline passed
+
+        MemberResult(Formulation formulation, CpSolverStatus status, int reachedPhase, double objective, double seconds, boolean stoppedEarly) {
+            this.formulation = formulation;
+            this.status = status;
+            this.reachedPhase = reachedPhase;
+            this.objective = objective;
+            this.seconds = seconds;
+            this.stoppedEarly = stoppedEarly;
+        }
+    }
+
+    private final List<MemberResult> members;
+    private final CpSolverStatus bestStatus;
+    private final Map<Lesson, Integer> bestSolution;
+    private final double wallSeconds;
+
+    PortfolioResult(List<MemberResult> members, CpSolverStatus bestStatus, Map<Lesson, Integer> bestSolution, double wallSeconds) {
+        this.members = members;
+        this.bestStatus = bestStatus;
+        this.bestSolution = bestSolution;
+        this.wallSeconds = wallSeconds;
+    }
+
+    // Null if no member found a timetable
+    public Formulation getWinner() {
+        return bestSolution != null ? members.get(0).getFormulation() : null;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.timetable_solver_demo.portfolio;
+
+import com.example.timetable_solver_demo.Formulation;
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Races several formulations of the same timetable. Each member is a full three-phase solve with an
+// equal share of the profile's search workers. Whenever a member completes a phase, its solution
+// becomes the shared best if it is further along or has a lower objective, and every member starts its
+// next phase hinted from the shared best. The result is the best solution of the top-ranked member.
+// The race ends when a member proves Phase 3 optimal, when all members finish, or at the deadline.
+@Slf4j
+public class PortfolioSolver {
+    private final TimetableInstance instance;
+    private final SolverProfile profile;
+    private final List<Formulation> formulations;
+
+    // Shared best: the solution of the furthest phase any member has completed, lowest objective first
+    private int sharedPhase;
+    private double sharedObjective = Double.NaN;
+    private Map<Lesson, Integer> sharedSolution;
+
+    private class Member {
+        final Formulation formulation;
+        final MinimalTimetableSolver solver;
+        volatile int reachedPhase;
+        volatile double seconds = Double.NaN;
+        volatile boolean stoppedEarly;
+        volatile double phaseObjective = Double.NaN; // Of the phase last finished with a solution
+        Thread thread;
+
+        Member(Formulation formulation, MinimalTimetableSolver solver) {
+            this.formulation = formulation;
+            this.solver = solver;
+        }
+    }
+
+    public PortfolioSolver(TimetableInstance instance, SolverProfile profile, List<Formulation> formulations) {
+        if (formulations.isEmpty()) {
+            throw new IllegalArgumentException("A portfolio needs at least one formulation");
+        }
+        this.instance = instance;
+        this.profile = profile;
+        this.formulations = formulations;
+    }
+
+    public PortfolioResult solve() throws InterruptedException {
+        return solve(profile.totalTimeLimitSeconds());
+    }
+
+    public PortfolioResult solve(double deadlineSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Member> members = new ArrayList<>();
+        for (Formulation formulation : formulations) {
+            members.add(createMember(formulation, members));
+        }
+        System.out.println(String.format("Portfolio of %s with %d workers each, deadline %.0fs",
+            formulations, Math.max(1, profile.getWorkers() / formulations.size()), deadlineSeconds));
+
+        for (Member member : members) {
+            member.thread = new Thread(() -> {
+                try {
+                    member.solver.solve();
+                    member.solver.awaitCompletion();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    log.error("Portfolio member {} failed", member.formulation, e);
+                } finally {
+                    member.seconds = (System.nanoTime() - start) / 1e9;
+                }
+            }, "portfolio-" + member.formulation.name().toLowerCase());
+            member.thread.setDaemon(true);
+            member.thread.start();
+        }
+
+        long deadline = start + (long) (deadlineSeconds * 1e9);
+        for (Member member : members) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis > 0) {
+                member.thread.join(remainingMillis);
+            }
+        }
+        for (Member member : members) {
+            if (member.thread.isAlive()) {
+                System.out.println("Portfolio deadline reached, stopping " + member.formulation);
+                stop(member);
+            }
+        }
+        for (Member member : members) {
+            member.thread.join();
+        }
+
+        List<PortfolioResult.MemberResult> results = new ArrayList<>();
+        Map<Formulation, Member> membersByFormulation = new EnumMap<>(Formulation.class);
+        for (Member member : members) {
+            results.add(new PortfolioResult.MemberResult(member.formulation, member.solver.getBestStatus(), member.reachedPhase,
+                member.solver.getBestObjective(), member.seconds, member.stoppedEarly));
+            membersByFormulation.put(member.formulation, member);
+        }
+        results.sort(ranking());
+
+        // The winner's own solution, so the result's solution, status and winner always belong together
+        MinimalTimetableSolver winner = membersByFormulation.get(results.get(0).getFormulation()).solver;
+        PortfolioResult result = new PortfolioResult(results, winner.getBestStatus(), winner.getBestSolution(),
+            (System.nanoTime() - start) / 1e9);
+        for (PortfolioResult.MemberResult member : results) {
+            System.out.println(String.format("  %-15s %-10s phase=%d objective=%s %.1fs%s", member.getFormulation(), member.getStatus(),
+                member.getReachedPhase(), member.getObjective(), member.getSeconds(), member.isStoppedEarly() ? " (stopped)" : ""));
+        }
+        System.out.println("Portfolio winner: " + result.getWinner());
+        return result;
+    }
+
+    private Member createMember(Formulation formulation, List<Member> members) {
+        int share = formulations.size();
+        SolverProfile memberProfile = profile.copy();
+        memberProfile.setName(profile.getName() + "-" + formulation.name().toLowerCase());
+        memberProfile.setFormulation(formulation);
+        memberProfile.setWorkers(Math.max(1, profile.getWorkers() / share));
+        memberProfile.setModelBuildParallelism(Math.max(1, profile.effectiveModelBuildParallelism() / share));
+        memberProfile.setHintBetweenPhases(true);
+        memberProfile.setSearchLog(SolverProfile.SearchLog.NONE);
+
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(),
+            instance.getCombinedStreams(), instance.getTeacherTimeOffs(), null, memberProfile);
+        Member member = new Member(formulation, solver);
+        solver.setHintSource(this::sharedSolution);
+        solver.setCallback(new MinimalTimetableSolver.SolverCallback() {
+            @Override
+            public void onPhase1Complete(CpSolverStatus status, Map<Lesson, Integer> solution) {
+                offer(1, Double.NaN, solution);
+            }
+
+            // Follows onPhaseFinished of the same phase, which recorded its objective
+            @Override
+            public void onBetterSolutionFound(CpSolverStatus status, Map<Lesson, Integer> solution) {
+                offer(solver.getCurrentPhase(), member.phaseObjective, solution);
+            }
+
+            @Override
+            public void onPhaseFinished(int phase, CpSolverStatus status, MinimalTimetableSolver.SearchProgress progress) {
+                if (status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE) {
+                    member.reachedPhase = phase;
+                    member.phaseObjective = progress != null ? progress.getObjective() : Double.NaN;
+                }
+                if (phase == 3 && status == CpSolverStatus.OPTIMAL) {
+                    System.out.println("Portfolio member " + formulation + " proved optimality, stopping the others");
+                    for (Member other : members) {
+                        if (other != member) {
+                            stop(other);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                log.info("Portfolio member {}: {}", formulation, errorMessage);
+            }
+        });
+        return member;
+    }
+
+    private void stop(Member member) {
+        if (member.thread != null && member.thread.isAlive()) {
+            member.stoppedEarly = true;
+            member.solver.cancel();
+        }
+    }
+
+    // Within a phase that has an objective, a solution only replaces the shared best if its objective is lower
+    private synchronized void offer(int phase, double objective, Map<Lesson, Integer> solution) {
+        if (solution == null || phase < sharedPhase) return;
+        if (phase == sharedPhase && !Double.isNaN(sharedObjective) && !(objective < sharedObjective)) return;
+        sharedPhase = phase;
+        sharedObjective = objective;
+        sharedSolution = solution;
+    }
+
+    private synchronized Map<Lesson, Integer> sharedSolution() {
+        return sharedSolution;
+    }
+
+    // Furthest phase first, then lower objective, then the member that finished sooner
+    private static Comparator<PortfolioResult.MemberResult> ranking() {
+        return Comparator.comparingInt((PortfolioResult.MemberResult member) -> -member.getReachedPhase())
+            .thenComparingDouble(member -> Double.isNaN(member.getObjective()) ? Double.MAX_VALUE : member.getObjective())
+            .thenComparingDouble(member -> member.isStoppedEarly() ? Double.MAX_VALUE : member.getSeconds());
+    }
+}
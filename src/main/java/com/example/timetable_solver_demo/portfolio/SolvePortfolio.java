@@ -0,0 +1,33 @@
+package com.example.timetable_solver_demo.portfolio;
+
+import com.example.timetable_solver_demo.Formulation;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceReader;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Races all formulations on an exported instance file and records the winner:
+//   java -cp <classpath> com.example.timetable_solver_demo.portfolio.SolvePortfolio timetable-1502.ttin [deadlineSeconds] [historyFile]
+public class SolvePortfolio {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SolvePortfolio <instance.ttin> [deadlineSeconds] [historyFile]");
+            System.exit(2);
+        }
+
+        TimetableInstance instance = TimetableInstanceReader.read(Path.of(args[0]));
+        PortfolioHistory history = new PortfolioHistory(Path.of(args.length > 2 ? args[2] : "portfolio-history.csv"));
+        Formulation recommended = history.recommend(instance.size());
+        System.out.println(String.format("Loaded %s: %d lessons, history recommends %s",
+            instance.getName(), instance.size(), recommended != null ? recommended : "nothing yet"));
+
+        SolverProfile profile = new SolverProfile();
+        PortfolioSolver portfolio = new PortfolioSolver(instance, profile, List.of(Formulation.values()));
+        PortfolioResult result = args.length > 1 ? portfolio.solve(Double.parseDouble(args[1])) : portfolio.solve();
+        history.record(instance.getName(), instance.size(), result);
+        System.out.println(String.format("Finished with status %s in %.1fs", result.getBestStatus(), result.getWallSeconds()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.timetable_solver_demo.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import jakarta.persistence.EntityManager;
+
+import org.springframework.stereotype.Repository;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.Stream;
+
+@Repository
+public class CombinedStreamRepository {
+    private final EntityManager entityManager;
+
+    public CombinedStreamRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Combined streams with at least one of the given streams as a constituent
+    public List<CombinedStream> findByStreams(Collection<Stream> streams) {
+        if (streams == null || streams.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return entityManager.createQuery(
+                "SELECT DISTINCT c FROM CombinedStream c JOIN c.constituentStreams s WHERE s IN :streams",
+                CombinedStream.class)
+            .setParameter("streams", streams)
+            .getResultList();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.timetable_solver_demo.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import jakarta.persistence.EntityManager;
+
+import org.springframework.stereotype.Repository;
+
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+
+@Repository
+public class TeacherTimeOffRepository {
+    private final EntityManager entityManager;
+
+    public TeacherTimeOffRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public List<TeacherTimeOff> findByTeachers(Collection<Teacher> teachers) {
+        if (teachers == null || teachers.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return entityManager.createQuery(
+                "SELECT t FROM TeacherTimeOff t WHERE t.teacher IN :teachers",
+                TeacherTimeOff.class)
+            .setParameter("teachers", teachers)
+            .getResultList();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.timetable_solver_demo.runtime;
+
+import com.google.ortools.Loader;
+import com.google.ortools.sat.BoolVar;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.IntervalVar;
+import com.google.ortools.sat.LinearExpr;
+import com.google.ortools.sat.Literal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Process-wide OR-Tools runtime. The native libraries are unpacked and loaded once per JVM instead of on
+// every solver construction. warmUp() solves a few small timetable-shaped models (slot variables, all-different
+// streams, double lessons, teacher intervals, slot indicators and a weighted objective), so the JNI bindings,
+// protobuf serialization and the Java model-building paths are loaded and compiled before the first real solve.
+public final class SolverRuntime {
+    private static final int WARMUP_DAYS = 5;
+    private static final int WARMUP_SLOTS_PER_DAY = 8;
+    private static final int WARMUP_STREAMS = 4;
+    private static final int WARMUP_TEACHERS = 6;
+    private static final int WARMUP_LESSONS_PER_STREAM = 18;
+    private static final double WARMUP_TIME_LIMIT_SECONDS = 5;
+
+    private static volatile boolean loaded;
+    private static volatile long nativeLoadMillis = -1;
+
+    private SolverRuntime() {
+    }
+
+    public static void ensureLoaded() {
+        if (loaded) return;
+        synchronized (SolverRuntime.class) {
+            if (loaded) return;
+            long start = System.nanoTime();
+            Loader.loadNativeLibraries();
+            nativeLoadMillis = (System.nanoTime() - start) / 1_000_000;
+            loaded = true;
+        }
+    }
+
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    // -1 until the libraries are loaded
+    public static long getNativeLoadMillis() {
+        return nativeLoadMillis;
+    }
+
+    // Solves the warm-up model the given number of times with different seeds and returns the wall time of each
+    // iteration in milliseconds (model building included). Throws IllegalStateException if a warm-up model is
+    // not solved, which means the native runtime is not usable.
+    public static long[] warmUp(int iterations, int workers) {
+        ensureLoaded();
+        long[] millis = new long[iterations];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            long start = System.nanoTime();
+            CpModel model = warmUpModel();
+            CpSolver solver = new CpSolver();
+            solver.getParameters().setNumSearchWorkers(workers);
+            solver.getParameters().setRandomSeed(iteration);
+            solver.getParameters().setMaxTimeInSeconds(WARMUP_TIME_LIMIT_SECONDS);
+            CpSolverStatus status = solver.solve(model);
+            if (status != CpSolverStatus.OPTIMAL && status != CpSolverStatus.FEASIBLE) {
+                throw new IllegalStateException("Solver warm-up model was not solved: " + status);
+            }
+            millis[iteration] = (System.nanoTime() - start) / 1_000_000;
+        }
+        return millis;
+    }
+
+    private static CpModel warmUpModel() {
+        CpModel model = new CpModel();
+        int horizon = WARMUP_DAYS * WARMUP_SLOTS_PER_DAY;
+        List<List<IntervalVar>> teacherIntervals = new ArrayList<>();
+        for (int teacher = 0; teacher < WARMUP_TEACHERS; teacher++) {
+            teacherIntervals.add(new ArrayList<>());
+        }
+        List<Literal> costLiterals = new ArrayList<>();
+        List<Long> costs = new ArrayList<>();
+
+        int lessonIndex = 0;
+        for (int stream = 0; stream < WARMUP_STREAMS; stream++) {
+            List<IntVar> streamSlots = new ArrayList<>();
+            for (int lesson = 0; lesson < WARMUP_LESSONS_PER_STREAM; lesson++, lessonIndex++) {
+                boolean isDouble = lesson % 6 == 0;
+                IntVar slot = model.newIntVar(0, horizon - (isDouble ? 2 : 1), "lesson_" + lessonIndex);
+                streamSlots.add(slot);
+                if (isDouble) {
+                    // Both periods on the same day, like the solver's double lesson constraints
+                    IntVar second = model.newIntVar(1, horizon - 1, "lesson_" + lessonIndex + "_second");
+                    model.addEquality(LinearExpr.newBuilder().add(second).addTerm(slot, -1).build(), 1);
+                    IntVar day = model.newIntVar(0, WARMUP_DAYS - 1, "lesson_" + lessonIndex + "_day");
+                    model.addDivisionEquality(day, second, model.newConstant(WARMUP_SLOTS_PER_DAY));
+                    model.addLessOrEqual(LinearExpr.term(day, WARMUP_SLOTS_PER_DAY), slot);
+                    streamSlots.add(second);
+                }
+                teacherIntervals.get((lessonIndex + stream) % WARMUP_TEACHERS)
+                    .add(model.newFixedSizeIntervalVar(slot, isDouble ? 2 : 1, "lesson_" + lessonIndex + "_interval"));
+
+                // Slot indicators with a preference cost, as in the Phase 3 objective
+                List<Literal> indicators = new ArrayList<>();
+                for (int start = 0; start < horizon; start += WARMUP_SLOTS_PER_DAY) {
+                    BoolVar startsHere = model.newBoolVar("lesson_" + lessonIndex + "_at_" + start);
+                    model.addEquality(slot, start).onlyEnforceIf(startsHere);
+                    model.addDifferent(slot, start).onlyEnforceIf(startsHere.not());
+                    indicators.add(startsHere);
+                    costLiterals.add(startsHere);
+                    costs.add((long) (1 + (lessonIndex + start) % 3));
+                }
+                model.addAtMostOne(indicators);
+            }
+            model.addAllDifferent(streamSlots);
+        }
+        for (List<IntervalVar> intervals : teacherIntervals) {
+            model.addNoOverlap(intervals);
+        }
+        model.minimize(LinearExpr.weightedSum(
+            costLiterals.toArray(new Literal[0]), costs.stream().mapToLong(Long::longValue).toArray()));
+        return model;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.timetable_solver_demo.runtime;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+// Loads OR-Tools and warms the solver up once while the application context starts, before the web server
+// accepts requests and before any runner solves. Reported as the "solverRuntime" health indicator, which is
+// part of the readiness group, so a scaled-out instance only receives traffic once it is warm. A failed
+// warm-up keeps the instance out of service instead of failing startup.
+@Slf4j
+@Component("solverRuntime")
+public class SolverRuntimeBootstrap implements SmartInitializingSingleton, HealthIndicator {
+    private final int warmupIterations;
+    private final int warmupWorkers;
+
+    private volatile boolean ready;
+    private volatile String failure;
+    private volatile long[] warmupMillis = new long[0];
+
+    public SolverRuntimeBootstrap(@Value("${timetable.solver.runtime.warmup-iterations:3}") int warmupIterations,
+                                  @Value("${timetable.solver.runtime.warmup-workers:0}") int warmupWorkers) {
+        this.warmupIterations = warmupIterations;
+        this.warmupWorkers = warmupWorkers > 0 ? warmupWorkers : Math.min(8, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            SolverRuntime.ensureLoaded();
+            warmupMillis = SolverRuntime.warmUp(warmupIterations, warmupWorkers);
+            ready = true;
+            log.info("OR-Tools loaded in {} ms, {} warm-up solves on {} workers took {} ms",
+                SolverRuntime.getNativeLoadMillis(), warmupIterations, warmupWorkers, Arrays.toString(warmupMillis));
+        } catch (RuntimeException | LinkageError e) {
+            failure = e.toString();
+            log.error("Solver runtime warm-up failed, reporting out of service", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = ready ? Health.up() : Health.outOfService();
+        health.withDetail("nativeLoadMillis", SolverRuntime.getNativeLoadMillis())
+            .withDetail("warmupMillis", Arrays.stream(warmupMillis).boxed().toList());
+        if (failure != null) {
+            health.withDetail("failure", failure);
+        }
+        return health.build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.timetable_solver_demo.screening;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Findings of a FeasibilityScreener pass. Errors prove the input infeasible; warnings are data the
+// solver silently ignores, such as a combined stream it cannot align.
+@Getter
+public class FeasibilityReport {
+
+    public enum Severity { ERROR, WARNING }
+
+    public enum Check { STREAM_CAPACITY, TEACHER_CAPACITY, DOUBLE_LESSON_STARTS, COMBINED_GROUP_SHAPE }
+
+    @Getter
+    public static class Issue {
+        private final Severity severity;
+        private final Check check;
+        private final String message;
+
+        Issue(Severity severity, Check check, String message) {
+            this.severity = severity;
+            this.check = check;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return severity + " [" + check + "] " + message;
+        }
+    }
+
+    private final List<Issue> issues = new ArrayList<>();
+    private double elapsedMillis;
+
+    void error(Check check, String message) {
+        issues.add(new Issue(Severity.ERROR, check, message));
+    }
+
+    void warning(Check check, String message) {
+        issues.add(new Issue(Severity.WARNING, check, message));
+    }
+
+    void setElapsedMillis(double elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isFeasible() {
+        return issues.stream().noneMatch(issue -> issue.getSeverity() == Severity.ERROR);
+    }
+
+    public List<Issue> getErrors() {
+        return issues.stream().filter(issue -> issue.getSeverity() == Severity.ERROR).toList();
+    }
+
+    // One issue per line, errors first
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Feasibility screening found %d error(s) and %d warning(s) in %.1f ms",
+            getErrors().size(), issues.size() - getErrors().size(), elapsedMillis));
+        issues.stream()
+            .sorted((a, b) -> a.getSeverity().compareTo(b.getSeverity()))
+            .forEach(issue -> text.append(System.lineSeparator()).append("  ").append(issue));
+        return text.toString();
+    }
+}
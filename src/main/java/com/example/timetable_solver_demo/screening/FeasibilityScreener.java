@@ -0,0 +1,303 @@
+package com.example.timetable_solver_demo.screening;
+
+import com.example.timetable_solver_demo.entities.CombinedStream;
+import com.example.timetable_solver_demo.entities.CombinedSubject;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.entities.Schedule;
+import com.example.timetable_solver_demo.entities.Stream;
+import com.example.timetable_solver_demo.entities.Teacher;
+import com.example.timetable_solver_demo.entities.TeacherTimeOff;
+import com.example.timetable_solver_demo.enums.LessonType;
+import com.example.timetable_solver_demo.enums.TimeslotActivity;
+import com.example.timetable_solver_demo.screening.FeasibilityReport.Check;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Counting and pigeonhole checks on the solver input that prove a timetable infeasible in milliseconds,
+// before any model is built. Every check mirrors a Phase 1 hard constraint of MinimalTimetableSolver,
+// so an error here means Phase 1 could only ever end INFEASIBLE. Passing the screen does not prove feasibility.
+public class FeasibilityScreener {
+    private final int daysPerWeek;
+    private boolean teacherConflicts = true;
+    private boolean teacherUnavailability = true;
+    private boolean combinedStreams = true;
+
+    public FeasibilityScreener(int daysPerWeek) {
+        this.daysPerWeek = daysPerWeek;
+    }
+
+    // The teacher and combined stream checks only apply while the matching solver constraint is enabled
+    public FeasibilityScreener teacherConflicts(boolean enabled) {
+        this.teacherConflicts = enabled;
+        return this;
+    }
+
+    public FeasibilityScreener teacherUnavailability(boolean enabled) {
+        this.teacherUnavailability = enabled;
+        return this;
+    }
+
+    public FeasibilityScreener combinedStreams(boolean enabled) {
+        this.combinedStreams = enabled;
+        return this;
+    }
+
+    public FeasibilityReport screen(List<Lesson> lessons, Schedule schedule, List<CombinedStream> combinedStreamList, List<TeacherTimeOff> timeOffs) {
+        long start = System.nanoTime();
+        FeasibilityReport report = new FeasibilityReport();
+        int timeslotsPerDay = schedule.getTimeslotList().size();
+
+        // Every day has the same class timeslots
+        boolean[] classSlot = new boolean[timeslotsPerDay];
+        int classSlotsPerDay = 0;
+        for (int slot = 0; slot < timeslotsPerDay; slot++) {
+            classSlot[slot] = schedule.getTimeslotList().get(slot).getTimeslotActivity() == TimeslotActivity.CLASS;
+            if (classSlot[slot]) classSlotsPerDay++;
+        }
+        int doublePairsPerDay = disjointPairs(classSlot);
+        long doubles = lessons.stream().filter(FeasibilityScreener::isDouble).count();
+
+        if (classSlotsPerDay == 0 && !lessons.isEmpty()) {
+            report.error(Check.STREAM_CAPACITY, "The schedule has no class timeslots, so none of the " + lessons.size() + " lessons can be placed");
+        } else if (doublePairsPerDay == 0 && doubles > 0) {
+            report.error(Check.DOUBLE_LESSON_STARTS, String.format(
+                "No day has two consecutive class timeslots, so none of the %d double lessons can start anywhere", doubles));
+        } else {
+            checkStreams(lessons, classSlotsPerDay, doublePairsPerDay, report);
+            if (teacherConflicts || teacherUnavailability) {
+                checkTeachers(lessons, schedule, classSlot, timeOffs, report);
+            }
+        }
+        checkCombinedSubjects(lessons, report);
+        if (combinedStreams) {
+            checkCombinedStreams(lessons, combinedStreamList, report);
+        }
+
+        report.setElapsedMillis((System.nanoTime() - start) / 1e6);
+        return report;
+    }
+
+    // A stream attends one lesson at a time, so its singles plus twice its doubles must fit in the week,
+    // and its doubles need non-overlapping pairs of consecutive class timeslots
+    private void checkStreams(List<Lesson> lessons, int classSlotsPerDay, int doublePairsPerDay, FeasibilityReport report) {
+        Map<Stream, List<Lesson>> lessonsByStream = lessons.stream()
+            .collect(Collectors.groupingBy(lesson -> lesson.getLessonInfo().getStream(),
+                () -> new TreeMap<>(Comparator.comparing(Stream::getId)), Collectors.toList()));
+
+        int weekSlots = daysPerWeek * classSlotsPerDay;
+        int weekPairs = daysPerWeek * doublePairsPerDay;
+        for (Map.Entry<Stream, List<Lesson>> entry : lessonsByStream.entrySet()) {
+            long doubles = entry.getValue().stream().filter(FeasibilityScreener::isDouble).count();
+            long singles = entry.getValue().size() - doubles;
+            long needed = singles + 2 * doubles;
+            if (needed > weekSlots) {
+                report.error(Check.STREAM_CAPACITY, String.format(
+                    "Stream %s needs %d lesson-slots (%d singles + %d doubles) but the week has only %d class slots (%d days x %d)",
+                    describe(entry.getKey()), needed, singles, doubles, weekSlots, daysPerWeek, classSlotsPerDay));
+            }
+            if (doubles > weekPairs) {
+                report.error(Check.DOUBLE_LESSON_STARTS, String.format(
+                    "Stream %s has %d double lessons but at most %d fit without overlapping (%d per day)",
+                    describe(entry.getKey()), doubles, weekPairs, doublePairsPerDay));
+            }
+        }
+    }
+
+    // A teacher teaches one lesson at a time and only when available, so the same bounds apply to their
+    // load across all streams. Each lesson also needs at least one start where all of its teachers are free.
+    private void checkTeachers(List<Lesson> lessons, Schedule schedule, boolean[] classSlot, List<TeacherTimeOff> timeOffs, FeasibilityReport report) {
+        int timeslotsPerDay = classSlot.length;
+        Map<Long, Integer> slotIndex = new HashMap<>();
+        for (int slot = 0; slot < timeslotsPerDay; slot++) {
+            slotIndex.put(schedule.getTimeslotList().get(slot).getId(), slot);
+        }
+
+        // available[day][slot] per teacher; teachers without time off share the class timeslots
+        Map<Long, boolean[][]> availability = new HashMap<>();
+        if (teacherUnavailability) {
+            for (TeacherTimeOff timeOff : timeOffs) {
+                Integer slot = slotIndex.get(timeOff.getTimeslot().getId());
+                int day = timeOff.getDayOfWeek().getValue() - 1;
+                if (slot == null || day >= daysPerWeek) continue;
+                availability.computeIfAbsent(timeOff.getTeacher().getId(), id -> fullWeek(classSlot))[day][slot] = false;
+            }
+        }
+        boolean[][] everyClassSlot = fullWeek(classSlot);
+
+        Map<Teacher, List<Lesson>> lessonsByTeacher = new TreeMap<>(Comparator.comparing(Teacher::getId));
+        for (Lesson lesson : lessons) {
+            for (Teacher teacher : lesson.getLessonInfo().getTeachers()) {
+                lessonsByTeacher.computeIfAbsent(teacher, t -> new ArrayList<>()).add(lesson);
+            }
+        }
+
+        if (teacherConflicts) {
+            for (Map.Entry<Teacher, List<Lesson>> entry : lessonsByTeacher.entrySet()) {
+                Long teacherId = entry.getKey().getId();
+                boolean[][] available = availability.getOrDefault(teacherId, everyClassSlot);
+                int availableSlots = 0;
+                int availablePairs = 0;
+                for (boolean[] day : available) {
+                    for (boolean free : day) {
+                        if (free) availableSlots++;
+                    }
+                    availablePairs += disjointPairs(day);
+                }
+
+                long doubles = entry.getValue().stream().filter(FeasibilityScreener::isDouble).count();
+                long singles = entry.getValue().size() - doubles;
+                long needed = singles + 2 * doubles;
+                int timeOff = daysPerWeek * (int) countTrue(classSlot) - availableSlots;
+                String streams = entry.getValue().stream()
+                    .map(lesson -> describe(lesson.getLessonInfo().getStream()))
+                    .distinct().sorted().collect(Collectors.joining(", "));
+                if (needed > availableSlots) {
+                    report.error(Check.TEACHER_CAPACITY, String.format(
+                        "Teacher %d teaches %d lesson-slots (%d singles + %d doubles in streams %s) but is available for only %d class slots (%d taken off)",
+                        teacherId, needed, singles, doubles, streams, availableSlots, timeOff));
+                }
+                if (doubles > availablePairs) {
+                    report.error(Check.DOUBLE_LESSON_STARTS, String.format(
+                        "Teacher %d has %d double lessons but only %d non-overlapping pairs of consecutive slots when available",
+                        teacherId, doubles, availablePairs));
+                }
+            }
+        }
+
+        if (teacherUnavailability && !availability.isEmpty()) {
+            for (Lesson lesson : lessons) {
+                Set<Teacher> teachers = lesson.getLessonInfo().getTeachers();
+                if (teachers.stream().noneMatch(teacher -> availability.containsKey(teacher.getId()))) continue;
+                if (!hasCommonStart(lesson, teachers, availability, everyClassSlot)) {
+                    report.error(isDouble(lesson) ? Check.DOUBLE_LESSON_STARTS : Check.TEACHER_CAPACITY, String.format(
+                        "%s lesson %d of stream %s has no %s where all of its teachers (%s) are available",
+                        isDouble(lesson) ? "Double" : "Single", lesson.getId(), describe(lesson.getLessonInfo().getStream()),
+                        isDouble(lesson) ? "pair of consecutive class slots" : "class slot",
+                        teachers.stream().map(teacher -> String.valueOf(teacher.getId())).sorted().collect(Collectors.joining(", "))));
+                }
+            }
+        }
+    }
+
+    private boolean hasCommonStart(Lesson lesson, Set<Teacher> teachers, Map<Long, boolean[][]> availability, boolean[][] everyClassSlot) {
+        int length = isDouble(lesson) ? 2 : 1;
+        for (int day = 0; day < daysPerWeek; day++) {
+            for (int slot = 0; slot + length <= everyClassSlot[day].length; slot++) {
+                boolean free = true;
+                for (Teacher teacher : teachers) {
+                    boolean[] available = availability.getOrDefault(teacher.getId(), everyClassSlot)[day];
+                    for (int offset = 0; offset < length && free; offset++) {
+                        free = available[slot + offset];
+                    }
+                    if (!free) break;
+                }
+                if (free) return true;
+            }
+        }
+        return false;
+    }
+
+    // Combined subject lessons are aligned by index across the streams of a group, so every stream in the
+    // group needs the same number of singles and of doubles (same grouping as applyCombinedSubjectsConstraint)
+    private void checkCombinedSubjects(List<Lesson> lessons, FeasibilityReport report) {
+        Map<String, List<Lesson>> groups = lessons.stream()
+            .filter(lesson -> lesson.getLessonInfo().getCombinedSubject() != null)
+            .collect(Collectors.groupingBy(lesson -> {
+                CombinedSubject subject = lesson.getLessonInfo().getCombinedSubject();
+                return (subject.getSubjectName() != null ? subject.getSubjectName() : "Unknown")
+                    + "_" + subject.getSubjectCode()
+                    + "_" + lesson.getLessonInfo().getStream().getIntake().getId();
+            }, TreeMap::new, Collectors.toList()));
+
+        for (Map.Entry<String, List<Lesson>> group : groups.entrySet()) {
+            if (group.getValue().size() < 2) continue;
+            Map<String, String> shapes = shapesByStream(group.getValue());
+            if (shapes.values().stream().distinct().count() > 1) {
+                report.error(Check.COMBINED_GROUP_SHAPE, String.format(
+                    "Combined subject group %s has uneven lessons per stream: %s", group.getKey(), format(shapes)));
+            }
+        }
+    }
+
+    // The solver skips a combined stream whose streams have uneven lesson counts, so those are only warnings
+    private void checkCombinedStreams(List<Lesson> lessons, List<CombinedStream> combinedStreamList, FeasibilityReport report) {
+        for (CombinedStream combinedStream : combinedStreamList) {
+            if (combinedStream.getSubject() == null) continue;
+            List<Lesson> relevant = lessons.stream()
+                .filter(lesson -> combinedStream.getConstituentStreams().contains(lesson.getLessonInfo().getStream())
+                    && combinedStream.getSubject().equals(lesson.getLessonInfo().getSubject()))
+                .toList();
+            Map<String, String> shapes = shapesByStream(relevant);
+            if (shapes.values().stream().distinct().count() > 1) {
+                report.warning(Check.COMBINED_GROUP_SHAPE, String.format(
+                    "Combined stream %d (subject %s) has uneven lessons per stream and will not be taught together: %s",
+                    combinedStream.getId(), combinedStream.getSubject().getName(), format(shapes)));
+            }
+        }
+    }
+
+    private static Map<String, String> shapesByStream(List<Lesson> lessons) {
+        Map<Stream, List<Lesson>> byStream = lessons.stream()
+            .collect(Collectors.groupingBy(lesson -> lesson.getLessonInfo().getStream(),
+                () -> new TreeMap<>(Comparator.comparing(Stream::getId)), Collectors.toList()));
+        Map<String, String> shapes = new LinkedHashMap<>();
+        for (Map.Entry<Stream, List<Lesson>> entry : byStream.entrySet()) {
+            long doubles = entry.getValue().stream().filter(FeasibilityScreener::isDouble).count();
+            shapes.put(describe(entry.getKey()), String.format("%d singles/%d doubles", entry.getValue().size() - doubles, doubles));
+        }
+        return shapes;
+    }
+
+    private static String format(Map<String, String> shapes) {
+        return shapes.entrySet().stream()
+            .map(entry -> "stream " + entry.getKey() + " " + entry.getValue())
+            .collect(Collectors.joining(", "));
+    }
+
+    private boolean[][] fullWeek(boolean[] classSlot) {
+        boolean[][] week = new boolean[daysPerWeek][];
+        for (int day = 0; day < daysPerWeek; day++) {
+            week[day] = classSlot.clone();
+        }
+        return week;
+    }
+
+    // Most double lessons that fit in a day without overlapping: floor(length / 2) per run of consecutive free slots
+    private static int disjointPairs(boolean[] free) {
+        int pairs = 0;
+        int run = 0;
+        for (boolean slot : free) {
+            if (slot) {
+                run++;
+            } else {
+                pairs += run / 2;
+                run = 0;
+            }
+        }
+        return pairs + run / 2;
+    }
+
+    private static long countTrue(boolean[] values) {
+        long count = 0;
+        for (boolean value : values) {
+            if (value) count++;
+        }
+        return count;
+    }
+
+    private static boolean isDouble(Lesson lesson) {
+        return lesson.getLessonInfo().getLessonType() == LessonType.DOUBLE;
+    }
+
+    private static String describe(Stream stream) {
+        return stream.getStreamName() != null ? stream.getStreamName() + " (" + stream.getId() + ")" : String.valueOf(stream.getId());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.timetable_solver_demo.tuning;
+
+import com.example.timetable_solver_demo.Formulation;
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+// Solves every corpus instance with every candidate profile and picks the best profile per size bucket.
+// Candidates are ranked by instances solved, then by summed relative gap to the best objective seen
+// on each instance, then by mean time to the first feasible timetable.
+@Slf4j
+public class ParameterTuner {
+    private final TuningProperties properties;
+    private final SolverProfile baseProfile;
+
+    public ParameterTuner(TuningProperties properties, SolverProfile baseProfile) {
+        this.properties = properties;
+        this.baseProfile = baseProfile;
+    }
+
+    public Map<SizeBucket, TuningRun> tune(List<TimetableInstance> corpus) throws InterruptedException {
+        Map<String, SolverProfile> candidates = candidates();
+        System.out.println(String.format("Tuning %d candidate profiles (%s search) on %d instances",
+            candidates.size(), properties.getSearch(), corpus.size()));
+
+        List<TuningRun> runs = new ArrayList<>();
+        for (TimetableInstance instance : corpus) {
+            for (Map.Entry<String, SolverProfile> candidate : candidates.entrySet()) {
+                TuningRun run = solve(instance, candidate.getKey(), candidate.getValue());
+                System.out.println(String.format("%-24s %-40s %-10s first=%.2fs objective=%s total=%.2fs peakRss=%d kB",
+                    instance.getName(), run.getCandidate(), run.getStatus(), run.getTimeToFirstSolutionSeconds(),
+                    run.getObjective(), run.getTotalSeconds(), run.getPeakRssKb()));
+                runs.add(run);
+            }
+        }
+
+        writeCsv(runs);
+        Map<SizeBucket, TuningRun> best = bestPerBucket(runs);
+        printBest(best);
+        return best;
+    }
+
+    private TuningRun solve(TimetableInstance instance, String candidate, SolverProfile profile) throws InterruptedException {
+        System.gc();
+        PeakMemory.reset();
+        long start = System.nanoTime();
+
+        MinimalTimetableSolver solver = new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(),
+            instance.getCombinedStreams(), instance.getTeacherTimeOffs(), null, profile);
+        solver.solve();
+        solver.awaitCompletion();
+
+        return new TuningRun(instance.getName(), SizeBucket.of(instance.size()), candidate, profile, solver.getBestStatus(),
+            solver.getTimeToFirstSolutionSeconds(), solver.getBestObjective(), (System.nanoTime() - start) / 1e9,
+            PeakMemory.peakRssKb());
+    }
+
+    Map<String, SolverProfile> candidates() {
+        List<SolverProfile> grid = new ArrayList<>();
+        for (int workers : properties.getWorkers()) {
+            for (int presolve : properties.getPresolveLevels()) {
+                for (int linearization : properties.getLinearizationLevels()) {
+                    for (int symmetry : properties.getSymmetryLevels()) {
+                        for (boolean hint : properties.getHintBetweenPhases()) {
+                            for (boolean symmetryBreaking : properties.getSymmetryBreaking()) {
+                                for (Formulation formulation : properties.getFormulations()) {
+                                    SolverProfile profile = baseProfile.copy();
+                                    profile.setWorkers(workers);
+                                    profile.setPresolveLevel(presolve);
+                                    profile.setLinearizationLevel(linearization);
+                                    profile.setSymmetryLevel(symmetry);
+                                    profile.setHintBetweenPhases(hint);
+                                    profile.setSymmetryBreaking(symmetryBreaking);
+                                    profile.setFormulation(formulation);
+                                    profile.setSearchLog(SolverProfile.SearchLog.NONE);
+                                    grid.add(profile);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        if (properties.getSearch() == TuningProperties.Search.RANDOM && properties.getRandomSamples() < grid.size()) {
+            Collections.shuffle(grid, new Random(properties.getSeed()));
+            grid = grid.subList(0, properties.getRandomSamples());
+        }
+
+        Map<String, SolverProfile> candidates = new LinkedHashMap<>();
+        for (SolverProfile profile : grid) {
+            String name = describe(profile);
+            profile.setName(name);
+            candidates.put(name, profile);
+        }
+        return candidates;
+    }
+
+    static String describe(SolverProfile profile) {
+        return String.format("w%d-p%d-l%d-s%d-h%d-b%d-%s", profile.getWorkers(), profile.getPresolveLevel(),
+            profile.getLinearizationLevel(), profile.getSymmetryLevel(),
+            profile.isHintBetweenPhases() ? 1 : 0, profile.isSymmetryBreaking() ? 1 : 0,
+            profile.getFormulation().name().toLowerCase());
+    }
+
+    // One representative run per bucket: the winning candidate's run on the bucket's first instance
+    Map<SizeBucket, TuningRun> bestPerBucket(List<TuningRun> runs) {
+        Map<String, Double> bestObjectiveByInstance = new HashMap<>();
+        for (TuningRun run : runs) {
+            if (run.isSolved() && !Double.isNaN(run.getObjective())) {
+                bestObjectiveByInstance.merge(run.getInstance(), run.getObjective(), Math::min);
+            }
+        }
+
+        Map<SizeBucket, TuningRun> best = new EnumMap<>(SizeBucket.class);
+        Map<SizeBucket, List<TuningRun>> byBucket = runs.stream().collect(Collectors.groupingBy(TuningRun::getBucket));
+        for (Map.Entry<SizeBucket, List<TuningRun>> bucket : byBucket.entrySet()) {
+            Map<String, List<TuningRun>> byCandidate = bucket.getValue().stream()
+                .collect(Collectors.groupingBy(TuningRun::getCandidate, LinkedHashMap::new, Collectors.toList()));
+
+            Comparator<List<TuningRun>> ranking = Comparator
+                .comparingLong((List<TuningRun> candidateRuns) -> -candidateRuns.stream().filter(TuningRun::isSolved).count())
+                .thenComparingDouble(candidateRuns -> candidateRuns.stream()
+                    .mapToDouble(run -> relativeGap(run, bestObjectiveByInstance.get(run.getInstance())))
+                    .sum())
+                .thenComparingDouble(candidateRuns -> candidateRuns.stream()
+                    .mapToDouble(run -> run.isSolved() ? run.getTimeToFirstSolutionSeconds() : run.getTotalSeconds())
+                    .average().orElse(Double.MAX_VALUE));
+
+            byCandidate.values().stream().min(ranking).ifPresent(winner -> best.put(bucket.getKey(), winner.get(0)));
+        }
+        return best;
+    }
+
+    private static double relativeGap(TuningRun run, Double bestObjective) {
+        if (bestObjective == null) return 0; // No candidate reached Phase 3 on this instance
+        if (!run.isSolved() || Double.isNaN(run.getObjective())) return 1;
+        return (run.getObjective() - bestObjective) / Math.max(1, Math.abs(bestObjective));
+    }
+
+    private void writeCsv(List<TuningRun> runs) {
+        Path output = Path.of(properties.getOutput());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output))) {
+            writer.println(TuningRun.csvHeader());
+            for (TuningRun run : runs) {
+                writer.println(run.toCsv());
+            }
+            System.out.println("Wrote " + runs.size() + " tuning runs to " + output.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Failed to write tuning results to {}: {}", output, e.getMessage());
+        }
+    }
+
+    // Printed as application.properties lines so a winner can be pasted in as a named profile
+    private static void printBest(Map<SizeBucket, TuningRun> best) {
+        System.out.println("\nBest profile per size bucket");
+        System.out.println("----------------------------");
+        for (Map.Entry<SizeBucket, TuningRun> entry : best.entrySet()) {
+            String prefix = "timetable.solver.profiles.tuned-" + entry.getKey().name().toLowerCase() + ".";
+            SolverProfile profile = entry.getValue().getProfile();
+            System.out.println("# " + entry.getKey() + ": " + entry.getValue().getCandidate());
+            System.out.println(prefix + "workers=" + profile.getWorkers());
+            System.out.println(prefix + "presolve-level=" + profile.getPresolveLevel());
+            System.out.println(prefix + "linearization-level=" + profile.getLinearizationLevel());
+            System.out.println(prefix + "symmetry-level=" + profile.getSymmetryLevel());
+            System.out.println(prefix + "hint-between-phases=" + profile.isHintBetweenPhases());
+            System.out.println(prefix + "symmetry-breaking=" + profile.isSymmetryBreaking());
+            System.out.println(prefix + "formulation=" + profile.getFormulation());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.timetable_solver_demo.tuning;
+
+import com.example.timetable_solver_demo.DataExportUtility;
+import com.example.timetable_solver_demo.config.SolverProperties;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceReader;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Run with --spring.profiles.active=tuning and timetable.tuning.corpus-dir=<dir of .ttin files>
+// and/or timetable.tuning.instances=33:1502,...
+@Component
+@Profile("tuning")
+@EnableConfigurationProperties(TuningProperties.class)
+public class ParameterTuningRunner implements CommandLineRunner {
+    private final DataExportUtility dataExportUtility;
+    private final SolverProperties solverProperties;
+    private final TuningProperties tuningProperties;
+
+    public ParameterTuningRunner(DataExportUtility dataExportUtility, SolverProperties solverProperties, TuningProperties tuningProperties) {
+        this.dataExportUtility = dataExportUtility;
+        this.solverProperties = solverProperties;
+        this.tuningProperties = tuningProperties;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        List<TimetableInstance> corpus = new ArrayList<>();
+        if (tuningProperties.getCorpusDir() != null) {
+            for (Path file : TimetableInstanceReader.listInstanceFiles(Path.of(tuningProperties.getCorpusDir()))) {
+                corpus.add(TimetableInstanceReader.read(file));
+            }
+        }
+        for (String entry : tuningProperties.getInstances()) {
+            String[] ids = entry.trim().split(":");
+            if (ids.length != 2) {
+                throw new IllegalArgumentException("Tuning instance must be scheduleId:timetableId, got " + entry);
+            }
+            corpus.add(dataExportUtility.loadInstance(Long.valueOf(ids[0]), Long.valueOf(ids[1])));
+        }
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("No tuning instances configured (timetable.tuning.corpus-dir or timetable.tuning.instances)");
+        }
+
+        new ParameterTuner(tuningProperties, solverProperties.getProfile(tuningProperties.getBaseProfile())).tune(corpus);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.timetable_solver_demo.tuning;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Peak resident set size of this process (VmHWM), resettable between runs on Linux.
+// Elsewhere both operations are no-ops and the peak is reported as -1.
+@Slf4j
+final class PeakMemory {
+    private static final Path STATUS = Path.of("/proc/self/status");
+    private static final Path CLEAR_REFS = Path.of("/proc/self/clear_refs");
+
+    private PeakMemory() {
+    }
+
+    static void reset() {
+        try {
+            Files.writeString(CLEAR_REFS, "5"); // 5 = reset the peak RSS counter
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Cannot reset peak RSS: {}", e.getMessage());
+        }
+    }
+
+    static long peakRssKb() {
+        try {
+            for (String line : Files.readAllLines(STATUS)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Cannot read peak RSS: {}", e.getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.timetable_solver_demo.tuning;
+
+// Instances are tuned per bucket of lesson count, since the best settings for a small school rarely suit a large one
+public enum SizeBucket {
+    SMALL(0, 400),
+    MEDIUM(400, 1200),
+    LARGE(1200, Integer.MAX_VALUE);
+
+    private final int minLessons;
+    private final int maxLessons; // exclusive
+
+    SizeBucket(int minLessons, int maxLessons) {
+        this.minLessons = minLessons;
+        this.maxLessons = maxLessons;
+    }
+
+    public static SizeBucket of(int lessons) {
+        for (SizeBucket bucket : values()) {
+            if (lessons >= bucket.minLessons && lessons < bucket.maxLessons) {
+                return bucket;
+            }
+        }
+        return LARGE;
+    }
+}
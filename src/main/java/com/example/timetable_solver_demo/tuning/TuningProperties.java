@@ -0,0 +1,40 @@
+package com.example.timetable_solver_demo.tuning;
+
+import com.example.timetable_solver_demo.Formulation;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the parameter tuning harness, bound from timetable.tuning.*
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "timetable.tuning")
+public class TuningProperties {
+
+    public enum Search { GRID, RANDOM }
+
+    // Corpus: every instance file in corpusDir, plus "scheduleId:timetableId" pairs loaded from the database
+    private String corpusDir;
+    private List<String> instances = new ArrayList<>();
+
+    // Solver profile the candidates start from, e.g. for its time limits
+    private String baseProfile = "interactive";
+    private Search search = Search.RANDOM;
+    private int randomSamples = 20;
+    private long seed = 42;
+    private String output = "tuning-results.csv";
+
+    // Search space
+    private List<Integer> workers = List.of(2, 4, 8);
+    private List<Integer> presolveLevels = List.of(0, 1, 2);
+    private List<Integer> linearizationLevels = List.of(0, 1, 2);
+    private List<Integer> symmetryLevels = List.of(0, 2);
+    private List<Boolean> hintBetweenPhases = List.of(false, true);
+    private List<Boolean> symmetryBreaking = List.of(false, true);   // Model-side ordering constraints, not an encoding
+    private List<Formulation> formulations = List.of(Formulation.values());
+}
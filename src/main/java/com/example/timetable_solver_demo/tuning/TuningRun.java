@@ -0,0 +1,47 @@
+package com.example.timetable_solver_demo.tuning;
+
+import com.example.timetable_solver_demo.SolverProfile;
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.Getter;
+
+// Outcome of solving one instance with one candidate profile
+@Getter
+public class TuningRun {
+    private final String instance;
+    private final SizeBucket bucket;
+    private final String candidate;
+    private final SolverProfile profile;
+    private final CpSolverStatus status;
+    private final double timeToFirstSolutionSeconds; // NaN when no solution was found
+    private final double objective;                  // NaN when Phase 3 did not run
+    private final double totalSeconds;
+    private final long peakRssKb;
+
+    public TuningRun(String instance, SizeBucket bucket, String candidate, SolverProfile profile, CpSolverStatus status,
+                     double timeToFirstSolutionSeconds, double objective, double totalSeconds, long peakRssKb) {
+        this.instance = instance;
+        this.bucket = bucket;
+        this.candidate = candidate;
+        this.profile = profile;
+        this.status = status;
+        this.timeToFirstSolutionSeconds = timeToFirstSolutionSeconds;
+        this.objective = objective;
+        this.totalSeconds = totalSeconds;
+        this.peakRssKb = peakRssKb;
+    }
+
+    public boolean isSolved() {
+        return status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE;
+    }
+
+    static String csvHeader() {
+        return "instance,bucket,candidate,status,time_to_first_solution_s,objective,total_s,peak_rss_kb";
+    }
+
+    String toCsv() {
+        return String.join(",", instance, bucket.name(), candidate, String.valueOf(status),
+            String.valueOf(timeToFirstSolutionSeconds), String.valueOf(objective),
+            String.valueOf(totalSeconds), String.valueOf(peakRssKb));
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.timetable_solver_demo.worker;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.PhaseStatistics;
+import com.example.timetable_solver_demo.SolveHandle;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceWriter;
+import com.google.ortools.sat.CpSolverStatus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A solve running in a leased solver worker process. Behaves like MinimalTimetableSolver towards its
+// callback: solve() returns at once, callbacks arrive on this solve's reader thread as the worker reports
+// them, and the best solution is kept here, so a worker that crashes or is killed mid-solve still leaves
+// the last complete phase's timetable behind.
+@Slf4j
+public class RemoteSolve implements SolveHandle {
+    private static final AtomicInteger SOLVE_IDS = new AtomicInteger();
+
+    private final int id = SOLVE_IDS.incrementAndGet();
+    private final SolverWorkerPool pool;
+    private final TimetableInstance instance;
+    private final SolverProfile profile;
+    private final Map<Long, Lesson> lessonsById = new HashMap<>();
+    private MinimalTimetableSolver.SolverCallback callback;
+
+    private Thread thread;
+    private volatile SolverWorker worker;
+    private volatile boolean cancelRequested;
+    private volatile int currentPhase;
+    private volatile List<PhaseStatistics> phaseStatistics = List.of();
+    private CpSolverStatus bestStatus;
+    private Map<Lesson, Integer> bestSolution;
+
+    RemoteSolve(SolverWorkerPool pool, TimetableInstance instance, SolverProfile profile) {
+        this.pool = pool;
+        this.instance = instance;
+        this.profile = profile;
+        for (Lesson lesson : instance.getLessons()) {
+            lessonsById.put(lesson.getId(), lesson);
+        }
+    }
+
+    public void setCallback(MinimalTimetableSolver.SolverCallback callback) {
+        this.callback = callback;
+    }
+
+    @Override
+    public void solve() {
+        thread = new Thread(this::run, "solver-worker-client-" + id);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void awaitCompletion() throws InterruptedException {
+        Thread current = thread;
+        if (current != null) {
+            current.join();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelRequested = true;
+        SolverWorker leased = worker;
+        if (leased != null) {
+            leased.cancel(id);
+        }
+    }
+
+    @Override
+    public int getCurrentPhase() {
+        return currentPhase;
+    }
+
+    @Override
+    public List<PhaseStatistics> getPhaseStatistics() {
+        return phaseStatistics;
+    }
+
+    @Override
+    public synchronized Map<Lesson, Integer> getBestSolution() {
+        return bestSolution;
+    }
+
+    @Override
+    public synchronized CpSolverStatus getBestStatus() {
+        return bestStatus;
+    }
+
+    private void run() {
+        SolverWorker leased = null;
+        boolean healthy = false;
+        try {
+            byte[] profileJson = SolverWorkerMain.PROFILE_MAPPER.writeValueAsBytes(profile);
+            byte[] instanceBytes = TimetableInstanceWriter.toBytes(instance);
+
+            leased = pool.lease(() -> cancelRequested);
+            if (leased == null) return; // Cancelled while waiting for a worker
+
+            leased.deadline(profile.totalTimeLimitSeconds() + pool.getTimeLimitGraceSeconds(),
+                String.format("still solving %.0fs after the time limit", pool.getTimeLimitGraceSeconds()));
+            leased.solve(id, profileJson, instanceBytes);
+            worker = leased;
+            if (cancelRequested) {
+                leased.cancel(id); // Cancelled while the request was being sent
+            }
+            readReplies(leased.replies());
+            healthy = true;
+        } catch (IOException e) {
+            String error = leased != null ? leased.describeExit() : "Could not send the solve to a solver worker: " + e.getMessage();
+            log.error("Solve of {} failed: {}", instance.getName(), error);
+            if (callback != null) {
+                callback.onError(error);
+            }
+        } catch (RuntimeException e) {
+            log.error("Solve of {} failed", instance.getName(), e);
+            if (callback != null) {
+                callback.onError(e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            worker = null;
+            currentPhase = 0;
+            if (leased != null) {
+                pool.release(leased, healthy);
+            }
+        }
+    }
+
+    private void readReplies(DataInputStream in) throws IOException {
+        while (true) {
+            byte type = in.readByte();
+            switch (type) {
+                case WorkerProtocol.PHASE_STARTED -> {
+                    int phase = in.readInt();
+                    currentPhase = phase;
+                    if (callback != null) {
+                        callback.onPhaseStarted(phase);
+                    }
+                }
+                case WorkerProtocol.PHASE_FINISHED -> {
+                    int phase = in.readInt();
+                    CpSolverStatus status = WorkerProtocol.readStatus(in);
+                    MinimalTimetableSolver.SearchProgress progress = WorkerProtocol.readProgress(in);
+                    if (callback != null) {
+                        callback.onPhaseFinished(phase, status, progress);
+                    }
+                }
+                case WorkerProtocol.SOLUTION -> readSolution(in);
+                case WorkerProtocol.ERROR -> {
+                    String error = in.readUTF();
+                    if (callback != null) {
+                        callback.onError(error);
+                    }
+                }
+                case WorkerProtocol.DONE -> {
+                    CpSolverStatus status = WorkerProtocol.readStatus(in);
+                    Map<Lesson, Integer> solution = WorkerProtocol.readAssignment(in, lessonsById);
+                    List<PhaseStatistics> statistics = new ArrayList<>();
+                    for (int i = in.readInt(); i > 0; i--) {
+                        statistics.add(PhaseStatistics.read(in));
+                    }
+                    phaseStatistics = List.copyOf(statistics);
+                    if (solution != null) {
+                        improved(status, solution);
+                    }
+                    return;
+                }
+                default -> throw new IOException("Unknown reply frame " + type + " from solver worker");
+            }
+        }
+    }
+
+    private void readSolution(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        CpSolverStatus status = WorkerProtocol.readStatus(in);
+        MinimalTimetableSolver.SearchProgress progress = WorkerProtocol.readProgress(in);
+        int unplaced = in.readInt();
+        Map<Lesson, Integer> solution = WorkerProtocol.readAssignment(in, lessonsById);
+
+        switch (kind) {
+            case WorkerProtocol.PHASE1_COMPLETE -> {
+                improved(status, solution);
+                if (callback != null) {
+                    callback.onPhase1Complete(status, solution);
+                }
+            }
+            case WorkerProtocol.BETTER_SOLUTION -> {
+                improved(status, solution);
+                if (callback != null) {
+                    callback.onBetterSolutionFound(status, solution);
+                }
+            }
+            case WorkerProtocol.IMPROVING_SOLUTION -> {
+                if (callback != null) {
+                    callback.onImprovingSolution(progress, solution);
+                }
+            }
+            case WorkerProtocol.INITIAL_ASSIGNMENT -> {
+                if (callback != null) {
+                    callback.onInitialAssignment(solution, unplaced);
+                }
+            }
+            default -> throw new IOException("Unknown solution kind " + kind + " from solver worker");
+        }
+    }
+
+    private synchronized void improved(CpSolverStatus status, Map<Lesson, Integer> solution) {
+        bestStatus = status;
+        bestSolution = solution;
+    }
+}
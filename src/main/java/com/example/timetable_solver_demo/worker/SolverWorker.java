@@ -0,0 +1,166 @@
+package com.example.timetable_solver_demo.worker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// One solver worker process and the pipes to it. Requests may be sent from any thread; replies are read
+// by the one RemoteSolve that has the worker leased.
+class SolverWorker {
+    private static final long EXIT_TIMEOUT_SECONDS = 5;
+
+    private final int number;
+    private final Process process;
+    private final DataOutputStream requests;
+    private final DataInputStream replies;
+    private int solves;
+
+    // Set while starting or solving; the pool's watchdog kills the worker once it is passed
+    private volatile long deadlineNanos;
+    private volatile String deadlineReason;
+    private volatile String killReason;
+
+    SolverWorker(int number, Process process) {
+        this.number = number;
+        this.process = process;
+        this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        this.replies = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    int getNumber() {
+        return number;
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    int getSolves() {
+        return solves;
+    }
+
+    DataInputStream replies() {
+        return replies;
+    }
+
+    void awaitReady() throws IOException {
+        byte type = replies.readByte();
+        if (type != WorkerProtocol.READY) {
+            throw new IOException("Expected READY from solver worker, got frame " + type);
+        }
+        int version = replies.readInt();
+        if (version != WorkerProtocol.VERSION) {
+            throw new IOException("Solver worker speaks protocol version " + version + ", expected " + WorkerProtocol.VERSION);
+        }
+    }
+
+    void solve(int solveId, byte[] profileJson, byte[] instance) throws IOException {
+        solves++;
+        synchronized (requests) {
+            requests.writeByte(WorkerProtocol.SOLVE);
+            requests.writeInt(solveId);
+            WorkerProtocol.writeBytes(requests, profileJson);
+            WorkerProtocol.writeBytes(requests, instance);
+            requests.flush();
+        }
+    }
+
+    // A lost cancellation is harmless: a dead worker is not solving anything
+    void cancel(int solveId) {
+        synchronized (requests) {
+            try {
+                requests.writeByte(WorkerProtocol.CANCEL);
+                requests.writeInt(solveId);
+                requests.flush();
+            } catch (IOException e) {
+                // Worker already gone
+            }
+        }
+    }
+
+    void deadline(double seconds, String reason) {
+        deadlineReason = reason;
+        deadlineNanos = System.nanoTime() + (long) (seconds * 1e9);
+    }
+
+    void clearDeadline() {
+        deadlineNanos = 0;
+    }
+
+    // Reason of the deadline if it has passed, otherwise null
+    String overdue() {
+        long deadline = deadlineNanos;
+        return deadline != 0 && System.nanoTime() - deadline > 0 ? deadlineReason : null;
+    }
+
+    void kill(String reason) {
+        killReason = reason;
+        process.destroyForcibly();
+    }
+
+    // Asks an idle worker to exit and kills it if it does not
+    void exit() {
+        if (process.isAlive()) {
+            send(WorkerProtocol.EXIT);
+            try {
+                if (process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        process.destroyForcibly();
+    }
+
+    // Why the process is gone, for the error of the solve it was running
+    String describeExit() {
+        try {
+            process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String name = "Solver worker " + number + " (process " + pid() + ")";
+        if (killReason != null) {
+            return name + " was killed: " + killReason;
+        }
+        return process.isAlive() ? name + " stopped responding" : name + " exited with code " + process.exitValue();
+    }
+
+    // Resident set size in MB from /proc, -1 where that is not available
+    long residentSetMb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid()), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not Linux, or the process has just exited
+        }
+        return -1;
+    }
+
+    private void send(byte type) {
+        synchronized (requests) {
+            try {
+                requests.writeByte(type);
+                requests.flush();
+            } catch (IOException e) {
+                // Worker already gone
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "solver worker " + number + " (process " + pid() + ")";
+    }
+}
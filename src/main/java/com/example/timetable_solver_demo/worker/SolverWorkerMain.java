@@ -0,0 +1,221 @@
+package com.example.timetable_solver_demo.worker;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.PhaseStatistics;
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+import com.example.timetable_solver_demo.instance.TimetableInstanceReader;
+import com.example.timetable_solver_demo.runtime.SolverRuntime;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+// Solver worker process started by SolverWorkerPool, without Spring or the database. Solves one request at
+// a time with MinimalTimetableSolver and streams its callbacks back as WorkerProtocol frames. Exits when the
+// parent closes stdin, so a worker never outlives the application that started it.
+//   java -cp <classpath> com.example.timetable_solver_demo.worker.SolverWorkerMain [warmupIterations]
+public class SolverWorkerMain {
+    static final ObjectMapper PROFILE_MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final DataOutputStream out;
+    private volatile MinimalTimetableSolver current;
+    private volatile int currentId;
+    private volatile boolean cancelled;  // CANCEL can arrive before the solver of its request exists
+    private Thread solveThread;
+
+    private SolverWorkerMain(DataOutputStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Replies own stdout; the solver's progress output and search log go to stderr, which the parent passes through
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err);
+
+        SolverRuntime.ensureLoaded();
+        int warmupIterations = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        if (warmupIterations > 0) {
+            SolverRuntime.warmUp(warmupIterations, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        }
+
+        SolverWorkerMain worker = new SolverWorkerMain(out);
+        worker.reply(WorkerProtocol.READY, frame -> frame.writeInt(WorkerProtocol.VERSION));
+        worker.serve(new DataInputStream(new BufferedInputStream(System.in)));
+        System.exit(0);
+    }
+
+    private void serve(DataInputStream in) throws IOException {
+        while (true) {
+            byte type;
+            try {
+                type = in.readByte();
+            } catch (EOFException e) {
+                cancel();
+                return; // Parent is gone
+            }
+            switch (type) {
+                case WorkerProtocol.SOLVE -> start(in.readInt(), WorkerProtocol.readBytes(in), WorkerProtocol.readBytes(in));
+                case WorkerProtocol.CANCEL -> {
+                    if (in.readInt() == currentId) {
+                        cancel();
+                    }
+                }
+                case WorkerProtocol.EXIT -> {
+                    cancel();
+                    return;
+                }
+                default -> throw new IOException("Unknown request frame " + type);
+            }
+        }
+    }
+
+    private void start(int solveId, byte[] profileJson, byte[] instanceBytes) {
+        if (solveThread != null && solveThread.isAlive()) {
+            throw new IllegalStateException("Solver worker received a request while solving");
+        }
+        currentId = solveId;
+        cancelled = false;
+        solveThread = new Thread(() -> solve(profileJson, instanceBytes), "solver-worker-solve");
+        solveThread.start();
+    }
+
+    private void cancel() {
+        cancelled = true;
+        MinimalTimetableSolver solver = current;
+        if (solver != null) {
+            solver.cancel();
+        }
+    }
+
+    private void solve(byte[] profileJson, byte[] instanceBytes) {
+        CpSolverStatus status = null;
+        Map<Lesson, Integer> solution = null;
+        List<PhaseStatistics> statistics = List.of();
+        try {
+            SolverProfile profile = PROFILE_MAPPER.readValue(profileJson, SolverProfile.class);
+            // CP-SAT's native logger writes straight to fd 1, past System.setOut, and would corrupt the reply frames
+            if (profile.getSearchLog() == SolverProfile.SearchLog.STDOUT) {
+                profile.setSearchLog(SolverProfile.SearchLog.STDERR);
+            }
+            TimetableInstance instance = TimetableInstanceReader.read(instanceBytes, "solver worker request");
+            MinimalTimetableSolver solver = new MinimalTimetableSolver(instance.getLessons(), instance.getSchedule(),
+                instance.getCombinedStreams(), instance.getTeacherTimeOffs(), null, profile);
+            solver.setCallback(new ReplyingCallback());
+            current = solver;
+            if (cancelled) {
+                solver.cancel();
+            }
+            solver.solve();
+            solver.awaitCompletion();
+            status = solver.getBestStatus();
+            solution = solver.getBestSolution();
+            statistics = solver.getPhaseStatistics();
+        } catch (Exception e) {
+            String message = "Solver worker failed: " + e;
+            System.err.println(message);
+            replyQuietly(WorkerProtocol.ERROR, frame -> frame.writeUTF(message));
+        } finally {
+            current = null;
+        }
+
+        CpSolverStatus finalStatus = status;
+        Map<Lesson, Integer> finalSolution = solution;
+        List<PhaseStatistics> finalStatistics = statistics;
+        replyQuietly(WorkerProtocol.DONE, frame -> {
+            WorkerProtocol.writeStatus(frame, finalStatus);
+            WorkerProtocol.writeAssignment(frame, finalSolution);
+            frame.writeInt(finalStatistics.size());
+            for (PhaseStatistics phase : finalStatistics) {
+                phase.write(frame);
+            }
+        });
+    }
+
+    private class ReplyingCallback implements MinimalTimetableSolver.SolverCallback {
+        @Override
+        public void onPhase1Complete(CpSolverStatus status, Map<Lesson, Integer> solution) {
+            solution(WorkerProtocol.PHASE1_COMPLETE, status, null, 0, solution);
+        }
+
+        @Override
+        public void onBetterSolutionFound(CpSolverStatus status, Map<Lesson, Integer> solution) {
+            solution(WorkerProtocol.BETTER_SOLUTION, status, null, 0, solution);
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            replyQuietly(WorkerProtocol.ERROR, frame -> frame.writeUTF(errorMessage));
+        }
+
+        @Override
+        public void onPhaseStarted(int phase) {
+            replyQuietly(WorkerProtocol.PHASE_STARTED, frame -> frame.writeInt(phase));
+        }
+
+        @Override
+        public void onPhaseFinished(int phase, CpSolverStatus status, MinimalTimetableSolver.SearchProgress progress) {
+            replyQuietly(WorkerProtocol.PHASE_FINISHED, frame -> {
+                frame.writeInt(phase);
+                WorkerProtocol.writeStatus(frame, status);
+                WorkerProtocol.writeProgress(frame, progress);
+            });
+        }
+
+        @Override
+        public void onImprovingSolution(MinimalTimetableSolver.SearchProgress progress, Map<Lesson, Integer> solution) {
+            solution(WorkerProtocol.IMPROVING_SOLUTION, null, progress, 0, solution);
+        }
+
+        @Override
+        public void onInitialAssignment(Map<Lesson, Integer> assignment, int unplacedLessons) {
+            solution(WorkerProtocol.INITIAL_ASSIGNMENT, null, null, unplacedLessons, assignment);
+        }
+
+        private void solution(byte kind, CpSolverStatus status, MinimalTimetableSolver.SearchProgress progress,
+                              int unplaced, Map<Lesson, Integer> solution) {
+            replyQuietly(WorkerProtocol.SOLUTION, frame -> {
+                frame.writeByte(kind);
+                WorkerProtocol.writeStatus(frame, status);
+                WorkerProtocol.writeProgress(frame, progress);
+                frame.writeInt(unplaced);
+                WorkerProtocol.writeAssignment(frame, solution);
+            });
+        }
+    }
+
+    private interface FrameWriter {
+        void write(DataOutputStream frame) throws IOException;
+    }
+
+    // Frames come from the solve thread and CP-SAT callback threads, so each one is written whole
+    private void reply(byte type, FrameWriter writer) throws IOException {
+        synchronized (out) {
+            out.writeByte(type);
+            writer.write(out);
+            out.flush();
+        }
+    }
+
+    // A broken reply stream means the parent is gone; the worker stops with it
+    private void replyQuietly(byte type, FrameWriter writer) {
+        try {
+            reply(type, writer);
+        } catch (IOException e) {
+            System.err.println("Solver worker lost its parent: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.timetable_solver_demo.worker;
+
+import com.example.timetable_solver_demo.SolverProfile;
+import com.example.timetable_solver_demo.instance.TimetableInstance;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.jar.JarFile;
+
+// Runs solves in child JVMs (SolverWorkerMain) on this host, so a native crash or runaway memory in one
+// school's CP-SAT search only loses that solve. Each solve leases the least recently used idle worker.
+// A watchdog kills workers that pass their time limit or resident memory limit. Workers that die, time out
+// or reach max-solves-per-worker are replaced by fresh processes.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "timetable.solver.worker-pool.enabled", havingValue = "true")
+@EnableConfigurationProperties(WorkerPoolProperties.class)
+public class SolverWorkerPool {
+    private static final long WATCHDOG_INTERVAL_MILLIS = 1000;
+    private static final long RESTART_DELAY_SECONDS = 5;
+
+    private final WorkerPoolProperties properties;
+    private final List<String> command;
+    private final BlockingDeque<SolverWorker> idle = new LinkedBlockingDeque<>();
+    private final Set<SolverWorker> live = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger workerNumbers = new AtomicInteger();
+    private final ExecutorService starter;
+    private final ScheduledExecutorService watchdog;
+    private volatile String startFailure;
+    private volatile boolean closed;
+
+    public SolverWorkerPool(WorkerPoolProperties properties) {
+        if (properties.getSize() < 1) {
+            throw new IllegalArgumentException("timetable.solver.worker-pool.size must be at least 1");
+        }
+        this.properties = properties;
+        this.command = workerCommand(properties);
+
+        // Starting a worker blocks until it has warmed up, so starts run on their own virtual threads
+        this.starter = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("solver-worker-start-", 0).factory());
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "solver-worker-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < properties.getSize(); i++) {
+            starter.execute(this::startWorker);
+        }
+        watchdog.scheduleWithFixedDelay(this::watch, WATCHDOG_INTERVAL_MILLIS, WATCHDOG_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("Solver worker pool of {} processes with {} MB heap each", properties.getSize(), properties.getMaxHeapMb());
+        log.debug("Solver worker command: {}", String.join(" ", command));
+    }
+
+    // Solve of an instance in the next free worker; call solve() on it to start
+    public RemoteSolve newSolve(TimetableInstance instance, SolverProfile profile) {
+        return new RemoteSolve(this, instance, profile);
+    }
+
+    public int getIdleWorkers() {
+        return idle.size();
+    }
+
+    public int getLiveWorkers() {
+        return live.size();
+    }
+
+    double getTimeLimitGraceSeconds() {
+        return properties.getTimeLimitGraceSeconds();
+    }
+
+    // Least recently used idle worker, waiting for one if all are busy; null if cancelled while waiting
+    SolverWorker lease(BooleanSupplier cancelled) throws InterruptedException {
+        while (!cancelled.getAsBoolean()) {
+            if (closed) {
+                throw new IllegalStateException("Solver worker pool is shut down");
+            }
+            SolverWorker worker = idle.pollFirst(1, TimeUnit.SECONDS);
+            if (worker != null) {
+                if (worker.isAlive()) {
+                    return worker;
+                }
+                log.warn("Replacing idle worker: {}", worker.describeExit());
+                replace(worker);
+            } else if (live.isEmpty() && startFailure != null) {
+                throw new IllegalStateException("No solver worker is running: " + startFailure);
+            }
+        }
+        return null;
+    }
+
+    // A worker goes back to the end of the idle queue unless it failed or has done its share of solves
+    void release(SolverWorker worker, boolean healthy) {
+        worker.clearDeadline();
+        if (healthy && !closed && worker.isAlive() && worker.getSolves() < properties.getMaxSolvesPerWorker()) {
+            idle.addLast(worker);
+            return;
+        }
+        if (healthy) {
+            log.info("Recycling {} after {} solves", worker, worker.getSolves());
+        }
+        replace(worker);
+    }
+
+    private void replace(SolverWorker worker) {
+        live.remove(worker);
+        starter.execute(worker::exit);
+        if (!closed) {
+            starter.execute(this::startWorker);
+        }
+    }
+
+    private void startWorker() {
+        if (closed) return;
+        int number = workerNumbers.incrementAndGet();
+        SolverWorker worker = null;
+        try {
+            Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            worker = new SolverWorker(number, process);
+            live.add(worker);
+            worker.deadline(properties.getStartTimeoutSeconds(),
+                String.format("not ready within %.0fs of starting", properties.getStartTimeoutSeconds()));
+            worker.awaitReady();
+            worker.clearDeadline();
+        } catch (IOException e) {
+            String reason = worker != null ? worker.describeExit() : e.getMessage();
+            startFailure = reason;
+            log.error("Solver worker {} failed to start: {}", number, reason);
+            if (worker != null) {
+                live.remove(worker);
+                worker.kill("failed to start");
+            }
+            if (!closed) {
+                watchdog.schedule(() -> starter.execute(this::startWorker), RESTART_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+            return;
+        }
+        startFailure = null;
+        log.info("Started {}", worker);
+        if (closed) {
+            worker.exit();
+        } else {
+            idle.addLast(worker);
+        }
+    }
+
+    // Kills workers that are past their deadline or over the memory limit; the solve using one sees it exit
+    private void watch() {
+        for (SolverWorker worker : live) {
+            String overdue = worker.overdue();
+            if (overdue != null) {
+                log.warn("Killing {}: {}", worker, overdue);
+                worker.kill(overdue);
+                continue;
+            }
+            if (properties.getMaxRssMb() > 0) {
+                long residentMb = worker.residentSetMb();
+                if (residentMb > properties.getMaxRssMb()) {
+                    String reason = String.format("%d MB resident, limit %d MB", residentMb, properties.getMaxRssMb());
+                    log.warn("Killing {}: {}", worker, reason);
+                    worker.kill(reason);
+                }
+            }
+        }
+    }
+
+    static List<String> workerCommand(WorkerPoolProperties properties) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + properties.getMaxHeapMb() + "m");
+        command.add("-XX:+ExitOnOutOfMemoryError");
+        command.addAll(properties.getJvmOptions());
+
+        String classPath = System.getProperty("java.class.path");
+        command.add("-cp");
+        command.add(classPath);
+        if (isBootJar(classPath)) {
+            // Inside a Spring Boot jar the dependencies are nested jars, which only the Boot launcher can load
+            command.add("-Dloader.main=" + SolverWorkerMain.class.getName());
+            command.add("org.springframework.boot.loader.launch.PropertiesLauncher");
+        } else {
+            command.add(SolverWorkerMain.class.getName());
+        }
+        command.add(String.valueOf(properties.getWarmupIterations()));
+        return command;
+    }
+
+    private static boolean isBootJar(String classPath) {
+        if (classPath.contains(File.pathSeparator) || !classPath.endsWith(".jar")) {
+            return false;
+        }
+        try (JarFile jar = new JarFile(classPath)) {
+            return jar.getEntry("BOOT-INF/classes/" + SolverWorkerMain.class.getName().replace('.', '/') + ".class") != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        watchdog.shutdownNow();
+        for (SolverWorker worker : live) {
+            worker.kill("application shutting down");
+        }
+        starter.shutdownNow();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.timetable_solver_demo.worker;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Settings of the out-of-process solver workers, bound from timetable.solver.worker-pool.*
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "timetable.solver.worker-pool")
+public class WorkerPoolProperties {
+    private boolean enabled = false;
+
+    // Worker processes; each runs one solve at a time with the profile's search workers
+    private int size = 2;
+
+    // -Xmx of a worker, and the resident set size (heap plus CP-SAT's native memory) at which the pool kills it; 0 = no limit
+    private int maxHeapMb = 1024;
+    private int maxRssMb = 4096;
+
+    // A solve still running this long after its profile's total time limit is killed with its worker
+    private double timeLimitGraceSeconds = 60;
+
+    // Workers are replaced after this many solves, so native memory fragmentation does not build up
+    private int maxSolvesPerWorker = 20;
+
+    private double startTimeoutSeconds = 60;
+    private int warmupIterations = 1;
+
+    // Extra JVM options of the worker processes, e.g. -XX:SharedArchiveFile=application.jsa
+    private List<String> jvmOptions = new ArrayList<>();
+}
@@ -0,0 +1,123 @@
+package com.example.timetable_solver_demo.worker;
+
+import com.example.timetable_solver_demo.MinimalTimetableSolver;
+import com.example.timetable_solver_demo.entities.Lesson;
+import com.google.ortools.sat.CpSolverStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Frames exchanged with a solver worker process, big-endian: requests on the worker's stdin, replies on
+// its stdout (the worker sends its own console output to stderr). Every frame is a type byte and its fields:
+//
+//   SOLVE           int solve id, int length + profile JSON, int length + instance in the TimetableInstance file layout
+//   CANCEL          int solve id; ignored unless that solve is running, so a late one cannot stop the next solve
+//   EXIT
+//   READY           int version, sent once the worker has loaded and warmed up OR-Tools
+//   PHASE_STARTED   int phase
+//   PHASE_FINISHED  int phase, status, progress
+//   SOLUTION        byte kind, status, progress, int unplaced lessons, assignment
+//   ERROR           UTF message
+//   DONE            status, assignment, int count + that many PhaseStatistics
+//
+// A status is its CpSolverStatus number, -1 for none. progress is int phase, double objective, double bound,
+// double elapsed seconds, with phase -1 for none. An assignment is an int count, -1 for none, and then a
+// long lesson id and an int global slot per lesson. Any change to the layout must bump VERSION.
+final class WorkerProtocol {
+    static final int VERSION = 1;
+
+    static final byte SOLVE = 1;
+    static final byte CANCEL = 2;
+    static final byte EXIT = 3;
+
+    static final byte READY = 10;
+    static final byte PHASE_STARTED = 11;
+    static final byte PHASE_FINISHED = 12;
+    static final byte SOLUTION = 13;
+    static final byte ERROR = 14;
+    static final byte DONE = 15;
+
+    // SOLUTION kinds, one per SolverCallback method
+    static final byte PHASE1_COMPLETE = 1;
+    static final byte BETTER_SOLUTION = 2;
+    static final byte IMPROVING_SOLUTION = 3;
+    static final byte INITIAL_ASSIGNMENT = 4;
+
+    private WorkerProtocol() {
+    }
+
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    static void writeStatus(DataOutput out, CpSolverStatus status) throws IOException {
+        out.writeInt(status != null ? status.getNumber() : -1);
+    }
+
+    static CpSolverStatus readStatus(DataInput in) throws IOException {
+        int number = in.readInt();
+        return number >= 0 ? CpSolverStatus.forNumber(number) : null;
+    }
+
+    static void writeProgress(DataOutput out, MinimalTimetableSolver.SearchProgress progress) throws IOException {
+        if (progress == null) {
+            out.writeInt(-1);
+            out.writeDouble(Double.NaN);
+            out.writeDouble(Double.NaN);
+            out.writeDouble(Double.NaN);
+            return;
+        }
+        out.writeInt(progress.getPhase());
+        out.writeDouble(progress.getObjective());
+        out.writeDouble(progress.getBestBound());
+        out.writeDouble(progress.getElapsedSeconds());
+    }
+
+    static MinimalTimetableSolver.SearchProgress readProgress(DataInput in) throws IOException {
+        int phase = in.readInt();
+        double objective = in.readDouble();
+        double bound = in.readDouble();
+        double seconds = in.readDouble();
+        return phase >= 0 ? new MinimalTimetableSolver.SearchProgress(phase, objective, bound, seconds) : null;
+    }
+
+    static void writeAssignment(DataOutput out, Map<Lesson, Integer> assignment) throws IOException {
+        if (assignment == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(assignment.size());
+        for (Map.Entry<Lesson, Integer> entry : assignment.entrySet()) {
+            out.writeLong(entry.getKey().getId());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    // Lessons are looked up by id in the instance the parent sent; unknown ids are a protocol error
+    static Map<Lesson, Integer> readAssignment(DataInput in, Map<Long, Lesson> lessonsById) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            return null;
+        }
+        Map<Lesson, Integer> assignment = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            long lessonId = in.readLong();
+            Lesson lesson = lessonsById.get(lessonId);
+            if (lesson == null) {
+                throw new IOException("Solver worker returned unknown lesson " + lessonId);
+            }
+            assignment.put(lesson, in.readInt());
+        }
+        return assignment;
+    }
+}